@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,10 +13,6 @@ package org.eclipse.core.externaltools.internal.launchConfigurations;
 
 import org.eclipse.core.externaltools.internal.ExternalToolsCore;
 import org.eclipse.core.runtime.CoreException;
-import org.eclipse.core.runtime.IProgressMonitor;
-import org.eclipse.core.runtime.IStatus;
-import org.eclipse.core.runtime.Status;
-import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.debug.core.DebugEvent;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.IDebugEventSetListener;
@@ -71,21 +67,14 @@ public class BackgroundResourceRefresher implements IDebugEventSetListener  {
 	}
 
 	/**
-	 * Submits a job to do the refresh
+	 * Schedules the refresh, to be merged with the refreshes of other
+	 * launches that finish at about the same time
 	 */
 	protected void refresh() {
-		Job job= new Job(ExternalToolsProgramMessages.BackgroundResourceRefresher_0) {
-			@Override
-			public IStatus run(IProgressMonitor monitor) {
-				try {
-					RefreshUtil.refreshResources(fConfiguration, monitor);
-				} catch (CoreException e) {
-					ExternalToolsCore.log(e);
-					return e.getStatus();
-				}
-				return Status.OK_STATUS;
-			}
-		};
-		job.schedule();
+		try {
+			RefreshUtil.scheduleRefresh(fConfiguration);
+		} catch (CoreException e) {
+			ExternalToolsCore.log(e);
+		}
 	}
 }
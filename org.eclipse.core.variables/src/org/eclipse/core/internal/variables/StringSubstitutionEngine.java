@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,10 +10,16 @@
  *******************************************************************************/
 package org.eclipse.core.internal.variables;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Stack;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
@@ -26,6 +32,11 @@ import org.eclipse.osgi.util.NLS;
 
 /**
  * Performs string substitution for context and value variables.
+ * <p>
+ * Expressions are compiled into templates of literal text and variable
+ * references, and the templates of recently substituted expressions are
+ * cached, so that substituting the same expression again does not scan it.
+ * </p>
  */
 public class StringSubstitutionEngine {
 
@@ -38,9 +49,27 @@ public class StringSubstitutionEngine {
 	private static final int SCAN_FOR_END = 1;
 
 	/**
-	 * Resulting string
+	 * Maximum number of compiled expressions cached
 	 */
-	private StringBuffer fResult;
+	private static final int MAX_TEMPLATES = 256;
+
+	/**
+	 * Compiled expressions, by expression
+	 */
+	private static final Map<String, Template> fgTemplates = new LinkedHashMap<String, Template>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Template> eldest) {
+			return size() > MAX_TEMPLATES;
+		}
+	};
+
+	/**
+	 * Values of dynamic variables remembered for the calling thread, or
+	 * <code>null</code> if none
+	 */
+	private static final ThreadLocal<Memo> fgMemo = new ThreadLocal<>();
 
 	/**
 	 * Whether substitutions were performed
@@ -48,27 +77,121 @@ public class StringSubstitutionEngine {
 	private boolean fSubs;
 
 	/**
-	 * Stack of variables to resolve
+	 * An expression compiled into literal text and variable references.
+	 * Templates do not change once compiled.
+	 */
+	static final class Template {
+
+		/**
+		 * Literal text (<code>String</code>) and variable references
+		 * ({@link VariableReference})
+		 */
+		final Object[] fParts;
+
+		/**
+		 * The text of each variable reference following its last nested
+		 * reference, used to detect reference cycles
+		 */
+		final Set<String> fResolved;
+
+		Template(Object[] parts, Set<String> resolved) {
+			fParts = parts;
+			fResolved = resolved;
+		}
+	}
+
+	/**
+	 * A complete variable reference in a template.
+	 */
+	static final class VariableReference {
+
+		/**
+		 * The text inside the variable reference, as literal text and nested
+		 * variable references
+		 */
+		final Object[] fParts;
+
+		/**
+		 * The text inside the variable reference, name and argument, or
+		 * <code>null</code> when the reference has nested references
+		 */
+		final String fText;
+		final String fName;
+		final String fArg;
+
+		VariableReference(Object[] parts) {
+			fParts = parts;
+			if (parts.length == 0) {
+				fText = ""; //$NON-NLS-1$
+			} else if (parts.length == 1 && parts[0] instanceof String) {
+				fText = (String) parts[0];
+			} else {
+				fText = null;
+			}
+			if (fText == null) {
+				fName = null;
+				fArg = null;
+			} else {
+				String[] nameAndArg = splitReference(fText);
+				fName = nameAndArg[0];
+				fArg = nameAndArg[1];
+			}
+		}
+	}
+
+	/**
+	 * Values of dynamic variables by name and argument
 	 */
-	private Stack<VariableReference> fStack;
+	static final class Memo {
 
-	class VariableReference {
+		private final Map<String, Map<String, String>> fValues = new HashMap<>();
+		private int fDepth;
 
-		// the text inside the variable reference
-		private StringBuffer fText;
+		boolean contains(String name, String arg) {
+			Map<String, String> values = fValues.get(name);
+			return values != null && values.containsKey(arg);
+		}
 
-		public VariableReference() {
-			fText = new StringBuffer();
+		String get(String name, String arg) {
+			return fValues.get(name).get(arg);
 		}
 
-		public void append(String text) {
-			fText.append(text);
+		void put(String name, String arg, String value) {
+			Map<String, String> values = fValues.get(name);
+			if (values == null) {
+				values = new HashMap<>(2);
+				fValues.put(name, values);
+			}
+			values.put(arg, value);
 		}
+	}
 
-		public String getText() {
-			return fText.toString();
+	/**
+	 * Begins remembering the values of dynamic variables resolved in the
+	 * calling thread.
+	 *
+	 * @see org.eclipse.core.variables.IStringVariableManager#beginDynamicVariableMemo()
+	 */
+	public static void beginMemo() {
+		Memo memo = fgMemo.get();
+		if (memo == null) {
+			memo = new Memo();
+			fgMemo.set(memo);
 		}
+		memo.fDepth++;
+	}
 
+	/**
+	 * Ends remembering the values of dynamic variables resolved in the
+	 * calling thread, forgetting them when the outermost memo ends.
+	 *
+	 * @see org.eclipse.core.variables.IStringVariableManager#endDynamicVariableMemo()
+	 */
+	public static void endMemo() {
+		Memo memo = fgMemo.get();
+		if (memo != null && --memo.fDepth <= 0) {
+			fgMemo.remove();
+		}
 	}
 
 	/**
@@ -84,12 +207,18 @@ public class StringSubstitutionEngine {
 	 *  in referenced variables
 	 */
 	public String performStringSubstitution(String expression, boolean reportUndefinedVariables, boolean resolveVariables, IStringVariableManager manager) throws CoreException {
-		substitute(expression, reportUndefinedVariables, resolveVariables, manager);
-		List<HashSet<String>> resolvedVariableSets = new ArrayList<>();
-		while (fSubs) {
-			HashSet<String> resolved = substitute(fResult.toString(), reportUndefinedVariables, true, manager);
+		String result = substitute(getTemplate(expression), reportUndefinedVariables, resolveVariables, manager);
+		List<Set<String>> resolvedVariableSets = null;
+		// substitute again until values reference no more variables
+		while (fSubs && result.indexOf(VARIABLE_START) >= 0) {
+			Template template = compile(result);
+			result = substitute(template, reportUndefinedVariables, true, manager);
+			Set<String> resolved = template.fResolved;
+			if (resolvedVariableSets == null) {
+				resolvedVariableSets = new ArrayList<>();
+			}
 			for(int i=resolvedVariableSets.size()-1; i>=0; i--) {
-				HashSet<String> prevSet = resolvedVariableSets.get(i);
+				Set<String> prevSet = resolvedVariableSets.get(i);
 				if (prevSet.equals(resolved)) {
 					HashSet<String> conflictingSet = new HashSet<>();
 					for (; i<resolvedVariableSets.size(); i++) {
@@ -107,7 +236,7 @@ public class StringSubstitutionEngine {
 
 			resolvedVariableSets.add(resolved);
 		}
-		return fResult.toString();
+		return result;
 	}
 
 	/**
@@ -123,22 +252,38 @@ public class StringSubstitutionEngine {
 	}
 
 	/**
-	 * Makes a substitution pass of the given expression returns a Set of the variables that were resolved in this
-	 *  pass
+	 * Returns the compiled form of the given expression, from the cache of
+	 * compiled expressions when possible.
 	 *
-	 * @param expression source expression
-	 * @param reportUndefinedVariables whether to report undefined variables as an error
-	 * @param resolveVariables whether to resolve the value of any variables
-	 * @param manager the {@link IStringVariableManager} to use for the substitution
-	 * @return the set of {@link String}s resolved from the given expression
-	 * @exception CoreException if unable to resolve a variable
+	 * @param expression expression to compile
+	 * @return compiled expression
 	 */
-	private HashSet<String> substitute(String expression, boolean reportUndefinedVariables, boolean resolveVariables, IStringVariableManager manager) throws CoreException {
-		fResult = new StringBuffer(expression.length());
-		fStack = new Stack<>();
-		fSubs = false;
+	static Template getTemplate(String expression) {
+		Template template;
+		synchronized (fgTemplates) {
+			template = fgTemplates.get(expression);
+		}
+		if (template == null) {
+			template = compile(expression);
+			synchronized (fgTemplates) {
+				fgTemplates.put(expression, template);
+			}
+		}
+		return template;
+	}
 
-		HashSet<String> resolvedVariables = new HashSet<>();
+	/**
+	 * Compiles the given expression into literal text and variable references.
+	 * Incomplete variable references are literal text.
+	 *
+	 * @param expression source expression
+	 * @return compiled expression
+	 */
+	static Template compile(String expression) {
+		List<Object> result = new ArrayList<>();
+		// the text of the variable references being scanned, innermost first
+		Deque<List<Object>> stack = new ArrayDeque<>();
+		Set<String> resolvedVariables = new HashSet<>();
 
 		int pos = 0;
 		int state = SCAN_FOR_START;
@@ -147,18 +292,17 @@ public class StringSubstitutionEngine {
 				case SCAN_FOR_START:
 					int start = expression.indexOf(VARIABLE_START, pos);
 					if (start >= 0) {
-						int length = start - pos;
 						// copy non-variable text to the result
-						if (length > 0) {
-							fResult.append(expression.substring(pos, start));
+						if (start > pos) {
+							result.add(expression.substring(pos, start));
 						}
 						pos = start + 2;
 						state = SCAN_FOR_END;
 
-						fStack.push(new VariableReference());
+						stack.push(new ArrayList<>(1));
 					} else {
 						// done - no more variables
-						fResult.append(expression.substring(pos));
+						result.add(expression.substring(pos));
 						pos = expression.length();
 					}
 					break;
@@ -168,39 +312,34 @@ public class StringSubstitutionEngine {
 					int end = expression.indexOf(VARIABLE_END, pos);
 					if (end < 0) {
 						// variables are not completed
-						VariableReference tos = fStack.peek();
-						tos.append(expression.substring(pos));
+						stack.peek().add(expression.substring(pos));
 						pos = expression.length();
 					} else {
 						if (start >= 0 && start < end) {
 							// start of a nested variable
-							int length = start - pos;
-							if (length > 0) {
-								VariableReference tos = fStack.peek();
-								tos.append(expression.substring(pos, start));
+							if (start > pos) {
+								stack.peek().add(expression.substring(pos, start));
 							}
 							pos = start + 2;
-							fStack.push(new VariableReference());
+							stack.push(new ArrayList<>(1));
 						} else {
 							// end of variable reference
-							VariableReference tos = fStack.pop();
+							List<Object> text = stack.pop();
 							String substring = expression.substring(pos, end);
-							tos.append(substring);
+							if (substring.length() > 0) {
+								text.add(substring);
+							}
 							resolvedVariables.add(substring);
 
 							pos = end + 1;
-							String value= resolve(tos, reportUndefinedVariables, resolveVariables, manager);
-							if (value == null) {
-								value = ""; //$NON-NLS-1$
-							}
-							if (fStack.isEmpty()) {
+							VariableReference reference = new VariableReference(text.toArray());
+							if (stack.isEmpty()) {
 								// append to result
-								fResult.append(value);
+								result.add(reference);
 								state = SCAN_FOR_START;
 							} else {
 								// append to previous variable
-								tos = fStack.peek();
-								tos.append(value);
+								stack.peek().add(reference);
 							}
 						}
 					}
@@ -210,36 +349,71 @@ public class StringSubstitutionEngine {
 			}
 		}
 		// process incomplete variable references
-		while (!fStack.isEmpty()) {
-			VariableReference tos = fStack.pop();
-			if (fStack.isEmpty()) {
-				fResult.append(VARIABLE_START);
-				fResult.append(tos.getText());
-			} else {
-				VariableReference var = fStack.peek();
-				var.append(VARIABLE_START);
-				var.append(tos.getText());
-			}
+		while (!stack.isEmpty()) {
+			List<Object> text = stack.pop();
+			List<Object> parent = stack.isEmpty() ? result : stack.peek();
+			parent.add(VARIABLE_START);
+			parent.addAll(text);
 		}
 
+		return new Template(result.toArray(), Collections.unmodifiableSet(resolvedVariables));
+	}
 
-		return resolvedVariables;
+	/**
+	 * Makes a substitution pass of the given compiled expression.
+	 *
+	 * @param template compiled expression
+	 * @param reportUndefinedVariables whether to report undefined variables as an error
+	 * @param resolveVariables whether to resolve the value of any variables
+	 * @param manager the {@link IStringVariableManager} to use for the substitution
+	 * @return the resulting string
+	 * @exception CoreException if unable to resolve a variable
+	 */
+	private String substitute(Template template, boolean reportUndefinedVariables, boolean resolveVariables, IStringVariableManager manager) throws CoreException {
+		fSubs = false;
+		Object[] parts = template.fParts;
+		if (parts.length == 1 && parts[0] instanceof String) {
+			return (String) parts[0];
+		}
+		StringBuilder result = new StringBuilder();
+		append(parts, result, reportUndefinedVariables, resolveVariables, manager);
+		return result.toString();
 	}
 
 	/**
-	 * Resolve and return the value of the given variable reference,
-	 * possibly <code>null</code>.
+	 * Appends the text of the given parts of a template to the given buffer,
+	 * resolving variable references.
+	 */
+	private void append(Object[] parts, StringBuilder buffer, boolean reportUndefinedVariables, boolean resolveVariables, IStringVariableManager manager) throws CoreException {
+		for (Object part : parts) {
+			if (part instanceof String) {
+				buffer.append((String) part);
+			} else {
+				VariableReference reference = (VariableReference) part;
+				String value;
+				if (reference.fText != null) {
+					value = resolve(reference.fText, reference.fName, reference.fArg, reportUndefinedVariables, resolveVariables, manager);
+				} else {
+					StringBuilder text = new StringBuilder();
+					append(reference.fParts, text, reportUndefinedVariables, resolveVariables, manager);
+					String[] nameAndArg = splitReference(text.toString());
+					value = resolve(text.toString(), nameAndArg[0], nameAndArg[1], reportUndefinedVariables, resolveVariables, manager);
+				}
+				if (value != null) {
+					buffer.append(value);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Splits the text inside a variable reference into the variable name and
+	 * the argument, possibly <code>null</code>.
 	 *
-	 * @param var the {@link VariableReference} to try and resolve
-	 * @param reportUndefinedVariables whether to report undefined variables as
-	 *  an error
-	 * @param resolveVariables whether to resolve the variables value or just to validate that this variable is valid
-	 * @param manager variable registry
-	 * @return variable value, possibly <code>null</code>
-	 * @exception CoreException if unable to resolve a value
+	 * @param text the text inside a variable reference
+	 * @return variable name and argument
 	 */
-	private String resolve(VariableReference var, boolean reportUndefinedVariables, boolean resolveVariables, IStringVariableManager manager) throws CoreException {
-		String text = var.getText();
+	static String[] splitReference(String text) {
 		int pos = text.indexOf(VARIABLE_ARG);
 		String name = null;
 		String arg = null;
@@ -252,6 +426,24 @@ public class StringSubstitutionEngine {
 		} else {
 			name = text;
 		}
+		return new String[] { name, arg };
+	}
+
+	/**
+	 * Resolve and return the value of the given variable reference,
+	 * possibly <code>null</code>.
+	 *
+	 * @param text the text inside the variable reference
+	 * @param name the variable name
+	 * @param arg the variable argument, or <code>null</code>
+	 * @param reportUndefinedVariables whether to report undefined variables as
+	 *  an error
+	 * @param resolveVariables whether to resolve the variables value or just to validate that this variable is valid
+	 * @param manager variable registry
+	 * @return variable value, possibly <code>null</code>
+	 * @exception CoreException if unable to resolve a value
+	 */
+	private String resolve(String text, String name, String arg, boolean reportUndefinedVariables, boolean resolveVariables, IStringVariableManager manager) throws CoreException {
 		IValueVariable valueVariable = manager.getValueVariable(name);
 		if (valueVariable == null) {
 			IDynamicVariable dynamicVariable = manager.getDynamicVariable(name);
@@ -261,15 +453,22 @@ public class StringSubstitutionEngine {
 					throw new CoreException(new Status(IStatus.ERROR, VariablesPlugin.getUniqueIdentifier(), VariablesPlugin.INTERNAL_ERROR, NLS.bind(VariablesMessages.StringSubstitutionEngine_3, new String[]{name}), null));
 				}
 				// leave as is
-				return getOriginalVarText(var);
+				return getOriginalVarText(text);
 			}
 
 			if (resolveVariables) {
 				fSubs = true;
-				return dynamicVariable.getValue(arg);
+				Memo memo = fgMemo.get();
+				if (memo == null) {
+					return dynamicVariable.getValue(arg);
+				}
+				if (!memo.contains(name, arg)) {
+					memo.put(name, arg, dynamicVariable.getValue(arg));
+				}
+				return memo.get(name, arg);
 			}
 			//leave as is
-			return getOriginalVarText(var);
+			return getOriginalVarText(text);
 		}
 
 		if (arg == null) {
@@ -278,16 +477,13 @@ public class StringSubstitutionEngine {
 				return valueVariable.getValue();
 			}
 			//leave as is
-			return getOriginalVarText(var);
+			return getOriginalVarText(text);
 		}
 		// error - an argument specified for a value variable
 		throw new CoreException(new Status(IStatus.ERROR, VariablesPlugin.getUniqueIdentifier(), VariablesPlugin.INTERNAL_ERROR, NLS.bind(VariablesMessages.StringSubstitutionEngine_4, new String[]{valueVariable.getName()}), null));
 	}
 
-	private String getOriginalVarText(VariableReference var) {
-		StringBuffer res = new StringBuffer(var.getText());
-		res.insert(0, VARIABLE_START);
-		res.append(VARIABLE_END);
-		return res.toString();
+	private String getOriginalVarText(String text) {
+		return VARIABLE_START + text + VARIABLE_END;
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -64,14 +64,11 @@ import org.xml.sax.helpers.DefaultHandler;
 public class StringVariableManager implements IStringVariableManager, IPreferenceChangeListener {
 
 	/**
-	 * Dynamic variables - maps variable names to variables.
+	 * The registered variables, or <code>null</code> until loaded. The
+	 * registry is replaced, never modified, when variables are added or
+	 * removed, so that it can be read without locking.
 	 */
-	private Map<String, IDynamicVariable> fDynamicVariables;
-
-	/**
-	 * Value variables - maps variable names to variables.
-	 */
-	private Map<String, IStringVariable> fValueVariables;
+	private volatile Registry fRegistry;
 
 	/**
 	 * Variable listeners
@@ -86,11 +83,12 @@ public class StringVariableManager implements IStringVariableManager, IPreferenc
 	/**
 	 * Singleton variable manager.
 	 */
-	private static StringVariableManager fgManager;
+	private static volatile StringVariableManager fgManager;
 
 	// true during internal updates indicates that change notification
-	// should be suppressed/ignored.
-	private boolean fInternalChange = false;
+	// should be suppressed/ignored. Only set while holding the lock of
+	// the manager, which preference change notification also takes.
+	private volatile boolean fInternalChange = false;
 
 	// Variable extension point constants
 	private static final String ATTR_NAME= "name"; //$NON-NLS-1$
@@ -109,6 +107,47 @@ public class StringVariableManager implements IStringVariableManager, IPreferenc
 	// preference store key for value variables
 	private static final String PREF_VALUE_VARIABLES= VariablesPlugin.getUniqueIdentifier() + ".valueVariables"; //$NON-NLS-1$
 
+	/**
+	 * An immutable snapshot of the registered variables.
+	 */
+	private static final class Registry {
+
+		/**
+		 * Dynamic variables - maps variable names to variables.
+		 */
+		final Map<String, IDynamicVariable> fDynamicVariables;
+
+		/**
+		 * Value variables - maps variable names to variables.
+		 */
+		final Map<String, IValueVariable> fValueVariables;
+
+		final IDynamicVariable[] fDynamicArray;
+		final IValueVariable[] fValueArray;
+		final IStringVariable[] fAllArray;
+
+		Registry(Map<String, IDynamicVariable> dynamicVariables, Map<String, IValueVariable> valueVariables) {
+			fDynamicVariables = dynamicVariables;
+			fValueVariables = valueVariables;
+			fDynamicArray = dynamicVariables.values().toArray(new IDynamicVariable[dynamicVariables.size()]);
+			fValueArray = valueVariables.values().toArray(new IValueVariable[valueVariables.size()]);
+			fAllArray = new IStringVariable[fDynamicArray.length + fValueArray.length];
+			System.arraycopy(fDynamicArray, 0, fAllArray, 0, fDynamicArray.length);
+			System.arraycopy(fValueArray, 0, fAllArray, fDynamicArray.length, fValueArray.length);
+		}
+
+		/**
+		 * Returns a registry with the same dynamic variables and the given
+		 * value variables.
+		 *
+		 * @param valueVariables value variables
+		 * @return new registry
+		 */
+		Registry withValueVariables(Map<String, IValueVariable> valueVariables) {
+			return new Registry(fDynamicVariables, valueVariables);
+		}
+	}
+
 	/**
 	 * Notifies a string variable listener in a safe runnable to handle
 	 * exceptions.
@@ -183,10 +222,16 @@ public class StringVariableManager implements IStringVariableManager, IPreferenc
 	 * @return string variable manager
 	 */
 	public static StringVariableManager getDefault() {
-		if (fgManager == null) {
-			fgManager = new StringVariableManager();
+		StringVariableManager manager = fgManager;
+		if (manager == null) {
+			synchronized (StringVariableManager.class) {
+				if (fgManager == null) {
+					fgManager = new StringVariableManager();
+				}
+				manager = fgManager;
+			}
 		}
-		return fgManager;
+		return manager;
 	}
 
 	/**
@@ -196,26 +241,46 @@ public class StringVariableManager implements IStringVariableManager, IPreferenc
 		fListeners = new ListenerList<>();
 	}
 
+	/**
+	 * Returns the registered variables, loading contributed variables and
+	 * persisted variables the first time.
+	 *
+	 * @return the registered variables
+	 */
+	private Registry getRegistry() {
+		Registry registry = fRegistry;
+		if (registry == null) {
+			registry = initialize();
+		}
+		return registry;
+	}
+
 	/**
 	 * Load contributed variables and persisted variables
+	 *
+	 * @return the registered variables
 	 */
-	private synchronized void initialize() {
-		if (fDynamicVariables == null) {
+	private synchronized Registry initialize() {
+		if (fRegistry == null) {
 			fInternalChange = true;
-			fDynamicVariables = new HashMap<>(5);
-			fValueVariables = new HashMap<>(5);
-			loadContributedValueVariables();
-			loadPersistedValueVariables();
-			loadDynamicVariables();
+			Map<String, IDynamicVariable> dynamicVariables = new HashMap<>(5);
+			Map<String, IValueVariable> valueVariables = new HashMap<>(5);
+			loadContributedValueVariables(valueVariables);
+			loadPersistedValueVariables(valueVariables);
+			loadDynamicVariables(dynamicVariables);
+			fRegistry = new Registry(dynamicVariables, valueVariables);
 			InstanceScope.INSTANCE.getNode(VariablesPlugin.PI_CORE_VARIABLES).addPreferenceChangeListener(this);
 			fInternalChange = false;
 		}
+		return fRegistry;
 	}
 
 	/**
 	 * Loads contributed dynamic variables
+	 *
+	 * @param dynamicVariables map to add the variables to
 	 */
-	private void loadDynamicVariables() {
+	private void loadDynamicVariables(Map<String, IDynamicVariable> dynamicVariables) {
 		IExtensionPoint point = Platform.getExtensionRegistry().getExtensionPoint(VariablesPlugin.PI_CORE_VARIABLES, EXTENSION_POINT_DYNAMIC_VARIABLES);
 		IConfigurationElement elements[]= point.getConfigurationElements();
 		for (int i = 0; i < elements.length; i++) {
@@ -227,7 +292,7 @@ public class StringVariableManager implements IStringVariableManager, IPreferenc
 			}
 			String description= element.getAttribute(ATTR_DESCRIPTION);
 			DynamicVariable variable= new DynamicVariable(name, description, element);
-			Object old = fDynamicVariables.put(variable.getName(), variable);
+			Object old = dynamicVariables.put(variable.getName(), variable);
 			if (old != null) {
 				DynamicVariable oldVariable = (DynamicVariable)old;
 				VariablesPlugin.logMessage(NLS.bind("Dynamic variable extension from bundle ''{0}'' overrides existing extension variable ''{1}'' from bundle ''{2}''", //$NON-NLS-1$
@@ -239,8 +304,10 @@ public class StringVariableManager implements IStringVariableManager, IPreferenc
 
 	/**
 	 * Loads contributed value variables. This is done before loading persisted values.
+	 *
+	 * @param valueVariables map to add the variables to
 	 */
-	private void loadContributedValueVariables() {
+	private void loadContributedValueVariables(Map<String, IValueVariable> valueVariables) {
 		IExtensionPoint point = Platform.getExtensionRegistry().getExtensionPoint(VariablesPlugin.PI_CORE_VARIABLES, EXTENSION_POINT_VALUE_VARIABLES);
 		IConfigurationElement elements[]= point.getConfigurationElements();
 		for (int i = 0; i < elements.length; i++) {
@@ -254,7 +321,7 @@ public class StringVariableManager implements IStringVariableManager, IPreferenc
 			boolean isReadOnly = TRUE_VALUE.equals(element.getAttribute(ATTR_READ_ONLY));
 
 			IValueVariable variable = new ContributedValueVariable(name, description, isReadOnly, element);
-			Object old = fValueVariables.put(name, variable);
+			Object old = valueVariables.put(name, variable);
 			if (old != null) {
 				StringVariable oldVariable = (StringVariable)old;
 				VariablesPlugin.logMessage(NLS.bind("Contributed variable extension from bundle ''{0}'' overrides existing extension variable ''{1}'' from  bundle ''{2}''", //$NON-NLS-1$
@@ -270,8 +337,10 @@ public class StringVariableManager implements IStringVariableManager, IPreferenc
 	 * same name as a extension contributed variable the variable's value will be set to
 	 * the persisted value unless either a) The persisted value is <code>null</code>, or
 	 * b) the variable is read-only.
+	 *
+	 * @param valueVariables map to add the variables to
 	 */
-	private void loadPersistedValueVariables() {
+	private void loadPersistedValueVariables(Map<String, IValueVariable> valueVariables) {
 		String variablesString = Platform.getPreferencesService().getString(VariablesPlugin.PI_CORE_VARIABLES, PREF_VALUE_VARIABLES, "", null); //$NON-NLS-1$
 		if (variablesString.length() == 0) {
 			return;
@@ -305,10 +374,10 @@ public class StringVariableManager implements IStringVariableManager, IPreferenc
 					String description= element.getAttribute(DESCRIPTION_TAG);
 					boolean readOnly= TRUE_VALUE.equals(element.getAttribute(READ_ONLY_TAG));
 
-					IValueVariable existing = getValueVariable(name);
+					IValueVariable existing = valueVariables.get(name);
 					if (existing == null){
 						ValueVariable variable = new ValueVariable(name, description, readOnly, value);
-						fValueVariables.put(name, variable);
+						valueVariables.put(name, variable);
 					} else if (!existing.isReadOnly() && value != null){
 						existing.setValue(value);
 					}
@@ -323,30 +392,24 @@ public class StringVariableManager implements IStringVariableManager, IPreferenc
 	 * @see org.eclipse.debug.internal.core.stringsubstitution.IStringVariableManager#getVariables()
 	 */
 	@Override
-	public synchronized IStringVariable[] getVariables() {
-		initialize();
-		List<IStringVariable> list = new ArrayList<>(fDynamicVariables.size() + fValueVariables.size());
-		list.addAll(fDynamicVariables.values());
-		list.addAll(fValueVariables.values());
-		return list.toArray(new IStringVariable[list.size()]);
+	public IStringVariable[] getVariables() {
+		return getRegistry().fAllArray.clone();
 	}
 
 	/* (non-Javadoc)
 	 * @see org.eclipse.debug.internal.core.stringsubstitution.IStringVariableManager#getValueVariables()
 	 */
 	@Override
-	public synchronized IValueVariable[] getValueVariables() {
-		initialize();
-		return fValueVariables.values().toArray(new IValueVariable[fValueVariables.size()]);
+	public IValueVariable[] getValueVariables() {
+		return getRegistry().fValueArray.clone();
 	}
 
 	/* (non-Javadoc)
 	 * @see org.eclipse.debug.internal.core.stringsubstitution.IStringVariableManager#getDynamicVariables()
 	 */
 	@Override
-	public synchronized IDynamicVariable[] getDynamicVariables() {
-		initialize();
-		return fDynamicVariables.values().toArray(new IDynamicVariable[fDynamicVariables.size()]);
+	public IDynamicVariable[] getDynamicVariables() {
+		return getRegistry().fDynamicArray.clone();
 	}
 
 	/* (non-Javadoc)
@@ -378,7 +441,7 @@ public class StringVariableManager implements IStringVariableManager, IPreferenc
 	 */
 	@Override
 	public synchronized void addVariables(IValueVariable[] variables) throws CoreException {
-		initialize();
+		Registry registry = getRegistry();
 		MultiStatus status = new MultiStatus(VariablesPlugin.getUniqueIdentifier(), VariablesPlugin.INTERNAL_ERROR, VariablesMessages.StringVariableManager_26, null);
 		for (int i = 0; i < variables.length; i++) {
 			IValueVariable variable = variables[i];
@@ -387,10 +450,12 @@ public class StringVariableManager implements IStringVariableManager, IPreferenc
 			}
 		}
 		if (status.isOK()) {
+			Map<String, IValueVariable> valueVariables = new HashMap<>(registry.fValueVariables);
 			for (int i = 0; i < variables.length; i++) {
 				IValueVariable variable = variables[i];
-				fValueVariables.put(variable.getName(), variable);
+				valueVariables.put(variable.getName(), variable);
 			}
+			fRegistry = registry.withValueVariables(valueVariables);
 			IValueVariable[] copy = new IValueVariable[variables.length];
 			System.arraycopy(variables, 0, copy, 0, variables.length);
 			getNotifier().notify(copy, ADDED);
@@ -404,15 +469,17 @@ public class StringVariableManager implements IStringVariableManager, IPreferenc
 	 */
 	@Override
 	public synchronized void removeVariables(IValueVariable[] variables) {
-		initialize();
+		Registry registry = getRegistry();
+		Map<String, IValueVariable> valueVariables = new HashMap<>(registry.fValueVariables);
 		List<IValueVariable> removed = new ArrayList<>(variables.length);
 		for (int i = 0; i < variables.length; i++) {
 			IValueVariable variable = variables[i];
-			if (fValueVariables.remove(variable.getName()) != null) {
+			if (valueVariables.remove(variable.getName()) != null) {
 				removed.add(variable);
 			}
 		}
 		if (removed.size() > 0) {
+			fRegistry = registry.withValueVariables(valueVariables);
 			getNotifier().notify(removed.toArray(new IValueVariable[removed.size()]), REMOVED);
 		}
 	}
@@ -421,18 +488,16 @@ public class StringVariableManager implements IStringVariableManager, IPreferenc
 	 * @see org.eclipse.debug.internal.core.stringsubstitution.IStringVariableManager#getDynamicVariable(java.lang.String)
 	 */
 	@Override
-	public synchronized IDynamicVariable getDynamicVariable(String name) {
-		initialize();
-		return fDynamicVariables.get(name);
+	public IDynamicVariable getDynamicVariable(String name) {
+		return getRegistry().fDynamicVariables.get(name);
 	}
 
 	/* (non-Javadoc)
 	 * @see org.eclipse.debug.internal.core.stringsubstitution.IStringVariableManager#getValueVariable(java.lang.String)
 	 */
 	@Override
-	public synchronized IValueVariable getValueVariable(String name) {
-		initialize();
-		return (IValueVariable) fValueVariables.get(name);
+	public IValueVariable getValueVariable(String name) {
+		return getRegistry().fValueVariables.get(name);
 	}
 
 
@@ -453,15 +518,15 @@ public class StringVariableManager implements IStringVariableManager, IPreferenc
 	}
 
 	/**
-	 * Returns a memento representing the value variables currently registered.
+	 * Returns a memento representing the given value variables.
 	 *
+	 * @param variables the value variables currently registered
 	 * @return memento representing the value variables currently registered
 	 * @throws IOException if an I/O exception occurs while creating the XML.
 	 * @throws ParserConfigurationException if an I/O exception occurs while creating the XML.
 	 * @throws TransformerException if an exception occurs while creating the XML.
 	 */
-	private String getValueVariablesAsXML() throws IOException, ParserConfigurationException, TransformerException {
-		IValueVariable[] variables = getValueVariables();
+	private String getValueVariablesAsXML(IValueVariable[] variables) throws IOException, ParserConfigurationException, TransformerException {
 
 		Document document= getDocument();
 		Element rootElement= document.createElement(VALUE_VARIABLES_TAG);
@@ -522,13 +587,20 @@ public class StringVariableManager implements IStringVariableManager, IPreferenc
 
 	/**
 	 * Saves the value variables currently registered in the
-	 * preference store.
+	 * preference store. Readers of the registry do not wait for this.
+	 * <p>
+	 * The preference change this causes is delivered on the calling thread,
+	 * while the lock of the manager is held, and ignored. A change to the
+	 * preference from another thread waits for the lock, so it is not
+	 * mistaken for the internal change.
+	 * </p>
 	 */
 	private synchronized void storeValueVariables() {
+		IValueVariable[] variables = getRegistry().fValueArray;
 		String variableString= ""; //$NON-NLS-1$
-		if (!fValueVariables.isEmpty()) {
+		if (variables.length > 0) {
 			try {
-				variableString= getValueVariablesAsXML();
+				variableString= getValueVariablesAsXML(variables);
 			} catch (IOException e) {
 				VariablesPlugin.log(new Status(IStatus.ERROR, VariablesPlugin.getUniqueIdentifier(), IStatus.ERROR, "An exception occurred while storing launch configuration variables.", e)); //$NON-NLS-1$
 				return;
@@ -591,6 +663,22 @@ public class StringVariableManager implements IStringVariableManager, IPreferenc
 		return new StringSubstitutionEngine().performStringSubstitution(expression, reportUndefinedVariables, true, this);
 	}
 
+	/* (non-Javadoc)
+	 * @see org.eclipse.core.variables.IStringVariableManager#beginDynamicVariableMemo()
+	 */
+	@Override
+	public void beginDynamicVariableMemo() {
+		StringSubstitutionEngine.beginMemo();
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.core.variables.IStringVariableManager#endDynamicVariableMemo()
+	 */
+	@Override
+	public void endDynamicVariableMemo() {
+		StringSubstitutionEngine.endMemo();
+	}
+
 	/* (non-Javadoc)
 	 * @see org.eclipse.core.variables.IStringVariableManager#validateStringVariables(java.lang.String)
 	 */
@@ -618,9 +706,10 @@ public class StringVariableManager implements IStringVariableManager, IPreferenc
 		if (PREF_VALUE_VARIABLES.equals(event.getKey())) {
 			synchronized (this) {
 				if (!fInternalChange) {
-					fValueVariables.clear();
-					loadPersistedValueVariables();
-					loadContributedValueVariables();
+					Map<String, IValueVariable> valueVariables = new HashMap<>(5);
+					loadPersistedValueVariables(valueVariables);
+					loadContributedValueVariables(valueVariables);
+					fRegistry = getRegistry().withValueVariables(valueVariables);
 				}
 			}
 		}
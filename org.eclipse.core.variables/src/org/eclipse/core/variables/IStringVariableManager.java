@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2008 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -188,4 +188,29 @@ public interface IStringVariableManager {
 	 */
 	public String generateVariableExpression(String varName, String arg);
 
+	/**
+	 * Begins remembering the values of dynamic variables resolved by string
+	 * substitutions performed in the calling thread. Until the matching call to
+	 * {@link #endDynamicVariableMemo()}, each dynamic variable is resolved at
+	 * most once per argument, and its value is reused by later substitutions.
+	 * This makes the values consistent across the substitutions performed for
+	 * one operation, such as a launch, and avoids resolving them repeatedly.
+	 * <p>
+	 * Calls may be nested; values are forgotten when the outermost memo ends.
+	 * Each call must be paired with a call to
+	 * {@link #endDynamicVariableMemo()} in a <code>finally</code> block.
+	 * </p>
+	 *
+	 * @since 3.5
+	 */
+	public void beginDynamicVariableMemo();
+
+	/**
+	 * Ends remembering the values of dynamic variables resolved in the calling
+	 * thread, begun by {@link #beginDynamicVariableMemo()}.
+	 *
+	 * @since 3.5
+	 */
+	public void endDynamicVariableMemo();
+
 }
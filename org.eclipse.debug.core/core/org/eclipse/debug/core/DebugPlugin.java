@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -20,6 +20,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 import javax.xml.parsers.DocumentBuilder;
 import javax.xml.parsers.DocumentBuilderFactory;
@@ -57,7 +59,11 @@ import org.eclipse.debug.core.model.ITerminate;
 import org.eclipse.debug.core.model.IValue;
 import org.eclipse.debug.core.model.RuntimeProcess;
 import org.eclipse.debug.internal.core.BreakpointManager;
+import org.eclipse.debug.internal.core.ConcurrentEventDispatcher;
 import org.eclipse.debug.internal.core.DebugCoreMessages;
+import org.eclipse.debug.internal.core.DebugEventCoalescer;
+import org.eclipse.debug.internal.core.DebugEventListenerTimings;
+import org.eclipse.debug.internal.core.DebugEventMetrics;
 import org.eclipse.debug.internal.core.DebugOptions;
 import org.eclipse.debug.internal.core.ExpressionManager;
 import org.eclipse.debug.internal.core.IConfigurationElementConstants;
@@ -67,8 +73,10 @@ import org.eclipse.debug.internal.core.LogicalStructureManager;
 import org.eclipse.debug.internal.core.MemoryBlockManager;
 import org.eclipse.debug.internal.core.Preferences;
 import org.eclipse.debug.internal.core.StepFilterManager;
+import org.eclipse.debug.internal.core.StreamPump;
 import org.eclipse.debug.internal.core.commands.CommandAdapterFactory;
 import org.eclipse.debug.internal.core.groups.GroupMemberChangeListener;
+import org.eclipse.debug.internal.core.sourcelookup.ConcurrentSourceLookup;
 import org.eclipse.debug.internal.core.sourcelookup.SourceLookupUtils;
 import org.eclipse.osgi.service.environment.Constants;
 import org.osgi.framework.BundleContext;
@@ -366,6 +374,14 @@ public class DebugPlugin extends Plugin {
 	 */
 	private ListenerList<IDebugEventFilter> fEventFilters = new ListenerList<>();
 
+	/**
+	 * Notifies concurrent debug event listeners when parallel event dispatch
+	 * is enabled.
+	 *
+	 * @since 3.12
+	 */
+	private ConcurrentEventDispatcher fConcurrentDispatcher = new ConcurrentEventDispatcher();
+
 	/**
 	 * Whether this plug-in is in the process of shutting
 	 * down.
@@ -393,11 +409,28 @@ public class DebugPlugin extends Plugin {
 
 	/**
 	 * Queue of debug events to fire to listeners and asynchronous runnables to execute
-	 * in the order received.
+	 * in the order received. Event sets are queued as {@link QueuedEventSet}s.
 	 *
 	 * @since 3.1
 	 */
-	private List<Object> fEventQueue = new ArrayList<Object>();
+	private Queue<Object> fEventQueue = new ConcurrentLinkedQueue<Object>();
+
+	/**
+	 * A debug event set waiting in the event queue, along with the time it was
+	 * fired.
+	 *
+	 * @since 3.12
+	 */
+	static class QueuedEventSet {
+
+		final DebugEvent[] fEvents;
+		final long fQueued;
+
+		QueuedEventSet(DebugEvent[] events) {
+			fEvents = events;
+			fQueued = System.nanoTime();
+		}
+	}
 
 	/**
 	 * Job to fire events to listeners.
@@ -415,6 +448,16 @@ public class DebugPlugin extends Plugin {
 		EventNotifier fNotifier = new EventNotifier();
 		AsynchRunner fRunner = new AsynchRunner();
 
+		/**
+		 * Change-only event sets collected for coalescing
+		 */
+		private List<DebugEvent[]> fBatch = new ArrayList<DebugEvent[]>();
+
+		/**
+		 * Time the oldest set in the current batch was fired
+		 */
+		private long fBatchQueued;
+
 	    /**
          * Creates a new event dispatch job.
          */
@@ -428,22 +471,64 @@ public class DebugPlugin extends Plugin {
          */
         @Override
 		protected IStatus run(IProgressMonitor monitor) {
+			boolean coalesce = Platform.getPreferencesService().getBoolean(getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_COALESCE_DEBUG_EVENTS, false, null);
+			fNotifier.fParallel = Platform.getPreferencesService().getBoolean(getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_PARALLEL_EVENT_DISPATCH, false, null);
+			DebugEventMetrics metrics = DebugEventMetrics.getDefault();
+			Object next;
+			while ((next = fEventQueue.poll()) != null) {
+				metrics.dequeued();
+				if (next instanceof Runnable) {
+					dispatchBatch();
+					fRunner.async((Runnable) next);
+				} else {
+					QueuedEventSet set = (QueuedEventSet) next;
+					if (coalesce && DebugEventCoalescer.isCoalescable(set.fEvents)) {
+						if (fBatch.isEmpty()) {
+							fBatchQueued = set.fQueued;
+						}
+						fBatch.add(set.fEvents);
+					} else {
+						dispatchBatch();
+						dispatch(set.fEvents, set.fQueued);
+					}
+				}
+			}
+			dispatchBatch();
+			if (DebugOptions.DEBUG_EVENT_METRICS) {
+				DebugOptions.trace(metrics.toString());
+			}
+			return Status.OK_STATUS;
+		}
 
-            while (!fEventQueue.isEmpty()) {
-                Object next = null;
-	            synchronized (fEventQueue) {
-	                if (!fEventQueue.isEmpty()) {
-	                	next = fEventQueue.remove(0);
-	                }
-	            }
-	            if (next instanceof Runnable) {
-	            	fRunner.async((Runnable) next);
-	            } else if (next != null) {
-	                fNotifier.dispatch((DebugEvent[]) next);
-	            }
-            }
-            return Status.OK_STATUS;
-        }
+		/**
+		 * Delivers the pending batch of change-only event sets, if any, as a
+		 * single coalesced event set.
+		 */
+		private void dispatchBatch() {
+			if (fBatch.isEmpty()) {
+				return;
+			}
+			int received = 0;
+			for (DebugEvent[] events : fBatch) {
+				received += events.length;
+			}
+			DebugEvent[] events = DebugEventCoalescer.coalesce(fBatch);
+			DebugEventMetrics.getDefault().coalesced(received - events.length);
+			fBatch.clear();
+			dispatch(events, fBatchQueued);
+		}
+
+		/**
+		 * Notifies listeners of the given events and records the dispatch
+		 * latency.
+		 *
+		 * @param events events to deliver
+		 * @param queued time the events were fired
+		 */
+		private void dispatch(DebugEvent[] events, long queued) {
+			fNotifier.dispatch(events);
+			DebugEventMetrics.getDefault().dispatched(events.length, System.nanoTime() - queued);
+		}
 
         /* (non-Javadoc)
          * @see org.eclipse.core.runtime.jobs.Job#shouldRun()
@@ -512,6 +597,10 @@ public class DebugPlugin extends Plugin {
 	 * @since 2.0
 	 */
 	public void addDebugEventListener(IDebugEventSetListener listener) {
+		if (listener instanceof IConcurrentDebugEventSetListener) {
+			// registered before events can be dispatched to it
+			fConcurrentDispatcher.add((IConcurrentDebugEventSetListener) listener);
+		}
 		fEventListeners.add(listener);
 	}
 
@@ -529,9 +618,8 @@ public class DebugPlugin extends Plugin {
 		if (isShuttingDown() || events == null || fEventListeners.isEmpty()) {
 			return;
 		}
-		synchronized (fEventQueue) {
-			fEventQueue.add(events);
-		}
+		fEventQueue.add(new QueuedEventSet(events));
+		DebugEventMetrics.getDefault().enqueued();
 		fEventDispatchJob.schedule();
 	}
 
@@ -545,9 +633,8 @@ public class DebugPlugin extends Plugin {
 	 * @since 2.1
 	 */
 	public void asyncExec(Runnable r) {
-		synchronized (fEventQueue) {
-			fEventQueue.add(r);
-		}
+		fEventQueue.add(r);
+		DebugEventMetrics.getDefault().enqueued();
 		fEventDispatchJob.schedule();
 	}
 
@@ -647,6 +734,10 @@ public class DebugPlugin extends Plugin {
 	 */
 	public void removeDebugEventListener(IDebugEventSetListener listener) {
 		fEventListeners.remove(listener);
+		if (listener instanceof IConcurrentDebugEventSetListener) {
+			fConcurrentDispatcher.remove((IConcurrentDebugEventSetListener) listener);
+		}
+		DebugEventListenerTimings.getDefault().remove(listener);
 	}
 
 	/* (non-Javadoc)
@@ -669,8 +760,11 @@ public class DebugPlugin extends Plugin {
 
 			fEventListeners.clear();
             fEventFilters.clear();
+			fConcurrentDispatcher.shutdown();
 
 			SourceLookupUtils.shutdown();
+			ConcurrentSourceLookup.shutdown();
+			StreamPump.shutdown();
 			Preferences.savePreferences(DebugPlugin.getUniqueIdentifier());
 			ResourcesPlugin.getWorkspace().removeSaveParticipant(getUniqueIdentifier());
 		} finally {
@@ -1123,6 +1217,11 @@ public class DebugPlugin extends Plugin {
 		private IDebugEventFilter fFilter;
 		private int fMode;
 
+		/**
+		 * Whether concurrent listeners are notified on the concurrent dispatcher
+		 */
+		boolean fParallel = false;
+
 		/**
 		 * @see org.eclipse.core.runtime.ISafeRunnable#handleException(java.lang.Throwable)
 		 */
@@ -1185,8 +1284,18 @@ public class DebugPlugin extends Plugin {
 				}
 			}
 			for (IDebugEventSetListener iDebugEventSetListener : fEventListeners) {
+				if (fParallel && iDebugEventSetListener instanceof IConcurrentDebugEventSetListener) {
+					fConcurrentDispatcher.post((IConcurrentDebugEventSetListener) iDebugEventSetListener, fEvents);
+					continue;
+				}
 				fListener = iDebugEventSetListener;
-                SafeRunner.run(this);
+				if (DebugOptions.DEBUG_EVENT_LISTENERS) {
+					long start = System.nanoTime();
+					SafeRunner.run(this);
+					DebugEventListenerTimings.getDefault().record(fListener, System.nanoTime() - start);
+				} else {
+					SafeRunner.run(this);
+				}
 			}
 			fEvents = null;
 			fFilter = null;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,7 +12,12 @@ package org.eclipse.debug.core;
 
 
 import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRunnable;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
 import org.eclipse.debug.core.model.IBreakpoint;
 import org.eclipse.debug.core.model.IBreakpointImportParticipant;
 
@@ -107,6 +112,46 @@ public interface IBreakpointManager {
 	 */
 	public IBreakpoint[] getBreakpoints(String modelIdentifier);
 
+	/**
+	 * Returns a collection of all registered breakpoints whose markers are
+	 * associated with the given resource, in the order they were registered.
+	 * Answers an empty array if no breakpoints are registered for the given
+	 * resource.
+	 *
+	 * @param resource the resource breakpoint markers are associated with
+	 * @return an array of breakpoints
+	 * @since 3.12
+	 */
+	public IBreakpoint[] getBreakpoints(IResource resource);
+
+	/**
+	 * Returns a collection of all registered breakpoints whose markers are
+	 * associated with the given resource and have a line number attribute
+	 * (<code>IMarker.LINE_NUMBER</code>) within the given range, in the order
+	 * they were registered. Line numbers are those of the breakpoint markers
+	 * as of the most recent add or change notification for each breakpoint.
+	 * Answers an empty array if no such breakpoints are registered.
+	 *
+	 * @param resource the resource breakpoint markers are associated with
+	 * @param startLine first line of the range, inclusive
+	 * @param endLine last line of the range, inclusive
+	 * @return an array of breakpoints
+	 * @since 3.12
+	 */
+	public IBreakpoint[] getBreakpoints(IResource resource, int startLine, int endLine);
+
+	/**
+	 * Returns a collection of all registered breakpoints whose markers are of
+	 * exactly the given type, in the order they were registered. Breakpoints
+	 * with markers of subtypes of the given type are not included. Answers an
+	 * empty array if no such breakpoints are registered.
+	 *
+	 * @param markerType marker type identifier
+	 * @return an array of breakpoints
+	 * @since 3.12
+	 */
+	public IBreakpoint[] getBreakpointsByMarkerType(String markerType);
+
 	/**
 	 * Returns whether the given breakpoint is currently
 	 * registered with this breakpoint manager.
@@ -342,6 +387,28 @@ public interface IBreakpointManager {
 	 */
 	public void refreshTriggerpointDisplay();
 
+	/**
+	 * Runs the given action as a batch of breakpoint changes. Notification of
+	 * breakpoints added, removed and changed while the action runs is deferred
+	 * until the outermost batch completes. Then each listener is notified at
+	 * most once of removed breakpoints, once of added breakpoints and once of
+	 * changed breakpoints, in that order. A breakpoint added and removed within
+	 * a batch is not reported, and a change to a breakpoint is not reported
+	 * separately from its addition. Changes to resources and markers made by
+	 * the action are batched as a single workspace operation.
+	 * <p>
+	 * Batches are shared by all threads: notifications caused by other threads
+	 * while a batch runs are deferred as well.
+	 * </p>
+	 *
+	 * @param action the action to run
+	 * @param monitor progress monitor or <code>null</code>
+	 * @exception CoreException if the action fails
+	 * @see IWorkspace#run(IWorkspaceRunnable, ISchedulingRule, int, IProgressMonitor)
+	 * @since 3.12
+	 */
+	public void runInBatch(IWorkspaceRunnable action, IProgressMonitor monitor) throws CoreException;
+
 }
 
 
@@ -0,0 +1,35 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.core;
+
+/**
+ * A debug event set listener that may be notified on a thread other than the
+ * debug event dispatch thread.
+ * <p>
+ * When parallel event dispatch is enabled, listeners implementing this
+ * interface are notified on a shared pool of threads, concurrently with other
+ * listeners. Each listener still receives event sets in the order they were
+ * fired and is never notified by more than one thread at a time. However,
+ * notification is no longer synchronized with other listeners, nor with
+ * runnables posted via {@link DebugPlugin#asyncExec(Runnable)}.
+ * </p>
+ * <p>
+ * When parallel event dispatch is disabled, these listeners are notified like
+ * any other {@link IDebugEventSetListener}.
+ * </p>
+ * <p>
+ * Clients may implement this interface.
+ * </p>
+ * @see DebugPlugin#addDebugEventListener(IDebugEventSetListener)
+ * @since 3.12
+ */
+public interface IConcurrentDebugEventSetListener extends IDebugEventSetListener {
+}
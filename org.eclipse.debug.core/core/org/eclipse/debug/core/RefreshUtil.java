@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2013 IBM Corporation and others.
+ * Copyright (c) 2009, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,7 +14,10 @@ import java.io.IOException;
 import java.io.StringReader;
 import java.io.StringWriter;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.ResourcesPlugin;
@@ -30,6 +33,7 @@ import org.eclipse.core.variables.IStringVariableManager;
 import org.eclipse.core.variables.VariablesPlugin;
 import org.eclipse.debug.internal.core.DebugCoreMessages;
 import org.eclipse.debug.internal.core.IMementoConstants;
+import org.eclipse.debug.internal.core.RefreshCoordinator;
 import org.eclipse.debug.internal.core.ResourceFactory;
 import org.eclipse.debug.internal.core.XMLMemento;
 
@@ -102,6 +106,8 @@ public class RefreshUtil {
 
 	/**
 	 * Refreshes the resources as specified by the given launch configuration.
+	 * Resources that are refreshed as part of another given resource are not
+	 * refreshed again.
 	 *
 	 * @param resources
 	 *            resources to refresh
@@ -116,19 +122,26 @@ public class RefreshUtil {
 		if (resources == null || resources.length == 0) {
 			return;
 		}
-		SubMonitor lmonitor = SubMonitor.convert(monitor, DebugCoreMessages.RefreshingResources, resources.length);
+		Map<IResource, Integer> scopes = new LinkedHashMap<IResource, Integer>();
+		for (int i = 0; i < resources.length; i++) {
+			if (resources[i] != null) {
+				scopes.put(resources[i], Integer.valueOf(depth));
+			}
+		}
+		Set<IResource> refresh = RefreshCoordinator.removeCoveredScopes(scopes).keySet();
+		SubMonitor lmonitor = SubMonitor.convert(monitor, DebugCoreMessages.RefreshingResources, refresh.size());
 		if (lmonitor.isCanceled()) {
 			return;
 		}
 		MultiStatus status = new MultiStatus(DebugPlugin.getUniqueIdentifier(), 0, DebugCoreMessages.RefreshingResourcesError, null);
 		try {
-			for (int i = 0; i < resources.length; i++) {
+			for (IResource resource : refresh) {
 				if (lmonitor.isCanceled()) {
 					break;
 				}
-				if (resources[i] != null && resources[i].isAccessible()) {
+				if (resource.isAccessible()) {
 					try {
-						resources[i].refreshLocal(depth, null);
+						resource.refreshLocal(depth, null);
 					} catch (CoreException e) {
 						status.merge(e.getStatus());
 					}
@@ -144,6 +157,27 @@ public class RefreshUtil {
 		}
 	}
 
+	/**
+	 * Schedules the given resources to be refreshed in the background.
+	 * Refreshes that are scheduled at about the same time, also by other
+	 * launches, are merged: each resource is refreshed once, resources that
+	 * are refreshed as part of another scheduled resource are not refreshed
+	 * again, and the resources of different projects are refreshed in
+	 * parallel where scheduling rules allow it.
+	 *
+	 * @param resources
+	 *            resources to refresh
+	 * @param depth one of {@link IResource#DEPTH_INFINITE}, {@link IResource#DEPTH_ONE},
+	 *  or {@link IResource#DEPTH_ZERO}
+	 * @since 3.12
+	 */
+	public static void scheduleRefresh(IResource[] resources, int depth) {
+		if (resources == null || resources.length == 0) {
+			return;
+		}
+		RefreshCoordinator.getDefault().schedule(resources, depth);
+	}
+
 	/**
 	 * Returns a collection of resources referred to by the specified
 	 * memento generated via {@link #toMemento(IResource[])}.
@@ -284,12 +318,37 @@ public class RefreshUtil {
 		if (scope != null) {
 			IResource[] resources = toResources(scope);
 			if (resources != null && resources.length > 0) {
-				int depth = IResource.DEPTH_ONE;
-				if (isRefreshRecursive(configuration)) {
-					depth = IResource.DEPTH_INFINITE;
-				}
-				refreshResources(resources, depth, monitor);
+				refreshResources(resources, getRefreshDepth(configuration), monitor);
 			}
 		}
 	}
+
+	/**
+	 * Schedules the resources specified by the given launch configuration via
+	 * its {@link RefreshUtil#ATTR_REFRESH_SCOPE} and
+	 * {@link #ATTR_REFRESH_RECURSIVE} attributes to be refreshed in the
+	 * background, as described in {@link #scheduleRefresh(IResource[], int)}.
+	 *
+	 * @param configuration launch configuration
+	 * @throws CoreException if an exception occurs while accessing launch
+	 *             configuration attributes
+	 * @since 3.12
+	 */
+	public static void scheduleRefresh(ILaunchConfiguration configuration) throws CoreException {
+		String scope = configuration.getAttribute(ATTR_REFRESH_SCOPE, (String) null);
+		if (scope != null) {
+			scheduleRefresh(toResources(scope), getRefreshDepth(configuration));
+		}
+	}
+
+	/**
+	 * Returns the depth to refresh the refresh scope of the given launch
+	 * configuration to.
+	 */
+	private static int getRefreshDepth(ILaunchConfiguration configuration) throws CoreException {
+		if (isRefreshRecursive(configuration)) {
+			return IResource.DEPTH_INFINITE;
+		}
+		return IResource.DEPTH_ONE;
+	}
 }
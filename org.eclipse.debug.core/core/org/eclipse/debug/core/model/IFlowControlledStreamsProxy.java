@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.core.model;
+
+/**
+ * Extension to a streams proxy that allows the consumer of a process's output
+ * to apply back-pressure when it cannot keep up with the process.
+ * <p>
+ * A consumer, such as a console, reports that it is saturated when the amount
+ * of output it has received but not yet processed exceeds a high watermark,
+ * and reports that it is no longer saturated once the amount drops below a low
+ * watermark. While the consumer of a stream is saturated, the proxy either
+ * stops reading the stream, so that the process blocks when writing, or reads
+ * and discards output, reporting the amount discarded once the consumer has
+ * recovered.
+ * </p>
+ * <p>
+ * Clients may implement this interface, in addition to
+ * <code>IStreamsProxy</code>.
+ * </p>
+ *
+ * @since 3.12
+ */
+public interface IFlowControlledStreamsProxy extends IStreamsProxy {
+
+	/**
+	 * Flow control mode in which a stream is not read while its consumer is
+	 * saturated. No output is lost, but the process may block when writing.
+	 */
+	public static final int FLOW_CONTROL_PAUSE = 1;
+
+	/**
+	 * Flow control mode in which output read while the consumer of a stream
+	 * is saturated is not passed to stream listeners. The number of bytes
+	 * discarded is reported to listeners once the consumer has recovered.
+	 * Output retained by the stream monitor is not affected.
+	 */
+	public static final int FLOW_CONTROL_DROP = 2;
+
+	/**
+	 * Sets how output is handled while the consumer of a stream is saturated.
+	 *
+	 * @param mode one of {@link #FLOW_CONTROL_PAUSE} or
+	 *            {@link #FLOW_CONTROL_DROP}
+	 */
+	public void setFlowControlMode(int mode);
+
+	/**
+	 * Returns how output is handled while the consumer of a stream is
+	 * saturated.
+	 *
+	 * @return one of {@link #FLOW_CONTROL_PAUSE} or {@link #FLOW_CONTROL_DROP}
+	 */
+	public int getFlowControlMode();
+
+	/**
+	 * Notifies this proxy whether the consumer of the given stream is
+	 * saturated. Has no effect if the monitor does not belong to this proxy.
+	 *
+	 * @param monitor the output or error stream monitor of this proxy
+	 * @param saturated whether the consumer has exceeded its high watermark,
+	 *            or <code>false</code> once it has dropped below its low
+	 *            watermark
+	 */
+	public void setConsumerSaturated(IStreamMonitor monitor, boolean saturated);
+}
@@ -0,0 +1,47 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.core.model;
+
+import java.math.BigInteger;
+
+import org.eclipse.debug.core.DebugException;
+
+/**
+ * Optional enhancements to {@link IMemoryBlockExtension}. Allows large ranges
+ * of bytes to be retrieved as a byte array of values and attributes rather than
+ * as one {@link MemoryByte} per byte.
+ * <p>
+ * Clients may optionally implement this interface when providing
+ * implementations of {@link IMemoryBlockExtension}. Memory renderings retrieve
+ * bytes through {@link MemoryBytes#getBytesFromAddress(IMemoryBlockExtension, BigInteger, long)},
+ * which uses this interface when implemented.
+ * </p>
+ * @since 3.12
+ * @see MemoryBytes
+ */
+public interface IMemoryBlockExtension2 extends IMemoryBlockExtension {
+
+	/**
+	 * Returns bytes from this memory block based on the given address and the
+	 * addressable size of this memory block. Bytes are retrieved as by
+	 * {@link IMemoryBlockExtension#getBytesFromAddress(BigInteger, long)}.
+	 *
+	 * @param address address at which to begin retrieving bytes in terms
+	 *  of addressable units
+	 * @param units is the number of addressable units of memory to retrieve
+	 * @return bytes from this memory block based on the given address
+	 *  and number of units. The length of the bytes returned must to be equal to
+	 *  <code>units</code> * <code>getAddressableSize()</code>.
+	 * @throws DebugException if unable to retrieve the specified bytes due to
+	 *  a failure communicating with the target
+	 */
+	public MemoryBytes getMemoryBytesFromAddress(BigInteger address, long units) throws DebugException;
+}
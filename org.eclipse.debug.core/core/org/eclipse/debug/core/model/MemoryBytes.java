@@ -0,0 +1,248 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.core.model;
+
+import java.math.BigInteger;
+
+import org.eclipse.debug.core.DebugException;
+
+/**
+ * A contiguous range of bytes of memory in a memory block, backed by a byte
+ * array of values. Attributes are the same bit masks as those of a
+ * {@link MemoryByte}, but are kept as runs of consecutive bytes sharing the
+ * same attributes rather than one object per byte, since neighbouring bytes
+ * of memory usually share their attributes.
+ * <p>
+ * Clients may instantiate this class.
+ * </p>
+ * @since 3.12
+ * @see IMemoryBlockExtension2
+ * @noextend This class is not intended to be subclassed by clients.
+ */
+public class MemoryBytes {
+
+	/**
+	 * Values of the bytes
+	 */
+	private final byte[] fValues;
+
+	/**
+	 * Exclusive end offset of each run of bytes with the same attributes, in
+	 * ascending order. The last run ends at the length of the values.
+	 */
+	private final int[] fRunEnds;
+
+	/**
+	 * Attributes of the bytes of each run
+	 */
+	private final byte[] fRunFlags;
+
+	private MemoryBytes(byte[] values, int[] runEnds, byte[] runFlags) {
+		fValues = values;
+		fRunEnds = runEnds;
+		fRunFlags = runFlags;
+	}
+
+	/**
+	 * Constructs memory bytes with the given values, all with the given
+	 * attributes. The values are not copied.
+	 *
+	 * @param values values of the bytes
+	 * @param flags attributes of all the bytes specified as a bit mask
+	 */
+	public MemoryBytes(byte[] values, byte flags) {
+		this(values, new int[] { values.length }, new byte[] { flags });
+	}
+
+	/**
+	 * Constructs memory bytes with the given values and attributes. The values
+	 * are not copied.
+	 *
+	 * @param values values of the bytes
+	 * @param flags attributes of each byte specified as a bit mask, of the same
+	 *            length as the values
+	 */
+	public MemoryBytes(byte[] values, byte[] flags) {
+		if (flags.length != values.length) {
+			throw new IllegalArgumentException();
+		}
+		fValues = values;
+		int runs = 1;
+		for (int i = 1; i < flags.length; i++) {
+			if (flags[i] != flags[i - 1]) {
+				runs++;
+			}
+		}
+		fRunEnds = new int[runs];
+		fRunFlags = new byte[runs];
+		int run = 0;
+		for (int i = 1; i <= flags.length; i++) {
+			if (i == flags.length || flags[i] != flags[i - 1]) {
+				fRunEnds[run] = i;
+				fRunFlags[run] = flags[i - 1];
+				run++;
+			}
+		}
+		if (flags.length == 0) {
+			fRunEnds[0] = 0;
+		}
+	}
+
+	/**
+	 * Returns memory bytes with the values and attributes of the given memory
+	 * bytes.
+	 *
+	 * @param bytes memory bytes
+	 * @return equivalent memory bytes
+	 */
+	public static MemoryBytes valueOf(MemoryByte[] bytes) {
+		byte[] values = new byte[bytes.length];
+		byte[] flags = new byte[bytes.length];
+		for (int i = 0; i < bytes.length; i++) {
+			values[i] = bytes[i].getValue();
+			flags[i] = bytes[i].getFlags();
+		}
+		return new MemoryBytes(values, flags);
+	}
+
+	/**
+	 * Returns bytes from the given memory block at the given address. Bytes are
+	 * retrieved in bulk from memory blocks implementing
+	 * {@link IMemoryBlockExtension2}, and converted from the memory bytes
+	 * returned by {@link IMemoryBlockExtension#getBytesFromAddress(BigInteger, long)}
+	 * otherwise.
+	 *
+	 * @param memoryBlock memory block to retrieve bytes from
+	 * @param address address at which to begin retrieving bytes in terms of
+	 *            addressable units
+	 * @param units the number of addressable units of memory to retrieve
+	 * @return bytes from the memory block or <code>null</code> if the memory
+	 *         block returned none
+	 * @throws DebugException if unable to retrieve the specified bytes
+	 */
+	public static MemoryBytes getBytesFromAddress(IMemoryBlockExtension memoryBlock, BigInteger address, long units) throws DebugException {
+		if (memoryBlock instanceof IMemoryBlockExtension2) {
+			return ((IMemoryBlockExtension2) memoryBlock).getMemoryBytesFromAddress(address, units);
+		}
+		MemoryByte[] bytes = memoryBlock.getBytesFromAddress(address, units);
+		if (bytes == null) {
+			return null;
+		}
+		return valueOf(bytes);
+	}
+
+	/**
+	 * Returns the number of bytes.
+	 *
+	 * @return the number of bytes
+	 */
+	public int getLength() {
+		return fValues.length;
+	}
+
+	/**
+	 * Returns the value of the byte at the given offset.
+	 *
+	 * @param offset zero based offset
+	 * @return value of the byte
+	 */
+	public byte getValue(int offset) {
+		return fValues[offset];
+	}
+
+	/**
+	 * Returns the attributes of the byte at the given offset as a bit mask.
+	 *
+	 * @param offset zero based offset
+	 * @return attributes of the byte
+	 */
+	public byte getFlags(int offset) {
+		if (offset < 0 || offset >= fValues.length) {
+			throw new IndexOutOfBoundsException(Integer.toString(offset));
+		}
+		return fRunFlags[findRun(offset)];
+	}
+
+	/**
+	 * Copies the values of the given range of bytes into the given array.
+	 *
+	 * @param offset zero based offset of the first byte
+	 * @param values array to copy the values to
+	 * @param valuesOffset offset in the array of the first value
+	 * @param length number of bytes
+	 */
+	public void getValues(int offset, byte[] values, int valuesOffset, int length) {
+		System.arraycopy(fValues, offset, values, valuesOffset, length);
+	}
+
+	/**
+	 * Copies the attributes of the given range of bytes into the given array.
+	 *
+	 * @param offset zero based offset of the first byte
+	 * @param flags array to copy the attributes to
+	 * @param flagsOffset offset in the array of the attributes of the first byte
+	 * @param length number of bytes
+	 */
+	public void getFlags(int offset, byte[] flags, int flagsOffset, int length) {
+		if (offset < 0 || length < 0 || offset + length > fValues.length) {
+			throw new IndexOutOfBoundsException();
+		}
+		if (length == 0) {
+			return;
+		}
+		int end = offset + length;
+		int run = findRun(offset);
+		int i = offset;
+		while (i < end) {
+			int runEnd = Math.min(fRunEnds[run], end);
+			byte runFlags = fRunFlags[run];
+			while (i < runEnd) {
+				flags[flagsOffset + i - offset] = runFlags;
+				i++;
+			}
+			run++;
+		}
+	}
+
+	/**
+	 * Returns the bytes as memory byte objects.
+	 *
+	 * @return equivalent memory bytes
+	 */
+	public MemoryByte[] toMemoryBytes() {
+		MemoryByte[] bytes = new MemoryByte[fValues.length];
+		int run = 0;
+		for (int i = 0; i < bytes.length; i++) {
+			while (i >= fRunEnds[run]) {
+				run++;
+			}
+			bytes[i] = new MemoryByte(fValues[i], fRunFlags[run]);
+		}
+		return bytes;
+	}
+
+	/**
+	 * Returns the index of the run containing the given offset.
+	 */
+	private int findRun(int offset) {
+		int low = 0;
+		int high = fRunEnds.length - 1;
+		while (low < high) {
+			int mid = (low + high) >>> 1;
+			if (fRunEnds[mid] <= offset) {
+				low = mid + 1;
+			} else {
+				high = mid;
+			}
+		}
+		return low;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2004, 2013 IBM Corporation and others.
+ *  Copyright (c) 2004, 2018 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -32,6 +32,7 @@ import org.eclipse.debug.core.ILaunchManager;
 import org.eclipse.debug.core.IStatusHandler;
 import org.eclipse.debug.core.model.IStackFrame;
 import org.eclipse.debug.core.sourcelookup.containers.DefaultSourceContainer;
+import org.eclipse.debug.internal.core.sourcelookup.SourceLookupCache;
 import org.eclipse.debug.internal.core.sourcelookup.SourceLookupMessages;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -87,6 +88,10 @@ public abstract class AbstractSourceLookupDirector implements ISourceLookupDirec
 	protected Map<Object, Object> fResolvedElements = null;
 	// current participant performing lookup or <code>null</code>
 	private ISourceLookupParticipant fCurrentParticipant;
+	// whether source containers are searched concurrently
+	private volatile boolean fConcurrentLookup = false;
+	// source elements found by participants, by source name
+	private final SourceLookupCache fLookupCache = new SourceLookupCache();
 
 	protected static final IStatus fPromptStatus = new Status(IStatus.INFO, "org.eclipse.debug.ui", 200, "", null);  //$NON-NLS-1$//$NON-NLS-2$
 	protected static final IStatus fResolveDuplicatesStatus = new Status(IStatus.INFO, "org.eclipse.debug.ui", 205, "", null);  //$NON-NLS-1$//$NON-NLS-2$
@@ -226,6 +231,7 @@ public abstract class AbstractSourceLookupDirector implements ISourceLookupDirec
 		}
 		fSourceContainers = null;
 		fResolvedElements = null;
+		fLookupCache.dispose();
 	}
 
 	/**
@@ -315,6 +321,49 @@ public abstract class AbstractSourceLookupDirector implements ISourceLookupDirec
 	@Override
 	public void setFindDuplicates(boolean duplicates) {
 		fDuplicates = duplicates;
+		fLookupCache.clear();
+	}
+
+	/**
+	 * Returns whether the source containers of this director are searched
+	 * concurrently.
+	 *
+	 * @return whether the source containers of this director are searched
+	 *         concurrently
+	 * @see #setConcurrentLookup(boolean)
+	 * @since 3.12
+	 */
+	public boolean isConcurrentLookup() {
+		return fConcurrentLookup;
+	}
+
+	/**
+	 * Sets whether the source containers of this director, and the containers
+	 * nested in composite containers, are searched concurrently rather than
+	 * one after the other. Source elements are still chosen in the order of
+	 * the source containers, so the result of a lookup does not depend on this
+	 * setting. Concurrent lookup is off by default.
+	 * <p>
+	 * Concurrent lookup is only worthwhile when searching containers is slow,
+	 * for example when they access remote file systems. Source containers
+	 * searched concurrently must be thread safe.
+	 * </p>
+	 *
+	 * @param concurrent whether to search source containers concurrently
+	 * @since 3.12
+	 */
+	public void setConcurrentLookup(boolean concurrent) {
+		fConcurrentLookup = concurrent;
+	}
+
+	/**
+	 * Returns the cache of source elements found by the participants of this
+	 * director.
+	 *
+	 * @return cache of source elements
+	 */
+	SourceLookupCache getLookupCache() {
+		return fLookupCache;
 	}
 
 	/**
@@ -353,6 +402,7 @@ public abstract class AbstractSourceLookupDirector implements ISourceLookupDirec
 			return;
 		}
 		if(fConfig.equals(configuration)) {
+			fLookupCache.clear();
 			try{
 				String locatorMemento = configuration.getAttribute(ILaunchConfiguration.ATTR_SOURCE_LOCATOR_MEMENTO,(String)null);
 				if (locatorMemento == null) {
@@ -474,8 +524,9 @@ public abstract class AbstractSourceLookupDirector implements ISourceLookupDirec
 				container.init(this);
 			}
 		}
-		// clear resolved duplicates
+		// clear resolved duplicates and found elements
 		fResolvedElements = null;
+		fLookupCache.clear();
 		// notify participants
 		ISourceLookupParticipant[] participants = getParticipants();
 		for (int i = 0; i < participants.length; i++) {
@@ -704,6 +755,7 @@ public abstract class AbstractSourceLookupDirector implements ISourceLookupDirec
 	 */
 	@Override
 	public void clearSourceElements(Object element) {
+		fLookupCache.clear();
 		List<Object> list = doSourceLookup(element);
 		if (list.size() > 0) {
 			for (Object obj : list) {
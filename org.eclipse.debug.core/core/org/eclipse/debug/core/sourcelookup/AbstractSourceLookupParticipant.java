@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2013 IBM Corporation and others.
+ *  Copyright (c) 2000, 2018 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -17,6 +17,8 @@ import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.internal.core.sourcelookup.ConcurrentSourceLookup;
+import org.eclipse.debug.internal.core.sourcelookup.SourceLookupCache;
 import org.eclipse.debug.internal.core.sourcelookup.SourceLookupMessages;
 
 
@@ -54,44 +56,85 @@ public abstract class AbstractSourceLookupParticipant implements ISourceLookupPa
 	 */
 	@Override
 	public Object[] findSourceElements(Object object) throws CoreException {
+		String name = getSourceName(object);
+		if (name == null) {
+			return EMPTY;
+		}
+		boolean duplicates = isFindDuplicates();
+		SourceLookupCache cache = getLookupCache();
+		if (cache == null) {
+			return findSourceElements(name, duplicates);
+		}
+		Object[] elements = cache.get(this, name, duplicates);
+		if (elements == null) {
+			long generation = cache.getGeneration();
+			elements = findSourceElements(name, duplicates);
+			if (elements.length > 0 || cache.isMissRemembered(getSourceContainers())) {
+				cache.put(this, name, duplicates, elements, generation);
+			}
+		}
+		return elements.clone();
+	}
+
+	/**
+	 * Searches the source containers of the director for source elements with
+	 * the given name.
+	 *
+	 * @param name source name
+	 * @param duplicates whether to search for duplicate source elements
+	 * @return source elements found, possibly empty
+	 * @throws CoreException if no source element is found and searching a
+	 *             source container failed
+	 */
+	private Object[] findSourceElements(String name, boolean duplicates) throws CoreException {
 		List<Object> results = null;
 		CoreException single = null;
 		MultiStatus multiStatus = null;
-		if (isFindDuplicates()) {
+		if (duplicates) {
 			results = new ArrayList<Object>();
 		}
-		String name = getSourceName(object);
-		if (name != null) {
-			ISourceContainer[] containers = getSourceContainers();
-			for (int i = 0; i < containers.length; i++) {
-				try {
-					ISourceContainer container = getDelegateContainer(containers[i]);
-					if (container != null) {
-						Object[] objects = container.findSourceElements(name);
-						if (objects.length > 0) {
-							//it will only not be null when we care about duplicates
-							//saves the computation in isFindDuplicates()
-							if (results != null) {
-								for (int j = 0; j < objects.length; j++) {
-									results.add(objects[j]);
-								}
-							} else {
-								if (objects.length == 1) {
-									return objects;
-								}
-								return new Object[]{objects[0]};
+		if (ConcurrentSourceLookup.isConcurrent(getDirector())) {
+			List<ISourceContainer> delegates = new ArrayList<ISourceContainer>();
+			for (ISourceContainer container : getSourceContainers()) {
+				ISourceContainer delegate = getDelegateContainer(container);
+				if (delegate != null) {
+					delegates.add(delegate);
+				}
+			}
+			if (delegates.size() > 1) {
+				return ConcurrentSourceLookup.findSourceElements(delegates.toArray(new ISourceContainer[delegates.size()]), name, results != null);
+			}
+			// a single (composite) container searches its containers concurrently
+		}
+		ISourceContainer[] containers = getSourceContainers();
+		for (int i = 0; i < containers.length; i++) {
+			try {
+				ISourceContainer container = getDelegateContainer(containers[i]);
+				if (container != null) {
+					Object[] objects = container.findSourceElements(name);
+					if (objects.length > 0) {
+						//it will only not be null when we care about duplicates
+						//saves the computation in isFindDuplicates()
+						if (results != null) {
+							for (int j = 0; j < objects.length; j++) {
+								results.add(objects[j]);
+							}
+						} else {
+							if (objects.length == 1) {
+								return objects;
 							}
+							return new Object[]{objects[0]};
 						}
 					}
-				} catch (CoreException e) {
-					if (single == null) {
-						single = e;
-					} else if (multiStatus == null) {
-						multiStatus = new MultiStatus(DebugPlugin.getUniqueIdentifier(), DebugPlugin.ERROR, new IStatus[]{single.getStatus()}, SourceLookupMessages.Source_Lookup_Error, null);
-						multiStatus.add(e.getStatus());
-					} else {
-						multiStatus.add(e.getStatus());
-					}
+				}
+			} catch (CoreException e) {
+				if (single == null) {
+					single = e;
+				} else if (multiStatus == null) {
+					multiStatus = new MultiStatus(DebugPlugin.getUniqueIdentifier(), DebugPlugin.ERROR, new IStatus[]{single.getStatus()}, SourceLookupMessages.Source_Lookup_Error, null);
+					multiStatus.add(e.getStatus());
+				} else {
+					multiStatus.add(e.getStatus());
 				}
 			}
 		}
@@ -147,6 +190,20 @@ public abstract class AbstractSourceLookupParticipant implements ISourceLookupPa
 		return false;
 	}
 
+	/**
+	 * Returns the cache of source elements found by this participant's source
+	 * lookup director, or <code>null</code> if none.
+	 *
+	 * @return cache of source elements or <code>null</code>
+	 */
+	private SourceLookupCache getLookupCache() {
+		ISourceLookupDirector director = getDirector();
+		if (director instanceof AbstractSourceLookupDirector) {
+			return ((AbstractSourceLookupDirector) director).getLookupCache();
+		}
+		return null;
+	}
+
 	/**
 	 * Returns the source containers currently registered with this participant's
 	 * source lookup director.
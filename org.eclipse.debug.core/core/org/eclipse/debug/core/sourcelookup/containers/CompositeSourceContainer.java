@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2013 IBM Corporation and others.
+ * Copyright (c) 2003, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -18,6 +18,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.sourcelookup.ISourceContainer;
+import org.eclipse.debug.internal.core.sourcelookup.ConcurrentSourceLookup;
 import org.eclipse.debug.internal.core.sourcelookup.SourceLookupMessages;
 
 /**
@@ -75,6 +76,9 @@ public abstract class CompositeSourceContainer extends AbstractSourceContainer {
 		if (isFindDuplicates()) {
 			results = new ArrayList<Object>();
 		}
+		if (containers.length > 1 && ConcurrentSourceLookup.isConcurrent(getDirector())) {
+			return ConcurrentSourceLookup.findSourceElements(containers, name, results != null);
+		}
 		for (int i = 0; i < containers.length; i++) {
 			ISourceContainer container = containers[i];
 			try {
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2013 IBM Corporation and others.
+ * Copyright (c) 2003, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -11,6 +11,7 @@
 package org.eclipse.debug.core.sourcelookup.containers;
 
 import java.io.File;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -19,6 +20,8 @@ import org.eclipse.core.runtime.IPath;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.sourcelookup.ISourceContainer;
 import org.eclipse.debug.core.sourcelookup.ISourceContainerType;
+import org.eclipse.debug.internal.core.sourcelookup.DirectoryIndex;
+import org.eclipse.debug.internal.core.sourcelookup.SourceIndex;
 
 /**
  * A directory in the local file system. Source elements returned
@@ -37,6 +40,10 @@ public class DirectorySourceContainer extends CompositeSourceContainer {
 	private File fDirectory;
 	// whether to search sub-folders
 	private boolean fSubfolders = false;
+	// whether to index sub-folders, false for the folders of another container
+	private boolean fIndexed = true;
+	// index of the files in sub-folders, built in the background when first searched
+	private SourceIndex.Holder<DirectoryIndex> fIndex;
 	/**
 	 * Unique identifier for the directory source container type
 	 * (value <code>org.eclipse.debug.core.containerType.directory</code>).
@@ -109,20 +116,19 @@ public class DirectorySourceContainer extends CompositeSourceContainer {
 
 		//check sub-folders
 		if ((isFindDuplicates() && fSubfolders) || (sources.isEmpty() && fSubfolders)) {
-			ISourceContainer[] containers = getSourceContainers();
-			for (int i=0; i < containers.length; i++) {
-				Object[] objects = containers[i].findSourceElements(name);
-				if (objects == null || objects.length == 0) {
-					continue;
-				}
-				if (isFindDuplicates()) {
-					for(int j=0; j < objects.length; j++) {
-						sources.add(objects[j]);
+			DirectoryIndex index = getIndex(name);
+			if (index != null) {
+				File[] files = index.findFiles(name);
+				for (int i = 0; i < files.length; i++) {
+					if (files[i].isFile()) {
+						sources.add(new LocalFileStorage(files[i]));
+						if (!isFindDuplicates()) {
+							break;
+						}
 					}
-				} else {
-					sources.add(objects[0]);
-					break;
 				}
+			} else {
+				searchSourceContainers(name, sources);
 			}
 		}
 
@@ -132,6 +138,56 @@ public class DirectorySourceContainer extends CompositeSourceContainer {
 		return sources.toArray();
 	}
 
+	/**
+	 * Returns the index of the files in sub-folders to look up the given name
+	 * with, or <code>null</code> if the sub-folders have to be searched.
+	 *
+	 * @param name file name
+	 * @return index or <code>null</code>
+	 */
+	private DirectoryIndex getIndex(String name) {
+		if (!fIndexed || !DirectoryIndex.isIndexable(name)) {
+			return null;
+		}
+		synchronized (this) {
+			if (fIndex == null) {
+				fIndex = new SourceIndex.Holder<DirectoryIndex>(fDirectory.getPath()) {
+					@Override
+					protected DirectoryIndex build() throws IOException {
+						return DirectoryIndex.create(fDirectory);
+					}
+				};
+			}
+		}
+		return fIndex.get();
+	}
+
+	/**
+	 * Searches the containers for the sub-folders of this directory for the
+	 * given name, adding matches to the given list.
+	 *
+	 * @param name file name
+	 * @param sources list to add source elements to
+	 * @throws CoreException if an exception occurs searching a sub-folder
+	 */
+	private void searchSourceContainers(String name, List<Object> sources) throws CoreException {
+		ISourceContainer[] containers = getSourceContainers();
+		for (int i=0; i < containers.length; i++) {
+			Object[] objects = containers[i].findSourceElements(name);
+			if (objects == null || objects.length == 0) {
+				continue;
+			}
+			if (isFindDuplicates()) {
+				for(int j=0; j < objects.length; j++) {
+					sources.add(objects[j]);
+				}
+			} else {
+				sources.add(objects[0]);
+				break;
+			}
+		}
+	}
+
 	/* (non-Javadoc)
 	 * @see org.eclipse.debug.core.sourcelookup.ISourceContainer#isComposite()
 	 */
@@ -159,6 +215,19 @@ public class DirectorySourceContainer extends CompositeSourceContainer {
 		return getDirectory().hashCode();
 	}
 
+	/* (non-Javadoc)
+	 * @see org.eclipse.debug.core.sourcelookup.containers.CompositeSourceContainer#dispose()
+	 */
+	@Override
+	public void dispose() {
+		super.dispose();
+		synchronized (this) {
+			if (fIndex != null) {
+				fIndex.dispose();
+			}
+		}
+	}
+
     /* (non-Javadoc)
 	 * @see org.eclipse.debug.core.sourcelookup.containers.CompositeSourceContainer#createSourceContainers()
 	 */
@@ -172,7 +241,10 @@ public class DirectorySourceContainer extends CompositeSourceContainer {
 					String name = files[i];
 					File file = new File(getDirectory(), name);
 					if (file.exists() && file.isDirectory()) {
-						dirs.add(new DirectorySourceContainer(file, true));
+						DirectorySourceContainer container = new DirectorySourceContainer(file, true);
+						// searched through the index of this container when available
+						container.fIndexed = false;
+						dirs.add(container);
 					}
 				}
 				ISourceContainer[] containers = dirs.toArray(new ISourceContainer[dirs.size()]);
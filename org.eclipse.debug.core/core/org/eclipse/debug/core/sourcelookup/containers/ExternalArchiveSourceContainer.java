@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -26,6 +26,8 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.sourcelookup.ISourceContainerType;
+import org.eclipse.debug.internal.core.sourcelookup.ArchiveIndex;
+import org.eclipse.debug.internal.core.sourcelookup.SourceIndex;
 import org.eclipse.debug.internal.core.sourcelookup.SourceLookupMessages;
 import org.eclipse.debug.internal.core.sourcelookup.SourceLookupUtils;
 
@@ -47,6 +49,11 @@ public class ExternalArchiveSourceContainer extends AbstractSourceContainer {
 	private Set<String> fPotentialRoots;
 	private List<String> fRoots = new ArrayList<String>();
 	private String fArchivePath;
+	/**
+	 * Index of the archive's entries, built in the background. Searches
+	 * read the archive itself until the index is available.
+	 */
+	private SourceIndex.Holder<ArchiveIndex> fIndex;
 	/**
 	 * Unique identifier for the external archive source container type
 	 * (value <code>org.eclipse.debug.core.containerType.externalArchive</code>).
@@ -73,12 +80,24 @@ public class ExternalArchiveSourceContainer extends AbstractSourceContainer {
 	public ExternalArchiveSourceContainer(String archivePath, boolean detectRootPaths) {
 		fArchivePath = archivePath;
 		fDetectRoots = detectRootPaths;
+		fIndex = new SourceIndex.Holder<ArchiveIndex>(archivePath) {
+			@Override
+			protected ArchiveIndex build() throws IOException {
+				return ArchiveIndex.create(fArchivePath);
+			}
+		};
 	}
 
 	@SuppressWarnings("resource")
 	@Override
 	public Object[] findSourceElements(String name) throws CoreException {
 		String newname = name.replace('\\', '/');
+		if (newname.length() > 0 && !newname.endsWith("/")) { //$NON-NLS-1$
+			ArchiveIndex index = fIndex.get();
+			if (index != null) {
+				return findSourceElements(index, newname);
+			}
+		}
 		ZipFile file = getArchive();
 		if (file == null) {
 			return EMPTY;
@@ -87,9 +106,12 @@ public class ExternalArchiveSourceContainer extends AbstractSourceContainer {
 		synchronized (file) {
 			boolean isQualfied = newname.indexOf('/') > 0;
 			if (fDetectRoots && isQualfied) {
-				ZipEntry entry = searchRoots(file, newname);
-				if (entry != null) {
-					return new Object[]{new ZipEntryStorage(file, entry)};
+				String entryName = searchRoots(file, null, newname);
+				if (entryName != null) {
+					ZipEntry entry = file.getEntry(entryName);
+					if (entry != null) {
+						return new Object[]{new ZipEntryStorage(file, entry)};
+					}
 				}
 			} else {
 				// try exact match
@@ -132,20 +154,86 @@ public class ExternalArchiveSourceContainer extends AbstractSourceContainer {
 		return EMPTY;
 	}
 
+	/**
+	 * Searches for the given file name using the index of the archive's
+	 * entries. The archive is only accessed when matching entries exist.
+	 *
+	 * @param index index of the archive
+	 * @param name file name, '/' separated
+	 * @return matching source elements
+	 * @exception CoreException if unable to access the archive
+	 */
+	@SuppressWarnings("resource")
+	private Object[] findSourceElements(ArchiveIndex index, String name) throws CoreException {
+		boolean isQualfied = name.indexOf('/') > 0;
+		List<String> entryNames = new ArrayList<String>();
+		if (fDetectRoots && isQualfied) {
+			String entryName = searchRoots(null, index, name);
+			if (entryName != null) {
+				entryNames.add(entryName);
+			}
+		} else if (index.contains(name)) {
+			// can't be any duplicates if there is an exact match
+			entryNames.add(name);
+		} else {
+			for (String entryName : index.getEntries(name.substring(name.lastIndexOf('/') + 1))) {
+				if (entryName.endsWith(name)) {
+					if (isQualfied || entryName.length() == name.length() || entryName.charAt(entryName.length() - name.length() - 1) == '/') {
+						entryNames.add(entryName);
+						if (!isFindDuplicates()) {
+							break;
+						}
+					}
+				}
+			}
+		}
+		if (entryNames.isEmpty()) {
+			return EMPTY;
+		}
+		ZipFile file = getArchive();
+		if (file == null) {
+			return EMPTY;
+		}
+		List<ZipEntryStorage> matches = new ArrayList<ZipEntryStorage>(entryNames.size());
+		synchronized (file) {
+			for (String entryName : entryNames) {
+				ZipEntry entry = null;
+				try {
+					entry = file.getEntry(entryName);
+				} catch (IllegalStateException e) {
+					// archive was closed between retrieving and locking
+					throw new CoreException(new Status(IStatus.ERROR, DebugPlugin.getUniqueIdentifier(),
+							e.getMessage(), e));
+				}
+				if (entry != null) {
+					matches.add(new ZipEntryStorage(file, entry));
+				}
+			}
+		}
+		if (matches.isEmpty()) {
+			return EMPTY;
+		}
+		return matches.toArray();
+	}
+
 	/**
 	 * Returns the root path in this archive for the given file name, based
 	 * on its type, or <code>null</code> if none. Detects a root if a root has
 	 * not yet been detected for the given file type.
 	 *
-	 * @param file zip file to search in
+	 * @param file zip file to search in, or <code>null</code> to search the index
+	 * @param index index of the archive, or <code>null</code> to search the zip file
 	 * @param name file name
-	 * @return the {@link ZipEntry} with the given name or <code>null</code>
+	 * @return the name of the entry for the given file name or <code>null</code>
 	 * @exception CoreException if an exception occurs while detecting the root
 	 */
-	private synchronized ZipEntry searchRoots(ZipFile file, String name) throws CoreException {
+	private synchronized String searchRoots(ZipFile file, ArchiveIndex index, String name) throws CoreException {
 		if (fDisposed) {
 			return null;
 		}
+		if (fPotentialRoots == null && index != null) {
+			fPotentialRoots = new HashSet<String>(index.getDirectories());
+		}
 		if (fPotentialRoots == null) {
 			fPotentialRoots = new HashSet<String>();
 			fPotentialRoots.add(""); //$NON-NLS-1$
@@ -178,16 +266,14 @@ public class ExternalArchiveSourceContainer extends AbstractSourceContainer {
 		int i = 0;
 		while (i < fRoots.size()) {
 			String root = fRoots.get(i);
-			ZipEntry entry = file.getEntry(root+name);
-			if (entry != null) {
-				return entry;
+			if (exists(file, index, root + name)) {
+				return root + name;
 			}
 			i++;
 		}
 		if (!fPotentialRoots.isEmpty()) {
 			for (String root : fPotentialRoots) {
-				ZipEntry entry = file.getEntry(root + name);
-				if (entry != null) {
+				if (exists(file, index, root + name)) {
 					if (root != null) {
 						fRoots.add(root);
 						fPotentialRoots.remove(root);
@@ -202,13 +288,29 @@ public class ExternalArchiveSourceContainer extends AbstractSourceContainer {
 							}
 						}
 					}
-					return entry;
+					return root + name;
 				}
 			}
 		}
 		return null;
 	}
 
+	/**
+	 * Returns whether the archive has an entry with the given name, according
+	 * to its index if available.
+	 *
+	 * @param file zip file to search in, or <code>null</code>
+	 * @param index index of the archive, or <code>null</code>
+	 * @param entryName entry name
+	 * @return whether the entry exists
+	 */
+	private static boolean exists(ZipFile file, ArchiveIndex index, String entryName) {
+		if (index != null) {
+			return index.contains(entryName);
+		}
+		return file.getEntry(entryName) != null;
+	}
+
 	/**
 	 * Returns the archive to search in.
 	 * @return the {@link ZipFile} to search in
@@ -271,6 +373,7 @@ public class ExternalArchiveSourceContainer extends AbstractSourceContainer {
 			fPotentialRoots.clear();
 		}
 		fRoots.clear();
+		fIndex.dispose();
 		fDisposed = true;
 	}
 }
@@ -0,0 +1,313 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.debug.core.model.IBreakpoint;
+
+/**
+ * Indexes registered breakpoints by debug model, resource, line number and
+ * marker type.
+ * <p>
+ * Queries do not lock and see a consistent view of each individual key;
+ * updates are serialized. Results are ordered by registration, like the
+ * breakpoint manager's list of all breakpoints. Line numbers are those of the
+ * breakpoint markers when a breakpoint was last added or updated.
+ * </p>
+ *
+ * @since 3.12
+ */
+public class BreakpointIndex {
+
+	private static final IBreakpoint[] EMPTY = new IBreakpoint[0];
+
+	/**
+	 * Keys a breakpoint was indexed under
+	 */
+	private static final class Keys {
+		final long fSequence;
+		final String fModelIdentifier;
+		final IResource fResource;
+		final String fMarkerType;
+		final int fLine;
+
+		Keys(long sequence, String modelIdentifier, IResource resource, String markerType, int line) {
+			fSequence = sequence;
+			fModelIdentifier = modelIdentifier;
+			fResource = resource;
+			fMarkerType = markerType;
+			fLine = line;
+		}
+
+		/**
+		 * Returns whether the given keys index a breakpoint under the same
+		 * model, resource, marker type and line as these keys.
+		 */
+		boolean isIndexedAs(Keys keys) {
+			return fLine == keys.fLine && Objects.equals(fModelIdentifier, keys.fModelIdentifier)
+					&& Objects.equals(fResource, keys.fResource) && Objects.equals(fMarkerType, keys.fMarkerType);
+		}
+	}
+
+	private final ConcurrentMap<IBreakpoint, Keys> fKeys = new ConcurrentHashMap<IBreakpoint, Keys>();
+	private final ConcurrentMap<String, Set<IBreakpoint>> fByModel = new ConcurrentHashMap<String, Set<IBreakpoint>>();
+	private final ConcurrentMap<IResource, Set<IBreakpoint>> fByResource = new ConcurrentHashMap<IResource, Set<IBreakpoint>>();
+	private final ConcurrentMap<String, Set<IBreakpoint>> fByMarkerType = new ConcurrentHashMap<String, Set<IBreakpoint>>();
+	private final ConcurrentMap<IResource, ConcurrentNavigableMap<Integer, Set<IBreakpoint>>> fByLine = new ConcurrentHashMap<IResource, ConcurrentNavigableMap<Integer, Set<IBreakpoint>>>();
+
+	/**
+	 * Registration order of the next breakpoint, guarded by this index
+	 */
+	private long fSequence = 0;
+
+	/**
+	 * Adds the given breakpoint to the index. Has no effect if it is already
+	 * indexed.
+	 *
+	 * @param breakpoint the breakpoint to add
+	 */
+	public synchronized void add(IBreakpoint breakpoint) {
+		if (!fKeys.containsKey(breakpoint)) {
+			index(breakpoint, createKeys(breakpoint, fSequence++));
+		}
+	}
+
+	/**
+	 * Removes the given breakpoint from the index.
+	 *
+	 * @param breakpoint the breakpoint to remove
+	 */
+	public synchronized void remove(IBreakpoint breakpoint) {
+		Keys keys = fKeys.remove(breakpoint);
+		if (keys != null) {
+			unindex(breakpoint, keys);
+		}
+	}
+
+	/**
+	 * Updates the keys of the given breakpoint after its marker changed. Has
+	 * no effect if the breakpoint is not indexed.
+	 *
+	 * @param breakpoint the changed breakpoint
+	 */
+	public synchronized void update(IBreakpoint breakpoint) {
+		Keys keys = fKeys.get(breakpoint);
+		if (keys != null) {
+			Keys updated = createKeys(breakpoint, keys.fSequence);
+			if (!updated.isIndexedAs(keys)) {
+				unindex(breakpoint, keys);
+				index(breakpoint, updated);
+			}
+		}
+	}
+
+	/**
+	 * Removes all breakpoints from the index.
+	 */
+	public synchronized void clear() {
+		fKeys.clear();
+		fByModel.clear();
+		fByResource.clear();
+		fByMarkerType.clear();
+		fByLine.clear();
+	}
+
+	/**
+	 * Returns whether the given breakpoint is indexed.
+	 *
+	 * @param breakpoint a breakpoint
+	 * @return whether the breakpoint is indexed
+	 */
+	public boolean contains(IBreakpoint breakpoint) {
+		return fKeys.containsKey(breakpoint);
+	}
+
+	/**
+	 * Returns the breakpoints of the given debug model.
+	 *
+	 * @param modelIdentifier debug model identifier
+	 * @return breakpoints of the model
+	 */
+	public IBreakpoint[] getBreakpoints(String modelIdentifier) {
+		return toArray(modelIdentifier == null ? null : fByModel.get(modelIdentifier));
+	}
+
+	/**
+	 * Returns the breakpoints whose markers are on the given resource.
+	 *
+	 * @param resource a resource
+	 * @return breakpoints on the resource
+	 */
+	public IBreakpoint[] getBreakpoints(IResource resource) {
+		return toArray(fByResource.get(resource));
+	}
+
+	/**
+	 * Returns the breakpoints on the given resource whose line numbers are in
+	 * the given range.
+	 *
+	 * @param resource a resource
+	 * @param startLine first line of the range, inclusive
+	 * @param endLine last line of the range, inclusive
+	 * @return breakpoints on the given lines
+	 */
+	public IBreakpoint[] getBreakpoints(IResource resource, int startLine, int endLine) {
+		ConcurrentNavigableMap<Integer, Set<IBreakpoint>> lines = fByLine.get(resource);
+		if (lines == null || startLine > endLine) {
+			return EMPTY;
+		}
+		List<IBreakpoint> breakpoints = new ArrayList<IBreakpoint>();
+		for (Set<IBreakpoint> line : lines.subMap(Integer.valueOf(startLine), true, Integer.valueOf(endLine), true).values()) {
+			breakpoints.addAll(line);
+		}
+		return toArray(breakpoints);
+	}
+
+	/**
+	 * Returns the breakpoints whose markers are of exactly the given type.
+	 *
+	 * @param markerType marker type
+	 * @return breakpoints with markers of the type
+	 */
+	public IBreakpoint[] getBreakpointsByMarkerType(String markerType) {
+		return toArray(markerType == null ? null : fByMarkerType.get(markerType));
+	}
+
+	/**
+	 * Determines the keys of the given breakpoint from its marker.
+	 *
+	 * @param breakpoint the breakpoint
+	 * @param sequence registration order of the breakpoint
+	 * @return the breakpoint's keys
+	 */
+	private static Keys createKeys(IBreakpoint breakpoint, long sequence) {
+		String modelIdentifier = null;
+		IResource resource = null;
+		String markerType = null;
+		int line = -1;
+		try {
+			modelIdentifier = breakpoint.getModelIdentifier();
+			IMarker marker = breakpoint.getMarker();
+			if (marker != null) {
+				resource = marker.getResource();
+				line = marker.getAttribute(IMarker.LINE_NUMBER, -1);
+				if (marker.exists()) {
+					markerType = marker.getType();
+				}
+			}
+		} catch (CoreException e) {
+			// index what is known
+		}
+		return new Keys(sequence, modelIdentifier, resource, markerType, line);
+	}
+
+	private void index(IBreakpoint breakpoint, Keys keys) {
+		fKeys.put(breakpoint, keys);
+		add(fByModel, keys.fModelIdentifier, breakpoint);
+		add(fByResource, keys.fResource, breakpoint);
+		add(fByMarkerType, keys.fMarkerType, breakpoint);
+		if (keys.fResource != null && keys.fLine >= 0) {
+			ConcurrentNavigableMap<Integer, Set<IBreakpoint>> lines = fByLine.get(keys.fResource);
+			if (lines == null) {
+				lines = new ConcurrentSkipListMap<Integer, Set<IBreakpoint>>();
+				fByLine.put(keys.fResource, lines);
+			}
+			add(lines, Integer.valueOf(keys.fLine), breakpoint);
+		}
+	}
+
+	private void unindex(IBreakpoint breakpoint, Keys keys) {
+		remove(fByModel, keys.fModelIdentifier, breakpoint);
+		remove(fByResource, keys.fResource, breakpoint);
+		remove(fByMarkerType, keys.fMarkerType, breakpoint);
+		if (keys.fResource != null && keys.fLine >= 0) {
+			ConcurrentNavigableMap<Integer, Set<IBreakpoint>> lines = fByLine.get(keys.fResource);
+			if (lines != null) {
+				remove(lines, Integer.valueOf(keys.fLine), breakpoint);
+				if (lines.isEmpty()) {
+					fByLine.remove(keys.fResource);
+				}
+			}
+		}
+	}
+
+	private static <K> void add(Map<K, Set<IBreakpoint>> map, K key, IBreakpoint breakpoint) {
+		if (key == null) {
+			return;
+		}
+		Set<IBreakpoint> breakpoints = map.get(key);
+		if (breakpoints == null) {
+			breakpoints = ConcurrentHashMap.newKeySet();
+			map.put(key, breakpoints);
+		}
+		breakpoints.add(breakpoint);
+	}
+
+	private static <K> void remove(Map<K, Set<IBreakpoint>> map, K key, IBreakpoint breakpoint) {
+		if (key == null) {
+			return;
+		}
+		Set<IBreakpoint> breakpoints = map.get(key);
+		if (breakpoints != null) {
+			breakpoints.remove(breakpoint);
+			if (breakpoints.isEmpty()) {
+				map.remove(key);
+			}
+		}
+	}
+
+	/**
+	 * Returns the given breakpoints in registration order, omitting any that
+	 * have been removed meanwhile.
+	 *
+	 * @param breakpoints breakpoints or <code>null</code>
+	 * @return the breakpoints in registration order
+	 */
+	private IBreakpoint[] toArray(Collection<IBreakpoint> breakpoints) {
+		if (breakpoints == null || breakpoints.isEmpty()) {
+			return EMPTY;
+		}
+		List<Object[]> ordered = new ArrayList<Object[]>(breakpoints.size());
+		for (IBreakpoint breakpoint : breakpoints) {
+			Keys keys = fKeys.get(breakpoint);
+			if (keys != null) {
+				ordered.add(new Object[] { breakpoint, keys });
+			}
+		}
+		Object[][] pairs = ordered.toArray(new Object[ordered.size()][]);
+		Arrays.sort(pairs, new Comparator<Object[]>() {
+			@Override
+			public int compare(Object[] o1, Object[] o2) {
+				return Long.compare(((Keys) o1[1]).fSequence, ((Keys) o2[1]).fSequence);
+			}
+		});
+		IBreakpoint[] result = new IBreakpoint[pairs.length];
+		for (int i = 0; i < pairs.length; i++) {
+			result[i] = (IBreakpoint) pairs[i][0];
+		}
+		return result;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2016 IBM Corporation and others.
+ *  Copyright (c) 2000, 2018 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -14,11 +14,14 @@ package org.eclipse.debug.internal.core;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IMarkerDelta;
@@ -50,6 +53,7 @@ import org.eclipse.debug.core.IBreakpointManagerListener;
 import org.eclipse.debug.core.IBreakpointsListener;
 import org.eclipse.debug.core.model.IBreakpoint;
 import org.eclipse.debug.core.model.IBreakpointImportParticipant;
+import org.eclipse.debug.core.model.IDebugTarget;
 import org.eclipse.debug.core.model.ITriggerPoint;
 
 import com.ibm.icu.text.MessageFormat;
@@ -77,7 +81,63 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	/**
 	 * A collection of breakpoints registered with this manager.
 	 */
-	private Vector<IBreakpoint> fBreakpoints = null;
+	private volatile Vector<IBreakpoint> fBreakpoints = null;
+
+	/**
+	 * Whether the breakpoints in the workspace have been loaded. Once set,
+	 * the breakpoint collection can be accessed without synchronizing on this
+	 * manager.
+	 *
+	 * @since 3.12
+	 */
+	private volatile boolean fInitialized = false;
+
+	/**
+	 * Index of the registered breakpoints by model, resource, line and marker
+	 * type. Updated along with the collection of breakpoints.
+	 *
+	 * @since 3.12
+	 */
+	private final BreakpointIndex fIndex = new BreakpointIndex();
+
+	/**
+	 * Staged restoration of the persisted breakpoints in progress, or
+	 * <code>null</code> if none.
+	 *
+	 * @since 3.12
+	 */
+	private volatile BreakpointRestoration fRestoration = null;
+
+	/**
+	 * Set for threads that are restoring breakpoints, which must not wait for
+	 * the restoration of other breakpoints.
+	 *
+	 * @since 3.12
+	 */
+	private final ThreadLocal<Boolean> fRestoring = new ThreadLocal<Boolean>();
+
+	/**
+	 * Notifications deferred by the batches in progress, or <code>null</code>
+	 * if no batch is in progress. Guarded by <code>fBatchLock</code>.
+	 *
+	 * @since 3.12
+	 */
+	private NotificationBatch fBatch = null;
+
+	/**
+	 * Number of nested batches in progress, guarded by
+	 * <code>fBatchLock</code>.
+	 *
+	 * @since 3.12
+	 */
+	private int fBatchDepth = 0;
+
+	/**
+	 * Lock for batch state
+	 *
+	 * @since 3.12
+	 */
+	private final Object fBatchLock = new Object();
 
 	/**
 	 * Map of breakpoint import participants.
@@ -108,6 +168,17 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	 */
 	private Set<IMarker> fPostBuildMarkersAdded = new HashSet<IMarker>();
 
+	/**
+	 * Markers of breakpoints added in a batch that were changed in the same
+	 * batch, or of breakpoints changed in a batch while auto-building. The
+	 * notifications of the batch cover the change, so the POST_BUILD
+	 * notification of the change is not reported. Guarded by
+	 * <code>fPostChangMarkersChanged</code>.
+	 *
+	 * @since 3.12
+	 */
+	private Set<IMarker> fBatchedChanges = new HashSet<IMarker>();
+
 	/**
 	 * Collection of breakpoints being added currently. Used to
 	 * suppress change notification of "REGISTERED" attribute when
@@ -128,7 +199,7 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	 * key: a marker
 	 * value: the breakpoint which contains that marker
 	 */
-	private HashMap<IMarker, IBreakpoint> fMarkersToBreakpoints;
+	private Map<IMarker, IBreakpoint> fMarkersToBreakpoints;
 
 	/**
 	 * Collection of breakpoint listeners.
@@ -244,6 +315,23 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 									fPostChangMarkersChanged.add(marker);
 								}
 							}
+							IBreakpoint breakpoint = getBreakpoint(marker);
+							if (breakpoint != null && (!fIndex.contains(breakpoint) || isChangeSuppressed(breakpoint))) {
+								breakpoint = null;
+							}
+							boolean batched = false;
+							synchronized (fBatchLock) {
+								if (fBatch != null) {
+									fBatch.fChangedMarkers.add(marker);
+									if (breakpoint != null) {
+										batched = fBatch.changedBeforeBuild(breakpoint, markerDelta);
+									}
+								}
+							}
+							if (batched) {
+								// line numbers may have changed
+								fIndex.update(breakpoint);
+							}
 							break;
 						default:
 							break;
@@ -259,7 +347,7 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	 * Constructs a new breakpoint manager.
 	 */
 	public BreakpointManager() {
-		fMarkersToBreakpoints = new HashMap<IMarker, IBreakpoint>(10);
+		fMarkersToBreakpoints = new ConcurrentHashMap<IMarker, IBreakpoint>(10);
 		fBreakpointExtensions = new HashMap<String, IConfigurationElement>(15);
 	}
 
@@ -272,7 +360,24 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	 */
 	private void loadBreakpoints(IResource resource, boolean notify) throws CoreException {
 		initBreakpointExtensions();
-		IMarker[] markers= getPersistedMarkers(resource);
+		List<IBreakpoint> triggerPoints = new ArrayList<IBreakpoint>();
+		IBreakpoint[] added = createBreakpoints(getPersistedMarkers(resource), triggerPoints);
+		for (IBreakpoint triggerPoint : triggerPoints) {
+			addTriggerPoint(triggerPoint);
+		}
+		addBreakpoints(added, notify);
+	}
+
+	/**
+	 * Creates the breakpoints for the given persisted markers.
+	 *
+	 * @param markers persisted breakpoint markers
+	 * @param triggerPoints collection to add breakpoints that are trigger
+	 *            points to
+	 * @return the created breakpoints that are to be registered
+	 * @since 3.12
+	 */
+	private IBreakpoint[] createBreakpoints(IMarker[] markers, List<IBreakpoint> triggerPoints) {
 		List<IBreakpoint> added = new ArrayList<IBreakpoint>();
 		for (int i = 0; i < markers.length; i++) {
 			IMarker marker= markers[i];
@@ -286,13 +391,13 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 
 				}
 				if (breakpoint instanceof ITriggerPoint && ((ITriggerPoint) breakpoint).isTriggerPoint()) {
-					addTriggerPoint(breakpoint);
+					triggerPoints.add(breakpoint);
 				}
-			} catch (DebugException e) {
+			} catch (CoreException e) {
 				DebugPlugin.log(e);
 			}
 		}
-		addBreakpoints(added.toArray(new IBreakpoint[added.size()]), notify);
+		return added.toArray(new IBreakpoint[added.size()]);
 	}
 
 	/**
@@ -363,10 +468,16 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
         	fImportParticipants = null;
         	fDefaultParticipant = null;
         }
+        if (fRestoration != null) {
+        	fRestoration.cancel();
+        	fRestoration = null;
+        }
         if(fBreakpoints != null) {
+        	fInitialized = false;
         	fBreakpoints.clear();
         	fBreakpoints = null;
         }
+        fIndex.clear();
         if(fMarkersToBreakpoints != null) {
         	fMarkersToBreakpoints.clear();
         }
@@ -405,7 +516,11 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	 */
 	@Override
 	public IBreakpoint getBreakpoint(IMarker marker) {
-		// ensure that breakpoints are initialized
+		if (marker == null) {
+			return null;
+		}
+		// the breakpoint of a marker may be created while restoring the
+		// breakpoints of another resource, ensure that all are restored
 		getBreakpoints0();
 		return fMarkersToBreakpoints.get(marker);
 	}
@@ -435,7 +550,11 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	 * @since 3.8
 	 */
 	public void ensureInitialized() {
-		getBreakpoints0();
+		// breakpoints restored in stages may still be restoring, queries
+		// wait for the breakpoints they return
+		if (fBreakpoints == null) {
+			getBreakpoints1();
+		}
 	}
 
 	/**
@@ -444,9 +563,48 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	 * breakpoints.
 	 * @return the underlying {@link Vector} of breakpoints
 	 */
-	private synchronized Vector<IBreakpoint> getBreakpoints0() {
+	private Vector<IBreakpoint> getBreakpoints0() {
+		Vector<IBreakpoint> breakpoints = fBreakpoints;
+		if (fInitialized && breakpoints != null) {
+			return breakpoints;
+		}
+		breakpoints = getBreakpoints1();
+		BreakpointRestoration restoration = fRestoration;
+		if (restoration != null && fRestoring.get() == null) {
+			restoration.restoreAll();
+		}
+		return breakpoints;
+	}
+
+	/**
+	 * Ensures that the breakpoints whose markers are on the project of the
+	 * given resource, or on the workspace root, are restored. Other
+	 * breakpoints may still be restoring.
+	 *
+	 * @param resource a resource
+	 * @since 3.12
+	 */
+	private void ensureRestored(IResource resource) {
+		if (fInitialized) {
+			return;
+		}
+		getBreakpoints1();
+		BreakpointRestoration restoration = fRestoration;
+		if (restoration != null && fRestoring.get() == null) {
+			restoration.restore(resource);
+		}
+	}
+
+	/**
+	 * Initializes the breakpoints if required, while holding the lock on this
+	 * manager.
+	 *
+	 * @return the underlying {@link Vector} of breakpoints
+	 */
+	private synchronized Vector<IBreakpoint> getBreakpoints1() {
 		if (fBreakpoints == null) {
 			initializeBreakpoints();
+			fInitialized = fRestoration == null;
 		}
 		return fBreakpoints;
 	}
@@ -456,17 +614,35 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	 */
 	@Override
 	public IBreakpoint[] getBreakpoints(String modelIdentifier) {
-		Vector<IBreakpoint> allBreakpoints = getBreakpoints0();
-		synchronized (allBreakpoints) {
-			ArrayList<IBreakpoint> temp = new ArrayList<IBreakpoint>(allBreakpoints.size());
-			for (IBreakpoint breakpoint : allBreakpoints) {
-				String id= breakpoint.getModelIdentifier();
-				if (id != null && id.equals(modelIdentifier)) {
-					temp.add(breakpoint);
-				}
-			}
-			return temp.toArray(new IBreakpoint[temp.size()]);
-		}
+		getBreakpoints0();
+		return fIndex.getBreakpoints(modelIdentifier);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.debug.core.IBreakpointManager#getBreakpoints(org.eclipse.core.resources.IResource)
+	 */
+	@Override
+	public IBreakpoint[] getBreakpoints(IResource resource) {
+		ensureRestored(resource);
+		return fIndex.getBreakpoints(resource);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.debug.core.IBreakpointManager#getBreakpoints(org.eclipse.core.resources.IResource, int, int)
+	 */
+	@Override
+	public IBreakpoint[] getBreakpoints(IResource resource, int startLine, int endLine) {
+		ensureRestored(resource);
+		return fIndex.getBreakpoints(resource, startLine, endLine);
+	}
+
+	/* (non-Javadoc)
+	 * @see org.eclipse.debug.core.IBreakpointManager#getBreakpointsByMarkerType(java.lang.String)
+	 */
+	@Override
+	public IBreakpoint[] getBreakpointsByMarkerType(String markerType) {
+		getBreakpoints0();
+		return fIndex.getBreakpointsByMarkerType(markerType);
 	}
 
 	/**
@@ -476,11 +652,23 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	private void initializeBreakpoints() {
 		setBreakpoints(new Vector<IBreakpoint>(10));
 		try {
-			loadBreakpoints(getWorkspace().getRoot(), false);
+			if (Platform.getPreferencesService().getBoolean(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_BREAKPOINT_STAGED_RESTORE, false, null)) {
+				initBreakpointExtensions();
+				IMarker[] markers = getPersistedMarkers(getWorkspace().getRoot());
+				if (markers.length > 0) {
+					fRestoration = new BreakpointRestoration(markers);
+				}
+			} else {
+				loadBreakpoints(getWorkspace().getRoot(), false);
+			}
 			getWorkspace().addResourceChangeListener(this, IResourceChangeEvent.POST_BUILD);
 			getWorkspace().addResourceChangeListener(fPostChangeListener, IResourceChangeEvent.POST_CHANGE);
+			if (fRestoration != null) {
+				fRestoration.schedule();
+			}
 		} catch (CoreException ce) {
 			DebugPlugin.log(ce);
+			fRestoration = null;
 			setBreakpoints(new Vector<IBreakpoint>(0));
 		}
 	}
@@ -490,7 +678,8 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	 */
 	@Override
 	public boolean isRegistered(IBreakpoint breakpoint) {
-		return getBreakpoints0().contains(breakpoint);
+		getBreakpoints0();
+		return fIndex.contains(breakpoint);
 	}
 
 
@@ -511,13 +700,14 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 		List<IBreakpoint> bps = getBreakpoints0();
 		for (int i = 0; i < breakpoints.length; i++) {
 			IBreakpoint breakpoint = breakpoints[i];
-			if (bps.contains(breakpoint)) {
+			if (fIndex.contains(breakpoint)) {
 				remove.add(breakpoint);
 			}
 		}
 		if (!remove.isEmpty()) {
 			for (IBreakpoint breakpoint : remove) {
 				bps.remove(breakpoint);
+				fIndex.remove(breakpoint);
 				fMarkersToBreakpoints.remove(breakpoint.getMarker());
 			}
 			fireUpdate(remove, null, REMOVED);
@@ -564,7 +754,7 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	 * </ol>
 	 */
 	public IBreakpoint createBreakpoint(IMarker marker) throws DebugException {
-		IBreakpoint breakpoint= fMarkersToBreakpoints.get(marker);
+		IBreakpoint breakpoint= marker == null ? null : fMarkersToBreakpoints.get(marker);
 		if (breakpoint != null) {
 			return breakpoint;
 		}
@@ -613,14 +803,16 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	private void addBreakpoints(IBreakpoint[] breakpoints, boolean notify) throws CoreException {
 		List<IBreakpoint> added = new ArrayList<IBreakpoint>(breakpoints.length);
 		final List<IBreakpoint> update = new ArrayList<IBreakpoint>();
+		Vector<IBreakpoint> bps = getBreakpoints0();
 		for (int i = 0; i < breakpoints.length; i++) {
 			IBreakpoint breakpoint = breakpoints[i];
-			if (!getBreakpoints0().contains(breakpoint)) {
+			if (!fIndex.contains(breakpoint)) {
 				verifyBreakpoint(breakpoint);
 				if (breakpoint.isRegistered()) {
 				    // If notify == false, the breakpoints are just being added at startup
 					added.add(breakpoint);
-					getBreakpoints0().add(breakpoint);
+					bps.add(breakpoint);
+					fIndex.add(breakpoint);
 					fMarkersToBreakpoints.put(breakpoint.getMarker(), breakpoint);
 				} else {
 					// need to update the 'registered' and/or 'group' attributes
@@ -638,6 +830,7 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 					List<IBreakpoint> bps = getBreakpoints0();
 					for (IBreakpoint breakpoint : update) {
 						bps.add(breakpoint);
+						fIndex.add(breakpoint);
 						breakpoint.setRegistered(true);
 						fMarkersToBreakpoints.put(breakpoint.getMarker(), breakpoint);
 					}
@@ -670,7 +863,7 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 	 */
 	@Override
 	public void fireBreakpointChanged(IBreakpoint breakpoint) {
-		if (getBreakpoints0().contains(breakpoint)) {
+		if (isRegistered(breakpoint)) {
 			List<IBreakpoint> changed = new ArrayList<IBreakpoint>();
 			changed.add(breakpoint);
 			fireUpdate(changed, null, CHANGED);
@@ -716,6 +909,260 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 		}
 	}
 
+	/**
+	 * Restores the persisted breakpoints of the workspace in stages, one
+	 * project at a time. Projects are restored by worker jobs, breakpoints of
+	 * active debug models first, or on demand by threads that query the
+	 * breakpoints of a project or of the workspace. The worker jobs belong to
+	 * the job family of the breakpoint manager.
+	 *
+	 * @since 3.12
+	 */
+	class BreakpointRestoration {
+
+		/**
+		 * Breakpoint markers on one project, or on the workspace root
+		 */
+		class Stage {
+
+			private final IMarker[] fMarkers;
+			private boolean fRestored = false;
+
+			Stage(List<IMarker> markers) {
+				fMarkers = markers.toArray(new IMarker[markers.size()]);
+			}
+
+			/**
+			 * Restores the breakpoints of this stage, or waits until another
+			 * thread has registered them. Listeners are notified of the
+			 * registered breakpoints once the lock on this stage is released,
+			 * so that listeners querying breakpoints, and thus waiting for
+			 * other stages, cannot deadlock with threads restoring them.
+			 */
+			void restore() {
+				List<IBreakpoint> registered = register();
+				if (registered == null) {
+					return;
+				}
+				// listeners added since the manager was initialized have not
+				// seen the breakpoints of this stage yet
+				if (!fCanceled) {
+					fireUpdate(registered, null, ADDED);
+				}
+				if (fRemaining.decrementAndGet() == 0) {
+					restored();
+				}
+			}
+
+			/**
+			 * Creates and registers the breakpoints of this stage, unless
+			 * already done or canceled.
+			 *
+			 * @return the registered breakpoints, or <code>null</code> if this
+			 *         stage was restored before or the restoration is canceled
+			 */
+			private synchronized List<IBreakpoint> register() {
+				if (fRestored || fCanceled) {
+					return null;
+				}
+				fRestoring.set(Boolean.TRUE);
+				List<IBreakpoint> registered = new ArrayList<IBreakpoint>();
+				try {
+					List<IBreakpoint> triggerPoints = new ArrayList<IBreakpoint>();
+					IBreakpoint[] added = createBreakpoints(fMarkers, triggerPoints);
+					// registration is serialized, creation is not
+					synchronized (BreakpointRestoration.this) {
+						if (!fCanceled) {
+							for (IBreakpoint triggerPoint : triggerPoints) {
+								addTriggerPoint(triggerPoint);
+							}
+							addBreakpoints(added, false);
+							for (IBreakpoint breakpoint : added) {
+								if (fIndex.contains(breakpoint)) {
+									registered.add(breakpoint);
+								}
+							}
+						}
+					}
+				} catch (CoreException e) {
+					DebugPlugin.log(e);
+				} finally {
+					fRestoring.remove();
+					fRestored = true;
+				}
+				return registered;
+			}
+		}
+
+		/**
+		 * Restores stages until none are left
+		 */
+		class RestoreJob extends Job {
+
+			RestoreJob() {
+				super(DebugCoreMessages.BreakpointManager_restore_job_name);
+				setSystem(true);
+			}
+
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				Stage stage = next();
+				while (stage != null && !monitor.isCanceled()) {
+					stage.restore();
+					stage = next();
+				}
+				return Status.OK_STATUS;
+			}
+
+			@Override
+			public boolean belongsTo(Object family) {
+				return family == BreakpointRestoration.this || family == BreakpointManager.this;
+			}
+		}
+
+		/**
+		 * Stages in the order they are restored in
+		 */
+		private final Stage[] fStages;
+
+		/**
+		 * Stages by project, or the workspace root
+		 */
+		private final Map<IResource, Stage> fStagesByContainer = new HashMap<IResource, Stage>();
+
+		private final AtomicInteger fNext = new AtomicInteger();
+		private final AtomicInteger fRemaining;
+		private volatile boolean fCanceled = false;
+
+		/**
+		 * Creates a restoration of the breakpoints for the given persisted
+		 * markers.
+		 *
+		 * @param markers persisted breakpoint markers
+		 */
+		BreakpointRestoration(IMarker[] markers) {
+			Map<IResource, List<IMarker>> byContainer = new LinkedHashMap<IResource, List<IMarker>>();
+			for (IMarker marker : markers) {
+				IResource container = getContainer(marker.getResource());
+				List<IMarker> list = byContainer.get(container);
+				if (list == null) {
+					list = new ArrayList<IMarker>();
+					byContainer.put(container, list);
+				}
+				list.add(marker);
+			}
+			Set<String> active = getActiveModelIdentifiers();
+			List<Stage> first = new ArrayList<Stage>();
+			List<Stage> rest = new ArrayList<Stage>();
+			for (Map.Entry<IResource, List<IMarker>> entry : byContainer.entrySet()) {
+				Stage stage = new Stage(entry.getValue());
+				fStagesByContainer.put(entry.getKey(), stage);
+				if (isActive(entry.getValue(), active)) {
+					first.add(stage);
+				} else {
+					rest.add(stage);
+				}
+			}
+			first.addAll(rest);
+			fStages = first.toArray(new Stage[first.size()]);
+			fRemaining = new AtomicInteger(fStages.length);
+		}
+
+		/**
+		 * Schedules the worker jobs.
+		 */
+		void schedule() {
+			int workers = Math.min(fStages.length, Runtime.getRuntime().availableProcessors());
+			for (int i = 0; i < workers; i++) {
+				new RestoreJob().schedule();
+			}
+		}
+
+		/**
+		 * Stops restoring breakpoints. Waits until breakpoints that are being
+		 * registered are registered, no breakpoints are registered once this
+		 * method returns.
+		 */
+		void cancel() {
+			synchronized (this) {
+				fCanceled = true;
+			}
+			Job.getJobManager().cancel(this);
+		}
+
+		/**
+		 * Restores the breakpoints on the project of the given resource, or
+		 * on the workspace root.
+		 *
+		 * @param resource a resource
+		 */
+		void restore(IResource resource) {
+			Stage stage = fStagesByContainer.get(getContainer(resource));
+			if (stage != null) {
+				stage.restore();
+			}
+		}
+
+		/**
+		 * Restores all breakpoints, helping the worker jobs.
+		 */
+		void restoreAll() {
+			Stage stage = next();
+			while (stage != null) {
+				stage.restore();
+				stage = next();
+			}
+			// wait for stages restored by other threads
+			for (Stage s : fStages) {
+				s.restore();
+			}
+		}
+
+		private Stage next() {
+			int next = fNext.getAndIncrement();
+			return next < fStages.length ? fStages[next] : null;
+		}
+
+		/**
+		 * All stages have been restored.
+		 */
+		private void restored() {
+			synchronized (BreakpointManager.this) {
+				if (fRestoration == this) {
+					fRestoration = null;
+					fInitialized = true;
+				}
+			}
+		}
+
+		private IResource getContainer(IResource resource) {
+			IProject project = resource.getProject();
+			return project == null ? getWorkspace().getRoot() : project;
+		}
+
+		private Set<String> getActiveModelIdentifiers() {
+			Set<String> active = new HashSet<String>();
+			DebugPlugin plugin = DebugPlugin.getDefault();
+			if (plugin != null) {
+				for (IDebugTarget target : plugin.getLaunchManager().getDebugTargets()) {
+					active.add(target.getModelIdentifier());
+				}
+			}
+			return active;
+		}
+
+		private boolean isActive(List<IMarker> markers, Set<String> active) {
+			if (!active.isEmpty()) {
+				for (IMarker marker : markers) {
+					if (active.contains(marker.getAttribute(IBreakpoint.ID, null))) {
+						return true;
+					}
+				}
+			}
+			return false;
+		}
+	}
+
 	/**
 	 * Visitor for handling resource deltas
 	 */
@@ -856,6 +1303,7 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 			} else {
 				// check if the an add & change have be combined into one add notification
 				synchronized (fPostChangMarkersChanged) {
+					fBatchedChanges.remove(marker);
 					if (fPostChangMarkersChanged.contains(marker)) {
 						handleChangeBreakpoint(marker, mDelta);
 						fPostChangMarkersChanged.remove(marker);
@@ -886,13 +1334,14 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 		 * @return matching breakpoint if exists else return <code>null</code>
 		 */
 		private IBreakpoint findMatchingBreakpoint(IMarker marker) {
-			Vector<IBreakpoint> breakpoints = getBreakpoints0();
+			// only breakpoints on the same resource can match
+			IBreakpoint[] breakpoints = getBreakpoints(marker.getResource());
 			try {
 				Integer line = (Integer) marker.getAttribute(IMarker.LINE_NUMBER);
-				for (int i = 0; i < breakpoints.size(); i++) {
-					IBreakpoint breakpoint = breakpoints.get(i);
+				for (int i = 0; i < breakpoints.length; i++) {
+					IBreakpoint breakpoint = breakpoints[i];
 					IMarker bpMarker = breakpoint.getMarker();
-					if (bpMarker != null && marker.getResource().equals(bpMarker.getResource()) && bpMarker.getAttribute(IMarker.LINE_NUMBER, -1) == (line == null ? -1 : line.intValue())) {
+					if (bpMarker != null && bpMarker.getAttribute(IMarker.LINE_NUMBER, -1) == (line == null ? -1 : line.intValue())) {
 						return breakpoint;
 					}
 				}
@@ -910,6 +1359,7 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 			synchronized (fPostChangMarkersChanged) {
 				fPostChangMarkersChanged.remove(marker);
 				fPostBuildMarkersAdded.remove(marker);
+				fBatchedChanges.remove(marker);
 			}
 			IBreakpoint breakpoint= getBreakpoint(marker);
 			if (breakpoint != null) {
@@ -923,6 +1373,11 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 		 * @param delta the {@link IMarkerDelta}
 		 */
 		protected void handleChangeBreakpoint(IMarker marker, IMarkerDelta delta) {
+			synchronized (fPostChangMarkersChanged) {
+				if (fBatchedChanges.remove(marker)) {
+					return;
+				}
+			}
 			IBreakpoint breakpoint= getBreakpoint(marker);
 			if (breakpoint != null && isRegistered(breakpoint) && !isChangeSuppressed(breakpoint)) {
 				fChanged.add(breakpoint);
@@ -981,11 +1436,35 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 		if (breakpoints.isEmpty()) {
 			return;
 		}
+		if (update == CHANGED) {
+			// line numbers may have changed
+			for (IBreakpoint breakpoint : breakpoints) {
+				fIndex.update(breakpoint);
+			}
+		}
 		IBreakpoint[] bpArray = breakpoints.toArray(new IBreakpoint[breakpoints.size()]);
 		IMarkerDelta[] deltaArray = new IMarkerDelta[bpArray.length];
 		if (deltas != null) {
 			deltaArray = deltas.toArray(deltaArray);
 		}
+		synchronized (fBatchLock) {
+			if (fBatch != null) {
+				fBatch.add(bpArray, deltaArray, update);
+				return;
+			}
+		}
+		notifyListeners(bpArray, deltaArray, update);
+	}
+
+	/**
+	 * Notifies single and plural listeners of the adds/removes/changes
+	 *
+	 * @param bpArray associated breakpoints
+	 * @param deltaArray associated deltas, with <code>null</code> entries for
+	 *            adds
+	 * @param update type of change
+	 */
+	private void notifyListeners(IBreakpoint[] bpArray, IMarkerDelta[] deltaArray, int update) {
 		// single listeners
 		getBreakpointNotifier().notify(bpArray, deltaArray, update);
 
@@ -993,7 +1472,161 @@ public class BreakpointManager implements IBreakpointManager, IResourceChangeLis
 		getBreakpointsNotifier().notify(bpArray, deltaArray, update);
 	}
 
+	/* (non-Javadoc)
+	 * @see org.eclipse.debug.core.IBreakpointManager#runInBatch(org.eclipse.core.resources.IWorkspaceRunnable, org.eclipse.core.runtime.IProgressMonitor)
+	 */
+	@Override
+	public void runInBatch(IWorkspaceRunnable action, IProgressMonitor monitor) throws CoreException {
+		synchronized (fBatchLock) {
+			if (fBatchDepth++ == 0) {
+				fBatch = new NotificationBatch();
+			}
+		}
+		try {
+			getWorkspace().run(action, null, 0, monitor);
+		} finally {
+			NotificationBatch batch = null;
+			synchronized (fBatchLock) {
+				if (--fBatchDepth == 0) {
+					batch = fBatch;
+					fBatch = null;
+				}
+			}
+			if (batch != null) {
+				batch.coverChanges();
+				batch.flush();
+			}
+		}
+	}
+
+	/**
+	 * Breakpoint adds, removes and changes deferred while a batch runs,
+	 * coalesced per breakpoint.
+	 *
+	 * @since 3.12
+	 */
+	class NotificationBatch {
+
+		private final Map<IBreakpoint, IMarkerDelta> fBatchAdded = new LinkedHashMap<IBreakpoint, IMarkerDelta>();
+		private final Map<IBreakpoint, IMarkerDelta> fBatchRemoved = new LinkedHashMap<IBreakpoint, IMarkerDelta>();
+		private final Map<IBreakpoint, IMarkerDelta> fBatchChanged = new LinkedHashMap<IBreakpoint, IMarkerDelta>();
+
+		/**
+		 * Breakpoint markers changed while the batch runs, of which the
+		 * POST_BUILD notification is still to come
+		 */
+		final Set<IMarker> fChangedMarkers = new HashSet<IMarker>();
+
+		/**
+		 * Adds the given notification to this batch.
+		 *
+		 * @param breakpoints associated breakpoints
+		 * @param deltas associated deltas
+		 * @param update type of change
+		 */
+		void add(IBreakpoint[] breakpoints, IMarkerDelta[] deltas, int update) {
+			for (int i = 0; i < breakpoints.length; i++) {
+				IBreakpoint breakpoint = breakpoints[i];
+				switch (update) {
+					case ADDED:
+						fBatchAdded.put(breakpoint, deltas[i]);
+						break;
+					case REMOVED:
+						fBatchChanged.remove(breakpoint);
+						if (fBatchAdded.containsKey(breakpoint)) {
+							// listeners have not been told about it
+							fBatchAdded.remove(breakpoint);
+						} else if (!fBatchRemoved.containsKey(breakpoint)) {
+							fBatchRemoved.put(breakpoint, deltas[i]);
+						}
+						break;
+					case CHANGED:
+						if (fBatchAdded.containsKey(breakpoint)) {
+							// folded into the add
+							fChangedMarkers.remove(breakpoint.getMarker());
+						}
+						// the first delta holds the attributes before the batch
+						if (!fBatchAdded.containsKey(breakpoint) && !fBatchChanged.containsKey(breakpoint)) {
+							fBatchChanged.put(breakpoint, deltas[i]);
+						}
+						break;
+					default:
+						break;
+				}
+			}
+		}
+
+		/**
+		 * Adds a change of a registered breakpoint seen in the POST_CHANGE
+		 * notification of the batch. When auto-building, the POST_BUILD
+		 * notification of the change only comes once the batch is over, so the
+		 * change is reported by the batch instead.
+		 *
+		 * @param breakpoint the changed breakpoint
+		 * @param delta marker delta of the change
+		 * @return whether the change was added to this batch
+		 */
+		boolean changedBeforeBuild(IBreakpoint breakpoint, IMarkerDelta delta) {
+			if (fBatchAdded.containsKey(breakpoint) || fBatchRemoved.containsKey(breakpoint)) {
+				return false;
+			}
+			if (!fBatchChanged.containsKey(breakpoint)) {
+				fBatchChanged.put(breakpoint, delta);
+			}
+			return true;
+		}
+
+		/**
+		 * Drops the change notifications still to come for breakpoints added
+		 * and changed in this batch, as the add notification covers them. When
+		 * auto-building, also drops the POST_BUILD change notifications of
+		 * breakpoints whose changes this batch reports.
+		 */
+		void coverChanges() {
+			synchronized (fPostChangMarkersChanged) {
+				for (IBreakpoint breakpoint : fBatchAdded.keySet()) {
+					IMarker marker = breakpoint.getMarker();
+					if (marker != null && fChangedMarkers.contains(marker)) {
+						fPostChangMarkersChanged.remove(marker);
+						fBatchedChanges.add(marker);
+					}
+				}
+				if (getWorkspace().isAutoBuilding()) {
+					for (IBreakpoint breakpoint : fBatchChanged.keySet()) {
+						IMarker marker = breakpoint.getMarker();
+						if (marker != null && fChangedMarkers.contains(marker)) {
+							fBatchedChanges.add(marker);
+						}
+					}
+				}
+			}
+		}
+
+		/**
+		 * Notifies listeners of the coalesced removes, adds and changes.
+		 */
+		void flush() {
+			flush(fBatchRemoved, REMOVED);
+			flush(fBatchAdded, ADDED);
+			flush(fBatchChanged, CHANGED);
+		}
+
+		private void flush(Map<IBreakpoint, IMarkerDelta> notifications, int update) {
+			if (!notifications.isEmpty()) {
+				IBreakpoint[] bpArray = notifications.keySet().toArray(new IBreakpoint[notifications.size()]);
+				IMarkerDelta[] deltaArray = notifications.values().toArray(new IMarkerDelta[notifications.size()]);
+				notifyListeners(bpArray, deltaArray, update);
+			}
+		}
+	}
+
 	protected void setBreakpoints(Vector<IBreakpoint> breakpoints) {
+		fIndex.clear();
+		synchronized (breakpoints) {
+			for (IBreakpoint breakpoint : breakpoints) {
+				fIndex.add(breakpoint);
+			}
+		}
 		fBreakpoints = breakpoints;
 	}
 
@@ -0,0 +1,236 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.debug.core.DebugPlugin;
+
+/**
+ * A bounded store for raw stream output. Bytes are kept in a single buffer that
+ * is allocated once and reused; text is only decoded when the contents are
+ * requested.
+ * <p>
+ * When the buffer is full, the eviction policy decides which bytes are
+ * dropped: either the oldest bytes are overwritten (ring behavior) or new bytes
+ * are ignored until the buffer is cleared.
+ * </p>
+ * <p>
+ * Clients are responsible for synchronization.
+ * </p>
+ *
+ * @since 3.12
+ */
+public class ByteRingBuffer {
+
+	/**
+	 * Eviction policy that overwrites the oldest bytes when the buffer is full.
+	 */
+	public static final String EVICT_OLDEST = "oldest"; //$NON-NLS-1$
+
+	/**
+	 * Eviction policy that discards new bytes when the buffer is full.
+	 */
+	public static final String EVICT_NEWEST = "newest"; //$NON-NLS-1$
+
+	/**
+	 * The backing storage, allocated once with the retention limit as capacity
+	 */
+	private final ByteBuffer fBuffer;
+
+	/**
+	 * Whether the oldest bytes are overwritten when the buffer is full
+	 */
+	private final boolean fEvictOldest;
+
+	/**
+	 * The charset used to decode the retained bytes
+	 */
+	private final Charset fCharset;
+
+	/**
+	 * Index of the oldest retained byte
+	 */
+	private int fStart = 0;
+
+	/**
+	 * Number of retained bytes
+	 */
+	private int fSize = 0;
+
+	/**
+	 * Total number of bytes that have been evicted or rejected since the last
+	 * {@link #clear()}
+	 */
+	private long fDiscarded = 0;
+
+	/**
+	 * Creates a ring buffer.
+	 *
+	 * @param capacity maximum number of bytes to retain, must be positive
+	 * @param direct whether to allocate the storage outside of the Java heap
+	 * @param evictionPolicy one of {@link #EVICT_OLDEST} or
+	 *            {@link #EVICT_NEWEST}
+	 * @param charset the charset used to decode the contents
+	 */
+	public ByteRingBuffer(int capacity, boolean direct, String evictionPolicy, Charset charset) {
+		if (capacity <= 0) {
+			throw new IllegalArgumentException("capacity must be positive"); //$NON-NLS-1$
+		}
+		fBuffer = direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+		fEvictOldest = !EVICT_NEWEST.equals(evictionPolicy);
+		fCharset = charset;
+	}
+
+	/**
+	 * Appends the given bytes, evicting according to the eviction policy.
+	 *
+	 * @param bytes source array
+	 * @param offset offset of the first byte to append
+	 * @param length number of bytes to append
+	 */
+	public void append(byte[] bytes, int offset, int length) {
+		int capacity = fBuffer.capacity();
+		if (!fEvictOldest) {
+			int accepted = Math.min(length, capacity - fSize);
+			fDiscarded += length - accepted;
+			length = accepted;
+		} else if (length > capacity) {
+			// only the tail of the chunk can survive
+			fDiscarded += fSize + (length - capacity);
+			offset += length - capacity;
+			length = capacity;
+			fStart = 0;
+			fSize = 0;
+		}
+		if (length == 0) {
+			return;
+		}
+		int overflow = fSize + length - capacity;
+		if (overflow > 0) {
+			fStart = (fStart + overflow) % capacity;
+			fSize -= overflow;
+			fDiscarded += overflow;
+		}
+		int end = (fStart + fSize) % capacity;
+		int first = Math.min(length, capacity - end);
+		ByteBuffer target = fBuffer.duplicate();
+		target.position(end);
+		target.put(bytes, offset, first);
+		if (first < length) {
+			target.position(0);
+			target.put(bytes, offset + first, length - first);
+		}
+		fSize += length;
+	}
+
+	/**
+	 * Decodes and returns the retained contents.
+	 *
+	 * @return the retained contents as text
+	 */
+	public String getContents() {
+		if (fSize == 0) {
+			return IInternalDebugCoreConstants.EMPTY_STRING;
+		}
+		int capacity = fBuffer.capacity();
+		int start = fStart;
+		int size = fSize;
+		boolean utf8 = StandardCharsets.UTF_8.equals(fCharset);
+		if (fDiscarded > 0 && fEvictOldest && utf8) {
+			// eviction may have split the first character, skip the
+			// continuation bytes left of it (at most 3)
+			int skipped = 0;
+			while (skipped < 3 && size > 0 && (fBuffer.get(start) & 0xC0) == 0x80) {
+				start = (start + 1) % capacity;
+				size--;
+				skipped++;
+			}
+			if (size == 0) {
+				return IInternalDebugCoreConstants.EMPTY_STRING;
+			}
+		}
+		ByteBuffer source;
+		if (start + size <= capacity) {
+			// contiguous, decode in place
+			source = fBuffer.duplicate();
+			source.limit(start + size);
+			source.position(start);
+		} else {
+			byte[] bytes = new byte[size];
+			ByteBuffer head = fBuffer.duplicate();
+			head.position(start);
+			int first = capacity - start;
+			head.get(bytes, 0, first);
+			head.position(0);
+			head.get(bytes, first, size - first);
+			source = ByteBuffer.wrap(bytes);
+		}
+		CharsetDecoder decoder = fCharset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		CharBuffer chars;
+		try {
+			chars = decoder.decode(source);
+		} catch (CharacterCodingException e) {
+			// cannot happen with REPLACE actions
+			DebugPlugin.log(e);
+			return IInternalDebugCoreConstants.EMPTY_STRING;
+		}
+		if (fDiscarded > 0 && fEvictOldest && !utf8 && chars.length() > 0 && chars.charAt(0) == '\uFFFD') {
+			// eviction may have split the first character of another
+			// multi-byte charset
+			chars.position(1);
+		}
+		return chars.toString();
+	}
+
+	/**
+	 * Discards all retained bytes.
+	 */
+	public void clear() {
+		fStart = 0;
+		fSize = 0;
+		fDiscarded = 0;
+	}
+
+	/**
+	 * Returns the number of bytes currently retained.
+	 *
+	 * @return number of retained bytes
+	 */
+	public int size() {
+		return fSize;
+	}
+
+	/**
+	 * Returns the maximum number of bytes this buffer retains.
+	 *
+	 * @return the capacity in bytes
+	 */
+	public int capacity() {
+		return fBuffer.capacity();
+	}
+
+	/**
+	 * Returns the number of bytes evicted or rejected since this buffer was
+	 * created or last cleared.
+	 *
+	 * @return number of discarded bytes
+	 */
+	public long getDiscardedCount() {
+		return fDiscarded;
+	}
+}
@@ -0,0 +1,206 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.eclipse.core.runtime.ISafeRunnable;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.SafeRunner;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.debug.core.DebugEvent;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.IConcurrentDebugEventSetListener;
+
+/**
+ * Notifies {@link IConcurrentDebugEventSetListener}s on a fork-join pool.
+ * <p>
+ * Each listener has its own mailbox of pending event sets which is drained
+ * by at most one pool thread at a time, so a listener receives event sets in
+ * the order they were posted and is never notified concurrently with itself.
+ * A slow listener only delays its own mailbox, as long as other pool threads
+ * are free.
+ * </p>
+ * <p>
+ * Listeners are registered with {@link #add(IConcurrentDebugEventSetListener)}
+ * and unregistered with {@link #remove(IConcurrentDebugEventSetListener)}.
+ * Events posted to a listener that is not registered are discarded, so a
+ * listener is not notified once it has been removed.
+ * </p>
+ *
+ * @see IInternalDebugCoreConstants#PREF_PARALLEL_EVENT_DISPATCH
+ * @since 3.12
+ */
+public class ConcurrentEventDispatcher {
+
+	/**
+	 * The pool draining listener mailboxes, created on demand
+	 */
+	private ForkJoinPool fPool;
+
+	/**
+	 * Whether this dispatcher has been shut down
+	 */
+	private boolean fShutdown = false;
+
+	/**
+	 * Mailboxes of registered listeners
+	 */
+	private final Map<IConcurrentDebugEventSetListener, Mailbox> fMailboxes = new ConcurrentHashMap<>();
+
+	/**
+	 * Pending event sets of a single listener.
+	 */
+	class Mailbox implements Runnable {
+
+		private final IConcurrentDebugEventSetListener fListener;
+		private final Queue<DebugEvent[]> fPending = new ConcurrentLinkedQueue<>();
+		private final AtomicBoolean fScheduled = new AtomicBoolean();
+		private volatile boolean fDisposed = false;
+		private DebugEvent[] fEvents;
+
+		/**
+		 * Notifies the listener of the current event set, logging any
+		 * exception
+		 */
+		private final ISafeRunnable fNotifier = new ISafeRunnable() {
+			@Override
+			public void run() throws Exception {
+				fListener.handleDebugEvents(fEvents);
+			}
+
+			@Override
+			public void handleException(Throwable exception) {
+				DebugPlugin.log(new Status(IStatus.ERROR, DebugPlugin.getUniqueIdentifier(), DebugPlugin.ERROR, DebugCoreMessages.DebugPlugin_8, exception));
+			}
+		};
+
+		Mailbox(IConcurrentDebugEventSetListener listener) {
+			fListener = listener;
+		}
+
+		void post(DebugEvent[] events) {
+			if (!fDisposed) {
+				fPending.add(events);
+				schedule();
+			}
+		}
+
+		private void schedule() {
+			if (fScheduled.compareAndSet(false, true)) {
+				try {
+					getPool().execute(this);
+				} catch (RejectedExecutionException e) {
+					// dispatcher was shut down
+					fScheduled.set(false);
+				}
+			}
+		}
+
+		@Override
+		public void run() {
+			while (!fDisposed && (fEvents = fPending.poll()) != null) {
+				if (DebugOptions.DEBUG_EVENT_LISTENERS) {
+					long start = System.nanoTime();
+					SafeRunner.run(fNotifier);
+					DebugEventListenerTimings.getDefault().record(fListener, System.nanoTime() - start);
+				} else {
+					SafeRunner.run(fNotifier);
+				}
+			}
+			fEvents = null;
+			fScheduled.set(false);
+			// events may have been posted after the queue was found empty
+			if (!fDisposed && !fPending.isEmpty()) {
+				schedule();
+			}
+		}
+
+		void dispose() {
+			fDisposed = true;
+			fPending.clear();
+		}
+	}
+
+	/**
+	 * Registers the given listener. Has no effect if the listener is already
+	 * registered.
+	 *
+	 * @param listener a listener that has been added
+	 */
+	public void add(IConcurrentDebugEventSetListener listener) {
+		fMailboxes.computeIfAbsent(listener, Mailbox::new);
+	}
+
+	/**
+	 * Queues the given events for the given listener. Has no effect if the
+	 * listener is not registered.
+	 *
+	 * @param listener the listener to notify
+	 * @param events the events to deliver
+	 */
+	public void post(IConcurrentDebugEventSetListener listener, DebugEvent[] events) {
+		Mailbox mailbox = fMailboxes.get(listener);
+		if (mailbox != null) {
+			mailbox.post(events);
+		}
+	}
+
+	/**
+	 * Discards pending events of the given listener.
+	 *
+	 * @param listener a listener that has been removed
+	 */
+	public void remove(IConcurrentDebugEventSetListener listener) {
+		Mailbox mailbox = fMailboxes.remove(listener);
+		if (mailbox != null) {
+			mailbox.dispose();
+		}
+	}
+
+	/**
+	 * Discards all pending events and stops the pool.
+	 */
+	public synchronized void shutdown() {
+		fShutdown = true;
+		for (Mailbox mailbox : fMailboxes.values()) {
+			mailbox.dispose();
+		}
+		fMailboxes.clear();
+		if (fPool != null) {
+			fPool.shutdownNow();
+			fPool = null;
+		}
+	}
+
+	/**
+	 * Returns the pool, creating it if necessary.
+	 *
+	 * @return the pool running listener notifications
+	 * @throws RejectedExecutionException if this dispatcher has been shut down
+	 */
+	private synchronized ForkJoinPool getPool() {
+		if (fShutdown) {
+			throw new RejectedExecutionException();
+		}
+		if (fPool == null) {
+			// asynchronous mode gives FIFO scheduling of submitted mailboxes
+			fPool = new ForkJoinPool(Runtime.getRuntime().availableProcessors(), ForkJoinPool.defaultForkJoinWorkerThreadFactory, null, true);
+		}
+		return fPool;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -19,6 +19,7 @@ public class DebugCoreMessages extends NLS {
 	public static String Breakpoint_no_associated_marker;
 	public static String BreakpointManager_Missing_breakpoint_definition;
 	public static String BreakpointManager_Missing_model_identifier;
+	public static String BreakpointManager_restore_job_name;
 	public static String DebugEvent_illegal_detail;
 	public static String DebugEvent_illegal_kind;
 	public static String DebugPlugin_0;
@@ -109,6 +110,8 @@ public class DebugCoreMessages extends NLS {
 	public static String LaunchManager_Source_locator_does_not_exist___0__13;
 	public static String LogicalStructureType_0;
 	public static String OutputStreamMonitor_label;
+	public static String OutputStreamMonitor_discarded;
+	public static String StreamPump_label;
 	public static String ProcessMonitorJob_0;
 	public static String RuntimeProcess_terminate_failed;
 	public static String RuntimeProcess_Exit_value_not_available_until_process_terminates__1;
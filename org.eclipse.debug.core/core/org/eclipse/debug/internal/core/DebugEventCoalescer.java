@@ -0,0 +1,88 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.debug.core.DebugEvent;
+
+/**
+ * Merges consecutive debug event sets that only contain change events into a
+ * single set, dropping redundant change events.
+ * <p>
+ * A change event is redundant when an earlier event in the same batch has the
+ * same source and detail and neither carries client data. Sets containing any
+ * other kind of event are never merged, so they keep their position relative
+ * to the surrounding change events.
+ * </p>
+ *
+ * @see IInternalDebugCoreConstants#PREF_COALESCE_DEBUG_EVENTS
+ * @since 3.12
+ */
+public class DebugEventCoalescer {
+
+	/**
+	 * Returns whether the given event set may be merged with neighboring
+	 * sets, i.e. whether it only contains {@link DebugEvent#CHANGE} events.
+	 *
+	 * @param events event set
+	 * @return whether the set may be coalesced
+	 */
+	public static boolean isCoalescable(DebugEvent[] events) {
+		if (events.length == 0) {
+			return false;
+		}
+		for (DebugEvent event : events) {
+			if (event.getKind() != DebugEvent.CHANGE) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Merges the given coalescable event sets into a single set, in order,
+	 * without redundant change events.
+	 *
+	 * @param sets event sets accepted by {@link #isCoalescable(DebugEvent[])}
+	 * @return the merged event set
+	 */
+	public static DebugEvent[] coalesce(List<DebugEvent[]> sets) {
+		if (sets.size() == 1 && sets.get(0).length == 1) {
+			return sets.get(0);
+		}
+		List<DebugEvent> merged = new ArrayList<>();
+		// source -> details already reported for it
+		Map<Object, Set<Integer>> seen = new IdentityHashMap<>();
+		for (DebugEvent[] set : sets) {
+			for (DebugEvent event : set) {
+				if (event.getData() != null) {
+					merged.add(event);
+					continue;
+				}
+				Set<Integer> details = seen.get(event.getSource());
+				if (details == null) {
+					details = new HashSet<>(4);
+					seen.put(event.getSource(), details);
+				}
+				if (details.add(Integer.valueOf(event.getDetail()))) {
+					merged.add(event);
+				}
+			}
+		}
+		return merged.toArray(new DebugEvent[merged.size()]);
+	}
+}
@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.eclipse.debug.core.IDebugEventSetListener;
+
+/**
+ * Measures the time debug event set listeners spend handling events. Timings
+ * are only recorded while the
+ * <code>org.eclipse.debug.core/debug/events/listeners</code> tracing option is
+ * enabled.
+ * <p>
+ * A listener exceeding the latency budget
+ * (<code>org.eclipse.debug.core/debug/events/listeners/budget</code>, in
+ * milliseconds) on {@link #OVERRUN_LIMIT} consecutive notifications is
+ * reported when the <code>org.eclipse.debug.core/debug/events/listeners</code>
+ * tracing option is enabled.
+ * </p>
+ *
+ * @since 3.12
+ */
+public class DebugEventListenerTimings {
+
+	/**
+	 * Number of consecutive notifications over budget before a listener is
+	 * reported
+	 */
+	public static final int OVERRUN_LIMIT = 3;
+
+	private static final DebugEventListenerTimings fgDefault = new DebugEventListenerTimings();
+
+	/**
+	 * Timings per listener
+	 */
+	private final Map<IDebugEventSetListener, Timing> fTimings = new ConcurrentHashMap<>();
+
+	/**
+	 * Callback statistics of a single listener.
+	 */
+	static class Timing {
+		long fCalls;
+		long fTotal;
+		long fMax;
+		int fOverruns;
+	}
+
+	/**
+	 * Returns the listener timings of the debug event dispatcher.
+	 *
+	 * @return the listener timings
+	 */
+	public static DebugEventListenerTimings getDefault() {
+		return fgDefault;
+	}
+
+	/**
+	 * Records the time a listener spent handling one event set.
+	 *
+	 * @param listener the notified listener
+	 * @param nanos time spent in the callback in nanoseconds
+	 */
+	public void record(IDebugEventSetListener listener, long nanos) {
+		Timing timing = fTimings.computeIfAbsent(listener, l -> new Timing());
+		boolean report = false;
+		synchronized (timing) {
+			timing.fCalls++;
+			timing.fTotal += nanos;
+			timing.fMax = Math.max(timing.fMax, nanos);
+			if (nanos > DebugOptions.DEBUG_EVENT_LISTENERS_BUDGET * 1000000L) {
+				timing.fOverruns++;
+				report = timing.fOverruns == OVERRUN_LIMIT;
+			} else {
+				timing.fOverruns = 0;
+			}
+		}
+		if (report && DebugOptions.DEBUG_EVENT_LISTENERS) {
+			DebugOptions.trace(DebugOptions.DEBUG_FLAG_EVENT_LISTENERS, "Debug event listener exceeded " + DebugOptions.DEBUG_EVENT_LISTENERS_BUDGET //$NON-NLS-1$
+					+ "ms on " + OVERRUN_LIMIT + " consecutive notifications: " + listener.getClass().getName() + " (last: " + nanos / 1000000 + "ms)", null); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		}
+	}
+
+	/**
+	 * Discards the timings of the given listener.
+	 *
+	 * @param listener a listener that is no longer registered
+	 */
+	public void remove(IDebugEventSetListener listener) {
+		fTimings.remove(listener);
+	}
+
+	/**
+	 * Returns the number of notifications recorded for the given listener.
+	 *
+	 * @param listener a listener
+	 * @return number of recorded notifications
+	 */
+	public long getCallCount(IDebugEventSetListener listener) {
+		Timing timing = fTimings.get(listener);
+		if (timing == null) {
+			return 0;
+		}
+		synchronized (timing) {
+			return timing.fCalls;
+		}
+	}
+
+	/**
+	 * Returns the total time the given listener spent handling events.
+	 *
+	 * @param listener a listener
+	 * @return total callback time in nanoseconds
+	 */
+	public long getTotalTime(IDebugEventSetListener listener) {
+		Timing timing = fTimings.get(listener);
+		if (timing == null) {
+			return 0;
+		}
+		synchronized (timing) {
+			return timing.fTotal;
+		}
+	}
+
+	/**
+	 * Returns the longest time the given listener spent handling one event
+	 * set.
+	 *
+	 * @param listener a listener
+	 * @return maximum callback time in nanoseconds
+	 */
+	public long getMaxTime(IDebugEventSetListener listener) {
+		Timing timing = fTimings.get(listener);
+		if (timing == null) {
+			return 0;
+		}
+		synchronized (timing) {
+			return timing.fMax;
+		}
+	}
+}
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Collects statistics about the debug event queue: its depth and the time
+ * between firing an event set and notifying listeners of it.
+ * <p>
+ * When the <code>org.eclipse.debug.core/debug/events/metrics</code> tracing
+ * option is enabled, a summary is traced after each dispatch cycle.
+ * </p>
+ *
+ * @since 3.12
+ */
+public class DebugEventMetrics {
+
+	private static final DebugEventMetrics fgDefault = new DebugEventMetrics();
+
+	private final AtomicInteger fQueueDepth = new AtomicInteger();
+	private final AtomicInteger fMaxQueueDepth = new AtomicInteger();
+	private final AtomicLong fDispatchedSets = new AtomicLong();
+	private final AtomicLong fDispatchedEvents = new AtomicLong();
+	private final AtomicLong fCoalescedEvents = new AtomicLong();
+	private final AtomicLong fTotalLatency = new AtomicLong();
+	private final AtomicLong fMaxLatency = new AtomicLong();
+
+	/**
+	 * Returns the metrics of the debug event queue.
+	 *
+	 * @return the debug event queue metrics
+	 */
+	public static DebugEventMetrics getDefault() {
+		return fgDefault;
+	}
+
+	/**
+	 * Records that an entry was added to the event queue.
+	 */
+	public void enqueued() {
+		int depth = fQueueDepth.incrementAndGet();
+		fMaxQueueDepth.accumulateAndGet(depth, Math::max);
+	}
+
+	/**
+	 * Records that an entry was removed from the event queue.
+	 */
+	public void dequeued() {
+		fQueueDepth.decrementAndGet();
+	}
+
+	/**
+	 * Records that an event set was delivered to listeners.
+	 *
+	 * @param events number of events delivered
+	 * @param latency nanoseconds between the oldest contributing set being
+	 *            fired and delivery
+	 */
+	public void dispatched(int events, long latency) {
+		fDispatchedSets.incrementAndGet();
+		fDispatchedEvents.addAndGet(events);
+		fTotalLatency.addAndGet(latency);
+		fMaxLatency.accumulateAndGet(latency, Math::max);
+	}
+
+	/**
+	 * Records that redundant events were dropped by coalescing.
+	 *
+	 * @param events number of events dropped
+	 */
+	public void coalesced(int events) {
+		fCoalescedEvents.addAndGet(events);
+	}
+
+	/**
+	 * @return current number of queued event sets and runnables
+	 */
+	public int getQueueDepth() {
+		return fQueueDepth.get();
+	}
+
+	/**
+	 * @return highest queue depth observed since the last reset
+	 */
+	public int getMaxQueueDepth() {
+		return fMaxQueueDepth.get();
+	}
+
+	/**
+	 * @return number of event sets delivered since the last reset
+	 */
+	public long getDispatchedSetCount() {
+		return fDispatchedSets.get();
+	}
+
+	/**
+	 * @return number of events delivered since the last reset
+	 */
+	public long getDispatchedEventCount() {
+		return fDispatchedEvents.get();
+	}
+
+	/**
+	 * @return number of events dropped by coalescing since the last reset
+	 */
+	public long getCoalescedEventCount() {
+		return fCoalescedEvents.get();
+	}
+
+	/**
+	 * @return average dispatch latency in nanoseconds since the last reset
+	 */
+	public long getAverageLatency() {
+		long sets = fDispatchedSets.get();
+		return sets == 0 ? 0 : fTotalLatency.get() / sets;
+	}
+
+	/**
+	 * @return highest dispatch latency in nanoseconds since the last reset
+	 */
+	public long getMaxLatency() {
+		return fMaxLatency.get();
+	}
+
+	/**
+	 * Resets all statistics except the current queue depth.
+	 */
+	public void reset() {
+		fMaxQueueDepth.set(fQueueDepth.get());
+		fDispatchedSets.set(0);
+		fDispatchedEvents.set(0);
+		fCoalescedEvents.set(0);
+		fTotalLatency.set(0);
+		fMaxLatency.set(0);
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder buffer = new StringBuilder("Debug event metrics: "); //$NON-NLS-1$
+		buffer.append("queue depth=").append(getQueueDepth()); //$NON-NLS-1$
+		buffer.append(", max depth=").append(getMaxQueueDepth()); //$NON-NLS-1$
+		buffer.append(", sets=").append(getDispatchedSetCount()); //$NON-NLS-1$
+		buffer.append(", events=").append(getDispatchedEventCount()); //$NON-NLS-1$
+		buffer.append(", coalesced=").append(getCoalescedEventCount()); //$NON-NLS-1$
+		buffer.append(", avg latency=").append(getAverageLatency() / 1000).append("us"); //$NON-NLS-1$ //$NON-NLS-2$
+		buffer.append(", max latency=").append(getMaxLatency() / 1000).append("us"); //$NON-NLS-1$ //$NON-NLS-2$
+		return buffer.toString();
+	}
+}
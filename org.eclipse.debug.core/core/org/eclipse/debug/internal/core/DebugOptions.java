@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2013 IBM Corporation and others.
+ * Copyright (c) 2006, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -28,10 +28,20 @@ public class DebugOptions implements DebugOptionsListener {
 	public static boolean DEBUG = false;
 	public static boolean DEBUG_COMMANDS = false;
 	public static boolean DEBUG_EVENTS = false;
+	public static boolean DEBUG_EVENT_METRICS = false;
+	public static boolean DEBUG_EVENT_LISTENERS = false;
+	public static int DEBUG_EVENT_LISTENERS_BUDGET = 100;
+	public static boolean DEBUG_REFRESH = false;
+	public static boolean DEBUG_STREAMS = false;
 
 	static final String DEBUG_FLAG = "org.eclipse.debug.core/debug"; //$NON-NLS-1$
 	static final String DEBUG_FLAG_COMMANDS = "org.eclipse.debug.core/debug/commands"; //$NON-NLS-1$
 	static final String DEBUG_FLAG_EVENTS = "org.eclipse.debug.core/debug/events"; //$NON-NLS-1$
+	static final String DEBUG_FLAG_EVENT_METRICS = "org.eclipse.debug.core/debug/events/metrics"; //$NON-NLS-1$
+	static final String DEBUG_FLAG_EVENT_LISTENERS = "org.eclipse.debug.core/debug/events/listeners"; //$NON-NLS-1$
+	static final String DEBUG_FLAG_EVENT_LISTENERS_BUDGET = "org.eclipse.debug.core/debug/events/listeners/budget"; //$NON-NLS-1$
+	static final String DEBUG_FLAG_REFRESH = "org.eclipse.debug.core/debug/refresh"; //$NON-NLS-1$
+	static final String DEBUG_FLAG_STREAMS = "org.eclipse.debug.core/debug/streams"; //$NON-NLS-1$
 
 	/**
 	 * The {@link DebugTrace} object to print to OSGi tracing
@@ -58,6 +68,11 @@ public class DebugOptions implements DebugOptionsListener {
 		DEBUG = options.getBooleanOption(DEBUG_FLAG, false);
 		DEBUG_COMMANDS = DEBUG & options.getBooleanOption(DEBUG_FLAG_COMMANDS, false);
 		DEBUG_EVENTS = DEBUG & options.getBooleanOption(DEBUG_FLAG_EVENTS, false);
+		DEBUG_EVENT_METRICS = DEBUG & options.getBooleanOption(DEBUG_FLAG_EVENT_METRICS, false);
+		DEBUG_EVENT_LISTENERS = DEBUG & options.getBooleanOption(DEBUG_FLAG_EVENT_LISTENERS, false);
+		DEBUG_EVENT_LISTENERS_BUDGET = options.getIntegerOption(DEBUG_FLAG_EVENT_LISTENERS_BUDGET, 100);
+		DEBUG_REFRESH = DEBUG & options.getBooleanOption(DEBUG_FLAG_REFRESH, false);
+		DEBUG_STREAMS = DEBUG & options.getBooleanOption(DEBUG_FLAG_STREAMS, false);
 	}
 
 	/**
@@ -31,6 +31,17 @@ public class DebugPreferenceInitializer extends AbstractPreferenceInitializer {
 		Preferences.setDefaultBoolean(DebugPlugin.getUniqueIdentifier(), DebugPlugin.PREF_DELETE_CONFIGS_ON_PROJECT_DELETE, false);
 		Preferences.setDefaultBoolean(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_ENABLE_STATUS_HANDLERS, true);
 		Preferences.setDefaultBoolean(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_BREAKPOINT_MANAGER_ENABLED_STATE, true);
+		Preferences.setDefaultBoolean(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_BREAKPOINT_STAGED_RESTORE, false);
+		Preferences.setDefaultBoolean(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_LAUNCH_VARIABLE_MEMO, false);
+		// process output preferences
+		Preferences.setDefaultInt(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_STREAM_BUFFER_LIMIT, 0);
+		Preferences.setDefaultBoolean(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_STREAM_BUFFER_DIRECT, false);
+		Preferences.setDefaultString(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_STREAM_BUFFER_EVICTION, ByteRingBuffer.EVICT_OLDEST);
+		Preferences.setDefaultBoolean(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_STREAM_PUMP, false);
+		Preferences.setDefaultBoolean(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_STREAM_FLOW_CONTROL_DROP, false);
+		// event dispatch preferences
+		Preferences.setDefaultBoolean(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_COALESCE_DEBUG_EVENTS, false);
+		Preferences.setDefaultBoolean(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_PARALLEL_EVENT_DISPATCH, false);
 		Preferences.savePreferences(DebugPlugin.getUniqueIdentifier());
 	}
 
@@ -41,4 +41,89 @@ public interface IInternalDebugCoreConstants {
 	 */
 	public static final String PREF_BREAKPOINT_MANAGER_ENABLED_STATE =  DebugPlugin.getUniqueIdentifier() + ".PREF_BREAKPOINT_MANAGER_ENABLED_STATE"; //$NON-NLS-1$
 
+	/**
+	 * Boolean preference controlling whether persisted breakpoints are
+	 * restored by project in background jobs, rather than all at once by the
+	 * first thread to access the breakpoint manager. Default value is
+	 * <code>false</code>.
+	 *
+	 * @since 3.12
+	 */
+	public static final String PREF_BREAKPOINT_STAGED_RESTORE = DebugPlugin.getUniqueIdentifier() + ".PREF_BREAKPOINT_STAGED_RESTORE"; //$NON-NLS-1$
+
+	/**
+	 * Integer preference specifying the maximum number of bytes of process
+	 * output retained by each output stream monitor. Default value is
+	 * <code>0</code>, meaning the complete output is retained as text.
+	 *
+	 * @since 3.12
+	 */
+	public static final String PREF_STREAM_BUFFER_LIMIT = DebugPlugin.getUniqueIdentifier() + ".PREF_STREAM_BUFFER_LIMIT"; //$NON-NLS-1$
+
+	/**
+	 * Boolean preference controlling whether bounded output stream buffers are
+	 * allocated outside of the Java heap. Default value is <code>false</code>.
+	 *
+	 * @since 3.12
+	 */
+	public static final String PREF_STREAM_BUFFER_DIRECT = DebugPlugin.getUniqueIdentifier() + ".PREF_STREAM_BUFFER_DIRECT"; //$NON-NLS-1$
+
+	/**
+	 * String preference specifying which output is dropped once a bounded
+	 * output stream buffer is full, one of {@link ByteRingBuffer#EVICT_OLDEST}
+	 * or {@link ByteRingBuffer#EVICT_NEWEST}. Default value is
+	 * {@link ByteRingBuffer#EVICT_OLDEST}.
+	 *
+	 * @since 3.12
+	 */
+	public static final String PREF_STREAM_BUFFER_EVICTION = DebugPlugin.getUniqueIdentifier() + ".PREF_STREAM_BUFFER_EVICTION"; //$NON-NLS-1$
+
+	/**
+	 * Boolean preference controlling whether process output streams are read
+	 * by a small shared {@link StreamPump} rather than by one thread per
+	 * stream. Default value is <code>false</code>.
+	 *
+	 * @since 3.12
+	 */
+	public static final String PREF_STREAM_PUMP = DebugPlugin.getUniqueIdentifier() + ".PREF_STREAM_PUMP"; //$NON-NLS-1$
+
+	/**
+	 * Boolean preference controlling whether consecutive debug event sets that
+	 * only contain change events are merged into one set, without redundant
+	 * events, before listeners are notified. Default value is
+	 * <code>false</code>.
+	 *
+	 * @since 3.12
+	 */
+	public static final String PREF_COALESCE_DEBUG_EVENTS = DebugPlugin.getUniqueIdentifier() + ".PREF_COALESCE_DEBUG_EVENTS"; //$NON-NLS-1$
+
+	/**
+	 * Boolean preference controlling whether
+	 * {@link org.eclipse.debug.core.IConcurrentDebugEventSetListener}s are
+	 * notified in parallel on a shared pool rather than on the event dispatch
+	 * thread. Default value is <code>false</code>.
+	 *
+	 * @since 3.12
+	 */
+	public static final String PREF_PARALLEL_EVENT_DISPATCH = DebugPlugin.getUniqueIdentifier() + ".PREF_PARALLEL_EVENT_DISPATCH"; //$NON-NLS-1$
+
+	/**
+	 * Boolean preference controlling whether process output is discarded
+	 * rather than left unread while the console showing it cannot keep up.
+	 * Default value is <code>false</code>.
+	 *
+	 * @see org.eclipse.debug.core.model.IFlowControlledStreamsProxy
+	 * @since 3.12
+	 */
+	public static final String PREF_STREAM_FLOW_CONTROL_DROP = DebugPlugin.getUniqueIdentifier() + ".PREF_STREAM_FLOW_CONTROL_DROP"; //$NON-NLS-1$
+
+	/**
+	 * Boolean preference controlling whether the values of dynamic string
+	 * variables are resolved at most once per launch, and reused by all string
+	 * substitutions performed while launching. Default value is
+	 * <code>false</code>.
+	 *
+	 * @since 3.12
+	 */
+	public static final String PREF_LAUNCH_VARIABLE_MEMO = DebugPlugin.getUniqueIdentifier() + ".PREF_LAUNCH_VARIABLE_MEMO"; //$NON-NLS-1$
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2014 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -40,10 +40,13 @@ import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Path;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.PlatformObject;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.core.runtime.SubProgressMonitor;
+import org.eclipse.core.variables.IStringVariableManager;
+import org.eclipse.core.variables.VariablesPlugin;
 import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.ILaunch;
@@ -370,6 +373,10 @@ public class LaunchConfiguration extends PlatformObject implements ILaunchConfig
 	 */
 	@Override
 	public boolean getAttribute(String attributeName, boolean defaultValue) throws CoreException {
+		LaunchConfigurationMetadataIndex.Entry entry = getIndexEntry();
+		if (entry != null && entry.hasBooleanAttribute(attributeName)) {
+			return entry.getBooleanAttribute(attributeName, defaultValue);
+		}
 		return getInfo().getBooleanAttribute(attributeName, defaultValue);
 	}
 
@@ -470,6 +477,20 @@ public class LaunchConfiguration extends PlatformObject implements ILaunchConfig
 		return getLaunchManager().getInfo(this);
 	}
 
+	/**
+	 * Returns the indexed metadata of this configuration, which allows the
+	 * type and mapped resources to be determined without reading the
+	 * configuration file, or <code>null</code> if not available.
+	 *
+	 * @return indexed metadata or <code>null</code>
+	 */
+	private LaunchConfigurationMetadataIndex.Entry getIndexEntry() {
+		if (isWorkingCopy()) {
+			return null;
+		}
+		return getLaunchManager().getIndexEntry(this);
+	}
+
 	/**
 	 * Returns the launch manager
 	 *
@@ -523,11 +544,12 @@ public class LaunchConfiguration extends PlatformObject implements ILaunchConfig
 	 */
 	@Override
 	public IResource[] getMappedResources() throws CoreException {
-		List<String> paths = getAttribute(ATTR_MAPPED_RESOURCE_PATHS, (List<String>) null);
+		LaunchConfigurationMetadataIndex.Entry entry = getIndexEntry();
+		List<String> paths = entry != null ? entry.getMappedResourcePaths() : getAttribute(ATTR_MAPPED_RESOURCE_PATHS, (List<String>) null);
 		if (paths == null || paths.size() == 0) {
 			return null;
 		}
-		List<String> types = getAttribute(ATTR_MAPPED_RESOURCE_TYPES, (List<String>) null);
+		List<String> types = entry != null ? entry.getMappedResourceTypes() : getAttribute(ATTR_MAPPED_RESOURCE_TYPES, (List<String>) null);
 		if (types == null || types.size() != paths.size()) {
 			throw new CoreException(newStatus(DebugCoreMessages.LaunchConfiguration_0, DebugPlugin.ERROR, null));
 		}
@@ -637,6 +659,13 @@ public class LaunchConfiguration extends PlatformObject implements ILaunchConfig
 	 */
 	@Override
 	public ILaunchConfigurationType getType() throws CoreException {
+		LaunchConfigurationMetadataIndex.Entry entry = getIndexEntry();
+		if (entry != null) {
+			ILaunchConfigurationType type = getLaunchManager().getLaunchConfigurationType(entry.getTypeId());
+			if (type != null) {
+				return type;
+			}
+		}
 		return getInfo().getType();
 	}
 
@@ -744,6 +773,25 @@ public class LaunchConfiguration extends PlatformObject implements ILaunchConfig
      */
     @Override
 	public ILaunch launch(String mode, IProgressMonitor monitor, boolean build, boolean register) throws CoreException {
+		if (!Platform.getPreferencesService().getBoolean(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_LAUNCH_VARIABLE_MEMO, false, null)) {
+			return doLaunch(mode, monitor, build, register);
+		}
+		// resolve each dynamic variable once while launching
+		IStringVariableManager manager = VariablesPlugin.getDefault().getStringVariableManager();
+		manager.beginDynamicVariableMemo();
+		try {
+			return doLaunch(mode, monitor, build, register);
+		} finally {
+			manager.endDynamicVariableMemo();
+		}
+	}
+
+	/**
+	 * Launches this configuration.
+	 *
+	 * @see #launch(String, IProgressMonitor, boolean, boolean)
+	 */
+	private ILaunch doLaunch(String mode, IProgressMonitor monitor, boolean build, boolean register) throws CoreException {
     	/* Setup progress monitor
     	 * - Prepare delegate (0)
     	 * - Pre-launch check (1)
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -129,6 +129,18 @@ public class LaunchConfigurationInfo {
 		setAttributeTable(new TreeMap<String, Object>(map));
 	}
 
+	/**
+	 * Returns the attribute with the given key, or <code>null</code> if
+	 * undefined.
+	 *
+	 * @param key the attribute name
+	 * @return the attribute value or <code>null</code>
+	 * @since 3.12
+	 */
+	protected Object getObjectAttribute(String key) {
+		return getAttributeTable().get(key);
+	}
+
 	/**
 	 * Returns the <code>String</code> attribute with the given key or the
 	 * given default value if undefined.
@@ -0,0 +1,465 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.filesystem.IFileInfo;
+import org.eclipse.core.filesystem.IFileStore;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunchConfiguration;
+import org.eclipse.debug.core.ILaunchManager;
+
+/**
+ * A persistent index of the launch configuration metadata needed to list and
+ * filter configurations: the type, the mapped resources and a few boolean
+ * attributes. Answering these from the index avoids parsing the XML of every
+ * launch configuration at startup.
+ * <p>
+ * Entries are keyed by the URI of the configuration's file and are only
+ * trusted if the file's time stamp and length still match. Each entry is
+ * validated once per session; afterwards the launch manager removes entries of
+ * configurations that change or are deleted.
+ * </p>
+ *
+ * @since 3.12
+ */
+public class LaunchConfigurationMetadataIndex {
+
+	/**
+	 * Identifies an index file
+	 */
+	private static final int MAGIC = 0x4C434D49;
+
+	/**
+	 * Format version, incremented when the format changes. Index files of
+	 * other versions are ignored.
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * Boolean attributes recorded in the index
+	 */
+	private static final String[] INDEXED_ATTRIBUTES = { ILaunchManager.ATTR_PRIVATE };
+
+	private static final byte VALUE_FALSE = 0;
+	private static final byte VALUE_TRUE = 1;
+	/**
+	 * Marks an indexed attribute whose value is not a boolean
+	 */
+	private static final byte VALUE_OTHER = 2;
+
+	/**
+	 * Metadata of one launch configuration.
+	 */
+	public static class Entry {
+
+		private final long fTimeStamp;
+		private final long fLength;
+		private final String fTypeId;
+		private final List<String> fMappedPaths;
+		private final List<String> fMappedTypes;
+		/**
+		 * Indexed attributes present in the configuration, mapped to one of
+		 * the VALUE_ constants
+		 */
+		private final Map<String, Byte> fAttributes;
+
+		Entry(long timeStamp, long length, String typeId, List<String> mappedPaths, List<String> mappedTypes, Map<String, Byte> attributes) {
+			fTimeStamp = timeStamp;
+			fLength = length;
+			fTypeId = typeId;
+			fMappedPaths = mappedPaths;
+			fMappedTypes = mappedTypes;
+			fAttributes = attributes;
+		}
+
+		/**
+		 * Returns the identifier of the configuration's type.
+		 *
+		 * @return launch configuration type identifier
+		 */
+		public String getTypeId() {
+			return fTypeId;
+		}
+
+		/**
+		 * Returns the value of
+		 * {@link LaunchConfiguration#ATTR_MAPPED_RESOURCE_PATHS}.
+		 *
+		 * @return mapped resource paths or <code>null</code>
+		 */
+		public List<String> getMappedResourcePaths() {
+			return fMappedPaths;
+		}
+
+		/**
+		 * Returns the value of
+		 * {@link LaunchConfiguration#ATTR_MAPPED_RESOURCE_TYPES}.
+		 *
+		 * @return mapped resource types or <code>null</code>
+		 */
+		public List<String> getMappedResourceTypes() {
+			return fMappedTypes;
+		}
+
+		/**
+		 * Returns whether the value of the given attribute can be answered by
+		 * this entry.
+		 *
+		 * @param attributeName attribute name
+		 * @return whether the attribute is indexed as a boolean or absent
+		 */
+		public boolean hasBooleanAttribute(String attributeName) {
+			if (!isIndexed(attributeName)) {
+				return false;
+			}
+			Byte value = fAttributes.get(attributeName);
+			return value == null || value.byteValue() != VALUE_OTHER;
+		}
+
+		/**
+		 * Returns the value of the given indexed boolean attribute.
+		 *
+		 * @param attributeName attribute name
+		 * @param defaultValue value to return if the attribute is not set
+		 * @return the attribute value
+		 */
+		public boolean getBooleanAttribute(String attributeName, boolean defaultValue) {
+			Byte value = fAttributes.get(attributeName);
+			if (value == null) {
+				return defaultValue;
+			}
+			return value.byteValue() == VALUE_TRUE;
+		}
+	}
+
+	/**
+	 * File the index is persisted in
+	 */
+	private final File fFile;
+
+	/**
+	 * Entries by file URI, loaded lazily
+	 */
+	private Map<String, Entry> fEntries;
+
+	/**
+	 * Entries validated in this session, by configuration handle
+	 */
+	private final Map<ILaunchConfiguration, Entry> fValidated = new HashMap<ILaunchConfiguration, Entry>();
+
+	/**
+	 * Whether entries changed since the index was loaded
+	 */
+	private boolean fDirty = false;
+
+	/**
+	 * Creates an index persisted in the given file.
+	 *
+	 * @param file the index file
+	 */
+	public LaunchConfigurationMetadataIndex(File file) {
+		fFile = file;
+	}
+
+	/**
+	 * Returns whether the given attribute is recorded in the index.
+	 *
+	 * @param attributeName attribute name
+	 * @return whether the attribute is indexed
+	 */
+	static boolean isIndexed(String attributeName) {
+		for (String name : INDEXED_ATTRIBUTES) {
+			if (name.equals(attributeName)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the metadata of the given configuration, or <code>null</code> if
+	 * it is not indexed or its file changed since it was indexed. The file is
+	 * checked without holding the lock on the index.
+	 *
+	 * @param config a launch configuration, not a working copy
+	 * @return metadata or <code>null</code>
+	 */
+	public Entry get(LaunchConfiguration config) {
+		Entry entry;
+		synchronized (this) {
+			entry = fValidated.get(config);
+		}
+		if (entry != null) {
+			return entry;
+		}
+		IFileStore store;
+		try {
+			store = config.getFileStore();
+		} catch (CoreException e) {
+			return null;
+		}
+		if (store == null) {
+			return null;
+		}
+		String key = store.toURI().toString();
+		synchronized (this) {
+			entry = getEntries().get(key);
+		}
+		if (entry == null) {
+			return null;
+		}
+		IFileInfo info = store.fetchInfo();
+		boolean valid = info.exists() && info.getLastModified() == entry.fTimeStamp && info.getLength() == entry.fLength;
+		synchronized (this) {
+			if (getEntries().get(key) != entry) {
+				// replaced or removed while the file was checked
+				return fValidated.get(config);
+			}
+			if (!valid) {
+				getEntries().remove(key);
+				fDirty = true;
+				return null;
+			}
+			fValidated.put(config, entry);
+			return entry;
+		}
+	}
+
+	/**
+	 * Records the metadata of a configuration that has just been read.
+	 *
+	 * @param config the configuration
+	 * @param store the file the configuration was read from
+	 * @param fileInfo information about the file, fetched before it was read
+	 * @param info the attributes read from the file
+	 */
+	public synchronized void put(LaunchConfiguration config, IFileStore store, IFileInfo fileInfo, LaunchConfigurationInfo info) {
+		if (!fileInfo.exists() || info.getType() == null) {
+			return;
+		}
+		Map<String, Byte> attributes = Collections.emptyMap();
+		for (String name : INDEXED_ATTRIBUTES) {
+			Object value = info.getObjectAttribute(name);
+			if (value != null) {
+				if (attributes.isEmpty()) {
+					attributes = new HashMap<String, Byte>(4);
+				}
+				byte indexed = value instanceof Boolean ? (((Boolean) value).booleanValue() ? VALUE_TRUE : VALUE_FALSE) : VALUE_OTHER;
+				attributes.put(name, Byte.valueOf(indexed));
+			}
+		}
+		Entry entry = new Entry(fileInfo.getLastModified(), fileInfo.getLength(), info.getType().getIdentifier(),
+				getStringList(info, LaunchConfiguration.ATTR_MAPPED_RESOURCE_PATHS),
+				getStringList(info, LaunchConfiguration.ATTR_MAPPED_RESOURCE_TYPES), attributes);
+		getEntries().put(store.toURI().toString(), entry);
+		fValidated.put(config, entry);
+		fDirty = true;
+	}
+
+	/**
+	 * Returns the value of a string list attribute, or <code>null</code> if
+	 * it is not set or not a list of strings.
+	 *
+	 * @param info attributes of a configuration
+	 * @param name attribute name
+	 * @return list of strings or <code>null</code>
+	 */
+	private static List<String> getStringList(LaunchConfigurationInfo info, String name) {
+		Object value = info.getObjectAttribute(name);
+		if (!(value instanceof List)) {
+			return null;
+		}
+		List<String> list = new ArrayList<String>(((List<?>) value).size());
+		for (Object element : (List<?>) value) {
+			if (!(element instanceof String)) {
+				return null;
+			}
+			list.add((String) element);
+		}
+		return list;
+	}
+
+	/**
+	 * Removes the metadata of the given configuration, which changed or was
+	 * deleted.
+	 *
+	 * @param config the configuration
+	 */
+	public synchronized void remove(ILaunchConfiguration config) {
+		fValidated.remove(config);
+		if (config instanceof LaunchConfiguration) {
+			try {
+				IFileStore store = ((LaunchConfiguration) config).getFileStore();
+				if (store != null && getEntries().remove(store.toURI().toString()) != null) {
+					fDirty = true;
+				}
+			} catch (CoreException e) {
+				// not indexed
+			}
+		}
+	}
+
+	/**
+	 * Writes the index to its file if it changed.
+	 *
+	 * @param prune whether to drop entries that were not validated in this
+	 *            session, because all existing configurations have been
+	 *            enumerated
+	 */
+	public synchronized void save(boolean prune) {
+		if (fEntries == null) {
+			return;
+		}
+		if (prune && fEntries.size() > fValidated.size()) {
+			Set<Entry> validated = Collections.newSetFromMap(new IdentityHashMap<Entry, Boolean>());
+			validated.addAll(fValidated.values());
+			fEntries.values().retainAll(validated);
+			fDirty = true;
+		}
+		if (!fDirty) {
+			return;
+		}
+		// written aside and renamed, so that a failed save keeps the previous index
+		File temp = new File(fFile.getPath() + ".tmp"); //$NON-NLS-1$
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+			out.writeInt(MAGIC);
+			out.writeInt(VERSION);
+			out.writeInt(fEntries.size());
+			for (Map.Entry<String, Entry> mapEntry : fEntries.entrySet()) {
+				Entry entry = mapEntry.getValue();
+				out.writeUTF(mapEntry.getKey());
+				out.writeLong(entry.fTimeStamp);
+				out.writeLong(entry.fLength);
+				out.writeUTF(entry.fTypeId);
+				writeList(out, entry.fMappedPaths);
+				writeList(out, entry.fMappedTypes);
+				out.writeInt(entry.fAttributes.size());
+				for (Map.Entry<String, Byte> attribute : entry.fAttributes.entrySet()) {
+					out.writeUTF(attribute.getKey());
+					out.writeByte(attribute.getValue().byteValue());
+				}
+			}
+		} catch (IOException e) {
+			DebugPlugin.log(e);
+			temp.delete();
+			return;
+		}
+		try {
+			try {
+				Files.move(temp.toPath(), fFile.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temp.toPath(), fFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+			fDirty = false;
+		} catch (IOException e) {
+			DebugPlugin.log(e);
+			temp.delete();
+		}
+	}
+
+	/**
+	 * Returns the entries, loading them from the index file on first access.
+	 *
+	 * @return entries by file URI
+	 */
+	private Map<String, Entry> getEntries() {
+		if (fEntries == null) {
+			fEntries = load();
+		}
+		return fEntries;
+	}
+
+	/**
+	 * Reads the index file. A missing, corrupt or outdated index yields no
+	 * entries.
+	 *
+	 * @return entries by file URI
+	 */
+	private Map<String, Entry> load() {
+		Map<String, Entry> entries = new LinkedHashMap<String, Entry>();
+		if (!fFile.isFile()) {
+			return entries;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(fFile)))) {
+			if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+				return entries;
+			}
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				String key = in.readUTF();
+				long timeStamp = in.readLong();
+				long length = in.readLong();
+				String typeId = in.readUTF();
+				List<String> paths = readList(in);
+				List<String> types = readList(in);
+				int attributeCount = in.readInt();
+				Map<String, Byte> attributes = Collections.emptyMap();
+				if (attributeCount > 0) {
+					attributes = new HashMap<String, Byte>(attributeCount * 2);
+					for (int j = 0; j < attributeCount; j++) {
+						String name = in.readUTF();
+						attributes.put(name, Byte.valueOf(in.readByte()));
+					}
+				}
+				entries.put(key, new Entry(timeStamp, length, typeId, paths, types, attributes));
+			}
+		} catch (IOException e) {
+			// ignore a corrupt index, it is rebuilt as configurations are read
+			entries.clear();
+			fDirty = true;
+		}
+		return entries;
+	}
+
+	private static void writeList(DataOutputStream out, List<String> list) throws IOException {
+		if (list == null) {
+			out.writeInt(-1);
+			return;
+		}
+		out.writeInt(list.size());
+		for (String element : list) {
+			out.writeUTF(element);
+		}
+	}
+
+	private static List<String> readList(DataInputStream in) throws IOException {
+		int size = in.readInt();
+		if (size < 0) {
+			return null;
+		}
+		List<String> list = new ArrayList<String>(size);
+		for (int i = 0; i < size; i++) {
+			list.add(in.readUTF());
+		}
+		return list;
+	}
+}
@@ -0,0 +1,262 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunchConfiguration;
+
+/**
+ * Indexes launch configurations by their mapped resources, so that the
+ * configurations mapped to a resource are found without asking every launch
+ * configuration for its mapped resources.
+ * <p>
+ * The index is built from all launch configurations on its first query. The
+ * launch manager then updates it as configurations are added, changed and
+ * deleted; a configuration whose mapped resources are updated after a
+ * resource moved is changed. Configurations whose mapped resources cannot be
+ * read are not indexed. Methods must not be called while holding the lock of
+ * the launch manager.
+ * </p>
+ *
+ * @since 3.12
+ */
+public class LaunchConfigurationResourceIndex {
+
+	/**
+	 * Mapped resources of configurations that have no mapping at all, as
+	 * opposed to a mapping to no existing resource
+	 */
+	private static final IResource[] UNMAPPED = new IResource[0];
+
+	private final LaunchManager fManager;
+
+	/**
+	 * Mapped resources of each indexed configuration, {@link #UNMAPPED} if it
+	 * has none, or <code>null</code> until the index is built
+	 */
+	private Map<ILaunchConfiguration, IResource[]> fMappings = null;
+	private final Map<IResource, Set<ILaunchConfiguration>> fByResource = new HashMap<IResource, Set<ILaunchConfiguration>>();
+
+	/**
+	 * Configurations mapped to files of a project
+	 */
+	private final Map<IProject, Set<ILaunchConfiguration>> fByProjectFiles = new HashMap<IProject, Set<ILaunchConfiguration>>();
+
+	/**
+	 * Configurations by the full path of their mapped resources, as a portable
+	 * string, in path order so that the paths below a path are contiguous
+	 */
+	private final TreeMap<String, Set<ILaunchConfiguration>> fByPath = new TreeMap<String, Set<ILaunchConfiguration>>();
+	private final Set<ILaunchConfiguration> fUnmapped = new LinkedHashSet<ILaunchConfiguration>();
+
+	/**
+	 * Constructs an index of the launch configurations of the given launch
+	 * manager.
+	 *
+	 * @param manager the launch manager
+	 */
+	public LaunchConfigurationResourceIndex(LaunchManager manager) {
+		fManager = manager;
+	}
+
+	/**
+	 * Indexes the given configuration, replacing its previous mapped resources
+	 * if it is already indexed. Has no effect until the index is built.
+	 *
+	 * @param config the added or changed configuration
+	 */
+	public void add(ILaunchConfiguration config) {
+		synchronized (this) {
+			if (fMappings == null) {
+				return;
+			}
+		}
+		IResource[] resources = getMappedResources(config);
+		synchronized (this) {
+			if (fMappings != null) {
+				unindex(config);
+				if (resources != null) {
+					index(config, resources);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Removes the given configuration from the index.
+	 *
+	 * @param config the deleted configuration
+	 */
+	public synchronized void remove(ILaunchConfiguration config) {
+		if (fMappings != null) {
+			unindex(config);
+		}
+	}
+
+	/**
+	 * Discards the index. It is built again on the next query.
+	 */
+	public synchronized void clear() {
+		fMappings = null;
+		fByResource.clear();
+		fByProjectFiles.clear();
+		fByPath.clear();
+		fUnmapped.clear();
+	}
+
+	/**
+	 * Returns the configurations mapped to the given resource or, if it is a
+	 * project, to a file in that project.
+	 *
+	 * @param resource the resource
+	 * @return the mapped configurations, possibly empty
+	 */
+	public synchronized ILaunchConfiguration[] getMappedConfigurations(IResource resource) {
+		initialize();
+		Set<ILaunchConfiguration> result = new LinkedHashSet<ILaunchConfiguration>();
+		addAll(result, fByResource.get(resource));
+		if (resource.getType() == IResource.PROJECT) {
+			addAll(result, fByProjectFiles.get(resource));
+		}
+		return result.toArray(new ILaunchConfiguration[result.size()]);
+	}
+
+	/**
+	 * Returns the configurations mapped to the given resource or to a resource
+	 * below it.
+	 *
+	 * @param resource the resource
+	 * @return the configurations mapped at or below the resource, possibly
+	 *         empty
+	 */
+	public synchronized ILaunchConfiguration[] getConfigurationsMappedBelow(IResource resource) {
+		initialize();
+		IPath path = resource.getFullPath();
+		Set<ILaunchConfiguration> result = new LinkedHashSet<ILaunchConfiguration>();
+		if (path.isRoot()) {
+			for (Set<ILaunchConfiguration> configs : fByPath.values()) {
+				result.addAll(configs);
+			}
+		} else {
+			String key = path.toPortableString();
+			addAll(result, fByPath.get(key));
+			// '0' follows the separator: the range holds all paths below
+			for (Set<ILaunchConfiguration> configs : fByPath.subMap(key + IPath.SEPARATOR, key + '0').values()) {
+				result.addAll(configs);
+			}
+		}
+		return result.toArray(new ILaunchConfiguration[result.size()]);
+	}
+
+	/**
+	 * Returns the configurations that have no mapped resources.
+	 *
+	 * @return the unmapped configurations, possibly empty
+	 */
+	public synchronized ILaunchConfiguration[] getUnmappedConfigurations() {
+		initialize();
+		return fUnmapped.toArray(new ILaunchConfiguration[fUnmapped.size()]);
+	}
+
+	/**
+	 * Builds the index from all launch configurations, if not built yet.
+	 */
+	private void initialize() {
+		if (fMappings != null) {
+			return;
+		}
+		fMappings = new HashMap<ILaunchConfiguration, IResource[]>();
+		List<ILaunchConfiguration> configs = fManager.getAllLaunchConfigurationsCopy();
+		for (ILaunchConfiguration config : configs) {
+			IResource[] resources = getMappedResources(config);
+			if (resources != null) {
+				index(config, resources);
+			}
+		}
+	}
+
+	/**
+	 * Returns the mapped resources of the given configuration,
+	 * {@link #UNMAPPED} if it has none, or <code>null</code> if they cannot be
+	 * read.
+	 */
+	private static IResource[] getMappedResources(ILaunchConfiguration config) {
+		try {
+			IResource[] resources = config.getMappedResources();
+			return resources != null ? resources : UNMAPPED;
+		} catch (CoreException e) {
+			DebugPlugin.log(e);
+			return null;
+		}
+	}
+
+	private void index(ILaunchConfiguration config, IResource[] resources) {
+		fMappings.put(config, resources);
+		if (resources == UNMAPPED) {
+			fUnmapped.add(config);
+		}
+		for (IResource resource : resources) {
+			put(fByResource, resource, config);
+			put(fByPath, resource.getFullPath().toPortableString(), config);
+			if (resource.getType() == IResource.FILE) {
+				put(fByProjectFiles, resource.getProject(), config);
+			}
+		}
+	}
+
+	private void unindex(ILaunchConfiguration config) {
+		IResource[] resources = fMappings.remove(config);
+		if (resources == null) {
+			return;
+		}
+		fUnmapped.remove(config);
+		for (IResource resource : resources) {
+			remove(fByResource, resource, config);
+			remove(fByPath, resource.getFullPath().toPortableString(), config);
+			if (resource.getType() == IResource.FILE) {
+				remove(fByProjectFiles, resource.getProject(), config);
+			}
+		}
+	}
+
+	private static <K> void put(Map<K, Set<ILaunchConfiguration>> map, K key, ILaunchConfiguration config) {
+		Set<ILaunchConfiguration> configs = map.get(key);
+		if (configs == null) {
+			configs = new LinkedHashSet<ILaunchConfiguration>();
+			map.put(key, configs);
+		}
+		configs.add(config);
+	}
+
+	private static <K> void remove(Map<K, Set<ILaunchConfiguration>> map, K key, ILaunchConfiguration config) {
+		Set<ILaunchConfiguration> configs = map.get(key);
+		if (configs != null && configs.remove(config) && configs.isEmpty()) {
+			map.remove(key);
+		}
+	}
+
+	private static void addAll(Set<ILaunchConfiguration> result, Set<ILaunchConfiguration> configs) {
+		if (configs != null) {
+			result.addAll(configs);
+		}
+	}
+}
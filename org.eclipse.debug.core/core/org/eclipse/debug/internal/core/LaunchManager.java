@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -17,7 +17,6 @@ package org.eclipse.debug.internal.core;
 
 
 import java.io.BufferedInputStream;
-import java.io.BufferedReader;
 import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -26,7 +25,6 @@ import java.io.FileOutputStream;
 import java.io.FilenameFilter;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -34,10 +32,10 @@ import java.util.Collections;
 import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Properties;
 import java.util.Set;
 import java.util.StringTokenizer;
 
@@ -52,6 +50,7 @@ import javax.xml.transform.dom.DOMSource;
 import javax.xml.transform.stream.StreamResult;
 
 import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileInfo;
 import org.eclipse.core.filesystem.IFileStore;
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
@@ -529,6 +528,27 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	private static HashMap<String, String> fgNativeEnv = null;
 	private static HashMap<String, String> fgNativeEnvCasePreserved = null;
 
+	/**
+	 * Maximum number of environments kept in {@link #fEnvironmentCache}
+	 */
+	private static final int ENVIRONMENT_CACHE_SIZE = 64;
+
+	/**
+	 * Environments returned by {@link #getEnvironment(ILaunchConfiguration)},
+	 * keyed by the environment variables of the configuration and whether the
+	 * native environment is appended, least recently used first. Environments
+	 * with values referencing variables are not cached, as variables may
+	 * resolve differently on each launch.
+	 */
+	private final Map<EnvironmentKey, String[]> fEnvironmentCache = new LinkedHashMap<EnvironmentKey, String[]>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Entry<EnvironmentKey, String[]> eldest) {
+			return size() > ENVIRONMENT_CACHE_SIZE;
+		}
+	};
+
 	/**
 	 * Path to the local directory where local launch configurations
 	 * are stored with the workspace.
@@ -592,6 +612,16 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	 */
 	private List<ILaunchConfiguration> fLaunchConfigurationIndex = null;
 
+	/**
+	 * Persistent index of launch configuration metadata, created lazily
+	 */
+	private LaunchConfigurationMetadataIndex fMetadataIndex = null;
+
+	/**
+	 * Index of launch configurations by mapped resources, created lazily
+	 */
+	private LaunchConfigurationResourceIndex fResourceIndex = null;
+
 	/**
 	 * Launch configuration comparator extensions,
 	 * keyed by attribute name.
@@ -760,116 +790,16 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	 * method preserves mixed-case keys using the variable names
 	 * recorded by the OS.
 	 * </p>
+	 * <p>
+	 * The environment is the environment of this VM, which processes launched
+	 * from it inherit. It is read in-process rather than by running a native
+	 * command.
+	 * </p>
 	 * @param cache the map
 	 * @since 3.1
 	 */
 	private void cacheNativeEnvironment(Map<String, String> cache) {
-		try {
-			String nativeCommand= null;
-			boolean isWin9xME= false; //see bug 50567
-			String fileName= null;
-			if (Platform.getOS().equals(Constants.OS_WIN32)) {
-				String osName= System.getProperty("os.name"); //$NON-NLS-1$
-				isWin9xME= osName != null && (osName.startsWith("Windows 9") || osName.startsWith("Windows ME")); //$NON-NLS-1$ //$NON-NLS-2$
-				if (isWin9xME) {
-					// Win 95, 98, and ME
-					// SET might not return therefore we pipe into a file
-					IPath stateLocation= DebugPlugin.getDefault().getStateLocation();
-					fileName= stateLocation.toOSString() + File.separator  + "env.txt"; //$NON-NLS-1$
-					nativeCommand= "command.com /C set > " + fileName; //$NON-NLS-1$
-				} else {
-					// Win NT, 2K, XP
-					nativeCommand= "cmd.exe /C set"; //$NON-NLS-1$
-				}
-			} else if (!Platform.getOS().equals(Constants.OS_UNKNOWN)){
-				nativeCommand= "env";		 //$NON-NLS-1$
-			}
-			if (nativeCommand == null) {
-				return;
-			}
-			Process process= Runtime.getRuntime().exec(nativeCommand);
-			if (isWin9xME) {
-				//read piped data on Win 95, 98, and ME
-				Properties p= new Properties();
-				File file= new File(fileName);
-				try(InputStream stream = new BufferedInputStream(new FileInputStream(file))){
-					p.load(stream);
-					if (!file.delete()) {
-						file.deleteOnExit(); // if delete() fails try again on VM close
-					}
-					for (Entry<Object, Object> entry : p.entrySet()) {
-						// Win32's environment variables are case insensitive. Put everything
-						// to uppercase so that (for example) the "PATH" variable will match
-						// "pAtH" correctly on Windows.
-						String key = (String) entry.getKey();
-						//no need to cast value
-						cache.put(key, (String) p.get(key));
-					}
-				}
-			} else {
-				//read process directly on other platforms
-				//we need to parse out matching '{' and '}' for function declarations in .bash environments
-				// pattern is [func name]=() { and we must find the '}' on its own line with no trailing ';'
-				try (InputStream stream = process.getInputStream();
-				InputStreamReader isreader = new InputStreamReader(stream);
-                BufferedReader reader = new BufferedReader(isreader)) {
-					String line = reader.readLine();
-					String key = null;
-					String value = null;
-					String newLine = System.getProperty("line.separator"); //$NON-NLS-1$
-					while (line != null) {
-						int func = line.indexOf("=()"); //$NON-NLS-1$
-						if (func > 0) {
-							key = line.substring(0, func);
-							// scan until we find the closing '}' with no
-							// following chars
-							value = line.substring(func + 1);
-							while (line != null && !line.equals("}")) { //$NON-NLS-1$
-								line = reader.readLine();
-								if (line != null) {
-									value += newLine + line;
-								}
-							}
-							line = reader.readLine();
-						}
-						else {
-							int separator = line.indexOf('=');
-							if (separator > 0) {
-								key = line.substring(0, separator);
-								value = line.substring(separator + 1);
-								line = reader.readLine();
-								if (line != null) {
-									// this line has a '=' read ahead to check
-									// next line for '=', might be broken on
-									// more than one line
-									// also if line starts with non-identifier -
-									// it is remainder of previous variable
-									while (line.indexOf('=') < 0 || (line.length() > 0 && !Character.isJavaIdentifierStart(line.charAt(0)))) {
-										value += newLine + line;
-										line = reader.readLine();
-										if (line == null) {
-											// if next line read is the end of
-											// the file quit the loop
-											break;
-										}
-									}
-								}
-							}
-						}
-						if (key != null) {
-							cache.put(key, value);
-							key = null;
-							value = null;
-						} else {
-							line = reader.readLine();
-						}
-					}
-				}
-			}
-		} catch (IOException e) {
-			// Native environment-fetching code failed.
-			// This can easily happen and is not useful to log.
-		}
+		cache.putAll(System.getenv());
 	}
 
 	/**
@@ -882,6 +812,9 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		if (fLaunchConfigurationIndex != null) {
 			fLaunchConfigurationIndex.clear();
 		}
+		if (fResourceIndex != null) {
+			fResourceIndex.clear();
+		}
 	}
 
 	/* (non-Javadoc)
@@ -1152,6 +1085,16 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		return fLaunchConfigurationIndex;
 	}
 
+	/**
+	 * Returns a copy of the collection of all launch configuration handles in
+	 * the workspace.
+	 *
+	 * @return all launch configuration handles
+	 */
+	synchronized List<ILaunchConfiguration> getAllLaunchConfigurationsCopy() {
+		return new ArrayList<ILaunchConfiguration>(getAllLaunchConfigurations());
+	}
+
 	/**
 	 * Return a sorted array of the names of all <code>ILaunchConfiguration</code>s in
 	 * the workspace.  These are cached, and cache is cleared when a new config is added,
@@ -1293,12 +1236,51 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		if (configEnv == null) {
 			return null;
 		}
-		Map<String, String> env = new HashMap<String, String>();
-		// build base environment
 		boolean append = configuration.getAttribute(ATTR_APPEND_ENVIRONMENT_VARIABLES, true);
-		if (append) {
-			env.putAll(getNativeEnvironmentCasePreserved());
+		if (referencesVariables(configEnv)) {
+			return computeEnvironment(configEnv, append);
+		}
+		EnvironmentKey key = new EnvironmentKey(configEnv, append);
+		String[] environment;
+		synchronized (fEnvironmentCache) {
+			environment = fEnvironmentCache.get(key);
 		}
+		if (environment == null) {
+			environment = computeEnvironment(configEnv, append);
+			synchronized (fEnvironmentCache) {
+				fEnvironmentCache.put(key, environment);
+			}
+		}
+		return environment.clone();
+	}
+
+	/**
+	 * Returns whether any of the given environment variable values references
+	 * a string substitution variable.
+	 *
+	 * @param configEnv environment variables of a launch configuration
+	 * @return whether variables are referenced
+	 */
+	private static boolean referencesVariables(Map<String, String> configEnv) {
+		for (String value : configEnv.values()) {
+			if (value != null && value.indexOf("${") >= 0) { //$NON-NLS-1$
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Computes the environment of a launch configuration.
+	 *
+	 * @param configEnv environment variables of the configuration
+	 * @param append whether the native environment is appended
+	 * @return the environment as <code>name=value</code> strings
+	 * @throws CoreException if unable to resolve a variable
+	 */
+	private String[] computeEnvironment(Map<String, String> configEnv, boolean append) throws CoreException {
+		// build base environment
+		Map<String, String> env = append ? getNativeEnvironmentCasePreserved() : new HashMap<String, String>();
 
 		// Add variables from config
 		boolean win32= Platform.getOS().equals(Constants.OS_WIN32);
@@ -1348,6 +1330,36 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		return strings.toArray(new String[strings.size()]);
 	}
 
+	/**
+	 * Key of the environment of a launch configuration
+	 */
+	private static final class EnvironmentKey {
+
+		private final Map<String, String> fVariables;
+		private final boolean fAppend;
+		private final int fHashCode;
+
+		EnvironmentKey(Map<String, String> variables, boolean append) {
+			fVariables = new HashMap<String, String>(variables);
+			fAppend = append;
+			fHashCode = fVariables.hashCode() * 31 + (append ? 1 : 0);
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof EnvironmentKey)) {
+				return false;
+			}
+			EnvironmentKey key = (EnvironmentKey) obj;
+			return fAppend == key.fAppend && fHashCode == key.fHashCode && fVariables.equals(key.fVariables);
+		}
+
+		@Override
+		public int hashCode() {
+			return fHashCode;
+		}
+	}
+
 	/**
 	 * Returns the info object for the specified launch configuration.
 	 * If the configuration exists, but is not yet in the cache,
@@ -1367,11 +1379,14 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 			if (config.exists()) {
 				BufferedInputStream stream = null;
 				try {
+					// fetched before reading, so that a concurrent change invalidates the index entry
+					IFileInfo fileInfo = store.fetchInfo();
 					stream = new BufferedInputStream(store.openInputStream(EFS.NONE, null));
 					info = createInfoFromXML(stream);
 					synchronized (this) {
 						fLaunchConfigurations.put(config, info);
 					}
+					getMetadataIndex().put(config, store, fileInfo, info);
 				} catch (FileNotFoundException e) {
 					throwException(config, e);
 				} catch (SAXException e) {
@@ -1402,6 +1417,46 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		return info;
 	}
 
+	/**
+	 * Returns the indexed metadata of the given launch configuration, or
+	 * <code>null</code> if the configuration has not been indexed or changed
+	 * since. Configurations are indexed when their attributes are read.
+	 *
+	 * @param config a launch configuration, not a working copy
+	 * @return indexed metadata or <code>null</code>
+	 * @since 3.12
+	 */
+	protected LaunchConfigurationMetadataIndex.Entry getIndexEntry(LaunchConfiguration config) {
+		return getMetadataIndex().get(config);
+	}
+
+	/**
+	 * Returns the persistent index of launch configuration metadata.
+	 *
+	 * @return the metadata index
+	 */
+	private synchronized LaunchConfigurationMetadataIndex getMetadataIndex() {
+		if (fMetadataIndex == null) {
+			fMetadataIndex = new LaunchConfigurationMetadataIndex(DebugPlugin.getDefault().getStateLocation().append(".launchIndex").toFile()); //$NON-NLS-1$
+		}
+		return fMetadataIndex;
+	}
+
+	/**
+	 * Returns the index of launch configurations by their mapped resources.
+	 * Its methods must not be called while holding the lock of this launch
+	 * manager.
+	 *
+	 * @return the index of launch configurations by mapped resources
+	 * @since 3.12
+	 */
+	public synchronized LaunchConfigurationResourceIndex getResourceIndex() {
+		if (fResourceIndex == null) {
+			fResourceIndex = new LaunchConfigurationResourceIndex(this);
+		}
+		return fResourceIndex;
+	}
+
 	/**
 	 * @see ILaunchManager#getLaunchConfiguration(IFile)
 	 */
@@ -1737,28 +1792,7 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 	 * @since 3.2
 	 */
 	public ILaunchConfiguration[] getMappedConfigurations(IResource resource) {
-		List<ILaunchConfiguration> configurations = new ArrayList<ILaunchConfiguration>();
-		for (ILaunchConfiguration config : getAllLaunchConfigurations()) {
-			try {
-				IResource[] resources = config.getMappedResources();
-				if(resources != null) {
-					for(int j = 0; j < resources.length; j++) {
-						if(resources[j].equals(resource)) {
-							configurations.add(config);
-							break;
-						} else if (resource.getType() == IResource.PROJECT && resources[j].getType() == IResource.FILE){
-							if (resources[j].getProject().equals(resource)) {
-								configurations.add(config);
-								break;
-							}
-						}
-					}
-				}
-			} catch (CoreException ce) {
-				DebugPlugin.log(ce);
-			}
-		}
-		return configurations.toArray(new ILaunchConfiguration[configurations.size()]);
+		return getResourceIndex().getMappedConfigurations(resource);
 	}
 
 	/* (non-Javadoc)
@@ -2136,6 +2170,7 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 				}
 			}
 			if (added) {
+				getResourceIndex().add(config);
 				getConfigurationNotifier().notify(config, ADDED);
 				clearConfigNameCache();
 			}
@@ -2157,12 +2192,15 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		synchronized(this) {
 			fLaunchConfigurations.remove(config);
 		}
+		getMetadataIndex().remove(config);
 		clearConfigNameCache();
 		if (isValid(config)) {
 			// in case the config has been refreshed and it was removed from the
 			// index due to 'out of synch with local file system' (see bug 36147),
 			// add it back (will only add if required)
 			launchConfigurationAdded(config);
+			// mapped resources may have changed, e.g. after a resource moved
+			getResourceIndex().add(config);
 			getConfigurationNotifier().notify(config, CHANGED);
 		} else {
 			launchConfigurationDeleted(config);
@@ -2181,9 +2219,11 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		boolean removed = false;
 		synchronized (this) {
 			Object key = fLaunchConfigurations.remove(config);
-			removed = key != null;
-			getAllLaunchConfigurations().remove(config);
+			// configurations known from the metadata index have no cached info
+			removed = getAllLaunchConfigurations().remove(config) || key != null;
 		}
+		getMetadataIndex().remove(config);
+		getResourceIndex().remove(config);
 		if (removed) {
 			getConfigurationNotifier().notify(config, REMOVED);
 			clearConfigNameCache();
@@ -2391,6 +2431,10 @@ public class LaunchManager extends PlatformObject implements ILaunchManager, IRe
 		}
 
 		persistPreferredLaunchDelegates();
+		if (fMetadataIndex != null) {
+			// once all configurations have been listed, entries not seen are stale
+			fMetadataIndex.save(fLaunchConfigurationIndex != null);
+		}
 		clearAllLaunchConfigurations();
 		fStepFilterManager = null;
 		ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,12 +14,22 @@ package org.eclipse.debug.internal.core;
 import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.text.MessageFormat;
+import java.util.concurrent.CountDownLatch;
 
 import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.ListenerList;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.SafeRunner;
+import org.eclipse.core.runtime.preferences.IPreferencesService;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.IStreamListener;
+import org.eclipse.debug.core.model.IFlowControlledStreamsProxy;
 import org.eclipse.debug.core.model.IFlushableStreamMonitor;
 
 /**
@@ -28,6 +38,23 @@ import org.eclipse.debug.core.model.IFlushableStreamMonitor;
  *
  * The output stream monitor reads system out (or err) via
  * and input stream.
+ * <p>
+ * By default the complete output is retained as text. When a retention limit is
+ * configured (see {@link IInternalDebugCoreConstants#PREF_STREAM_BUFFER_LIMIT}),
+ * raw bytes are kept in a bounded {@link ByteRingBuffer} instead and are only
+ * decoded when the contents are requested or listeners are registered.
+ * </p>
+ * <p>
+ * While suspended (see {@link #setSuspended(boolean)}) the monitor either
+ * stops reading or stops notifying listeners, depending on its flow control
+ * mode.
+ * </p>
+ * <p>
+ * The number of bytes and reads and the throughput of each stream are
+ * available from {@link #getBytesRead()}, {@link #getReadCount()} and
+ * {@link #getThroughput()}, and are traced when the stream ends if the
+ * <code>org.eclipse.debug.core/debug/streams</code> tracing option is enabled.
+ * </p>
  */
 public class OutputStreamMonitor implements IFlushableStreamMonitor {
 	/**
@@ -46,10 +73,34 @@ public class OutputStreamMonitor implements IFlushableStreamMonitor {
 	private boolean fBuffered = true;
 
 	/**
-	 * The local copy of the stream contents
+	 * The local copy of the stream contents, or <code>null</code> when
+	 * contents are retained in a bounded buffer
 	 */
 	private StringBuffer fContents;
 
+	/**
+	 * The bounded copy of the raw stream contents, or <code>null</code> when
+	 * contents are retained as text
+	 */
+	private ByteRingBuffer fRingBuffer;
+
+	/**
+	 * Decoder used to notify listeners when contents are retained in a bounded
+	 * buffer. Keeps the state of characters split across reads.
+	 */
+	private CharsetDecoder fDecoder;
+
+	/**
+	 * Bytes waiting to be decoded for listener notification, including any
+	 * incomplete character left over from the previous read
+	 */
+	private ByteBuffer fDecodeInput;
+
+	/**
+	 * Reusable target of listener notification decoding
+	 */
+	private CharBuffer fDecodeOutput;
+
 	/**
 	 * The thread which reads from the stream
 	 */
@@ -58,7 +109,7 @@ public class OutputStreamMonitor implements IFlushableStreamMonitor {
 	/**
 	 * The size of the read buffer
 	 */
-	private static final int BUFFER_SIZE= 8192;
+	static final int BUFFER_SIZE= 8192;
 
 	/**
 	 * Whether or not this monitor has been killed.
@@ -71,6 +122,60 @@ public class OutputStreamMonitor implements IFlushableStreamMonitor {
 
 	private String fEncoding;
 
+	/**
+	 * Signaled when a {@link StreamPump} has finished reading the stream, or
+	 * <code>null</code> if the stream is read by a dedicated thread
+	 */
+	private CountDownLatch fPumpDone;
+
+	/**
+	 * Whether {@link #close()} has been requested. A pumped stream is then read
+	 * until no more data is available, even while suspended.
+	 */
+	private volatile boolean fCloseRequested = false;
+
+	/**
+	 * Number of bytes read from the stream so far
+	 */
+	private volatile long fBytesRead = 0;
+
+	/**
+	 * Number of non-empty reads from the stream so far
+	 */
+	private volatile long fReadCount = 0;
+
+	/**
+	 * Time in milliseconds at which monitoring started, or <code>0</code>
+	 */
+	private long fStartTime = 0;
+
+	/**
+	 * Whether the consumer of this stream's output is saturated
+	 */
+	private volatile boolean fSuspended = false;
+
+	/**
+	 * How output is handled while suspended, one of
+	 * {@link IFlowControlledStreamsProxy#FLOW_CONTROL_PAUSE} or
+	 * {@link IFlowControlledStreamsProxy#FLOW_CONTROL_DROP}
+	 */
+	private volatile int fFlowControlMode = IFlowControlledStreamsProxy.FLOW_CONTROL_PAUSE;
+
+	/**
+	 * Number of bytes withheld from listeners that have not been reported yet
+	 */
+	private long fDiscarded = 0;
+
+	/**
+	 * Total number of bytes withheld from listeners
+	 */
+	private volatile long fDiscardedTotal = 0;
+
+	/**
+	 * Lock a paused reader waits on until it is resumed
+	 */
+	private final Object fFlowLock = new Object();
+
 	/**
 	 * Creates an output stream monitor on the
 	 * given stream (connected to system out or err).
@@ -79,9 +184,62 @@ public class OutputStreamMonitor implements IFlushableStreamMonitor {
 	 * @param encoding stream encoding or <code>null</code> for system default
 	 */
 	public OutputStreamMonitor(InputStream stream, String encoding) {
-        fStream = new BufferedInputStream(stream, 8192);
-        fEncoding = encoding;
-		fContents= new StringBuffer();
+		this(stream, encoding, getPreferences().getInt(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_STREAM_BUFFER_LIMIT, 0, null),
+				getPreferences().getBoolean(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_STREAM_BUFFER_DIRECT, false, null),
+				getPreferences().getString(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_STREAM_BUFFER_EVICTION, ByteRingBuffer.EVICT_OLDEST, null));
+	}
+
+	/**
+	 * Creates an output stream monitor on the given stream (connected to system
+	 * out or err) which retains at most <code>limit</code> bytes of output.
+	 *
+	 * @param stream input stream to read from
+	 * @param encoding stream encoding or <code>null</code> for system default
+	 * @param limit maximum number of bytes to retain, or <code>0</code> to
+	 *            retain the complete output as text
+	 * @param direct whether the bounded buffer is allocated outside of the
+	 *            Java heap
+	 * @param evictionPolicy one of {@link ByteRingBuffer#EVICT_OLDEST} or
+	 *            {@link ByteRingBuffer#EVICT_NEWEST}
+	 * @since 3.12
+	 */
+	public OutputStreamMonitor(InputStream stream, String encoding, int limit, boolean direct, String evictionPolicy) {
+		fStream = new BufferedInputStream(stream, 8192);
+		fEncoding = encoding;
+		if (limit > 0) {
+			Charset charset = getCharset(encoding);
+			fRingBuffer = new ByteRingBuffer(limit, direct, evictionPolicy, charset);
+			fDecoder = charset.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+		} else {
+			fContents = new StringBuffer();
+		}
+	}
+
+	/**
+	 * Returns the preferences service.
+	 *
+	 * @return the preferences service
+	 */
+	private static IPreferencesService getPreferences() {
+		return Platform.getPreferencesService();
+	}
+
+	/**
+	 * Returns the charset with the given name, or the system default charset
+	 * if the name is <code>null</code> or not supported.
+	 *
+	 * @param encoding charset name or <code>null</code>
+	 * @return charset to decode the stream with
+	 */
+	private static Charset getCharset(String encoding) {
+		if (encoding != null) {
+			try {
+				return Charset.forName(encoding);
+			} catch (IllegalArgumentException e) {
+				DebugPlugin.log(e);
+			}
+		}
+		return Charset.defaultCharset();
 	}
 
 	/* (non-Javadoc)
@@ -98,6 +256,7 @@ public class OutputStreamMonitor implements IFlushableStreamMonitor {
 	 * underlying stream by waiting for the thread to terminate.
 	 */
 	protected void close() {
+		wakeReader(true);
 		if (fThread != null) {
 			Thread thread= fThread;
 			fThread= null;
@@ -106,6 +265,12 @@ public class OutputStreamMonitor implements IFlushableStreamMonitor {
 			} catch (InterruptedException ie) {
 			}
 			fListeners = new ListenerList<>();
+		} else if (fPumpDone != null) {
+			try {
+				fPumpDone.await();
+			} catch (InterruptedException ie) {
+			}
+			fListeners = new ListenerList<>();
 		}
 	}
 
@@ -123,6 +288,9 @@ public class OutputStreamMonitor implements IFlushableStreamMonitor {
 	 */
 	@Override
 	public synchronized String getContents() {
+		if (fRingBuffer != null) {
+			return fRingBuffer.getContents();
+		}
 		return fContents.toString();
 	}
 
@@ -144,20 +312,10 @@ public class OutputStreamMonitor implements IFlushableStreamMonitor {
 				if (fKilled) {
 					break;
 				}
+				awaitResume();
 				read= fStream.read(bytes);
 				if (read > 0) {
-					String text;
-					if (fEncoding != null) {
-						text = new String(bytes, 0, read, fEncoding);
-					} else {
-						text = new String(bytes, 0, read);
-					}
-					synchronized (this) {
-						if (isBuffered()) {
-							fContents.append(text);
-						}
-						fireStreamAppended(text);
-					}
+					processBytes(bytes, read);
 				}
 			} catch (IOException ioe) {
 				if (!fKilled) {
@@ -182,6 +340,165 @@ public class OutputStreamMonitor implements IFlushableStreamMonitor {
                 }
             }
 		}
+		endOfStream(bytes);
+	}
+
+	/**
+	 * Performs a single non-blocking pass over the stream on behalf of a
+	 * {@link StreamPump}. Once {@link #close()} has been requested, the stream
+	 * is done when no more data is available. The pump calls
+	 * {@link #pumpDone()} once the stream is done.
+	 *
+	 * @param bytes read buffer
+	 * @return number of bytes read, <code>0</code> if no data was available,
+	 *         or <code>-1</code> if the stream is done
+	 */
+	int pump(byte[] bytes) {
+		try {
+			if (fKilled) {
+				return -1;
+			}
+			if (isPaused()) {
+				return 0;
+			}
+			int available = fStream.available();
+			if (available > 0) {
+				int read = fStream.read(bytes, 0, Math.min(available, bytes.length));
+				if (read > 0) {
+					processBytes(bytes, read);
+					return read;
+				}
+				if (read < 0) {
+					endOfStream(bytes);
+					return -1;
+				}
+				return 0;
+			}
+			if (!fCloseRequested) {
+				return 0;
+			}
+			// the process has terminated and what it wrote has been read;
+			// never block a shared pump thread waiting for the end of a
+			// stream that processes it started may keep open
+			endOfStream(bytes);
+		} catch (IOException ioe) {
+			if (!fKilled) {
+				DebugPlugin.log(ioe);
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Notifies a thread waiting in {@link #close()} that the pump has finished
+	 * with this stream.
+	 */
+	void pumpDone() {
+		if (fPumpDone != null) {
+			fPumpDone.countDown();
+		}
+	}
+
+	/**
+	 * Retains the given bytes and notifies listeners.
+	 *
+	 * @param bytes buffer holding the bytes read
+	 * @param read number of bytes read
+	 * @throws IOException if the stream encoding is not supported
+	 */
+	private void processBytes(byte[] bytes, int read) throws IOException {
+		fBytesRead += read;
+		fReadCount++;
+		if (fRingBuffer != null) {
+			synchronized (this) {
+				if (isBuffered()) {
+					fRingBuffer.append(bytes, 0, read);
+				}
+				if (!fListeners.isEmpty()) {
+					if (isDropping()) {
+						discard(read);
+					} else {
+						reportDiscarded();
+						fireStreamAppended(decode(bytes, read));
+					}
+				}
+			}
+			return;
+		}
+		if (isDropping() && !isBuffered()) {
+			synchronized (this) {
+				if (!fListeners.isEmpty()) {
+					discard(read);
+				}
+			}
+			return;
+		}
+		String text;
+		if (fEncoding != null) {
+			text = new String(bytes, 0, read, fEncoding);
+		} else {
+			text = new String(bytes, 0, read);
+		}
+		synchronized (this) {
+			if (isBuffered()) {
+				fContents.append(text);
+			}
+			if (fListeners.isEmpty()) {
+				return;
+			}
+			if (isDropping()) {
+				discard(read);
+			} else {
+				reportDiscarded();
+				fireStreamAppended(text);
+			}
+		}
+	}
+
+	/**
+	 * Records bytes withheld from listeners. Any incomplete character kept by
+	 * the decoder is dropped with them.
+	 *
+	 * @param read number of bytes withheld
+	 */
+	private void discard(int read) {
+		fDiscarded += read;
+		fDiscardedTotal += read;
+		if (fDecodeInput != null) {
+			fDecodeInput.clear();
+			fDecoder.reset();
+		}
+	}
+
+	/**
+	 * Notifies listeners of the number of bytes withheld from them since the
+	 * last report, if any.
+	 */
+	private void reportDiscarded() {
+		if (fDiscarded > 0) {
+			long discarded = fDiscarded;
+			fDiscarded = 0;
+			fireStreamAppended(MessageFormat.format(DebugCoreMessages.OutputStreamMonitor_discarded, new Object[] { Long.valueOf(discarded) }));
+		}
+	}
+
+	/**
+	 * Reports any incomplete trailing character and closes the stream.
+	 *
+	 * @param bytes read buffer
+	 */
+	private void endOfStream(byte[] bytes) {
+		synchronized (this) {
+			reportDiscarded();
+			if (fDecodeInput != null && fDecodeInput.position() > 0 && !fListeners.isEmpty()) {
+				// report an incomplete trailing character
+				fireStreamAppended(decode(bytes, 0));
+			}
+		}
+		if (DebugOptions.DEBUG_STREAMS) {
+			DebugOptions.trace(DebugOptions.DEBUG_FLAG_STREAMS, "Read " + fBytesRead + " bytes in " + fReadCount + " reads at " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					+ getThroughput() + " bytes/s" + (fPumpDone != null ? " using the stream pump" : ""), null); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
 		try {
 			fStream.close();
 		} catch (IOException e) {
@@ -189,8 +506,137 @@ public class OutputStreamMonitor implements IFlushableStreamMonitor {
 		}
 	}
 
+	/**
+	 * Decodes the given bytes for listener notification, prefixed with any
+	 * incomplete character left over from the previous read. The decoder and
+	 * buffers are reused across reads.
+	 *
+	 * @param bytes the bytes read
+	 * @param length number of valid bytes, or <code>0</code> to flush the
+	 *            decoder at the end of the stream
+	 * @return the decoded text
+	 */
+	private String decode(byte[] bytes, int length) {
+		if (fDecodeInput == null) {
+			// room for a full read plus a partial multi-byte character
+			fDecodeInput = ByteBuffer.allocate(BUFFER_SIZE + 16);
+			fDecodeOutput = CharBuffer.allocate((int) Math.ceil((BUFFER_SIZE + 16) * fDecoder.maxCharsPerByte()));
+		}
+		boolean endOfInput = length == 0;
+		fDecodeInput.put(bytes, 0, length);
+		fDecodeInput.flip();
+		fDecodeOutput.clear();
+		fDecoder.decode(fDecodeInput, fDecodeOutput, endOfInput);
+		if (endOfInput) {
+			fDecoder.flush(fDecodeOutput);
+			fDecoder.reset();
+		}
+		fDecodeInput.compact();
+		fDecodeOutput.flip();
+		return fDecodeOutput.toString();
+	}
+
 	protected void kill() {
 		fKilled= true;
+		wakeReader(false);
+	}
+
+	/**
+	 * Sets how output is handled while this monitor is suspended.
+	 *
+	 * @param mode one of {@link IFlowControlledStreamsProxy#FLOW_CONTROL_PAUSE}
+	 *            or {@link IFlowControlledStreamsProxy#FLOW_CONTROL_DROP}
+	 * @since 3.12
+	 */
+	protected void setFlowControlMode(int mode) {
+		synchronized (fFlowLock) {
+			fFlowControlMode = mode;
+			fFlowLock.notifyAll();
+		}
+	}
+
+	/**
+	 * Suspends or resumes this monitor on behalf of the consumer of its
+	 * output. Depending on the flow control mode, a suspended monitor either
+	 * stops reading from the stream or stops notifying listeners.
+	 *
+	 * @param suspended whether the consumer is saturated
+	 * @since 3.12
+	 */
+	protected void setSuspended(boolean suspended) {
+		synchronized (fFlowLock) {
+			fSuspended = suspended;
+			fFlowLock.notifyAll();
+		}
+	}
+
+	/**
+	 * Returns whether this monitor is suspended by the consumer of its output.
+	 *
+	 * @return whether this monitor is suspended
+	 * @since 3.12
+	 */
+	public boolean isSuspended() {
+		return fSuspended;
+	}
+
+	/**
+	 * Returns the total number of bytes that were read while suspended and not
+	 * passed to listeners.
+	 *
+	 * @return number of bytes withheld from listeners
+	 * @since 3.12
+	 */
+	public long getDiscardedBytes() {
+		return fDiscardedTotal;
+	}
+
+	/**
+	 * Returns whether reading is paused. A paused stream is still read to its
+	 * end once closing has been requested.
+	 *
+	 * @return whether reading is paused
+	 */
+	private boolean isPaused() {
+		return fSuspended && fFlowControlMode == IFlowControlledStreamsProxy.FLOW_CONTROL_PAUSE && !fCloseRequested;
+	}
+
+	/**
+	 * Returns whether output is currently withheld from listeners.
+	 *
+	 * @return whether output is withheld from listeners
+	 */
+	private boolean isDropping() {
+		return fSuspended && fFlowControlMode == IFlowControlledStreamsProxy.FLOW_CONTROL_DROP;
+	}
+
+	/**
+	 * Blocks the reading thread while reading is paused.
+	 */
+	private void awaitResume() {
+		synchronized (fFlowLock) {
+			while (isPaused() && !fKilled) {
+				try {
+					fFlowLock.wait();
+				} catch (InterruptedException e) {
+					return;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Wakes a reading thread waiting for reading to be resumed.
+	 *
+	 * @param close whether the stream is being closed
+	 */
+	private void wakeReader(boolean close) {
+		synchronized (fFlowLock) {
+			if (close) {
+				fCloseRequested = true;
+			}
+			fFlowLock.notifyAll();
+		}
 	}
 
 	/* (non-Javadoc)
@@ -205,7 +651,8 @@ public class OutputStreamMonitor implements IFlushableStreamMonitor {
 	 * Starts a thread which reads from the stream
 	 */
 	protected void startMonitoring() {
-		if (fThread == null) {
+		if (fThread == null && fPumpDone == null) {
+			fStartTime = System.currentTimeMillis();
 			fThread= new Thread(new Runnable() {
 				@Override
 				public void run() {
@@ -218,6 +665,57 @@ public class OutputStreamMonitor implements IFlushableStreamMonitor {
 		}
 	}
 
+	/**
+	 * Starts reading from the stream using the given shared pump rather than
+	 * a dedicated thread.
+	 *
+	 * @param pump the pump to read the stream with
+	 * @since 3.12
+	 */
+	protected void startMonitoring(StreamPump pump) {
+		if (fThread == null && fPumpDone == null) {
+			fStartTime = System.currentTimeMillis();
+			fPumpDone = new CountDownLatch(1);
+			pump.register(this);
+		}
+	}
+
+	/**
+	 * Returns the number of bytes read from the stream so far.
+	 *
+	 * @return number of bytes read
+	 * @since 3.12
+	 */
+	public long getBytesRead() {
+		return fBytesRead;
+	}
+
+	/**
+	 * Returns the number of reads that returned data so far.
+	 *
+	 * @return number of non-empty reads
+	 * @since 3.12
+	 */
+	public long getReadCount() {
+		return fReadCount;
+	}
+
+	/**
+	 * Returns the average throughput of the stream since monitoring started,
+	 * in bytes per second.
+	 *
+	 * @return average throughput in bytes per second, or <code>0</code> if
+	 *         monitoring has not started
+	 * @since 3.12
+	 */
+	public long getThroughput() {
+		if (fStartTime == 0) {
+			return 0;
+		}
+		long elapsed = Math.max(1, System.currentTimeMillis() - fStartTime);
+		return fBytesRead * 1000 / elapsed;
+	}
+
 	/**
 	 * @see org.eclipse.debug.core.model.IFlushableStreamMonitor#setBuffered(boolean)
 	 */
@@ -231,7 +729,11 @@ public class OutputStreamMonitor implements IFlushableStreamMonitor {
 	 */
 	@Override
 	public synchronized void flushContents() {
-		fContents.setLength(0);
+		if (fRingBuffer != null) {
+			fRingBuffer.clear();
+		} else {
+			fContents.setLength(0);
+		}
 	}
 
 	/**
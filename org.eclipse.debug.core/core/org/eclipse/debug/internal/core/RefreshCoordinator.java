@@ -0,0 +1,300 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.resources.IResourceProxyVisitor;
+import org.eclipse.core.resources.IResourceRuleFactory;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.ISchedulingRule;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.MultiRule;
+import org.eclipse.debug.core.DebugPlugin;
+
+/**
+ * Refreshes resources in the background on behalf of all launches.
+ * <p>
+ * A refresh starts {@link #COALESCE_DELAY} milliseconds after the first
+ * resource is scheduled, and refreshes scheduled until then are merged: a
+ * resource scheduled more than once is refreshed once, to the largest depth,
+ * and resources that are refreshed as part of another scheduled resource are
+ * dropped. Scheduling more resources does not postpone a pending refresh. The
+ * remaining resources are refreshed by one job per project, holding the
+ * refresh rules of its resources, so that projects are refreshed in parallel
+ * when their rules allow it.
+ * </p>
+ * <p>
+ * The refresh jobs are not system jobs: they are shown in the progress view,
+ * and canceling the job coordinating a refresh cancels the refresh of all
+ * projects.
+ * </p>
+ * <p>
+ * When the <code>org.eclipse.debug.core/debug/refresh</code> tracing option is
+ * enabled, the number of scheduled and refreshed resources, the number of
+ * resources the refresh covered and the time it took are traced after each
+ * refresh.
+ * </p>
+ * <p>
+ * Pending refreshes can be waited for by joining the job family of the
+ * coordinator, which is the coordinator itself.
+ * </p>
+ *
+ * @since 3.12
+ */
+public class RefreshCoordinator {
+
+	/**
+	 * Milliseconds to wait for more refreshes after the first one is scheduled
+	 */
+	public static final long COALESCE_DELAY = 100;
+
+	private static final RefreshCoordinator fgDefault = new RefreshCoordinator();
+
+	/**
+	 * Depth to refresh each scheduled resource to, in scheduling order
+	 */
+	private final Map<IResource, Integer> fPending = new LinkedHashMap<IResource, Integer>();
+
+	private final Job fJob = new CoordinatorJob();
+
+	/**
+	 * Family of the jobs refreshing the resources of a project
+	 */
+	private final Object fWorkers = new Object();
+
+	/**
+	 * Returns the refresh coordinator.
+	 *
+	 * @return the refresh coordinator
+	 */
+	public static RefreshCoordinator getDefault() {
+		return fgDefault;
+	}
+
+	/**
+	 * Schedules the given resources to be refreshed to the given depth.
+	 *
+	 * @param resources resources to refresh, <code>null</code> entries are
+	 *            ignored
+	 * @param depth one of {@link IResource#DEPTH_INFINITE},
+	 *            {@link IResource#DEPTH_ONE}, or {@link IResource#DEPTH_ZERO}
+	 */
+	public void schedule(IResource[] resources, int depth) {
+		synchronized (fPending) {
+			for (IResource resource : resources) {
+				if (resource != null) {
+					merge(fPending, resource, depth);
+				}
+			}
+		}
+		// a sleeping job has not taken the pending resources yet, and
+		// rescheduling it would restart its delay
+		if (fJob.getState() != Job.SLEEPING) {
+			fJob.schedule(COALESCE_DELAY);
+		}
+	}
+
+	/**
+	 * Returns the resources of the given scopes that are not refreshed as part
+	 * of another scope, with the depth to refresh them to. A resource is
+	 * refreshed as part of another if an ancestor is refreshed to an infinite
+	 * depth, or if its parent is refreshed to a depth of one and the resource
+	 * itself to a depth of zero.
+	 *
+	 * @param scopes depth to refresh each resource to
+	 * @return the scopes that are not covered by other scopes, ancestors first
+	 */
+	public static Map<IResource, Integer> removeCoveredScopes(Map<IResource, Integer> scopes) {
+		List<IResource> resources = new ArrayList<IResource>(scopes.keySet());
+		Collections.sort(resources, new Comparator<IResource>() {
+			@Override
+			public int compare(IResource r1, IResource r2) {
+				return Integer.compare(r1.getFullPath().segmentCount(), r2.getFullPath().segmentCount());
+			}
+		});
+		Map<IResource, Integer> result = new LinkedHashMap<IResource, Integer>();
+		for (IResource resource : resources) {
+			int depth = scopes.get(resource).intValue();
+			if (!isCovered(result, resource, depth)) {
+				result.put(resource, Integer.valueOf(depth));
+			}
+		}
+		return result;
+	}
+
+	private static boolean isCovered(Map<IResource, Integer> scopes, IResource resource, int depth) {
+		IResource parent = resource.getParent();
+		if (parent != null && depth == IResource.DEPTH_ZERO) {
+			Integer parentDepth = scopes.get(parent);
+			if (parentDepth != null && parentDepth.intValue() != IResource.DEPTH_ZERO) {
+				return true;
+			}
+		}
+		for (IResource ancestor = parent; ancestor != null; ancestor = ancestor.getParent()) {
+			Integer ancestorDepth = scopes.get(ancestor);
+			if (ancestorDepth != null && ancestorDepth.intValue() == IResource.DEPTH_INFINITE) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static void merge(Map<IResource, Integer> scopes, IResource resource, int depth) {
+		Integer previous = scopes.get(resource);
+		if (previous == null || previous.intValue() < depth) {
+			scopes.put(resource, Integer.valueOf(depth));
+		}
+	}
+
+	/**
+	 * Refreshes the pending resources
+	 */
+	class CoordinatorJob extends Job {
+
+		CoordinatorJob() {
+			super(DebugCoreMessages.RefreshingResources);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			Map<IResource, Integer> scheduled;
+			synchronized (fPending) {
+				scheduled = new LinkedHashMap<IResource, Integer>(fPending);
+				fPending.clear();
+			}
+			if (scheduled.isEmpty()) {
+				return Status.OK_STATUS;
+			}
+			long start = System.currentTimeMillis();
+			Map<IResource, Integer> scopes = removeCoveredScopes(scheduled);
+			Map<IResource, Map<IResource, Integer>> byProject = new LinkedHashMap<IResource, Map<IResource, Integer>>();
+			for (Map.Entry<IResource, Integer> entry : scopes.entrySet()) {
+				IResource resource = entry.getKey();
+				IResource project = resource.getType() == IResource.ROOT ? resource : resource.getProject();
+				Map<IResource, Integer> projectScopes = byProject.get(project);
+				if (projectScopes == null) {
+					projectScopes = new LinkedHashMap<IResource, Integer>();
+					byProject.put(project, projectScopes);
+				}
+				projectScopes.put(resource, entry.getValue());
+			}
+			MultiStatus status = new MultiStatus(DebugPlugin.getUniqueIdentifier(), 0, DebugCoreMessages.RefreshingResourcesError, null);
+			AtomicInteger covered = new AtomicInteger();
+			for (Map<IResource, Integer> projectScopes : byProject.values()) {
+				new RefreshJob(projectScopes, status, covered).schedule();
+			}
+			try {
+				Job.getJobManager().join(fWorkers, monitor);
+			} catch (OperationCanceledException e) {
+				Job.getJobManager().cancel(fWorkers);
+				return Status.CANCEL_STATUS;
+			} catch (InterruptedException e) {
+				Job.getJobManager().cancel(fWorkers);
+				return Status.CANCEL_STATUS;
+			}
+			if (DebugOptions.DEBUG_REFRESH) {
+				DebugOptions.trace(DebugOptions.DEBUG_FLAG_REFRESH, "Refreshed " + scopes.size() + " of " + scheduled.size() //$NON-NLS-1$ //$NON-NLS-2$
+						+ " scheduled resources in " + byProject.size() + " jobs, covering " + covered.get() //$NON-NLS-1$ //$NON-NLS-2$
+						+ " resources in " + (System.currentTimeMillis() - start) + "ms", null); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			return status;
+		}
+
+		@Override
+		public boolean belongsTo(Object family) {
+			return family == RefreshCoordinator.this;
+		}
+	}
+
+	/**
+	 * Refreshes the scheduled resources of one project
+	 */
+	class RefreshJob extends Job {
+
+		private final Map<IResource, Integer> fScopes;
+		private final MultiStatus fStatus;
+		private final AtomicInteger fCovered;
+
+		RefreshJob(Map<IResource, Integer> scopes, MultiStatus status, AtomicInteger covered) {
+			super(DebugCoreMessages.RefreshingResources);
+			fScopes = scopes;
+			fStatus = status;
+			fCovered = covered;
+			IResourceRuleFactory factory = ResourcesPlugin.getWorkspace().getRuleFactory();
+			ISchedulingRule rule = null;
+			for (IResource resource : scopes.keySet()) {
+				rule = MultiRule.combine(rule, factory.refreshRule(resource));
+			}
+			setRule(rule);
+		}
+
+		@Override
+		protected IStatus run(IProgressMonitor monitor) {
+			for (Map.Entry<IResource, Integer> entry : fScopes.entrySet()) {
+				if (monitor.isCanceled()) {
+					return Status.CANCEL_STATUS;
+				}
+				IResource resource = entry.getKey();
+				if (resource.isAccessible()) {
+					int depth = entry.getValue().intValue();
+					try {
+						resource.refreshLocal(depth, null);
+						if (DebugOptions.DEBUG_REFRESH) {
+							fCovered.addAndGet(count(resource, depth));
+						}
+					} catch (CoreException e) {
+						synchronized (fStatus) {
+							fStatus.merge(e.getStatus());
+						}
+					}
+				}
+			}
+			return Status.OK_STATUS;
+		}
+
+		/**
+		 * Returns the number of resources a refresh of the given resource to
+		 * the given depth covers.
+		 */
+		private int count(IResource resource, final int depth) throws CoreException {
+			final int segments = resource.getFullPath().segmentCount();
+			final int[] count = new int[1];
+			resource.accept(new IResourceProxyVisitor() {
+				@Override
+				public boolean visit(IResourceProxy proxy) {
+					count[0]++;
+					return depth == IResource.DEPTH_INFINITE || (depth == IResource.DEPTH_ONE && proxy.requestFullPath().segmentCount() == segments);
+				}
+			}, IResource.NONE);
+			return count[0];
+		}
+
+		@Override
+		public boolean belongsTo(Object family) {
+			return family == fWorkers;
+		}
+	}
+}
@@ -0,0 +1,186 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core;
+
+import java.text.MessageFormat;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Reads the output streams of many processes using a small shared pool of
+ * threads rather than one blocking thread per stream.
+ * <p>
+ * Process pipes are not selectable channels, so each registered stream is
+ * polled: a pump task reads whatever is available without blocking and
+ * reschedules itself immediately while data keeps arriving, backing off up to
+ * {@link #MAX_IDLE_DELAY} milliseconds while the stream is idle. The backoff
+ * is reset as soon as any byte is read. Once its monitor is closed, a stream
+ * is read until no more data is available; pump threads never block in a
+ * read.
+ * </p>
+ * <p>
+ * Output arriving on an idle stream is therefore read at most
+ * {@link #MAX_IDLE_DELAY} milliseconds after it becomes available, plus the
+ * time a pump thread takes to become free when all of them are busy reading
+ * other streams.
+ * </p>
+ *
+ * @see IInternalDebugCoreConstants#PREF_STREAM_PUMP
+ * @since 3.12
+ */
+public class StreamPump {
+
+	/**
+	 * Initial delay in milliseconds before polling an idle stream again
+	 */
+	private static final int MIN_IDLE_DELAY = 1;
+
+	/**
+	 * Maximum delay in milliseconds before polling an idle stream again, and
+	 * so the worst-case latency of output arriving on an idle stream. Kept
+	 * short so that interactive output is echoed promptly; an idle stream
+	 * costs one short poll per period.
+	 */
+	private static final int MAX_IDLE_DELAY = 10;
+
+	/**
+	 * The shared pump, created on demand
+	 */
+	private static StreamPump fgDefault;
+
+	/**
+	 * The pool running the pump tasks
+	 */
+	private final ScheduledExecutorService fExecutor;
+
+	/**
+	 * Monitors whose streams are currently being pumped
+	 */
+	private final Set<OutputStreamMonitor> fMonitors = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Returns the shared stream pump, creating it if necessary.
+	 *
+	 * @return the shared stream pump
+	 */
+	public static synchronized StreamPump getDefault() {
+		if (fgDefault == null) {
+			fgDefault = new StreamPump(Math.max(1, Math.min(4, Runtime.getRuntime().availableProcessors())));
+		}
+		return fgDefault;
+	}
+
+	/**
+	 * Stops the shared stream pump, if any. Streams still registered are no
+	 * longer read and their monitors are released.
+	 */
+	public static synchronized void shutdown() {
+		if (fgDefault != null) {
+			fgDefault.fExecutor.shutdownNow();
+			for (OutputStreamMonitor monitor : fgDefault.fMonitors) {
+				monitor.pumpDone();
+			}
+			fgDefault.fMonitors.clear();
+			fgDefault = null;
+		}
+	}
+
+	/**
+	 * Creates a stream pump backed by the given number of threads.
+	 *
+	 * @param threads number of pool threads
+	 */
+	private StreamPump(int threads) {
+		fExecutor = new ScheduledThreadPoolExecutor(threads, new ThreadFactory() {
+			private final AtomicInteger fCount = new AtomicInteger();
+
+			@Override
+			public Thread newThread(Runnable r) {
+				Thread thread = new Thread(r, MessageFormat.format(DebugCoreMessages.StreamPump_label, new Object[] { fCount.incrementAndGet() }));
+				thread.setDaemon(true);
+				thread.setPriority(Thread.MIN_PRIORITY);
+				return thread;
+			}
+		});
+	}
+
+	/**
+	 * Starts pumping the stream of the given monitor until it reaches the end
+	 * of the stream or is killed.
+	 *
+	 * @param monitor the monitor to pump
+	 */
+	void register(OutputStreamMonitor monitor) {
+		fMonitors.add(monitor);
+		new PumpTask(monitor).schedule(0);
+	}
+
+	/**
+	 * Returns the number of streams currently being pumped.
+	 *
+	 * @return number of streams being pumped
+	 */
+	public int getStreamCount() {
+		return fMonitors.size();
+	}
+
+	/**
+	 * Reads a single stream, rescheduling itself until the stream is done.
+	 */
+	private class PumpTask implements Runnable {
+
+		private final OutputStreamMonitor fMonitor;
+
+		/**
+		 * Read buffer, reused for every pass over the stream
+		 */
+		private final byte[] fBytes = new byte[OutputStreamMonitor.BUFFER_SIZE];
+
+		/**
+		 * Current delay used while the stream is idle
+		 */
+		private int fIdleDelay = MIN_IDLE_DELAY;
+
+		PumpTask(OutputStreamMonitor monitor) {
+			fMonitor = monitor;
+		}
+
+		void schedule(int delay) {
+			try {
+				fExecutor.schedule(this, delay, TimeUnit.MILLISECONDS);
+			} catch (RejectedExecutionException e) {
+				// pump was shut down
+				fMonitor.pumpDone();
+			}
+		}
+
+		@Override
+		public void run() {
+			int read = fMonitor.pump(fBytes);
+			if (read > 0) {
+				fIdleDelay = MIN_IDLE_DELAY;
+				schedule(0);
+			} else if (read == 0) {
+				schedule(fIdleDelay);
+				fIdleDelay = Math.min(MAX_IDLE_DELAY, fIdleDelay * 2);
+			} else {
+				fMonitors.remove(fMonitor);
+				fMonitor.pumpDone();
+			}
+		}
+	}
+}
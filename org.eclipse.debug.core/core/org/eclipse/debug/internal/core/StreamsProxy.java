@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,9 @@ package org.eclipse.debug.internal.core;
 
 import java.io.IOException;
 
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.model.IFlowControlledStreamsProxy;
 import org.eclipse.debug.core.model.IStreamMonitor;
 import org.eclipse.debug.core.model.IStreamsProxy;
 import org.eclipse.debug.core.model.IStreamsProxy2;
@@ -21,7 +24,7 @@ import org.eclipse.debug.core.model.IStreamsProxy2;
  * Standard implementation of a streams proxy for IStreamsProxy.
  */
 
-public class StreamsProxy implements IStreamsProxy, IStreamsProxy2 {
+public class StreamsProxy implements IStreamsProxy, IStreamsProxy2, IFlowControlledStreamsProxy {
 	/**
 	 * The monitor for the output stream (connected to standard out of the process)
 	 */
@@ -40,6 +43,10 @@ public class StreamsProxy implements IStreamsProxy, IStreamsProxy2 {
 	 * <code>false</code> by default.
 	 */
 	private boolean fClosed;
+	/**
+	 * How output is handled while the consumer of a stream is saturated
+	 */
+	private int fFlowControlMode = FLOW_CONTROL_PAUSE;
 	/**
 	 * Creates a <code>StreamsProxy</code> on the streams
 	 * of the given system process.
@@ -54,8 +61,17 @@ public class StreamsProxy implements IStreamsProxy, IStreamsProxy2 {
 		fOutputMonitor= new OutputStreamMonitor(process.getInputStream(), encoding);
 		fErrorMonitor= new OutputStreamMonitor(process.getErrorStream(), encoding);
 		fInputMonitor= new InputStreamMonitor(process.getOutputStream(), encoding);
-		fOutputMonitor.startMonitoring();
-		fErrorMonitor.startMonitoring();
+		if (Platform.getPreferencesService().getBoolean(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_STREAM_FLOW_CONTROL_DROP, false, null)) {
+			setFlowControlMode(FLOW_CONTROL_DROP);
+		}
+		if (Platform.getPreferencesService().getBoolean(DebugPlugin.getUniqueIdentifier(), IInternalDebugCoreConstants.PREF_STREAM_PUMP, false, null)) {
+			StreamPump pump = StreamPump.getDefault();
+			fOutputMonitor.startMonitoring(pump);
+			fErrorMonitor.startMonitoring(pump);
+		} else {
+			fOutputMonitor.startMonitoring();
+			fErrorMonitor.startMonitoring();
+		}
 		fInputMonitor.startMonitoring();
 	}
 
@@ -146,4 +162,37 @@ public class StreamsProxy implements IStreamsProxy, IStreamsProxy2 {
 
     }
 
+	/**
+	 * @see IFlowControlledStreamsProxy#setFlowControlMode(int)
+	 */
+	@Override
+	public void setFlowControlMode(int mode) {
+		if (mode != FLOW_CONTROL_PAUSE && mode != FLOW_CONTROL_DROP) {
+			throw new IllegalArgumentException("Unknown flow control mode " + mode); //$NON-NLS-1$
+		}
+		fFlowControlMode = mode;
+		if (fOutputMonitor != null) {
+			fOutputMonitor.setFlowControlMode(mode);
+			fErrorMonitor.setFlowControlMode(mode);
+		}
+	}
+
+	/**
+	 * @see IFlowControlledStreamsProxy#getFlowControlMode()
+	 */
+	@Override
+	public int getFlowControlMode() {
+		return fFlowControlMode;
+	}
+
+	/**
+	 * @see IFlowControlledStreamsProxy#setConsumerSaturated(IStreamMonitor, boolean)
+	 */
+	@Override
+	public void setConsumerSaturated(IStreamMonitor monitor, boolean saturated) {
+		if (monitor != null && (monitor == fOutputMonitor || monitor == fErrorMonitor)) {
+			((OutputStreamMonitor) monitor).setSuspended(saturated);
+		}
+	}
+
 }
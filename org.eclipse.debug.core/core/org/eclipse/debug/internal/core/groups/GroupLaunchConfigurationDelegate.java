@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2009, 2016 QNX Software Systems and others.
+ *  Copyright (c) 2009, 2018 QNX Software Systems and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -14,20 +14,25 @@ package org.eclipse.debug.internal.core.groups;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.resources.IProject;
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.debug.core.DebugPlugin;
@@ -37,13 +42,12 @@ import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
 import org.eclipse.debug.core.ILaunchManager;
 import org.eclipse.debug.core.IStatusHandler;
 import org.eclipse.debug.core.model.ILaunchConfigurationDelegate2;
-import org.eclipse.debug.core.model.IProcess;
 import org.eclipse.debug.core.model.LaunchConfigurationDelegate;
 import org.eclipse.debug.internal.core.DebugCoreMessages;
 import org.eclipse.debug.internal.core.IInternalDebugCoreConstants;
 import org.eclipse.debug.internal.core.groups.GroupLaunchElement.GroupElementPostLaunchAction;
-import org.eclipse.debug.internal.core.groups.observer.ProcessObserver;
-import org.eclipse.debug.internal.core.groups.observer.StreamObserver;
+import org.eclipse.debug.internal.core.groups.observer.OutputMatchProbe;
+import org.eclipse.debug.internal.core.groups.observer.ReadinessWaiter;
 import org.eclipse.osgi.util.NLS;
 
 /**
@@ -61,10 +65,24 @@ public class GroupLaunchConfigurationDelegate extends LaunchConfigurationDelegat
 	private static final String MODE_PROP = "mode"; //$NON-NLS-1$
 	private static final String ACTION_PROP = "action"; //$NON-NLS-1$
 	private static final String ACTION_PARAM_PROP = "actionParam"; //$NON-NLS-1$
+	private static final String DEPENDS_ON_PROP = "dependsOn"; //$NON-NLS-1$
 	private static final String MULTI_LAUNCH_CONSTANTS_PREFIX = "org.eclipse.debug.core.launchGroup"; //$NON-NLS-1$
 
 	private static final String DEBUG_CORE = "org.eclipse.debug.core"; //$NON-NLS-1$
 
+	/**
+	 * Boolean attribute of a group launch configuration indicating whether its
+	 * members are launched by their dependencies rather than one after the
+	 * other. Members that do not depend on other members are launched
+	 * concurrently, and each other member as soon as the members it depends
+	 * on have been launched and have completed their post launch action.
+	 * Default value is <code>false</code>.
+	 *
+	 * @since 3.12
+	 * @see GroupLaunchElement#dependsOn
+	 */
+	public static final String ATTR_LAUNCH_BY_DEPENDENCIES = "org.eclipse.debug.core.groupLaunchByDependencies"; //$NON-NLS-1$
+
 	private static final Status UNSUPPORTED_MODE = new Status(IStatus.ERROR, DEBUG_CORE, 230, IInternalDebugCoreConstants.EMPTY_STRING, null);
 	private static final Status GROUP_ELEMENT_STARTED = new Status(IStatus.OK, DEBUG_CORE, 231, IInternalDebugCoreConstants.EMPTY_STRING, null);
 	private static final Status GROUP_CYCLE = new Status(IStatus.ERROR, DEBUG_CORE, 232, IInternalDebugCoreConstants.EMPTY_STRING, null);
@@ -88,47 +106,35 @@ public class GroupLaunchConfigurationDelegate extends LaunchConfigurationDelegat
 			SubMonitor progress = SubMonitor.convert(monitor, NLS.bind(DebugCoreMessages.GroupLaunchConfigurationDelegate_Launching, groupConfig.getName()), 1000);
 
 			List<GroupLaunchElement> launches = createLaunchElements(groupConfig);
-			for (int i = 0; i < launches.size(); ++i) {
-				GroupLaunchElement le = launches.get(i);
-
-				if (!le.enabled) {
-					continue;
-				}
-
-				// find launch; if not found, skip (error?)
-				final ILaunchConfiguration conf = findLaunchConfiguration(le.name);
-				if (conf == null) {
-					continue;
-				}
+			if (groupConfig.getAttribute(ATTR_LAUNCH_BY_DEPENDENCIES, false)) {
+				launchByDependencies(progress, groupConfig, mode, group, launches);
+			} else {
+				for (int i = 0; i < launches.size(); ++i) {
+					GroupLaunchElement le = launches.get(i);
+
+					if (!le.enabled) {
+						continue;
+					}
 
-				// determine mode for each launch
-				final String localMode;
-				if (!le.mode.equals(GroupLaunchElement.MODE_INHERIT)) {
-					localMode = le.mode;
-				} else {
-					localMode = mode;
-				}
-				if (!conf.supportsMode(localMode)) {
-					IStatusHandler handler = DebugPlugin.getDefault().getStatusHandler(UNSUPPORTED_MODE);
-					handler.handleStatus(UNSUPPORTED_MODE, new String[] {
-							conf.getName(), localMode });
-					continue;
-				}
+					// find launch; if not found, skip (error?)
+					final ILaunchConfiguration conf = findLaunchConfiguration(le.name);
+					if (conf == null) {
+						continue;
+					}
 
-				if (groupConfig.getName().equals(conf.getName())) {
-					// loop detected. report as appropriate and die.
-					IStatusHandler cycleHandler = DebugPlugin.getDefault().getStatusHandler(GROUP_CYCLE);
-					cycleHandler.handleStatus(GROUP_CYCLE, conf.getName());
-				} else {
+					String localMode = getLaunchMode(groupConfig, mode, le, conf);
+					if (localMode == null) {
+						continue;
+					}
 					if (!launchChild(progress.newChild(1000 / launches.size()), group, le, conf, localMode, (i == launches.size() - 1))) {
 						break;
 					}
-				}
 
-				// in case the group has been terminated while waiting in the
-				// post launch action.
-				if (group.isTerminated()) {
-					break;
+					// in case the group has been terminated while waiting in the
+					// post launch action.
+					if (group.isTerminated()) {
+						break;
+					}
 				}
 			}
 
@@ -144,7 +150,258 @@ public class GroupLaunchConfigurationDelegate extends LaunchConfigurationDelegat
 		}
 	}
 
+	/**
+	 * Returns the mode to launch the given member in, or <code>null</code> if
+	 * the member must not be launched. Reports why a member must not be
+	 * launched to the appropriate status handler.
+	 */
+	private String getLaunchMode(ILaunchConfiguration groupConfig, String mode, GroupLaunchElement le, ILaunchConfiguration conf) throws CoreException {
+		// determine mode for each launch
+		final String localMode;
+		if (!le.mode.equals(GroupLaunchElement.MODE_INHERIT)) {
+			localMode = le.mode;
+		} else {
+			localMode = mode;
+		}
+		if (!conf.supportsMode(localMode)) {
+			IStatusHandler handler = DebugPlugin.getDefault().getStatusHandler(UNSUPPORTED_MODE);
+			handler.handleStatus(UNSUPPORTED_MODE, new String[] {
+					conf.getName(), localMode });
+			return null;
+		}
+
+		if (groupConfig.getName().equals(conf.getName())) {
+			// loop detected. report as appropriate and die.
+			IStatusHandler cycleHandler = DebugPlugin.getDefault().getStatusHandler(GROUP_CYCLE);
+			cycleHandler.handleStatus(GROUP_CYCLE, conf.getName());
+			return null;
+		}
+		return localMode;
+	}
+
+	/**
+	 * A member of a group launched by dependencies
+	 */
+	private static class Member {
+		final GroupLaunchElement element;
+		final ILaunchConfiguration configuration;
+		final String mode;
+		final List<Member> dependents = new ArrayList<>();
+		// number of prerequisites that are not ready yet
+		int pending;
+		// whether launched and done with its post launch action
+		boolean ready;
+		// whether not launched since a prerequisite did not become ready
+		boolean skipped;
+
+		Member(GroupLaunchElement element, ILaunchConfiguration configuration, String mode) {
+			this.element = element;
+			this.configuration = configuration;
+			this.mode = mode;
+		}
+	}
+
+	/**
+	 * Launches the given members concurrently, each as soon as the members it
+	 * depends on are ready. Dependencies on members that are not launched are
+	 * ignored. Members whose dependencies fail to become ready, or that are
+	 * part of a dependency cycle, are not launched.
+	 */
+	private void launchByDependencies(SubMonitor progress, ILaunchConfiguration groupConfig, String mode, final GroupLaunch group, List<GroupLaunchElement> elements) throws CoreException {
+		List<Member> members = new ArrayList<>();
+		Map<String, List<Member>> byName = new HashMap<>();
+		for (GroupLaunchElement le : elements) {
+			if (le == null || !le.enabled) {
+				continue;
+			}
+			ILaunchConfiguration conf = findLaunchConfiguration(le.name);
+			if (conf == null) {
+				continue;
+			}
+			String localMode = getLaunchMode(groupConfig, mode, le, conf);
+			if (localMode == null) {
+				continue;
+			}
+			Member member = new Member(le, conf, localMode);
+			members.add(member);
+			List<Member> named = byName.get(le.name);
+			if (named == null) {
+				named = new ArrayList<>(1);
+				byName.put(le.name, named);
+			}
+			named.add(member);
+		}
+		for (Member member : members) {
+			for (String name : new HashSet<>(member.element.dependsOn)) {
+				List<Member> prerequisites = byName.get(name);
+				if (prerequisites != null) {
+					for (Member prerequisite : prerequisites) {
+						if (prerequisite != member) {
+							prerequisite.dependents.add(member);
+							member.pending++;
+						}
+					}
+				}
+			}
+		}
+
+		// members that can not be ordered are part of, or depend on, a cycle
+		List<Member> roots = new ArrayList<>();
+		Map<Member, Integer> unordered = new HashMap<>();
+		for (Member member : members) {
+			if (member.pending == 0) {
+				roots.add(member);
+			} else {
+				unordered.put(member, Integer.valueOf(member.pending));
+			}
+		}
+		List<Member> ordered = new ArrayList<>(roots);
+		for (int i = 0; i < ordered.size(); i++) {
+			for (Member dependent : ordered.get(i).dependents) {
+				int pending = unordered.get(dependent).intValue() - 1;
+				if (pending == 0) {
+					unordered.remove(dependent);
+					ordered.add(dependent);
+				} else {
+					unordered.put(dependent, Integer.valueOf(pending));
+				}
+			}
+		}
+		boolean cycleReported = false;
+		for (Member member : members) {
+			if (unordered.containsKey(member)) {
+				member.skipped = true;
+				if (!cycleReported) {
+					IStatusHandler cycleHandler = DebugPlugin.getDefault().getStatusHandler(GROUP_CYCLE);
+					cycleHandler.handleStatus(GROUP_CYCLE, member.configuration.getName());
+					cycleReported = true;
+				}
+			}
+		}
+		if (ordered.isEmpty()) {
+			return;
+		}
+
+		final int count = ordered.size();
+		final AtomicInteger unlaunched = new AtomicInteger(count);
+		final IProgressMonitor memberMonitor = new NullProgressMonitor() {
+			@Override
+			public boolean isCanceled() {
+				return progress.isCanceled();
+			}
+		};
+		ExecutorService executor = Executors.newCachedThreadPool();
+		CompletionService<Member> completion = new ExecutorCompletionService<>(executor);
+		int running = 0;
+		CoreException failure = null;
+		try {
+			for (Member member : roots) {
+				submit(completion, member, group, memberMonitor, unlaunched);
+				running++;
+			}
+			while (running > 0) {
+				Member member;
+				try {
+					member = completion.take().get();
+				} catch (ExecutionException e) {
+					if (failure == null) {
+						Throwable cause = e.getCause();
+						failure = cause instanceof CoreException ? (CoreException) cause : new CoreException(new Status(IStatus.ERROR, DEBUG_CORE, cause.getMessage(), cause));
+					}
+					running--;
+					continue;
+				}
+				running--;
+				progress.worked(1000 / count);
+				if (failure != null || progress.isCanceled() || group.isTerminated()) {
+					// stop launching, wait for members being launched
+					continue;
+				}
+				if (member.ready) {
+					for (Member dependent : member.dependents) {
+						if (--dependent.pending == 0) {
+							submit(completion, dependent, group, memberMonitor, unlaunched);
+							running++;
+						}
+					}
+				} else if (unlaunched.addAndGet(-skipDependents(member)) == 0) {
+					// members depending on it will not be launched
+					group.markLaunched();
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		} finally {
+			executor.shutdown();
+		}
+		if (failure != null) {
+			throw failure;
+		}
+	}
+
+	/**
+	 * Marks the members depending on the given member, directly or indirectly,
+	 * as not to be launched.
+	 *
+	 * @return the number of members newly marked
+	 */
+	private static int skipDependents(Member member) {
+		int skipped = 0;
+		List<Member> next = new ArrayList<>(member.dependents);
+		while (!next.isEmpty()) {
+			Member dependent = next.remove(next.size() - 1);
+			if (!dependent.skipped) {
+				dependent.skipped = true;
+				skipped++;
+				next.addAll(dependent.dependents);
+			}
+		}
+		return skipped;
+	}
+
+	private void submit(CompletionService<Member> completion, final Member member, final GroupLaunch group, final IProgressMonitor monitor, final AtomicInteger unlaunched) {
+		completion.submit(new Callable<Member>() {
+			@Override
+			public Member call() throws Exception {
+				ILaunch subLaunch;
+				try {
+					subLaunch = startChild(monitor, group, member.element, member.configuration, member.mode);
+				} finally {
+					if (unlaunched.decrementAndGet() == 0) {
+						group.markLaunched();
+					}
+				}
+				member.ready = subLaunch == null || postLaunchAction(group, subLaunch, member.element, monitor);
+				return member;
+			}
+		});
+	}
+
 	private boolean launchChild(SubMonitor monitor, final GroupLaunch group, GroupLaunchElement le, final ILaunchConfiguration child, final String localMode, boolean lastConfig) throws CoreException {
+		ILaunch subLaunch = startChild(monitor, group, le, child, localMode);
+
+		// if this is the last child, mark the group as "launching finished", so
+		// that from now on the last terminating child will also terminate the
+		// group.
+		if (lastConfig) {
+			group.markLaunched();
+		}
+
+		// in case we adopted the launch, and did not launch outselves, don't
+		// execute the post launch action!
+		if (subLaunch != null) {
+			return postLaunchAction(group, subLaunch, le, monitor);
+		} else {
+			return true;
+		}
+	}
+
+	/**
+	 * Launches the given member, or adopts its running launch if so configured.
+	 *
+	 * @return the launch of the member, or <code>null</code> if adopted
+	 */
+	private ILaunch startChild(IProgressMonitor monitor, final GroupLaunch group, GroupLaunchElement le, final ILaunchConfiguration child, final String localMode) throws CoreException {
 		final Set<ILaunch> running = le.adoptIfRunning ? findRunningLaunch(le.name) : Collections.emptySet();
 		ILaunch subLaunch = running.stream().findFirst().orElse(null);
 		boolean launched = false;
@@ -169,34 +426,22 @@ public class GroupLaunchConfigurationDelegate extends LaunchConfigurationDelegat
 					group, subLaunch });
 		}
 
-		// if this is the last child, mark the group as "launching finished", so
-		// that from now on the last terminating child will also terminate the
-		// group.
-		if (lastConfig) {
-			group.markLaunched();
-		}
-
-		// in case we adopted the launch, and did not launch outselves, don't
-		// execute the post launch action!
-		if (launched) {
-			return postLaunchAction(subLaunch, le, monitor);
-		} else {
-			return true;
-		}
+		return launched ? subLaunch : null;
 	}
 
-	private boolean postLaunchAction(ILaunch subLaunch, GroupLaunchElement le, IProgressMonitor monitor) {
+	private boolean postLaunchAction(GroupLaunch group, ILaunch subLaunch, GroupLaunchElement le, IProgressMonitor monitor) {
 		switch (le.action) {
 			case NONE:
 				return true;
 			case WAIT_FOR_TERMINATION:
 				monitor.subTask(NLS.bind(DebugCoreMessages.GroupLaunchConfigurationDelegate_Waiting_for_termination, subLaunch.getLaunchConfiguration().getName()));
-				while (!subLaunch.isTerminated() && !monitor.isCanceled()) {
-					try {
-						Thread.sleep(1000);
-					} catch (InterruptedException e) {
-						break;
-					}
+				TerminationWaiter termination = new TerminationWaiter(subLaunch);
+				try {
+					termination.await(-1, monitor);
+				} catch (InterruptedException e) {
+					// ok
+				} finally {
+					termination.dispose();
 				}
 				monitor.subTask(""); //$NON-NLS-1$
 				break;
@@ -204,10 +449,14 @@ public class GroupLaunchConfigurationDelegate extends LaunchConfigurationDelegat
 				Integer waitSecs = (Integer) le.actionParam;
 				if (waitSecs != null) {
 					monitor.subTask(NLS.bind(DebugCoreMessages.GroupLaunchConfigurationDelegate_Delaying, waitSecs.toString()));
+					// stop delaying when the launch of the group is terminated
+					TerminationWaiter groupTermination = new TerminationWaiter(group);
 					try {
-						Thread.sleep(waitSecs * 1000); // param is milliseconds
+						groupTermination.await(waitSecs * 1000L, monitor); // param is seconds
 					} catch (InterruptedException e) {
 						// ok
+					} finally {
+						groupTermination.dispose();
 					}
 				}
 				break;
@@ -232,26 +481,14 @@ public class GroupLaunchConfigurationDelegate extends LaunchConfigurationDelegat
 
 	// blocks until a specific string is in the log output
 	private boolean waitForOutputMatching(ILaunch launch, IProgressMonitor m, String regexp) {
-		int processCount = launch.getProcesses().length;
-		final ExecutorService executor = Executors.newCachedThreadPool();
-		final CountDownLatch countDownLatch = new CountDownLatch(processCount);
-		Future<Integer> process = null;
-		for (IProcess p : launch.getProcesses()) {
-			process = executor.submit(new ProcessObserver(m, p, countDownLatch));
-			executor.submit(new StreamObserver(m, p, regexp, countDownLatch));
-		}
+		ReadinessWaiter readiness = new ReadinessWaiter(launch, new OutputMatchProbe(regexp));
 		try {
-			countDownLatch.await();
+			return readiness.await(-1, m);
 		} catch (InterruptedException e) {
-			// should not happen at all!
-		}
-		executor.shutdown();
-		// process terminated before condition
-		if (process == null || process.isDone()) {
 			return false;
+		} finally {
+			readiness.dispose();
 		}
-		// condition matched
-		return true;
 	}
 
 	/*
@@ -359,6 +596,12 @@ public class GroupLaunchConfigurationDelegate extends LaunchConfigurationDelegat
 							}
 							el.mode = (String) attrs.get(getProp(index, MODE_PROP));
 							el.enabled = (Boolean) attrs.get(getProp(index, ENABLED_PROP));
+							Object dependsOn = attrs.get(getProp(index, DEPENDS_ON_PROP));
+							if (dependsOn instanceof List<?>) {
+								for (Object dependency : (List<?>) dependsOn) {
+									el.dependsOn.add((String) dependency);
+								}
+							}
 							try {
 								el.data = findLaunchConfiguration(el.name);
 							} catch (Exception e) {
@@ -397,6 +640,9 @@ public class GroupLaunchConfigurationDelegate extends LaunchConfigurationDelegat
 			configuration.setAttribute(getProp(i, ACTION_PARAM_PROP), el.actionParam != null ? el.actionParam.toString() : null);
 			configuration.setAttribute(getProp(i, MODE_PROP), el.mode);
 			configuration.setAttribute(getProp(i, ENABLED_PROP), el.enabled);
+			if (!el.dependsOn.isEmpty()) {
+				configuration.setAttribute(getProp(i, DEPENDS_ON_PROP), el.dependsOn);
+			}
 			i++;
 		}
 	}
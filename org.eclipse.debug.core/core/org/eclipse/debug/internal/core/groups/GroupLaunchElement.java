@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2009, 2017 QNX Software Systems and others.
+ *  Copyright (c) 2009, 2018 QNX Software Systems and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -12,6 +12,9 @@
  *******************************************************************************/
 package org.eclipse.debug.internal.core.groups;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.internal.core.DebugCoreMessages;
 
@@ -29,7 +32,9 @@ public class GroupLaunchElement {
 	 * <p>
 	 * These actions get performed after the associated
 	 * {@link GroupLaunchElement} has been launched, before the next one is
-	 * launched (or launching is finished).
+	 * launched (or launching is finished). When the group launches its members
+	 * by their dependencies, they are performed before the members depending on
+	 * the associated {@link GroupLaunchElement} are launched.
 	 */
 	public static enum GroupElementPostLaunchAction {
 		NONE(DebugCoreMessages.GroupLaunchConfigurationDelegate_None), //
@@ -65,4 +70,14 @@ public class GroupLaunchElement {
 	public Object actionParam;
 	public String name;
 	public ILaunchConfiguration data;
+
+	/**
+	 * Names of the members that must have been launched, and must have
+	 * completed their post launch action, before this member is launched. Only
+	 * used when the group launches its members by their dependencies.
+	 *
+	 * @since 3.12
+	 * @see GroupLaunchConfigurationDelegate#ATTR_LAUNCH_BY_DEPENDENCIES
+	 */
+	public List<String> dependsOn = new ArrayList<>();
 }
\ No newline at end of file
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2016, 2017 SSI Schaefer IT Solutions GmbH and others.
+ *  Copyright (c) 2016, 2018 SSI Schaefer IT Solutions GmbH and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -48,6 +48,11 @@ public class GroupMemberChangeListener implements ILaunchConfigurationListener {
 							updated = true;
 							e.name = configuration.getName();
 						}
+						int dependency = e.dependsOn.indexOf(original.getName());
+						if (dependency >= 0) {
+							updated = true;
+							e.dependsOn.set(dependency, configuration.getName());
+						}
 					}
 
 					if (updated) {
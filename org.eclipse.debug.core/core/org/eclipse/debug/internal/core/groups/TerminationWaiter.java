@@ -0,0 +1,120 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core.groups;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.ILaunchesListener2;
+
+/**
+ * Waits until one of a set of launches terminates, as notified by the launch
+ * manager.
+ * <p>
+ * The launches are also asked whether they have terminated, and the progress
+ * monitor whether it has been canceled, every {@link #CHECK_INTERVAL}
+ * milliseconds: a launch whose processes do not fire terminate events is only
+ * known to have terminated by its state.
+ * </p>
+ */
+public class TerminationWaiter implements ILaunchesListener2 {
+
+	/**
+	 * Milliseconds between checks of the state of the launches and of the
+	 * progress monitor
+	 */
+	public static final long CHECK_INTERVAL = 500;
+
+	private final ILaunch[] fLaunches;
+	private final CountDownLatch fTerminated = new CountDownLatch(1);
+
+	/**
+	 * Starts listening for the termination of any of the given launches.
+	 * {@link #dispose()} must be called once done waiting.
+	 *
+	 * @param launches launches to wait for
+	 */
+	public TerminationWaiter(ILaunch... launches) {
+		fLaunches = launches;
+		DebugPlugin.getDefault().getLaunchManager().addLaunchListener(this);
+	}
+
+	/**
+	 * Waits until one of the launches has terminated, the given time has
+	 * elapsed, or the monitor is canceled.
+	 *
+	 * @param timeout maximum time to wait in milliseconds, or a negative value
+	 *            to wait without limit
+	 * @param monitor progress monitor
+	 * @return whether one of the launches has terminated
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public boolean await(long timeout, IProgressMonitor monitor) throws InterruptedException {
+		long end = timeout < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + timeout;
+		while (!isTerminated() && !monitor.isCanceled()) {
+			long remaining = end - System.currentTimeMillis();
+			if (remaining <= 0) {
+				return false;
+			}
+			if (fTerminated.await(Math.min(remaining, CHECK_INTERVAL), TimeUnit.MILLISECONDS)) {
+				return true;
+			}
+		}
+		return isTerminated();
+	}
+
+	private boolean isTerminated() {
+		if (fTerminated.getCount() == 0) {
+			return true;
+		}
+		for (ILaunch launch : fLaunches) {
+			if (launch.isTerminated()) {
+				fTerminated.countDown();
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Stops listening for the termination of the launches.
+	 */
+	public void dispose() {
+		DebugPlugin.getDefault().getLaunchManager().removeLaunchListener(this);
+	}
+
+	@Override
+	public void launchesTerminated(ILaunch[] launches) {
+		for (ILaunch terminated : launches) {
+			for (ILaunch launch : fLaunches) {
+				if (terminated == launch) {
+					fTerminated.countDown();
+					return;
+				}
+			}
+		}
+	}
+
+	@Override
+	public void launchesRemoved(ILaunch[] launches) {
+	}
+
+	@Override
+	public void launchesAdded(ILaunch[] launches) {
+	}
+
+	@Override
+	public void launchesChanged(ILaunch[] launches) {
+	}
+}
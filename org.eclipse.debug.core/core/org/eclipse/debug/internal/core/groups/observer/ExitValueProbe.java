@@ -0,0 +1,90 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core.groups.observer;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import org.eclipse.debug.core.DebugException;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.model.IProcess;
+
+/**
+ * Ready once the processes of the launch it targets terminate with a given
+ * exit value, failed once one terminates with another exit value.
+ * <p>
+ * The probe either targets the processes with a given label, or all processes
+ * of the launch. In the latter case it is ready once all processes added to
+ * the launch so far have terminated with the exit value: processes added
+ * after that are not waited for.
+ * </p>
+ */
+public class ExitValueProbe extends ReadinessProbe {
+
+	private final String fLabel;
+	private final int fExitValue;
+	private final Set<IProcess> fRunning = new HashSet<>();
+
+	/**
+	 * Constructs a probe waiting for all processes of the launch to terminate
+	 * with the given exit value.
+	 *
+	 * @param exitValue expected exit value
+	 */
+	public ExitValueProbe(int exitValue) {
+		this(null, exitValue);
+	}
+
+	/**
+	 * Constructs a probe waiting for the processes with the given label to
+	 * terminate with the given exit value. Other processes of the launch are
+	 * ignored.
+	 *
+	 * @param label label of the processes to wait for, or <code>null</code>
+	 *            to wait for all processes of the launch
+	 * @param exitValue expected exit value
+	 */
+	public ExitValueProbe(String label, int exitValue) {
+		fLabel = label;
+		fExitValue = exitValue;
+	}
+
+	/**
+	 * Returns whether the given process is one this probe waits for.
+	 */
+	private boolean isTarget(IProcess process) {
+		return fLabel == null || fLabel.equals(process.getLabel());
+	}
+
+	@Override
+	protected synchronized void processAdded(IProcess process) {
+		if (isTarget(process)) {
+			fRunning.add(process);
+		}
+	}
+
+	@Override
+	protected synchronized void processTerminated(IProcess process) {
+		if (!fRunning.remove(process)) {
+			return;
+		}
+		try {
+			if (process.getExitValue() != fExitValue) {
+				failed();
+			} else if (fRunning.isEmpty()) {
+				ready();
+			}
+		} catch (DebugException e) {
+			DebugPlugin.log(e);
+			failed();
+		}
+	}
+}
@@ -0,0 +1,38 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core.groups.observer;
+
+import java.io.File;
+
+/**
+ * Ready once a file exists in the file system. Its existence is checked on
+ * each poll.
+ */
+public class FileExistsProbe extends ReadinessProbe {
+
+	private final File fFile;
+
+	/**
+	 * Constructs a probe for the given file.
+	 *
+	 * @param file file to wait for
+	 */
+	public FileExistsProbe(File file) {
+		fFile = file;
+	}
+
+	@Override
+	protected void poll() {
+		if (fFile.exists()) {
+			ready();
+		}
+	}
+}
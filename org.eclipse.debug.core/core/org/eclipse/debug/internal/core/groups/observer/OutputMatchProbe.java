@@ -0,0 +1,121 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core.groups.observer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import org.eclipse.debug.core.IStreamListener;
+import org.eclipse.debug.core.model.IProcess;
+import org.eclipse.debug.core.model.IStreamMonitor;
+import org.eclipse.debug.core.model.IStreamsProxy;
+
+/**
+ * Ready once the output of a process of the launch matches a regular
+ * expression.
+ * <p>
+ * Output is matched as it is appended, line by line: only the text appended
+ * since the last line separator is matched again when more text is appended,
+ * up to {@link #MAX_LINE_LENGTH} characters.
+ * </p>
+ */
+public class OutputMatchProbe extends ReadinessProbe {
+
+	/**
+	 * Maximum number of characters of an unterminated line kept to be matched
+	 * with the text appended next
+	 */
+	public static final int MAX_LINE_LENGTH = 8192;
+
+	private final Pattern fPattern;
+	private final List<LineMatcher> fMatchers = new ArrayList<>();
+
+	/**
+	 * Constructs a probe for the given regular expression. The expression is
+	 * found anywhere in the output, <code>^</code> and <code>$</code> matching
+	 * at line boundaries.
+	 *
+	 * @param regexp regular expression to find in the output
+	 */
+	public OutputMatchProbe(String regexp) {
+		fPattern = Pattern.compile(regexp, Pattern.MULTILINE);
+	}
+
+	@Override
+	protected void processAdded(IProcess process) {
+		IStreamsProxy proxy = process.getStreamsProxy();
+		if (proxy == null) {
+			return;
+		}
+		IStreamMonitor monitor = proxy.getOutputStreamMonitor();
+		if (monitor == null) {
+			return;
+		}
+		LineMatcher matcher = new LineMatcher(monitor);
+		synchronized (fMatchers) {
+			fMatchers.add(matcher);
+		}
+		String contents;
+		// no output can be appended between reading the contents and adding
+		// the listener
+		synchronized (monitor) {
+			monitor.addListener(matcher);
+			contents = monitor.getContents();
+		}
+		if (contents != null) {
+			matcher.streamAppended(contents, monitor);
+		}
+	}
+
+	@Override
+	protected void dispose() {
+		synchronized (fMatchers) {
+			for (LineMatcher matcher : fMatchers) {
+				matcher.fMonitor.removeListener(matcher);
+			}
+			fMatchers.clear();
+		}
+	}
+
+	/**
+	 * Matches the output of a stream
+	 */
+	private class LineMatcher implements IStreamListener {
+
+		final IStreamMonitor fMonitor;
+
+		/**
+		 * Text appended since the last line separator
+		 */
+		private final StringBuilder fLine = new StringBuilder();
+
+		LineMatcher(IStreamMonitor monitor) {
+			fMonitor = monitor;
+		}
+
+		@Override
+		public synchronized void streamAppended(String text, IStreamMonitor monitor) {
+			if (isDone()) {
+				return;
+			}
+			fLine.append(text);
+			if (fPattern.matcher(fLine).find()) {
+				fLine.setLength(0);
+				ready();
+				return;
+			}
+			int end = Math.max(fLine.lastIndexOf("\n"), fLine.lastIndexOf("\r")) + 1; //$NON-NLS-1$ //$NON-NLS-2$
+			end = Math.max(end, fLine.length() - MAX_LINE_LENGTH);
+			fLine.delete(0, end);
+		}
+	}
+}
@@ -0,0 +1,52 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core.groups.observer;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+
+/**
+ * Ready once a TCP port accepts connections. No event notifies that a port
+ * has been opened, so a connection is attempted on each poll.
+ */
+public class PortOpenProbe extends ReadinessProbe {
+
+	/**
+	 * Milliseconds to wait for a connection on each poll
+	 */
+	public static final int CONNECT_TIMEOUT = 100;
+
+	private final String fHost;
+	private final int fPort;
+
+	/**
+	 * Constructs a probe for the given port.
+	 *
+	 * @param host name or address of the host
+	 * @param port port number
+	 */
+	public PortOpenProbe(String host, int port) {
+		fHost = host;
+		fPort = port;
+	}
+
+	@Override
+	protected void poll() {
+		try (Socket socket = new Socket()) {
+			socket.connect(new InetSocketAddress(fHost, fPort), CONNECT_TIMEOUT);
+		} catch (IOException e) {
+			// not open yet
+			return;
+		}
+		ready();
+	}
+}
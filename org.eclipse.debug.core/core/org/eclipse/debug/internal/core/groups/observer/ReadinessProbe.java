@@ -0,0 +1,97 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core.groups.observer;
+
+import org.eclipse.debug.core.model.IProcess;
+
+/**
+ * A condition signaling that a launch is ready, evaluated by a
+ * {@link ReadinessWaiter}.
+ * <p>
+ * A probe is evaluated incrementally: it is told about the processes of the
+ * launch as they are created and terminated, and may attach listeners to them,
+ * such as stream listeners. Conditions that no event notifies are checked on
+ * {@link #poll()}. A probe reports its outcome by calling {@link #ready()} or
+ * {@link #failed()}, from any thread.
+ * </p>
+ * <p>
+ * A probe is used by a single waiter.
+ * </p>
+ */
+public abstract class ReadinessProbe {
+
+	private ReadinessWaiter fWaiter;
+
+	/**
+	 * Sets the waiter to report to.
+	 *
+	 * @param waiter waiter evaluating this probe
+	 */
+	void setWaiter(ReadinessWaiter waiter) {
+		fWaiter = waiter;
+	}
+
+	/**
+	 * Called once for each process of the launch, including the processes
+	 * that exist when waiting starts.
+	 *
+	 * @param process process of the launch
+	 */
+	protected void processAdded(IProcess process) {
+	}
+
+	/**
+	 * Called once for each process of the launch that has terminated, after it
+	 * has been added.
+	 *
+	 * @param process terminated process of the launch
+	 */
+	protected void processTerminated(IProcess process) {
+	}
+
+	/**
+	 * Called periodically by the waiting thread until the probe is ready or
+	 * waiting stops. Subclasses checking a condition that no event notifies
+	 * override this method. It must return quickly.
+	 */
+	protected void poll() {
+	}
+
+	/**
+	 * Called once waiting has stopped. Subclasses remove the listeners they
+	 * have attached.
+	 */
+	protected void dispose() {
+	}
+
+	/**
+	 * Reports that the condition of this probe is met.
+	 */
+	protected final void ready() {
+		fWaiter.probeReady(this);
+	}
+
+	/**
+	 * Reports that the condition of this probe can no longer be met.
+	 */
+	protected final void failed() {
+		fWaiter.probeFailed(this);
+	}
+
+	/**
+	 * Returns whether this probe has reported its outcome.
+	 *
+	 * @return whether ready or failed has been reported
+	 */
+	protected final boolean isDone() {
+		return fWaiter.isDone(this);
+	}
+}
@@ -0,0 +1,212 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core.groups.observer;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.debug.core.DebugEvent;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.IDebugEventSetListener;
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.model.IProcess;
+
+/**
+ * Waits until a launch is ready, as signaled by all of a set of
+ * {@link ReadinessProbe}s.
+ * <p>
+ * Probes are evaluated as the processes of the launch are created, produce
+ * output and terminate, without threads of their own. The launch is not ready
+ * if any probe fails, or if the launch terminates before all probes are
+ * ready.
+ * </p>
+ * <p>
+ * Debug events are complemented by checking the processes of the launch, and
+ * polling the probes, every {@link #POLL_INTERVAL} milliseconds from the
+ * waiting thread: processes are not required to fire events, and some
+ * conditions are not notified by any event.
+ * </p>
+ */
+public class ReadinessWaiter implements IDebugEventSetListener {
+
+	/**
+	 * Milliseconds between checks of the processes of the launch, of the
+	 * probes and of the progress monitor
+	 */
+	public static final long POLL_INTERVAL = 250;
+
+	private final ILaunch fLaunch;
+	private final ReadinessProbe[] fProbes;
+	private final Set<ReadinessProbe> fPending;
+	private final Set<IProcess> fAdded = Collections.newSetFromMap(new ConcurrentHashMap<IProcess, Boolean>());
+	private final Set<IProcess> fTerminated = Collections.newSetFromMap(new ConcurrentHashMap<IProcess, Boolean>());
+	private final CountDownLatch fDone = new CountDownLatch(1);
+	private volatile boolean fFailed = false;
+
+	/**
+	 * Starts evaluating the given probes against the given launch.
+	 * {@link #dispose()} must be called once done waiting.
+	 *
+	 * @param launch launch to wait for
+	 * @param probes conditions signaling that the launch is ready
+	 */
+	public ReadinessWaiter(ILaunch launch, ReadinessProbe... probes) {
+		fLaunch = launch;
+		fProbes = probes;
+		fPending = new HashSet<>(Arrays.asList(probes));
+		for (ReadinessProbe probe : probes) {
+			probe.setWaiter(this);
+		}
+		DebugPlugin.getDefault().addDebugEventListener(this);
+		if (probes.length == 0) {
+			finish(true);
+		}
+		checkProcesses();
+	}
+
+	/**
+	 * Waits until the launch is ready or not ready, the given time has elapsed,
+	 * or the monitor is canceled.
+	 *
+	 * @param timeout maximum time to wait in milliseconds, or a negative value
+	 *            to wait without limit
+	 * @param monitor progress monitor
+	 * @return whether the launch is ready
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public boolean await(long timeout, IProgressMonitor monitor) throws InterruptedException {
+		long end = timeout < 0 ? Long.MAX_VALUE : System.currentTimeMillis() + timeout;
+		while (fDone.getCount() > 0 && !monitor.isCanceled()) {
+			checkProcesses();
+			for (ReadinessProbe probe : fProbes) {
+				if (!isDone(probe)) {
+					probe.poll();
+				}
+			}
+			long remaining = end - System.currentTimeMillis();
+			if (remaining <= 0) {
+				break;
+			}
+			fDone.await(Math.min(remaining, POLL_INTERVAL), TimeUnit.MILLISECONDS);
+		}
+		return isReady();
+	}
+
+	/**
+	 * Returns whether all probes are ready.
+	 *
+	 * @return whether the launch is ready
+	 */
+	public boolean isReady() {
+		return fDone.getCount() == 0 && !fFailed;
+	}
+
+	/**
+	 * Stops evaluating the probes.
+	 */
+	public void dispose() {
+		DebugPlugin.getDefault().removeDebugEventListener(this);
+		for (ReadinessProbe probe : fProbes) {
+			probe.dispose();
+		}
+	}
+
+	@Override
+	public void handleDebugEvents(DebugEvent[] events) {
+		for (DebugEvent event : events) {
+			Object source = event.getSource();
+			if (source instanceof IProcess && ((IProcess) source).getLaunch() == fLaunch) {
+				IProcess process = (IProcess) source;
+				if (event.getKind() == DebugEvent.CREATE) {
+					processAdded(process);
+				} else if (event.getKind() == DebugEvent.TERMINATE) {
+					processAdded(process);
+					processTerminated(process);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Notifies the probes of processes added to or terminated in the launch
+	 * without an event.
+	 */
+	private void checkProcesses() {
+		for (IProcess process : fLaunch.getProcesses()) {
+			processAdded(process);
+			if (process.isTerminated()) {
+				processTerminated(process);
+			}
+		}
+	}
+
+	private void processAdded(IProcess process) {
+		if (fAdded.add(process)) {
+			for (ReadinessProbe probe : fProbes) {
+				probe.processAdded(process);
+			}
+		}
+	}
+
+	private void processTerminated(IProcess process) {
+		if (fTerminated.add(process)) {
+			for (ReadinessProbe probe : fProbes) {
+				probe.processTerminated(process);
+			}
+			if (fLaunch.isTerminated()) {
+				finish(false);
+			}
+		}
+	}
+
+	void probeReady(ReadinessProbe probe) {
+		synchronized (fPending) {
+			if (fPending.remove(probe) && fPending.isEmpty()) {
+				finish(true);
+			}
+		}
+	}
+
+	void probeFailed(ReadinessProbe probe) {
+		synchronized (fPending) {
+			if (fPending.remove(probe)) {
+				finish(false);
+			}
+		}
+	}
+
+	/**
+	 * Records whether the launch is ready, unless already known.
+	 */
+	private void finish(boolean ready) {
+		synchronized (fPending) {
+			if (fDone.getCount() > 0) {
+				fFailed = !ready;
+				fDone.countDown();
+			}
+		}
+	}
+
+	boolean isDone(ReadinessProbe probe) {
+		if (fDone.getCount() == 0) {
+			return true;
+		}
+		synchronized (fPending) {
+			return !fPending.contains(probe);
+		}
+	}
+}
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core.sourcelookup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Index of the entries in an archive by simple file name, and of the
+ * directories in the archive. The index is current as long as the archive's
+ * time stamp and length do not change.
+ */
+public class ArchiveIndex extends SourceIndex {
+
+	private static final String[] NO_ENTRIES = new String[0];
+
+	private final File fFile;
+	private final long fTimestamp;
+	private final long fLength;
+
+	/**
+	 * Names of file entries by their last segment, in archive order
+	 */
+	private final Map<String, String[]> fEntriesByName;
+
+	/**
+	 * Directories of the archive, each ending with '/', and the empty root
+	 */
+	private final Set<String> fDirectories;
+
+	private ArchiveIndex(File file, long timestamp, long length, Map<String, String[]> entriesByName, Set<String> directories) {
+		fFile = file;
+		fTimestamp = timestamp;
+		fLength = length;
+		fEntriesByName = entriesByName;
+		fDirectories = directories;
+	}
+
+	/**
+	 * Indexes the archive at the given path.
+	 *
+	 * @param path path to an archive in the local file system
+	 * @return the index
+	 * @throws IOException if the archive cannot be read
+	 */
+	public static ArchiveIndex create(String path) throws IOException {
+		File file = new File(path);
+		long timestamp = file.lastModified();
+		long length = file.length();
+		Map<String, List<String>> byName = new HashMap<String, List<String>>();
+		Set<String> directories = new HashSet<String>();
+		directories.add(""); //$NON-NLS-1$
+		// read a separate copy, lookups keep using the shared archive
+		try (ZipFile zip = new ZipFile(file)) {
+			Enumeration<? extends ZipEntry> entries = zip.entries();
+			while (entries.hasMoreElements()) {
+				ZipEntry entry = entries.nextElement();
+				String entryName = entry.getName();
+				if (entry.isDirectory()) {
+					directories.add(entryName);
+					continue;
+				}
+				String name = lastSegment(entryName);
+				List<String> list = byName.get(name);
+				if (list == null) {
+					list = new ArrayList<String>(1);
+					byName.put(name, list);
+				}
+				list.add(entryName);
+				int index = entryName.lastIndexOf('/');
+				while (index > 0 && directories.add(entryName.substring(0, index + 1))) {
+					index = entryName.lastIndexOf('/', index - 1);
+				}
+			}
+		}
+		Map<String, String[]> entriesByName = new HashMap<String, String[]>(byName.size());
+		for (Map.Entry<String, List<String>> entry : byName.entrySet()) {
+			List<String> list = entry.getValue();
+			entriesByName.put(entry.getKey(), list.toArray(new String[list.size()]));
+		}
+		return new ArchiveIndex(file, timestamp, length, entriesByName, Collections.unmodifiableSet(directories));
+	}
+
+	@Override
+	protected boolean validate() {
+		return fFile.lastModified() == fTimestamp && fFile.length() == fLength;
+	}
+
+	/**
+	 * Returns the names of the file entries with the given last segment, in
+	 * archive order.
+	 *
+	 * @param name simple file name
+	 * @return entry names
+	 */
+	public String[] getEntries(String name) {
+		String[] entries = fEntriesByName.get(name);
+		return entries == null ? NO_ENTRIES : entries;
+	}
+
+	/**
+	 * Returns whether the archive has a file entry with the given name.
+	 *
+	 * @param entryName entry name
+	 * @return whether the entry exists
+	 */
+	public boolean contains(String entryName) {
+		for (String entry : getEntries(lastSegment(entryName))) {
+			if (entry.equals(entryName)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Returns the directories of the archive, each ending with '/', and the
+	 * empty root directory.
+	 *
+	 * @return unmodifiable set of directories
+	 */
+	public Set<String> getDirectories() {
+		return fDirectories;
+	}
+}
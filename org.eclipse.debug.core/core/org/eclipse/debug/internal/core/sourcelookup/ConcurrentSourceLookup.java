@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core.sourcelookup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.MultiStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.sourcelookup.AbstractSourceLookupDirector;
+import org.eclipse.debug.core.sourcelookup.ISourceContainer;
+import org.eclipse.debug.core.sourcelookup.ISourceLookupDirector;
+
+/**
+ * Searches source containers concurrently on a small shared pool of threads.
+ * <p>
+ * Results are collected in the order of the containers, so the source element
+ * found is the same as when searching the containers one after the other. When
+ * duplicates are not wanted, the search completes as soon as a container finds
+ * a source element and all containers before it found none; containers after
+ * it that have not started yet are not searched.
+ * </p>
+ * <p>
+ * Searches started by a worker thread, for example by a composite container
+ * searched concurrently, are performed sequentially in that thread so that
+ * workers never wait on each other.
+ * </p>
+ *
+ * @see AbstractSourceLookupDirector#setConcurrentLookup(boolean)
+ */
+public class ConcurrentSourceLookup {
+
+	/**
+	 * Time in seconds after which idle worker threads terminate
+	 */
+	private static final int KEEP_ALIVE = 30;
+
+	private static final Object[] EMPTY = new Object[0];
+
+	/**
+	 * The shared pool, created on demand
+	 */
+	private static ThreadPoolExecutor fgExecutor;
+
+	/**
+	 * Thread searching source containers for the shared pool
+	 */
+	static class Worker extends Thread {
+		Worker(Runnable runnable, String name) {
+			super(runnable, name);
+			setDaemon(true);
+		}
+	}
+
+	private static synchronized ThreadPoolExecutor getExecutor() {
+		if (fgExecutor == null) {
+			int threads = Math.min(8, Math.max(2, Runtime.getRuntime().availableProcessors()));
+			final AtomicInteger count = new AtomicInteger();
+			fgExecutor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE, TimeUnit.SECONDS, new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable r) {
+					return new Worker(r, "Source Lookup Worker-" + count.incrementAndGet()); //$NON-NLS-1$
+				}
+			});
+			fgExecutor.allowCoreThreadTimeOut(true);
+		}
+		return fgExecutor;
+	}
+
+	/**
+	 * Returns whether source containers should be searched concurrently for
+	 * the given director in the calling thread.
+	 *
+	 * @param director source lookup director or <code>null</code>
+	 * @return whether to search concurrently
+	 */
+	public static boolean isConcurrent(ISourceLookupDirector director) {
+		return director instanceof AbstractSourceLookupDirector
+				&& ((AbstractSourceLookupDirector) director).isConcurrentLookup()
+				&& !(Thread.currentThread() instanceof Worker);
+	}
+
+	/**
+	 * Searches the given containers for source elements with the given name,
+	 * concurrently. Failures are reported as by a sequential search: only
+	 * when no source element is found, unless duplicates are searched for.
+	 *
+	 * @param containers containers to search, in search order
+	 * @param name name of the source element to search for
+	 * @param duplicates whether to return the source elements found by all
+	 *            containers, or only the first one found
+	 * @return source elements found, possibly empty
+	 * @throws CoreException if no source element is found and a container
+	 *             failed, or if interrupted while waiting for the search
+	 */
+	public static Object[] findSourceElements(ISourceContainer[] containers, final String name, boolean duplicates) throws CoreException {
+		ThreadPoolExecutor executor = getExecutor();
+		List<Future<Object[]>> searches = new ArrayList<Future<Object[]>>(containers.length);
+		for (final ISourceContainer container : containers) {
+			searches.add(executor.submit(new Callable<Object[]>() {
+				@Override
+				public Object[] call() throws Exception {
+					return container.findSourceElements(name);
+				}
+			}));
+		}
+		List<Object> results = duplicates ? new ArrayList<Object>() : null;
+		CoreException single = null;
+		MultiStatus multiStatus = null;
+		try {
+			for (Future<Object[]> search : searches) {
+				CoreException exception = null;
+				try {
+					Object[] objects = search.get();
+					if (objects != null && objects.length > 0) {
+						if (results != null) {
+							for (int j = 0; j < objects.length; j++) {
+								results.add(objects[j]);
+							}
+						} else {
+							if (objects.length == 1) {
+								return objects;
+							}
+							return new Object[] { objects[0] };
+						}
+					}
+				} catch (ExecutionException e) {
+					Throwable cause = e.getCause();
+					if (cause instanceof CoreException) {
+						exception = (CoreException) cause;
+					} else if (cause instanceof RuntimeException) {
+						throw (RuntimeException) cause;
+					} else if (cause instanceof Error) {
+						throw (Error) cause;
+					} else {
+						exception = new CoreException(new Status(IStatus.ERROR, DebugPlugin.getUniqueIdentifier(), cause.getMessage(), cause));
+					}
+				}
+				if (exception != null) {
+					if (single == null) {
+						single = exception;
+					} else if (multiStatus == null) {
+						multiStatus = new MultiStatus(DebugPlugin.getUniqueIdentifier(), DebugPlugin.ERROR, new IStatus[] { single.getStatus() }, SourceLookupMessages.Source_Lookup_Error, null);
+						multiStatus.add(exception.getStatus());
+					} else {
+						multiStatus.add(exception.getStatus());
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new CoreException(new Status(IStatus.CANCEL, DebugPlugin.getUniqueIdentifier(), SourceLookupMessages.Source_Lookup_Error, e));
+		} finally {
+			// containers after the one found are not searched
+			for (Future<Object[]> search : searches) {
+				search.cancel(false);
+			}
+		}
+		if (results == null) {
+			if (multiStatus != null) {
+				throw new CoreException(multiStatus);
+			} else if (single != null) {
+				throw single;
+			}
+			return EMPTY;
+		}
+		return results.toArray();
+	}
+
+	/**
+	 * Stops the shared pool, if any. Called when the debug plug-in shuts down.
+	 */
+	public static synchronized void shutdown() {
+		if (fgExecutor != null) {
+			fgExecutor.shutdownNow();
+			fgExecutor = null;
+		}
+	}
+}
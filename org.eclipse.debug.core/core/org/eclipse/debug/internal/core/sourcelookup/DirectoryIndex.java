@@ -0,0 +1,200 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core.sourcelookup;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the files in the sub-folders of a directory by simple file name.
+ * The index is current as long as the time stamps of the indexed directories
+ * do not change, that is, as long as no files are added to, removed from or
+ * renamed in them.
+ */
+public class DirectoryIndex extends SourceIndex {
+
+	/**
+	 * Whether file names differ only by case in the local file system
+	 */
+	private static final boolean CASE_SENSITIVE = !new File("a").equals(new File("A")); //$NON-NLS-1$ //$NON-NLS-2$
+
+	private final File fRoot;
+
+	/**
+	 * Indexed directories in the order they are searched: pre-order, in the
+	 * order they are listed by the file system
+	 */
+	private final File[] fDirectories;
+	private final long[] fTimestamps;
+
+	/**
+	 * Position of each directory in the search order, by its path relative to
+	 * the root, ending with '/'
+	 */
+	private final Map<String, Integer> fOrder;
+
+	/**
+	 * Paths of files relative to the root by their (folded) simple name
+	 */
+	private final Map<String, String[]> fFilesByName;
+
+	private DirectoryIndex(File root, File[] directories, long[] timestamps, Map<String, Integer> order, Map<String, String[]> filesByName) {
+		fRoot = root;
+		fDirectories = directories;
+		fTimestamps = timestamps;
+		fOrder = order;
+		fFilesByName = filesByName;
+	}
+
+	/**
+	 * Indexes the files in the given directory and its sub-folders.
+	 *
+	 * @param root directory in the local file system
+	 * @return the index
+	 * @throws IOException if the directory cannot be read
+	 */
+	public static DirectoryIndex create(File root) throws IOException {
+		if (!root.isDirectory()) {
+			throw new IOException(root.getPath());
+		}
+		List<File> directories = new ArrayList<File>();
+		List<Long> timestamps = new ArrayList<Long>();
+		Map<String, Integer> order = new HashMap<String, Integer>();
+		Map<String, List<String>> byName = new HashMap<String, List<String>>();
+		Set<String> visited = new HashSet<String>();
+		index(root, "", directories, timestamps, order, byName, visited); //$NON-NLS-1$
+		long[] stamps = new long[timestamps.size()];
+		for (int i = 0; i < stamps.length; i++) {
+			stamps[i] = timestamps.get(i).longValue();
+		}
+		Map<String, String[]> filesByName = new HashMap<String, String[]>(byName.size());
+		for (Map.Entry<String, List<String>> entry : byName.entrySet()) {
+			List<String> list = entry.getValue();
+			filesByName.put(entry.getKey(), list.toArray(new String[list.size()]));
+		}
+		return new DirectoryIndex(root, directories.toArray(new File[directories.size()]), stamps, order, filesByName);
+	}
+
+	private static void index(File directory, String path, List<File> directories, List<Long> timestamps, Map<String, Integer> order, Map<String, List<String>> byName, Set<String> visited) throws IOException {
+		if (!visited.add(directory.getCanonicalPath())) {
+			// linked back to a directory already indexed
+			return;
+		}
+		order.put(fold(path), Integer.valueOf(directories.size()));
+		directories.add(directory);
+		timestamps.add(Long.valueOf(directory.lastModified()));
+		String[] names = directory.list();
+		if (names == null) {
+			return;
+		}
+		List<String> subdirectories = new ArrayList<String>();
+		for (String name : names) {
+			File file = new File(directory, name);
+			if (file.isDirectory()) {
+				subdirectories.add(name);
+			} else if (file.isFile()) {
+				String key = fold(name);
+				List<String> list = byName.get(key);
+				if (list == null) {
+					list = new ArrayList<String>(1);
+					byName.put(key, list);
+				}
+				list.add(path + name);
+			}
+		}
+		for (String name : subdirectories) {
+			index(new File(directory, name), path + name + '/', directories, timestamps, order, byName, visited);
+		}
+	}
+
+	@Override
+	protected boolean validate() {
+		for (int i = 0; i < fDirectories.length; i++) {
+			if (fDirectories[i].lastModified() != fTimestamps[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns whether the given name can be looked up in this index. Names
+	 * with empty, '.' or '..' segments, or with platform specific separators,
+	 * cannot be.
+	 *
+	 * @param name '/' separated file name
+	 * @return whether the name can be looked up
+	 */
+	public static boolean isIndexable(String name) {
+		if (name.length() == 0 || name.indexOf('\\') >= 0) {
+			return false;
+		}
+		for (String segment : name.split("/", -1)) { //$NON-NLS-1$
+			if (segment.length() == 0 || segment.equals(".") || segment.equals("..")) { //$NON-NLS-1$ //$NON-NLS-2$
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the files named by the given path relative to any sub-folder
+	 * of the root directory, in search order. The root directory itself is
+	 * not considered.
+	 *
+	 * @param name indexable '/' separated file name
+	 * @return matching files
+	 * @see #isIndexable(String)
+	 */
+	public File[] findFiles(String name) {
+		String[] candidates = fFilesByName.get(fold(lastSegment(name)));
+		if (candidates == null) {
+			return new File[0];
+		}
+		String suffix = fold(name);
+		List<String> matches = new ArrayList<String>();
+		final Map<String, Integer> positions = new HashMap<String, Integer>();
+		for (String candidate : candidates) {
+			String path = fold(candidate);
+			if (path.length() > suffix.length() && path.endsWith(suffix)) {
+				Integer position = fOrder.get(path.substring(0, path.length() - suffix.length()));
+				if (position != null) {
+					matches.add(candidate);
+					positions.put(candidate, position);
+				}
+			}
+		}
+		Collections.sort(matches, new Comparator<String>() {
+			@Override
+			public int compare(String m1, String m2) {
+				return positions.get(m1).compareTo(positions.get(m2));
+			}
+		});
+		File[] files = new File[matches.size()];
+		for (int i = 0; i < files.length; i++) {
+			files[i] = new File(fRoot, matches.get(i));
+		}
+		return files;
+	}
+
+	private static String fold(String name) {
+		return CASE_SENSITIVE ? name : name.toLowerCase(Locale.ROOT);
+	}
+}
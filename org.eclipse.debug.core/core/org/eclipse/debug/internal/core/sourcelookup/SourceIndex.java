@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core.sourcelookup;
+
+import java.io.IOException;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+
+import com.ibm.icu.text.MessageFormat;
+
+/**
+ * An in-memory index of the source files in a source container, by simple
+ * file name. An index does not change once built; it is replaced when the
+ * files it describes change. Whether it is still current is checked at most
+ * once per {@link #VALIDATION_INTERVAL}.
+ * <p>
+ * Indexes are built by jobs belonging to the {@link #FAMILY} job family.
+ * </p>
+ */
+public abstract class SourceIndex {
+
+	/**
+	 * Minimum time between checks of whether an index is current, in
+	 * milliseconds
+	 */
+	public static final long VALIDATION_INTERVAL = 1000;
+
+	/**
+	 * Job family of the jobs building indexes
+	 */
+	public static final Object FAMILY = new Object();
+
+	private volatile long fValidated = System.currentTimeMillis();
+	private volatile boolean fCurrent = true;
+
+	/**
+	 * Returns whether this index still describes the files in its container.
+	 *
+	 * @return whether this index is current
+	 */
+	public boolean isCurrent() {
+		if (fCurrent) {
+			long now = System.currentTimeMillis();
+			if (now - fValidated >= VALIDATION_INTERVAL) {
+				fCurrent = validate();
+				fValidated = now;
+			}
+		}
+		return fCurrent;
+	}
+
+	/**
+	 * Checks whether the files described by this index have changed.
+	 *
+	 * @return whether this index is current
+	 */
+	protected abstract boolean validate();
+
+	/**
+	 * Returns the last segment of the given '/' separated path.
+	 *
+	 * @param path a path
+	 * @return the last segment
+	 */
+	protected static String lastSegment(String path) {
+		return path.substring(path.lastIndexOf('/') + 1);
+	}
+
+	/**
+	 * Holds the index of a source container, building it in the background
+	 * when it is missing or no longer current.
+	 *
+	 * @param <T> type of index
+	 */
+	public static abstract class Holder<T extends SourceIndex> {
+
+		private final String fName;
+		private volatile T fIndex;
+		private Job fJob;
+		private boolean fDisposed;
+
+		/**
+		 * When building the index last failed
+		 */
+		private long fFailed;
+
+		/**
+		 * Creates a holder for the index of the named container.
+		 *
+		 * @param name name of the indexed container, for progress reporting
+		 */
+		public Holder(String name) {
+			fName = name;
+		}
+
+		/**
+		 * Returns the current index, or <code>null</code> if the index is
+		 * being built and lookups must be answered without it.
+		 *
+		 * @return the current index or <code>null</code>
+		 */
+		public T get() {
+			T index = fIndex;
+			if (index != null && index.isCurrent()) {
+				return index;
+			}
+			schedule();
+			return null;
+		}
+
+		/**
+		 * Builds the index.
+		 *
+		 * @return the index
+		 * @throws IOException if the container cannot be read
+		 */
+		protected abstract T build() throws IOException;
+
+		/**
+		 * Discards the index, and stops building it.
+		 */
+		public synchronized void dispose() {
+			fDisposed = true;
+			fIndex = null;
+			if (fJob != null) {
+				fJob.cancel();
+			}
+		}
+
+		private synchronized void schedule() {
+			if (fDisposed || fJob != null || System.currentTimeMillis() - fFailed < VALIDATION_INTERVAL) {
+				return;
+			}
+			fIndex = null;
+			fJob = new Job(MessageFormat.format(SourceLookupMessages.SourceIndex_0, new Object[] { fName })) {
+				@Override
+				protected IStatus run(IProgressMonitor monitor) {
+					T index = null;
+					try {
+						if (!monitor.isCanceled()) {
+							index = build();
+						}
+					} catch (IOException e) {
+						// lookups keep reading the container directly
+					} finally {
+						synchronized (Holder.this) {
+							if (!fDisposed) {
+								fIndex = index;
+							}
+							if (index == null) {
+								fFailed = System.currentTimeMillis();
+							}
+							fJob = null;
+						}
+					}
+					return Status.OK_STATUS;
+				}
+
+				@Override
+				public boolean belongsTo(Object family) {
+					return family == FAMILY;
+				}
+			};
+			fJob.setSystem(true);
+			fJob.setPriority(Job.DECORATE);
+			fJob.schedule();
+		}
+	}
+}
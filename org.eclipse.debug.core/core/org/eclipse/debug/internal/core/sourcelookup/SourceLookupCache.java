@@ -0,0 +1,314 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.internal.core.sourcelookup;
+
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceDeltaVisitor;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.sourcelookup.ISourceContainer;
+import org.eclipse.debug.core.sourcelookup.containers.ContainerSourceContainer;
+import org.eclipse.debug.core.sourcelookup.containers.WorkspaceSourceContainer;
+
+/**
+ * Remembers the source elements found for source names by the participants of
+ * a source lookup director. Names for which no source element was found are
+ * only remembered when all source containers search the workspace, as files
+ * appearing elsewhere are not noticed. The least recently used names are
+ * forgotten once {@link #MAX_ENTRIES} names are remembered.
+ * <p>
+ * The cache is cleared when resources are added to or removed from the
+ * workspace, when projects are opened or closed, or when the shared zip files
+ * are closed by {@link SourceLookupUtils#closeArchives()}, as storages found
+ * in archives can no longer be read then. The cache must be cleared by
+ * the director when its source containers change. The cache listens to
+ * resource changes while it remembers source elements, and stops listening
+ * once disposed or no longer referenced.
+ * </p>
+ */
+public class SourceLookupCache {
+
+	/**
+	 * Maximum number of source names remembered
+	 */
+	public static final int MAX_ENTRIES = 1000;
+
+	/**
+	 * A participant, a source name, and whether duplicates were searched for
+	 */
+	private static final class Key {
+
+		private final Object fParticipant;
+		private final String fName;
+		private final boolean fDuplicates;
+
+		Key(Object participant, String name, boolean duplicates) {
+			fParticipant = participant;
+			fName = name;
+			fDuplicates = duplicates;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj instanceof Key) {
+				Key key = (Key) obj;
+				return fParticipant == key.fParticipant && fName.equals(key.fName) && fDuplicates == key.fDuplicates;
+			}
+			return false;
+		}
+
+		@Override
+		public int hashCode() {
+			return System.identityHashCode(fParticipant) * 31 + fName.hashCode() + (fDuplicates ? 1 : 0);
+		}
+	}
+
+	private final Map<Key, Object[]> fEntries = new LinkedHashMap<Key, Object[]>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Key, Object[]> eldest) {
+			return size() > MAX_ENTRIES;
+		}
+	};
+
+	/**
+	 * Notifies a cache of resource changes, without keeping it from being
+	 * garbage collected
+	 */
+	private static final class ResourceListener implements IResourceChangeListener {
+
+		private final WeakReference<SourceLookupCache> fCache;
+
+		ResourceListener(SourceLookupCache cache) {
+			fCache = new WeakReference<SourceLookupCache>(cache);
+		}
+
+		/* (non-Javadoc)
+		 * @see org.eclipse.core.resources.IResourceChangeListener#resourceChanged(org.eclipse.core.resources.IResourceChangeEvent)
+		 */
+		@Override
+		public void resourceChanged(IResourceChangeEvent event) {
+			SourceLookupCache cache = fCache.get();
+			if (cache == null) {
+				ResourcesPlugin.getWorkspace().removeResourceChangeListener(this);
+			} else {
+				cache.resourceChanged(event);
+			}
+		}
+	}
+
+	/**
+	 * Incremented each time the cache is cleared, so that results of lookups
+	 * that started before are not remembered
+	 */
+	private long fGeneration;
+
+	/**
+	 * Generation of the shared zip files the remembered source elements were
+	 * found in
+	 */
+	private long fArchiveGeneration = SourceLookupUtils.getArchiveGeneration();
+
+	/**
+	 * Listener registered while source elements are remembered, or
+	 * <code>null</code>
+	 */
+	private ResourceListener fListener;
+
+	/**
+	 * Whether names without source elements are remembered for the current
+	 * source containers, or <code>null</code> if not yet known
+	 */
+	private Boolean fMissesRemembered;
+
+	/**
+	 * Returns the source elements remembered for the given name, or
+	 * <code>null</code> if the name has to be looked up.
+	 *
+	 * @param participant participant looking up the name
+	 * @param name source name
+	 * @param duplicates whether duplicates are searched for
+	 * @return remembered source elements, possibly empty, or <code>null</code>
+	 */
+	public Object[] get(Object participant, String name, boolean duplicates) {
+		synchronized (fEntries) {
+			checkArchives();
+			return fEntries.get(new Key(participant, name, duplicates));
+		}
+	}
+
+	/**
+	 * Returns the generation of this cache, to be passed to
+	 * {@link #put(Object, String, boolean, Object[], long)} once the
+	 * source elements for a name have been looked up.
+	 *
+	 * @return current generation of this cache
+	 */
+	public long getGeneration() {
+		synchronized (fEntries) {
+			checkArchives();
+			return fGeneration;
+		}
+	}
+
+	/**
+	 * Remembers the source elements found for the given name, unless the cache
+	 * was cleared since the given generation.
+	 *
+	 * @param participant participant that looked up the name
+	 * @param name source name
+	 * @param duplicates whether duplicates were searched for
+	 * @param elements source elements found, possibly empty
+	 * @param generation generation of the cache when the lookup started
+	 */
+	public void put(Object participant, String name, boolean duplicates, Object[] elements, long generation) {
+		synchronized (fEntries) {
+			checkArchives();
+			if (generation != fGeneration) {
+				return;
+			}
+			fEntries.put(new Key(participant, name, duplicates), elements);
+			if (fListener == null) {
+				fListener = new ResourceListener(this);
+				ResourcesPlugin.getWorkspace().addResourceChangeListener(fListener, IResourceChangeEvent.POST_CHANGE);
+			}
+		}
+	}
+
+	/**
+	 * Returns whether names for which no source element is found in the
+	 * given source containers can be remembered. This is the case when the
+	 * containers only search the workspace, which notifies this cache when
+	 * resources are added.
+	 *
+	 * @param containers the source containers of the director
+	 * @return whether names without source elements can be remembered
+	 */
+	public boolean isMissRemembered(ISourceContainer[] containers) {
+		long generation;
+		synchronized (fEntries) {
+			if (fMissesRemembered != null) {
+				return fMissesRemembered.booleanValue();
+			}
+			generation = fGeneration;
+		}
+		boolean remembered = isWorkspace(containers);
+		synchronized (fEntries) {
+			if (generation == fGeneration) {
+				fMissesRemembered = Boolean.valueOf(remembered);
+			}
+		}
+		return remembered;
+	}
+
+	/**
+	 * Returns whether the given source containers only search the workspace.
+	 *
+	 * @param containers source containers
+	 * @return whether the containers only search the workspace
+	 */
+	private static boolean isWorkspace(ISourceContainer[] containers) {
+		for (ISourceContainer container : containers) {
+			if (container instanceof ContainerSourceContainer || container instanceof WorkspaceSourceContainer) {
+				continue;
+			}
+			if (!container.isComposite()) {
+				return false;
+			}
+			try {
+				if (!isWorkspace(container.getSourceContainers())) {
+					return false;
+				}
+			} catch (CoreException e) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Forgets all remembered source elements if the shared zip files were
+	 * closed since they were found. Must be called holding the lock on the
+	 * entries.
+	 */
+	private void checkArchives() {
+		long archiveGeneration = SourceLookupUtils.getArchiveGeneration();
+		if (archiveGeneration != fArchiveGeneration) {
+			fArchiveGeneration = archiveGeneration;
+			clear();
+		}
+	}
+
+	/**
+	 * Forgets all remembered source elements.
+	 */
+	public void clear() {
+		synchronized (fEntries) {
+			fEntries.clear();
+			fMissesRemembered = null;
+			fGeneration++;
+		}
+	}
+
+	/**
+	 * Forgets all remembered source elements and stops listening to resource
+	 * changes, until source elements are remembered again.
+	 */
+	public void dispose() {
+		synchronized (fEntries) {
+			clear();
+			if (fListener != null) {
+				ResourcesPlugin.getWorkspace().removeResourceChangeListener(fListener);
+				fListener = null;
+			}
+		}
+	}
+
+	/**
+	 * Forgets all remembered source elements if the given change adds or
+	 * removes resources, or opens or closes projects.
+	 *
+	 * @param event resource change event
+	 */
+	void resourceChanged(IResourceChangeEvent event) {
+		IResourceDelta delta = event.getDelta();
+		if (delta == null) {
+			return;
+		}
+		final boolean[] found = new boolean[1];
+		try {
+			delta.accept(new IResourceDeltaVisitor() {
+				@Override
+				public boolean visit(IResourceDelta child) throws CoreException {
+					if ((child.getKind() & (IResourceDelta.ADDED | IResourceDelta.REMOVED)) != 0 || (child.getFlags() & IResourceDelta.OPEN) != 0) {
+						found[0] = true;
+					}
+					// content changes do not change which element is found
+					return !found[0];
+				}
+			});
+		} catch (CoreException e) {
+			DebugPlugin.log(e);
+			found[0] = true;
+		}
+		if (found[0]) {
+			clear();
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2007 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -50,6 +50,8 @@ public class SourceLookupMessages extends NLS {
 
 	public static String SourceContainerType_0;
 
+	public static String SourceIndex_0;
+
 	public static String WorkspaceSourceContainer_0;
 
 	public static String WorkspaceSourceContainerType_3;
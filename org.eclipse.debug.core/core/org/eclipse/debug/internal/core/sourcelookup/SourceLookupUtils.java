@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2013 IBM Corporation and others.
+ * Copyright (c) 2003, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -36,10 +36,18 @@ public class SourceLookupUtils {
 	 * when this class's plug-in is shutdown, when a project
 	 * is about to be closed or deleted, when a launch is
 	 * removed, and when a debug target or process terminates.
+	 * The cache is not bounded, as storages of zip entries
+	 * keep reading from the shared zip file.
 	 */
 	private static HashMap<String, ZipFile> fgZipFileCache = new HashMap<String, ZipFile>(5);
 	private static ArchiveCleaner fgCleaner = null;
 
+	/**
+	 * Incremented each time the shared zip files are closed, so that source
+	 * lookup caches can forget storages reading from closed zip files
+	 */
+	private static volatile long fgArchiveGeneration = 0;
+
 	/**
 	 * Returns a zip file with the given name
 	 *
@@ -82,9 +90,22 @@ public class SourceLookupUtils {
 				}
 			}
 			fgZipFileCache.clear();
+			fgArchiveGeneration++;
 		}
 	}
 
+	/**
+	 * Returns the number of times the shared zip files have been closed.
+	 * Source elements found in zip files returned by
+	 * {@link #getZipFile(String)} can no longer be read once this number
+	 * changes.
+	 *
+	 * @return the current archive generation
+	 */
+	public static long getArchiveGeneration() {
+		return fgArchiveGeneration;
+	}
+
 	/**
 	 * Called when the debug plug-in shuts down.
 	 */
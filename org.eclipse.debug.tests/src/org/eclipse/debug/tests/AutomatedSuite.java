@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2017 IBM Corporation and others.
+ * Copyright (c) 2009, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,21 +12,38 @@
  *******************************************************************************/
 package org.eclipse.debug.tests;
 
+import org.eclipse.debug.tests.breakpoint.BreakpointIndexTests;
+import org.eclipse.debug.tests.breakpoint.BreakpointManagerTests;
 import org.eclipse.debug.tests.breakpoint.BreakpointOrderingTests;
+import org.eclipse.debug.tests.breakpoint.BreakpointRestorationTests;
 import org.eclipse.debug.tests.console.ConsoleManagerTests;
 import org.eclipse.debug.tests.console.ConsoleTests;
+import org.eclipse.debug.tests.console.IOConsoleTests;
+import org.eclipse.debug.tests.console.LiteralPrefilterTests;
+import org.eclipse.debug.tests.events.ConcurrentEventDispatcherTests;
+import org.eclipse.debug.tests.events.DebugEventCoalescerTests;
+import org.eclipse.debug.tests.events.ParallelEventDispatchTests;
 import org.eclipse.debug.tests.launching.AcceleratorSubstitutionTests;
 import org.eclipse.debug.tests.launching.ArgumentParsingTests;
+import org.eclipse.debug.tests.launching.ByteRingBufferTests;
+import org.eclipse.debug.tests.launching.FlowControlTests;
 import org.eclipse.debug.tests.launching.LaunchConfigurationTests;
 import org.eclipse.debug.tests.launching.LaunchFavoriteTests;
 import org.eclipse.debug.tests.launching.LaunchGroupTests;
 import org.eclipse.debug.tests.launching.LaunchHistoryTests;
 import org.eclipse.debug.tests.launching.LaunchManagerTests;
 import org.eclipse.debug.tests.launching.LaunchTests;
+import org.eclipse.debug.tests.launching.ReadinessProbeTests;
 import org.eclipse.debug.tests.launching.RefreshTabTests;
+import org.eclipse.debug.tests.launching.StreamPumpTests;
+import org.eclipse.debug.tests.sourcelookup.SourceContainerTests;
 import org.eclipse.debug.tests.sourcelookup.SourceLookupFacilityTests;
 import org.eclipse.debug.tests.statushandlers.StatusHandlerTests;
 import org.eclipse.debug.tests.stepfilters.StepFiltersTests;
+import org.eclipse.debug.tests.variables.LogicalStructureCacheTests;
+import org.eclipse.debug.tests.variables.StringSubstitutionTests;
+import org.eclipse.debug.tests.variables.StringVariableManagerTests;
+import org.eclipse.debug.tests.view.memory.MemoryBytesTests;
 import org.eclipse.debug.tests.view.memory.MemoryRenderingTests;
 import org.eclipse.debug.tests.viewer.model.ChildrenUpdateTests;
 import org.eclipse.debug.tests.viewer.model.FilterTransformTests;
@@ -64,8 +81,12 @@ public class AutomatedSuite extends TestSuite {
 	public AutomatedSuite() {
 		// Source lookup tests
 		addTest(new TestSuite(SourceLookupFacilityTests.class));
+		addTest(new TestSuite(SourceContainerTests.class));
 		// BP tests
 		addTest(new TestSuite(BreakpointOrderingTests.class));
+		addTest(new TestSuite(BreakpointManagerTests.class));
+		addTest(new TestSuite(BreakpointIndexTests.class));
+		addTest(new TestSuite(BreakpointRestorationTests.class));
 	    // Note: jface viewer tests were moved out of nightly tests
 	    // due to frequent problems on nightly build machines.
 	    // (Bug 343308).
@@ -86,6 +107,7 @@ public class AutomatedSuite extends TestSuite {
 
 		// Memory view
 		addTest(new TestSuite(MemoryRenderingTests.class));
+		addTest(new TestSuite(MemoryBytesTests.class));
 
 		// Launch framework
 		addTest(new TestSuite(LaunchConfigurationTests.class));
@@ -96,6 +118,9 @@ public class AutomatedSuite extends TestSuite {
 		addTest(new TestSuite(RefreshTabTests.class));
 		addTest(new TestSuite(ArgumentParsingTests.class));
 		addTest(new TestSuite(LaunchTests.class));
+		addTest(new TestSuite(ByteRingBufferTests.class));
+		addTest(new TestSuite(StreamPumpTests.class));
+		addTest(new TestSuite(FlowControlTests.class));
 
 		// Status handlers
 		addTest(new TestSuite(StatusHandlerTests.class));
@@ -103,11 +128,26 @@ public class AutomatedSuite extends TestSuite {
 		// Step filters
 		addTest(new TestSuite(StepFiltersTests.class));
 
+		// Debug events
+		addTest(new TestSuite(DebugEventCoalescerTests.class));
+		addTest(new TestSuite(ConcurrentEventDispatcherTests.class));
+		addTest(new TestSuite(ParallelEventDispatchTests.class));
+
+		// String variables
+		addTest(new TestSuite(StringVariableManagerTests.class));
+		addTest(new TestSuite(StringSubstitutionTests.class));
+
+		// Variables view
+		addTest(new TestSuite(LogicalStructureCacheTests.class));
+
 		// Console view
 		addTest(new TestSuite(ConsoleManagerTests.class));
 		addTest(new TestSuite(ConsoleTests.class));
+		addTest(new TestSuite(IOConsoleTests.class));
+		addTest(new TestSuite(LiteralPrefilterTests.class));
 
 		// Launch Groups
 		addTest(new TestSuite(LaunchGroupTests.class));
+		addTest(new TestSuite(ReadinessProbeTests.class));
 	}
 }
@@ -13,6 +13,9 @@ package org.eclipse.debug.tests;
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
+import org.eclipse.debug.tests.breakpoint.BreakpointManagerPerformanceTests;
+import org.eclipse.debug.tests.console.ConsoleOutputPerformanceTests;
+import org.eclipse.debug.tests.console.ConsolePatternMatcherPerformanceTests;
 import org.eclipse.debug.tests.viewer.model.JFaceViewerPerformanceTests;
 import org.eclipse.debug.tests.viewer.model.VirtualViewerPerformanceTests;
 
@@ -41,6 +44,15 @@ public class PerformanceSuite extends TestSuite {
 
         // Virtual viewer tests
         addTest(new TestSuite(VirtualViewerPerformanceTests.class));
+
+		// Console pattern matching
+		addTest(new TestSuite(ConsolePatternMatcherPerformanceTests.class));
+
+		// Console output
+		addTest(new TestSuite(ConsoleOutputPerformanceTests.class));
+
+		// Breakpoint queries
+		addTest(new TestSuite(BreakpointManagerPerformanceTests.class));
     }
 
 }
@@ -0,0 +1,166 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.breakpoint;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.debug.core.model.IBreakpoint;
+import org.eclipse.debug.internal.core.BreakpointIndex;
+import org.eclipse.debug.tests.AbstractDebugTest;
+import org.eclipse.debug.tests.TestsPlugin;
+
+/**
+ * Tests the index of the breakpoint manager.
+ */
+public class BreakpointIndexTests extends AbstractDebugTest {
+
+	/**
+	 * Breakpoint whose debug model can change
+	 */
+	static class ModelBreakpoint extends TestLineBreakpoint {
+
+		String fModelIdentifier = MODEL_ID;
+
+		ModelBreakpoint(IResource resource, int line) throws CoreException {
+			super(resource, line);
+		}
+
+		@Override
+		public String getModelIdentifier() {
+			return fModelIdentifier;
+		}
+	}
+
+	private IProject fProject;
+	private IFile fFile1;
+	private IFile fFile2;
+	private BreakpointIndex fIndex;
+
+	public BreakpointIndexTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fProject = TestsPlugin.createProject("BreakpointIndexTests"); //$NON-NLS-1$
+		fFile1 = createFile("File1.txt"); //$NON-NLS-1$
+		fFile2 = createFile("File2.txt"); //$NON-NLS-1$
+		fIndex = new BreakpointIndex();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fProject.delete(true, null);
+		super.tearDown();
+	}
+
+	private IFile createFile(String name) throws CoreException {
+		IFile file = fProject.getFile(name);
+		if (!file.exists()) {
+			file.create(new ByteArrayInputStream(new byte[0]), true, null);
+		}
+		return file;
+	}
+
+	private IBreakpoint add(IResource resource, int line) throws CoreException {
+		IBreakpoint breakpoint = new TestLineBreakpoint(resource, line);
+		fIndex.add(breakpoint);
+		return breakpoint;
+	}
+
+	private static void assertBreakpoints(String message, IBreakpoint[] expected, IBreakpoint[] actual) {
+		assertEquals(message, Arrays.asList(expected), Arrays.asList(actual));
+	}
+
+	public void testResourceQuery() throws Exception {
+		IBreakpoint b1 = add(fFile1, 3);
+		IBreakpoint b2 = add(fFile2, 1);
+		IBreakpoint b3 = add(fFile1, 1);
+		assertBreakpoints("Wrong breakpoints of first file", new IBreakpoint[] { b1, b3 }, fIndex.getBreakpoints(fFile1)); //$NON-NLS-1$
+		assertBreakpoints("Wrong breakpoints of second file", new IBreakpoint[] { b2 }, fIndex.getBreakpoints(fFile2)); //$NON-NLS-1$
+		assertBreakpoints("Breakpoints of project should only be on the project", new IBreakpoint[0], fIndex.getBreakpoints(fProject)); //$NON-NLS-1$
+		assertBreakpoints("Wrong breakpoints of equal resource", new IBreakpoint[] { b1, b3 }, fIndex.getBreakpoints(fProject.getFile(fFile1.getName()))); //$NON-NLS-1$
+
+		fIndex.remove(b1);
+		assertFalse("Removed breakpoint should not be indexed", fIndex.contains(b1)); //$NON-NLS-1$
+		assertBreakpoints("Wrong breakpoints after remove", new IBreakpoint[] { b3 }, fIndex.getBreakpoints(fFile1)); //$NON-NLS-1$
+		fIndex.clear();
+		assertBreakpoints("Index should be empty", new IBreakpoint[0], fIndex.getBreakpoints(fFile2)); //$NON-NLS-1$
+	}
+
+	public void testLineRangeQuery() throws Exception {
+		IBreakpoint b10 = add(fFile1, 10);
+		IBreakpoint b5 = add(fFile1, 5);
+		IBreakpoint b1 = add(fFile1, 1);
+		IBreakpoint other = add(fFile1, 5);
+		add(fFile2, 5);
+		assertBreakpoints("Wrong breakpoints in range", new IBreakpoint[] { b10, b5, other }, fIndex.getBreakpoints(fFile1, 2, 10)); //$NON-NLS-1$
+		assertBreakpoints("Wrong breakpoints on one line", new IBreakpoint[] { b5, other }, fIndex.getBreakpoints(fFile1, 5, 5)); //$NON-NLS-1$
+		assertBreakpoints("Wrong breakpoints in whole file", new IBreakpoint[] { b10, b5, b1, other }, fIndex.getBreakpoints(fFile1, 0, Integer.MAX_VALUE)); //$NON-NLS-1$
+		assertBreakpoints("Empty range should have no breakpoints", new IBreakpoint[0], fIndex.getBreakpoints(fFile1, 10, 2)); //$NON-NLS-1$
+		assertBreakpoints("Range without breakpoints", new IBreakpoint[0], fIndex.getBreakpoints(fFile1, 6, 9)); //$NON-NLS-1$
+		assertBreakpoints("Resource without breakpoints", new IBreakpoint[0], fIndex.getBreakpoints(fProject, 0, 10)); //$NON-NLS-1$
+	}
+
+	public void testMarkerTypeQuery() throws Exception {
+		IBreakpoint b1 = add(fFile1, 1);
+		TestLineBreakpoint b2 = new TestLineBreakpoint(fFile2, 2);
+		b2.setMarker(fFile2.createMarker(IBreakpoint.LINE_BREAKPOINT_MARKER));
+		fIndex.add(b2);
+		assertBreakpoints("Wrong breakpoints of test type", new IBreakpoint[] { b1 }, fIndex.getBreakpointsByMarkerType(TestLineBreakpoint.MARKER_TYPE)); //$NON-NLS-1$
+		assertBreakpoints("Wrong breakpoints of line breakpoint type", new IBreakpoint[] { b2 }, fIndex.getBreakpointsByMarkerType(IBreakpoint.LINE_BREAKPOINT_MARKER)); //$NON-NLS-1$
+		assertBreakpoints("Super types should not match", new IBreakpoint[0], fIndex.getBreakpointsByMarkerType(IBreakpoint.BREAKPOINT_MARKER)); //$NON-NLS-1$
+		assertBreakpoints("Null type should not match", new IBreakpoint[0], fIndex.getBreakpointsByMarkerType(null)); //$NON-NLS-1$
+	}
+
+	public void testUpdateLine() throws Exception {
+		IBreakpoint breakpoint = add(fFile1, 1);
+		breakpoint.getMarker().setAttribute(IMarker.LINE_NUMBER, 20);
+		fIndex.update(breakpoint);
+		assertBreakpoints("Breakpoint should not be on old line", new IBreakpoint[0], fIndex.getBreakpoints(fFile1, 1, 1)); //$NON-NLS-1$
+		assertBreakpoints("Breakpoint should be on new line", new IBreakpoint[] { breakpoint }, fIndex.getBreakpoints(fFile1, 20, 20)); //$NON-NLS-1$
+	}
+
+	public void testUpdateModel() throws Exception {
+		IBreakpoint first = add(fFile1, 1);
+		ModelBreakpoint breakpoint = new ModelBreakpoint(fFile1, 2);
+		fIndex.add(breakpoint);
+		IBreakpoint last = add(fFile1, 3);
+		breakpoint.fModelIdentifier = "org.eclipse.debug.tests.otherModel"; //$NON-NLS-1$
+		fIndex.update(breakpoint);
+		assertBreakpoints("Breakpoint should not be of old model", new IBreakpoint[] { first, last }, fIndex.getBreakpoints(TestLineBreakpoint.MODEL_ID)); //$NON-NLS-1$
+		assertBreakpoints("Breakpoint should be of new model", new IBreakpoint[] { breakpoint }, fIndex.getBreakpoints(breakpoint.fModelIdentifier)); //$NON-NLS-1$
+		// registration order is kept
+		assertBreakpoints("Wrong breakpoints of resource", new IBreakpoint[] { first, breakpoint, last }, fIndex.getBreakpoints(fFile1)); //$NON-NLS-1$
+	}
+
+	public void testUpdateMarker() throws Exception {
+		TestLineBreakpoint breakpoint = new TestLineBreakpoint(fFile1, 1);
+		fIndex.add(breakpoint);
+		IMarker marker = fFile2.createMarker(IBreakpoint.LINE_BREAKPOINT_MARKER);
+		marker.setAttribute(IMarker.LINE_NUMBER, 1);
+		breakpoint.setMarker(marker);
+		fIndex.update(breakpoint);
+		assertBreakpoints("Breakpoint should not be on old resource", new IBreakpoint[0], fIndex.getBreakpoints(fFile1)); //$NON-NLS-1$
+		assertBreakpoints("Breakpoint should not be on old lines", new IBreakpoint[0], fIndex.getBreakpoints(fFile1, 1, 1)); //$NON-NLS-1$
+		assertBreakpoints("Breakpoint should not be of old type", new IBreakpoint[0], fIndex.getBreakpointsByMarkerType(TestLineBreakpoint.MARKER_TYPE)); //$NON-NLS-1$
+		assertBreakpoints("Breakpoint should be on new resource", new IBreakpoint[] { breakpoint }, fIndex.getBreakpoints(fFile2, 1, 1)); //$NON-NLS-1$
+		assertEquals("Breakpoint should be of new type", Collections.singletonList(breakpoint), Arrays.asList(fIndex.getBreakpointsByMarkerType(IBreakpoint.LINE_BREAKPOINT_MARKER))); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,184 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.breakpoint;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.IBreakpointManager;
+import org.eclipse.debug.core.model.IBreakpoint;
+import org.eclipse.debug.tests.AbstractDebugTest;
+import org.eclipse.debug.tests.TestsPlugin;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+
+/**
+ * Measures breakpoint queries by resource and line, as done by editors when
+ * annotating a range of lines, against scanning all breakpoints.
+ */
+public class BreakpointManagerPerformanceTests extends AbstractDebugTest {
+
+	/**
+	 * Number of files with breakpoints
+	 */
+	private static final int FILES = 100;
+
+	/**
+	 * Number of breakpoints per file
+	 */
+	private static final int LINES = 50;
+
+	/**
+	 * Number of queries per measurement
+	 */
+	private static final int QUERIES = 10000;
+
+	private IFile[] fFiles;
+	private IBreakpoint[] fBreakpoints;
+
+	public BreakpointManagerPerformanceTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		IProject project = TestsPlugin.createProject("BreakpointManagerPerformanceTests"); //$NON-NLS-1$
+		fFiles = new IFile[FILES];
+		List<IBreakpoint> breakpoints = new ArrayList<IBreakpoint>(FILES * LINES);
+		for (int i = 0; i < FILES; i++) {
+			fFiles[i] = project.getFile("File" + i + ".txt"); //$NON-NLS-1$ //$NON-NLS-2$
+			if (!fFiles[i].exists()) {
+				fFiles[i].create(new ByteArrayInputStream(new byte[0]), true, null);
+			}
+			for (int j = 1; j <= LINES; j++) {
+				breakpoints.add(new TestLineBreakpoint(fFiles[i], j * 10));
+			}
+		}
+		fBreakpoints = breakpoints.toArray(new IBreakpoint[breakpoints.size()]);
+		getBreakpointManager().addBreakpoints(fBreakpoints);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		getBreakpointManager().removeBreakpoints(fBreakpoints, true);
+		super.tearDown();
+	}
+
+	private IBreakpointManager getBreakpointManager() {
+		return DebugPlugin.getDefault().getBreakpointManager();
+	}
+
+	/**
+	 * Tests that the indexed queries answer the same as scanning all
+	 * breakpoints.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testIndexedQueries() throws Exception {
+		IBreakpointManager manager = getBreakpointManager();
+		assertEquals("Wrong breakpoints for model", //$NON-NLS-1$
+				Arrays.asList(fBreakpoints), Arrays.asList(manager.getBreakpoints(TestLineBreakpoint.MODEL_ID)));
+		assertEquals("Wrong breakpoints for resource", //$NON-NLS-1$
+				Arrays.asList(scan(fFiles[3], 0, Integer.MAX_VALUE)), Arrays.asList(manager.getBreakpoints(fFiles[3])));
+		assertEquals("Wrong breakpoints for lines", //$NON-NLS-1$
+				Arrays.asList(scan(fFiles[5], 95, 205)), Arrays.asList(manager.getBreakpoints(fFiles[5], 95, 205)));
+		assertEquals("Wrong number of breakpoints for lines", 11, manager.getBreakpoints(fFiles[5], 100, 200).length); //$NON-NLS-1$
+		assertEquals("Wrong number of breakpoints for marker type", //$NON-NLS-1$
+				fBreakpoints.length, manager.getBreakpointsByMarkerType(IBreakpoint.LINE_BREAKPOINT_MARKER).length);
+
+		// moving a breakpoint re-indexes its line
+		IBreakpoint moved = manager.getBreakpoints(fFiles[5], 100, 100)[0];
+		moved.getMarker().setAttribute(IMarker.LINE_NUMBER, 1000);
+		manager.fireBreakpointChanged(moved);
+		assertEquals("Breakpoint should have moved", 0, manager.getBreakpoints(fFiles[5], 100, 100).length); //$NON-NLS-1$
+		assertSame("Breakpoint should have moved", moved, manager.getBreakpoints(fFiles[5], 1000, 1000)[0]); //$NON-NLS-1$
+	}
+
+	/**
+	 * Measures querying the breakpoints on a range of lines of a resource.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testLineRangeQuery() throws Exception {
+		final IBreakpointManager manager = getBreakpointManager();
+		measure(new Query() {
+			@Override
+			public IBreakpoint[] run(IResource resource, int startLine, int endLine) {
+				return manager.getBreakpoints(resource, startLine, endLine);
+			}
+		});
+	}
+
+	/**
+	 * Measures finding the breakpoints on a range of lines of a resource by
+	 * scanning all breakpoints, as a baseline for the indexed query.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testLineRangeScan() throws Exception {
+		measure(new Query() {
+			@Override
+			public IBreakpoint[] run(IResource resource, int startLine, int endLine) {
+				return scan(resource, startLine, endLine);
+			}
+		});
+	}
+
+	interface Query {
+		IBreakpoint[] run(IResource resource, int startLine, int endLine);
+	}
+
+	private void measure(Query query) {
+		Performance perf = Performance.getDefault();
+		PerformanceMeter meter = perf.createPerformanceMeter(perf.getDefaultScenarioId(this));
+		try {
+			for (int i = 0; i < 10; i++) {
+				int found = 0;
+				meter.start();
+				for (int j = 0; j < QUERIES; j++) {
+					found += query.run(fFiles[j % FILES], 100, 149).length;
+				}
+				meter.stop();
+				assertEquals("Wrong number of breakpoints found", QUERIES * 5, found); //$NON-NLS-1$
+			}
+			meter.commit();
+			perf.assertPerformance(meter);
+		} finally {
+			meter.dispose();
+		}
+	}
+
+	/**
+	 * Returns the breakpoints on the given lines of the given resource by
+	 * scanning all registered breakpoints.
+	 */
+	IBreakpoint[] scan(IResource resource, int startLine, int endLine) {
+		List<IBreakpoint> found = new ArrayList<IBreakpoint>();
+		for (IBreakpoint breakpoint : getBreakpointManager().getBreakpoints()) {
+			IMarker marker = breakpoint.getMarker();
+			if (marker != null && resource.equals(marker.getResource())) {
+				int line = marker.getAttribute(IMarker.LINE_NUMBER, -1);
+				if (line >= startLine && line <= endLine) {
+					found.add(breakpoint);
+				}
+			}
+		}
+		return found.toArray(new IBreakpoint[found.size()]);
+	}
+}
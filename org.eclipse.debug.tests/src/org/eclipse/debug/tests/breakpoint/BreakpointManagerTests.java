@@ -0,0 +1,165 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.breakpoint;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarkerDelta;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceDescription;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.IBreakpointManager;
+import org.eclipse.debug.core.IBreakpointsListener;
+import org.eclipse.debug.core.model.IBreakpoint;
+import org.eclipse.debug.tests.AbstractDebugTest;
+import org.eclipse.debug.tests.TestsPlugin;
+
+/**
+ * Tests breakpoint manager notifications.
+ */
+public class BreakpointManagerTests extends AbstractDebugTest {
+
+	/**
+	 * Records notifications
+	 */
+	static class Recorder implements IBreakpointsListener {
+
+		final List<IBreakpoint[]> fAdded = new ArrayList<IBreakpoint[]>();
+		final List<IBreakpoint[]> fRemoved = new ArrayList<IBreakpoint[]>();
+		final List<IBreakpoint[]> fChanged = new ArrayList<IBreakpoint[]>();
+
+		@Override
+		public synchronized void breakpointsAdded(IBreakpoint[] breakpoints) {
+			fAdded.add(breakpoints);
+		}
+
+		@Override
+		public synchronized void breakpointsRemoved(IBreakpoint[] breakpoints, IMarkerDelta[] deltas) {
+			fRemoved.add(breakpoints);
+		}
+
+		@Override
+		public synchronized void breakpointsChanged(IBreakpoint[] breakpoints, IMarkerDelta[] deltas) {
+			fChanged.add(breakpoints);
+		}
+	}
+
+	public BreakpointManagerTests(String name) {
+		super(name);
+	}
+
+	private IFile createFile() throws CoreException {
+		IFile file = TestsPlugin.createProject("BreakpointManagerTests").getFile("Batch.txt"); //$NON-NLS-1$ //$NON-NLS-2$
+		if (!file.exists()) {
+			file.create(new ByteArrayInputStream(new byte[0]), true, null);
+		}
+		return file;
+	}
+
+	/**
+	 * Tests that notifications of a batch are coalesced into one notification
+	 * per kind.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testBatchedNotifications() throws Exception {
+		IFile file = createFile();
+		final IBreakpoint[] breakpoints = new IBreakpoint[] {
+				new TestLineBreakpoint(file, 1), new TestLineBreakpoint(file, 2),
+				new TestLineBreakpoint(file, 3) };
+		final IBreakpointManager manager = DebugPlugin.getDefault().getBreakpointManager();
+		Recorder recorder = new Recorder();
+		manager.addBreakpointListener(recorder);
+		try {
+			manager.runInBatch(new IWorkspaceRunnable() {
+				@Override
+				public void run(IProgressMonitor monitor) throws CoreException {
+					for (IBreakpoint breakpoint : breakpoints) {
+						manager.addBreakpoint(breakpoint);
+						breakpoint.setEnabled(false);
+					}
+					manager.removeBreakpoint(breakpoints[2], true);
+				}
+			}, null);
+			// changes are reported after the build following the batch
+			Job.getJobManager().join(ResourcesPlugin.FAMILY_AUTO_BUILD, null);
+			synchronized (recorder) {
+				assertEquals("Wrong number of add notifications", 1, recorder.fAdded.size()); //$NON-NLS-1$
+				assertEquals("Wrong breakpoints added", Arrays.asList(breakpoints[0], breakpoints[1]), Arrays.asList(recorder.fAdded.get(0))); //$NON-NLS-1$
+				assertEquals("Breakpoint added and removed in batch should not be reported", 0, recorder.fRemoved.size()); //$NON-NLS-1$
+				assertEquals("Changes to breakpoints added in batch should be folded into the add", 0, recorder.fChanged.size()); //$NON-NLS-1$
+			}
+		} finally {
+			manager.removeBreakpointListener(recorder);
+			manager.removeBreakpoints(new IBreakpoint[] { breakpoints[0], breakpoints[1] }, true);
+		}
+	}
+
+	/**
+	 * Tests that changes to existing breakpoints in a batch are reported in
+	 * one notification when auto-building, although the POST_BUILD
+	 * notification of the changes only comes after the batch.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testBatchedChangesWhileAutoBuilding() throws Exception {
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		IWorkspaceDescription description = workspace.getDescription();
+		boolean autoBuilding = description.isAutoBuilding();
+		description.setAutoBuilding(true);
+		workspace.setDescription(description);
+		IFile file = createFile();
+		final IBreakpoint[] breakpoints = new IBreakpoint[] {
+				new TestLineBreakpoint(file, 1), new TestLineBreakpoint(file, 2),
+				new TestLineBreakpoint(file, 3) };
+		final IBreakpointManager manager = DebugPlugin.getDefault().getBreakpointManager();
+		manager.addBreakpoints(breakpoints);
+		Job.getJobManager().join(ResourcesPlugin.FAMILY_AUTO_BUILD, null);
+		Recorder recorder = new Recorder();
+		manager.addBreakpointListener(recorder);
+		try {
+			manager.runInBatch(new IWorkspaceRunnable() {
+				@Override
+				public void run(IProgressMonitor monitor) throws CoreException {
+					for (IBreakpoint breakpoint : breakpoints) {
+						breakpoint.setEnabled(false);
+					}
+				}
+			}, null);
+			Job.getJobManager().join(ResourcesPlugin.FAMILY_AUTO_BUILD, null);
+			synchronized (recorder) {
+				assertEquals("Wrong number of change notifications", 1, recorder.fChanged.size()); //$NON-NLS-1$
+				assertEquals("Wrong breakpoints changed", Arrays.asList(breakpoints), Arrays.asList(recorder.fChanged.get(0))); //$NON-NLS-1$
+			}
+
+			// changes outside of a batch are still reported after the build
+			breakpoints[0].setEnabled(true);
+			Job.getJobManager().join(ResourcesPlugin.FAMILY_AUTO_BUILD, null);
+			synchronized (recorder) {
+				assertEquals("Change after the batch should be reported", 2, recorder.fChanged.size()); //$NON-NLS-1$
+			}
+		} finally {
+			manager.removeBreakpointListener(recorder);
+			manager.removeBreakpoints(breakpoints, true);
+			description.setAutoBuilding(autoBuilding);
+			workspace.setDescription(description);
+		}
+	}
+}
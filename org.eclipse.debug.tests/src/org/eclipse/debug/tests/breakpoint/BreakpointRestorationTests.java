@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.breakpoint;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IMarkerDelta;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.IBreakpointsListener;
+import org.eclipse.debug.core.model.IBreakpoint;
+import org.eclipse.debug.internal.core.BreakpointManager;
+import org.eclipse.debug.internal.core.IInternalDebugCoreConstants;
+import org.eclipse.debug.tests.AbstractDebugTest;
+import org.eclipse.debug.tests.TestsPlugin;
+import org.eclipse.debug.tests.breakpoint.BreakpointManagerTests.Recorder;
+
+/**
+ * Tests the restoration of persisted breakpoints in stages, by a breakpoint
+ * manager other than the one of the debug plug-in.
+ */
+public class BreakpointRestorationTests extends AbstractDebugTest {
+
+	/**
+	 * Number of persisted breakpoints per project
+	 */
+	private static final int LINES = 20;
+
+	private IProject fProject1;
+	private IProject fProject2;
+	private final List<IMarker> fMarkers1 = new ArrayList<IMarker>();
+	private final List<IMarker> fMarkers2 = new ArrayList<IMarker>();
+	private BreakpointManager fManager;
+
+	public BreakpointRestorationTests(String name) {
+		super(name);
+	}
+
+	private static IEclipsePreferences getPreferences() {
+		return InstanceScope.INSTANCE.getNode(DebugPlugin.getUniqueIdentifier());
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		getPreferences().putBoolean(IInternalDebugCoreConstants.PREF_BREAKPOINT_STAGED_RESTORE, true);
+		fProject1 = TestsPlugin.createProject("BreakpointRestorationTests1"); //$NON-NLS-1$
+		fProject2 = TestsPlugin.createProject("BreakpointRestorationTests2"); //$NON-NLS-1$
+		for (int i = 1; i <= LINES; i++) {
+			fMarkers1.add(new TestLineBreakpoint(fProject1, i, true).getMarker());
+			fMarkers2.add(new TestLineBreakpoint(fProject2, i, true).getMarker());
+		}
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		if (fManager != null) {
+			fManager.shutdown();
+			Job.getJobManager().join(fManager, null);
+		}
+		getPreferences().remove(IInternalDebugCoreConstants.PREF_BREAKPOINT_STAGED_RESTORE);
+		fProject1.delete(true, null);
+		fProject2.delete(true, null);
+		super.tearDown();
+	}
+
+	/**
+	 * Returns the markers of the given breakpoints of the tests.
+	 */
+	private static Set<IMarker> getMarkers(IBreakpoint[] breakpoints) {
+		Set<IMarker> markers = new HashSet<IMarker>();
+		for (IBreakpoint breakpoint : breakpoints) {
+			if (TestLineBreakpoint.MODEL_ID.equals(breakpoint.getModelIdentifier())) {
+				assertTrue("Breakpoint should be restored once", markers.add(breakpoint.getMarker())); //$NON-NLS-1$
+			}
+		}
+		return markers;
+	}
+
+	/**
+	 * Tests that the breakpoints of a project are restored when queried,
+	 * while the breakpoints of other projects may still be restoring.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testPartialRestore() throws Exception {
+		fManager = new BreakpointManager();
+		IBreakpoint[] breakpoints = fManager.getBreakpoints(fProject1);
+		assertEquals("Wrong breakpoints of project", new HashSet<IMarker>(fMarkers1), getMarkers(breakpoints)); //$NON-NLS-1$
+		for (IMarker marker : fMarkers1) {
+			IBreakpoint breakpoint = fManager.getBreakpoint(marker);
+			assertNotNull("Breakpoint of marker should be restored", breakpoint); //$NON-NLS-1$
+			assertEquals("Wrong marker", marker, breakpoint.getMarker()); //$NON-NLS-1$
+		}
+		// the breakpoint of a marker is looked up once all are restored
+		assertNotNull("Breakpoint of other project should be restored", fManager.getBreakpoint(fMarkers2.get(0))); //$NON-NLS-1$
+
+		Set<IMarker> all = new HashSet<IMarker>(fMarkers1);
+		all.addAll(fMarkers2);
+		assertEquals("Wrong breakpoints", all, getMarkers(fManager.getBreakpoints(TestLineBreakpoint.MODEL_ID))); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that listeners are notified of the breakpoints restored after the
+	 * manager is initialized.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testLateListener() throws Exception {
+		fManager = new BreakpointManager();
+		Recorder recorder = new Recorder();
+		fManager.addBreakpointListener(recorder);
+		fManager.ensureInitialized();
+		// returns once all stages are restored, workers may still notify
+		IBreakpoint[] breakpoints = fManager.getBreakpoints(TestLineBreakpoint.MODEL_ID);
+		Job.getJobManager().join(fManager, null);
+		Set<IMarker> all = new HashSet<IMarker>(fMarkers1);
+		all.addAll(fMarkers2);
+		assertEquals("Wrong breakpoints", all, getMarkers(breakpoints)); //$NON-NLS-1$
+
+		Set<IMarker> notified = new HashSet<IMarker>();
+		synchronized (recorder) {
+			for (IBreakpoint[] added : recorder.fAdded) {
+				for (IMarker marker : getMarkers(added)) {
+					assertTrue("Breakpoint should be notified once", notified.add(marker)); //$NON-NLS-1$
+				}
+			}
+		}
+		assertEquals("Listener should be notified of restored breakpoints", all, notified); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that shutting down the manager while it restores breakpoints
+	 * stops the restoration, and that the manager restores all breakpoints
+	 * once when initialized again.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testShutdownWhileRestoring() throws Exception {
+		fManager = new BreakpointManager();
+		for (int i = 0; i < 10; i++) {
+			fManager.ensureInitialized();
+			fManager.shutdown();
+			Job.getJobManager().join(fManager, null);
+			assertEquals("Restoration should be stopped", 0, Job.getJobManager().find(fManager).length); //$NON-NLS-1$
+		}
+		Recorder recorder = new Recorder();
+		fManager.addBreakpointListener(recorder);
+		Set<IMarker> all = new HashSet<IMarker>(fMarkers1);
+		all.addAll(fMarkers2);
+		assertEquals("Wrong breakpoints", all, getMarkers(fManager.getBreakpoints(TestLineBreakpoint.MODEL_ID))); //$NON-NLS-1$
+		synchronized (recorder) {
+			assertEquals("No breakpoints should be changed", 0, recorder.fChanged.size()); //$NON-NLS-1$
+			assertEquals("No breakpoints should be removed", 0, recorder.fRemoved.size()); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Runs the given runnable on a new thread, recording its failure.
+	 */
+	private static Thread start(final Runnable runnable, final AtomicReference<Throwable> failure) {
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					runnable.run();
+				} catch (Throwable t) {
+					failure.compareAndSet(null, t);
+				}
+			}
+		});
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 * Tests that a listener querying all breakpoints when notified of restored
+	 * breakpoints does not deadlock threads restoring different stages.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testReentrantListener() throws Exception {
+		fManager = new BreakpointManager();
+		final AtomicInteger notified = new AtomicInteger();
+		fManager.addBreakpointListener(new IBreakpointsListener() {
+			@Override
+			public void breakpointsAdded(IBreakpoint[] breakpoints) {
+				// waits for the stages restored by other threads
+				fManager.getBreakpoints();
+				notified.incrementAndGet();
+			}
+
+			@Override
+			public void breakpointsRemoved(IBreakpoint[] breakpoints, IMarkerDelta[] deltas) {
+			}
+
+			@Override
+			public void breakpointsChanged(IBreakpoint[] breakpoints, IMarkerDelta[] deltas) {
+			}
+		});
+		AtomicReference<Throwable> failure = new AtomicReference<Throwable>();
+		Thread first = start(new Runnable() {
+			@Override
+			public void run() {
+				fManager.getBreakpoints(fProject1);
+			}
+		}, failure);
+		Thread second = start(new Runnable() {
+			@Override
+			public void run() {
+				fManager.getBreakpoints(fProject2);
+			}
+		}, failure);
+		first.join(testTimeout);
+		second.join(testTimeout);
+		assertFalse("Restoring threads should not deadlock", first.isAlive() || second.isAlive()); //$NON-NLS-1$
+		if (failure.get() != null) {
+			throw new AssertionError("Restoring thread failed", failure.get()); //$NON-NLS-1$
+		}
+		Job.getJobManager().join(fManager, null);
+		Set<IMarker> all = new HashSet<IMarker>(fMarkers1);
+		all.addAll(fMarkers2);
+		assertEquals("Wrong breakpoints", all, getMarkers(fManager.getBreakpoints(TestLineBreakpoint.MODEL_ID))); //$NON-NLS-1$
+		assertTrue("Listener should be notified", notified.get() > 0); //$NON-NLS-1$
+	}
+}
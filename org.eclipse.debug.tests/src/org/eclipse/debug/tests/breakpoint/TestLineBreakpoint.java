@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.breakpoint;
+
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRunnable;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.debug.core.model.IBreakpoint;
+import org.eclipse.debug.core.model.LineBreakpoint;
+
+/**
+ * Line breakpoint of the tests, restored from its marker by the breakpoint
+ * manager when persisted.
+ */
+public class TestLineBreakpoint extends LineBreakpoint {
+
+	public static final String MODEL_ID = "org.eclipse.debug.tests.breakpoints"; //$NON-NLS-1$
+
+	public static final String MARKER_TYPE = "org.eclipse.debug.tests.lineBreakpointMarker"; //$NON-NLS-1$
+
+	/**
+	 * Constructor used by the breakpoint manager to restore a breakpoint from
+	 * its marker.
+	 */
+	public TestLineBreakpoint() {
+	}
+
+	/**
+	 * Creates a transient breakpoint on the given line of the given resource.
+	 *
+	 * @param resource the resource
+	 * @param line the line number
+	 * @throws CoreException if the marker cannot be created
+	 */
+	public TestLineBreakpoint(IResource resource, int line) throws CoreException {
+		this(resource, line, false);
+	}
+
+	/**
+	 * Creates a breakpoint on the given line of the given resource.
+	 *
+	 * @param resource the resource
+	 * @param line the line number
+	 * @param persisted whether the breakpoint is restored at startup
+	 * @throws CoreException if the marker cannot be created
+	 */
+	public TestLineBreakpoint(final IResource resource, final int line, final boolean persisted) throws CoreException {
+		IWorkspaceRunnable wr = new IWorkspaceRunnable() {
+			@Override
+			public void run(IProgressMonitor monitor) throws CoreException {
+				IMarker marker = resource.createMarker(MARKER_TYPE);
+				setMarker(marker);
+				marker.setAttribute(IBreakpoint.ID, getModelIdentifier());
+				marker.setAttribute(IMarker.LINE_NUMBER, line);
+				marker.setAttribute(IBreakpoint.PERSISTED, persisted);
+			}
+		};
+		ResourcesPlugin.getWorkspace().run(wr, null);
+	}
+
+	@Override
+	public String getModelIdentifier() {
+		return MODEL_ID;
+	}
+}
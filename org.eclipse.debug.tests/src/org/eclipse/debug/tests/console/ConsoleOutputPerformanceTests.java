@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.console;
+
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.debug.tests.AbstractDebugTest;
+import org.eclipse.debug.tests.TestUtil;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+import org.eclipse.ui.console.IConsoleConstants;
+import org.eclipse.ui.console.IOConsoleOutputStream;
+import org.eclipse.ui.console.MessageConsole;
+
+/**
+ * Measures writing output one byte at a time to several consoles at once, as
+ * done by programs writing unbuffered output.
+ */
+public class ConsoleOutputPerformanceTests extends AbstractDebugTest {
+
+	/**
+	 * Number of consoles written to concurrently
+	 */
+	private static final int CONSOLES = 3;
+
+	/**
+	 * Number of lines written to each console per pass
+	 */
+	private static final int LINES = 20000;
+
+	public ConsoleOutputPerformanceTests() {
+		super("ConsoleOutputPerformanceTests"); //$NON-NLS-1$
+	}
+
+	public ConsoleOutputPerformanceTests(String name) {
+		super(name);
+	}
+
+	public void testWriteSingleBytes() throws Exception {
+		final byte[] line = "output line written one byte at a time\n".getBytes(StandardCharsets.UTF_8); //$NON-NLS-1$
+		Performance perf = Performance.getDefault();
+		PerformanceMeter meter = perf.createPerformanceMeter(perf.getDefaultScenarioId(this));
+		try {
+			for (int i = 0; i < 5; i++) {
+				MessageConsole[] consoles = new MessageConsole[CONSOLES];
+				Thread[] writers = new Thread[CONSOLES];
+				final Exception[] failure = new Exception[1];
+				for (int j = 0; j < CONSOLES; j++) {
+					consoles[j] = new MessageConsole("Output Performance " + j, //$NON-NLS-1$
+							IConsoleConstants.MESSAGE_CONSOLE_TYPE, null, StandardCharsets.UTF_8.name(), true);
+					final IOConsoleOutputStream stream = consoles[j].newOutputStream();
+					writers[j] = new Thread("Console writer " + j) { //$NON-NLS-1$
+						@Override
+						public void run() {
+							try {
+								for (int k = 0; k < LINES; k++) {
+									for (byte b : line) {
+										stream.write(b);
+									}
+								}
+								stream.close();
+							} catch (Exception e) {
+								failure[0] = e;
+							}
+						}
+					};
+				}
+
+				meter.start();
+				for (Thread writer : writers) {
+					writer.start();
+				}
+				for (Thread writer : writers) {
+					while (writer.isAlive()) {
+						// writers may wait for the UI thread to process output
+						TestUtil.processUIEvents(10);
+					}
+				}
+				for (MessageConsole console : consoles) {
+					while (failure[0] == null && console.getDocument().getLength() < LINES * line.length) {
+						TestUtil.processUIEvents(10);
+					}
+					Job.getJobManager().join(console, null);
+				}
+				meter.stop();
+
+				assertNull("Writing failed", failure[0]); //$NON-NLS-1$
+				for (MessageConsole console : consoles) {
+					assertEquals("Wrong number of lines", LINES + 1, console.getDocument().getNumberOfLines()); //$NON-NLS-1$
+					console.destroy();
+				}
+				System.gc();
+			}
+			meter.commit();
+			perf.assertPerformance(meter);
+		} finally {
+			meter.dispose();
+		}
+	}
+}
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.console;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.debug.tests.AbstractDebugTest;
+import org.eclipse.test.performance.Performance;
+import org.eclipse.test.performance.PerformanceMeter;
+import org.eclipse.ui.console.IPatternMatchListener;
+import org.eclipse.ui.console.MessageConsole;
+import org.eclipse.ui.console.PatternMatchEvent;
+import org.eclipse.ui.console.TextConsole;
+
+/**
+ * Measures the time the console takes to match a large amount of output
+ * against several pattern match listeners, similar to the stack trace, URL and
+ * problem marker listeners contributed to a typical console.
+ */
+public class ConsolePatternMatcherPerformanceTests extends AbstractDebugTest {
+
+	/**
+	 * Number of output lines matched per pass
+	 */
+	private static final int LINES = 50000;
+
+	public ConsolePatternMatcherPerformanceTests() {
+		super("ConsolePatternMatcherPerformanceTests"); //$NON-NLS-1$
+	}
+
+	public ConsolePatternMatcherPerformanceTests(String name) {
+		super(name);
+	}
+
+	/**
+	 * Counts matches of a pattern.
+	 */
+	class CountingListener implements IPatternMatchListener {
+
+		private final String fPattern;
+		private final String fQualifier;
+		final AtomicInteger fMatches = new AtomicInteger();
+
+		CountingListener(String pattern, String qualifier) {
+			fPattern = pattern;
+			fQualifier = qualifier;
+		}
+
+		@Override
+		public void connect(TextConsole console) {
+		}
+
+		@Override
+		public void disconnect() {
+		}
+
+		@Override
+		public void matchFound(PatternMatchEvent event) {
+			fMatches.incrementAndGet();
+		}
+
+		@Override
+		public String getPattern() {
+			return fPattern;
+		}
+
+		@Override
+		public int getCompilerFlags() {
+			return 0;
+		}
+
+		@Override
+		public String getLineQualifier() {
+			return fQualifier;
+		}
+	}
+
+	public void testMatchLargeOutput() throws Exception {
+		StringBuilder output = new StringBuilder();
+		for (int i = 0; i < LINES; i++) {
+			switch (i % 4) {
+				case 0:
+					output.append("\tat org.eclipse.debug.Example.method(Example.java:").append(i).append(')'); //$NON-NLS-1$
+					break;
+				case 1:
+					output.append("[INFO] Building module ").append(i); //$NON-NLS-1$
+					break;
+				case 2:
+					output.append("See http://www.eclipse.org/").append(i).append(" for details"); //$NON-NLS-1$ //$NON-NLS-2$
+					break;
+				default:
+					output.append("plain output line ").append(i); //$NON-NLS-1$
+					break;
+			}
+			output.append('\n');
+		}
+		String text = output.toString();
+
+		Performance perf = Performance.getDefault();
+		PerformanceMeter meter = perf.createPerformanceMeter(perf.getDefaultScenarioId(this));
+		try {
+			for (int i = 0; i < 10; i++) {
+				MessageConsole console = new MessageConsole("Pattern Matcher Performance " + i, null); //$NON-NLS-1$
+				CountingListener[] listeners = new CountingListener[] {
+						new CountingListener("\\(\\w*\\.java:\\d+\\)", "\\.java:"), //$NON-NLS-1$ //$NON-NLS-2$
+						new CountingListener("http://\\S+", "http://"), //$NON-NLS-1$ //$NON-NLS-2$
+						new CountingListener("\\[ERROR\\].*", null), //$NON-NLS-1$
+						new CountingListener("\\[WARNING\\].*", null), //$NON-NLS-1$
+						new CountingListener("BUILD FAILURE", null) //$NON-NLS-1$
+				};
+				for (CountingListener listener : listeners) {
+					console.addPatternMatchListener(listener);
+				}
+				Job.getJobManager().join(console, null);
+
+				meter.start();
+				console.getDocument().set(text);
+				Job.getJobManager().join(console, null);
+				meter.stop();
+
+				assertEquals("Wrong number of stack frames matched", LINES / 4, listeners[0].fMatches.get()); //$NON-NLS-1$
+				assertEquals("Wrong number of links matched", LINES / 4, listeners[1].fMatches.get()); //$NON-NLS-1$
+				assertEquals("Unexpected error match", 0, listeners[2].fMatches.get()); //$NON-NLS-1$
+				console.destroy();
+				System.gc();
+			}
+			meter.commit();
+			perf.assertPerformance(meter);
+		} finally {
+			meter.dispose();
+		}
+	}
+}
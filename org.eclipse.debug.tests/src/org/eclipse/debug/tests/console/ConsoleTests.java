@@ -13,6 +13,10 @@ package org.eclipse.debug.tests.console;
 
 import java.io.IOException;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 
 import org.eclipse.core.commands.Command;
 import org.eclipse.debug.tests.AbstractDebugTest;
@@ -25,6 +29,7 @@ import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.commands.ICommandService;
 import org.eclipse.ui.console.ConsolePlugin;
 import org.eclipse.ui.console.IConsole;
+import org.eclipse.ui.console.IConsoleBacklogListener;
 import org.eclipse.ui.console.IConsoleConstants;
 import org.eclipse.ui.console.IConsoleManager;
 import org.eclipse.ui.console.IOConsole;
@@ -147,6 +152,57 @@ public class ConsoleTests extends AbstractDebugTest {
 		}
 	}
 
+	public void testFileBackedConsole() throws Exception {
+		MessageConsole console = new MessageConsole("Test Console 8", //$NON-NLS-1$
+				IConsoleConstants.MESSAGE_CONSOLE_TYPE, null, StandardCharsets.UTF_8.name(), true);
+		IDocument document = console.getDocument();
+		try (IOConsoleOutputStream outStream = console.newOutputStream()) {
+			outStream.write("before\r\n"); //$NON-NLS-1$
+			TestUtil.waitForJobs(getName(), 200, 5000);
+			console.setFileBacked(true);
+			TestCase.assertTrue("console should be file backed", console.isFileBacked()); //$NON-NLS-1$
+			TestCase.assertEquals("existing output should be kept", "before\r\n", document.get()); //$NON-NLS-1$ //$NON-NLS-2$
+			StringBuilder expected = new StringBuilder("before\r\n"); //$NON-NLS-1$
+			for (int i = 0; i < 1000; i++) {
+				String line = "line " + i + '\n'; //$NON-NLS-1$
+				outStream.write(line);
+				expected.append(line);
+			}
+			TestUtil.waitForJobs(getName(), 200, 5000);
+			TestCase.assertEquals("output should be written to the file", expected.toString(), document.get()); //$NON-NLS-1$
+			TestCase.assertEquals("wrong number of lines", 1002, document.getNumberOfLines()); //$NON-NLS-1$
+			TestCase.assertEquals("wrong line offset", 8, document.getLineOffset(1)); //$NON-NLS-1$
+			TestCase.assertEquals("wrong line delimiter", "\r\n", document.getLineDelimiter(0)); //$NON-NLS-1$ //$NON-NLS-2$
+			TestCase.assertEquals("wrong line", "line 999", document.get(document.getLineOffset(1000), document.getLineInformation(1000).getLength())); //$NON-NLS-1$ //$NON-NLS-2$
+			console.setFileBacked(false);
+			TestCase.assertFalse("console should not be file backed", console.isFileBacked()); //$NON-NLS-1$
+			TestCase.assertEquals("output should be kept", expected.toString(), document.get()); //$NON-NLS-1$
+		}
+	}
+
+	public void testBacklogListener() throws Exception {
+		MessageConsole console = new MessageConsole("Test Console 9", null); //$NON-NLS-1$
+		final List<Boolean> states = Collections.synchronizedList(new ArrayList<Boolean>());
+		console.setBacklogWatermarks(10, 100);
+		console.addBacklogListener(new IConsoleBacklogListener() {
+			@Override
+			public void backlogChanged(IOConsole c, boolean saturated) {
+				states.add(Boolean.valueOf(saturated));
+			}
+		});
+		try (IOConsoleOutputStream outStream = console.newOutputStream()) {
+			StringBuilder output = new StringBuilder();
+			for (int i = 0; i < 20; i++) {
+				output.append("0123456789"); //$NON-NLS-1$
+			}
+			outStream.write(output.toString());
+			TestCase.assertEquals("backlog should be saturated", Arrays.asList(Boolean.TRUE), states); //$NON-NLS-1$
+			TestUtil.waitForJobs(getName(), 200, 5000);
+			TestCase.assertEquals("backlog should be drained", Arrays.asList(Boolean.TRUE, Boolean.FALSE), states); //$NON-NLS-1$
+			TestCase.assertEquals("output should be appended", output.toString(), console.getDocument().get()); //$NON-NLS-1$
+		}
+	}
+
 	public void testSetNullEncoding() throws IOException {
 		MessageConsole console = new MessageConsole("Test Console 6", null); //$NON-NLS-1$
 		try (IOConsoleOutputStream outStream = console.newOutputStream()) {
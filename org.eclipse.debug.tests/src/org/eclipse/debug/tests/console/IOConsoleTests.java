@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.console;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.debug.tests.AbstractDebugTest;
+import org.eclipse.debug.tests.TestUtil;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentPartitioner;
+import org.eclipse.jface.text.ITypedRegion;
+import org.eclipse.ui.console.IOConsole;
+import org.eclipse.ui.console.IOConsoleOutputStream;
+import org.eclipse.ui.internal.console.IOConsolePartition;
+
+/**
+ * Tests the partitions of an IO console document and the order in which
+ * output is appended to it.
+ */
+public class IOConsoleTests extends AbstractDebugTest {
+
+	/**
+	 * Number of chunks written to the console by the ordering test
+	 */
+	private static final int CHUNKS = 2000;
+
+	private IOConsole fConsole;
+	private IDocument fDocument;
+	private IDocumentPartitioner fPartitioner;
+
+	public IOConsoleTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fConsole = new IOConsole(getName(), null);
+		fDocument = fConsole.getDocument();
+		fPartitioner = fDocument.getDocumentPartitioner();
+	}
+
+	/**
+	 * Waits until the output written so far has been appended to the
+	 * document.
+	 */
+	private void waitForOutput() {
+		TestUtil.waitForJobs(getName(), 200, 5000);
+	}
+
+	private static void assertPartition(String message, ITypedRegion partition, String type, int offset, int length) {
+		assertNotNull(message, partition);
+		assertEquals(message + ": wrong type", type, partition.getType()); //$NON-NLS-1$
+		assertEquals(message + ": wrong offset", offset, partition.getOffset()); //$NON-NLS-1$
+		assertEquals(message + ": wrong length", length, partition.getLength()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests the partitions found at the start, end and boundaries of the
+	 * partitions of two output streams.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testPartitionBoundaries() throws Exception {
+		try (IOConsoleOutputStream out = fConsole.newOutputStream(); IOConsoleOutputStream err = fConsole.newOutputStream()) {
+			out.write("abc"); //$NON-NLS-1$
+			err.write("de"); //$NON-NLS-1$
+			out.write("f"); //$NON-NLS-1$
+			waitForOutput();
+			assertEquals("Wrong document", "abcdef", fDocument.get()); //$NON-NLS-1$ //$NON-NLS-2$
+
+			String output = IOConsolePartition.OUTPUT_PARTITION_TYPE;
+			assertPartition("First offset", fPartitioner.getPartition(0), output, 0, 3); //$NON-NLS-1$
+			assertPartition("Last offset of first partition", fPartitioner.getPartition(2), output, 0, 3); //$NON-NLS-1$
+			assertPartition("First offset of second partition", fPartitioner.getPartition(3), output, 3, 2); //$NON-NLS-1$
+			assertPartition("Last offset of second partition", fPartitioner.getPartition(4), output, 3, 2); //$NON-NLS-1$
+			assertPartition("Last offset", fPartitioner.getPartition(5), output, 5, 1); //$NON-NLS-1$
+
+			ITypedRegion[] partitions = fPartitioner.computePartitioning(0, fDocument.getLength());
+			assertEquals("Wrong number of partitions", 3, partitions.length); //$NON-NLS-1$
+			assertPartition("First partition", partitions[0], output, 0, 3); //$NON-NLS-1$
+			assertPartition("Second partition", partitions[1], output, 3, 2); //$NON-NLS-1$
+			assertPartition("Third partition", partitions[2], output, 5, 1); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Tests that an empty document has an empty input partition at its start.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testPartitionEmptyDocument() throws Exception {
+		assertEquals("Document should be empty", 0, fDocument.getLength()); //$NON-NLS-1$
+		ITypedRegion partition = fPartitioner.getPartition(0);
+		assertPartition("Empty document", partition, IOConsolePartition.INPUT_PARTITION_TYPE, 0, 0); //$NON-NLS-1$
+		assertSame("Empty partition should be found again", partition, fPartitioner.getPartition(0)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that offsets at and past the end of the document get the last
+	 * partition.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testPartitionPastEnd() throws Exception {
+		try (IOConsoleOutputStream out = fConsole.newOutputStream(); IOConsoleOutputStream err = fConsole.newOutputStream()) {
+			out.write("abc"); //$NON-NLS-1$
+			err.write("de"); //$NON-NLS-1$
+			waitForOutput();
+			ITypedRegion last = fPartitioner.getPartition(4);
+			assertPartition("Last offset", last, IOConsolePartition.OUTPUT_PARTITION_TYPE, 3, 2); //$NON-NLS-1$
+			assertSame("End of document", last, fPartitioner.getPartition(fDocument.getLength())); //$NON-NLS-1$
+			assertSame("Offset past end", last, fPartitioner.getPartition(fDocument.getLength() + 100)); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Tests that output written by two streams from a background thread, while
+	 * it is assembled and appended to the document by jobs, appears in the
+	 * document in the order it was written.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testOutputOrder() throws Exception {
+		try (final IOConsoleOutputStream out = fConsole.newOutputStream(); final IOConsoleOutputStream err = fConsole.newOutputStream()) {
+			final AtomicReference<Throwable> failure = new AtomicReference<>();
+			Thread writer = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						for (int i = 0; i < CHUNKS; i++) {
+							(i % 2 == 0 ? out : err).write(chunk(i));
+						}
+					} catch (Throwable e) {
+						failure.set(e);
+					}
+				}
+			});
+			writer.setDaemon(true);
+			writer.start();
+			long end = System.currentTimeMillis() + testTimeout;
+			while (writer.isAlive() && System.currentTimeMillis() < end) {
+				TestUtil.processUIEvents(10);
+			}
+			assertFalse("Writer did not complete", writer.isAlive()); //$NON-NLS-1$
+			assertNull("Writer failed", failure.get()); //$NON-NLS-1$
+			waitForOutput();
+
+			StringBuilder expected = new StringBuilder();
+			for (int i = 0; i < CHUNKS; i++) {
+				expected.append(chunk(i));
+			}
+			assertEquals("Output should be appended in order", expected.toString(), fDocument.get()); //$NON-NLS-1$
+
+			ITypedRegion[] partitions = fPartitioner.computePartitioning(0, fDocument.getLength());
+			assertEquals("Each chunk should have its own partition", CHUNKS, partitions.length); //$NON-NLS-1$
+			for (int i = 0; i < CHUNKS; i++) {
+				assertEquals("Wrong partition " + i, chunk(i), fDocument.get(partitions[i].getOffset(), partitions[i].getLength())); //$NON-NLS-1$
+			}
+		}
+	}
+
+	private static String chunk(int index) {
+		return "chunk " + index + '\n'; //$NON-NLS-1$
+	}
+}
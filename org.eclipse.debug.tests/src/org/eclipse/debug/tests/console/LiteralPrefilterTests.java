@@ -0,0 +1,95 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.console;
+
+import java.util.regex.Pattern;
+
+import org.eclipse.debug.tests.AbstractDebugTest;
+import org.eclipse.ui.internal.console.LiteralPrefilter;
+
+/**
+ * Tests the literals console pattern matching uses to skip text.
+ */
+public class LiteralPrefilterTests extends AbstractDebugTest {
+
+	public LiteralPrefilterTests(String name) {
+		super(name);
+	}
+
+	/**
+	 * Asserts that the literal required by the given expression is the
+	 * expected one and is contained in text the expression matches.
+	 */
+	private static void assertLiteral(String regex, String text, String expected) {
+		assertTrue("Expression should match " + text, Pattern.compile(regex).matcher(text).find()); //$NON-NLS-1$
+		String literal = LiteralPrefilter.getRequiredLiteral(regex, 0);
+		assertEquals("Wrong literal for " + regex, expected, literal); //$NON-NLS-1$
+		if (literal != null) {
+			assertTrue("Literal should be contained in matching text", text.contains(literal)); //$NON-NLS-1$
+		}
+	}
+
+	public void testPlainLiteral() {
+		assertLiteral("at \\w+\\.java", "at Foo.java", ".java"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertLiteral("error: (\\d+)", "error: 12", "error: "); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	public void testNoLiteral() {
+		assertLiteral("a|bc", "bc", null); //$NON-NLS-1$ //$NON-NLS-2$
+		assertLiteral("(?i)abc", "ABC", null); //$NON-NLS-1$ //$NON-NLS-2$
+		assertLiteral("\\Qa.b\\E", "a.b", null); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	public void testPropertyEscapes() {
+		assertLiteral("\\p{Alpha}+ error", "ab error", " error"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertLiteral("\\P{Digit}ab", "xab", "ab"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertLiteral("\\pL bar", "x bar", " bar"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	public void testHexadecimalEscapes() {
+		assertLiteral("\\x41\\x42C at", "ABC at", "C at"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertLiteral("\\x{41} baz", "A baz", " baz"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	public void testUnicodeEscapes() {
+		assertLiteral("\\u0041\\u0042 xy", "AB xy", " xy"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	public void testOctalEscapes() {
+		assertLiteral("\\0101\\0102 lit", "AB lit", " lit"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	public void testControlEscapes() {
+		assertLiteral("\\cA foo", "\u0001 foo", " foo"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	public void testBackReferences() {
+		assertLiteral("(?<n>ab)\\k<n>zz", "ababzz", "zz"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertLiteral("(a)\\12 qq", "aa2 qq", " qq"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	public void testBoundedQuantifiers() {
+		assertLiteral("\\d{3}", "123", null); //$NON-NLS-1$ //$NON-NLS-2$
+		assertLiteral("a{2}", "aa", null); //$NON-NLS-1$ //$NON-NLS-2$
+		assertLiteral("x{1,}", "xxx", null); //$NON-NLS-1$ //$NON-NLS-2$
+		assertLiteral("\\w{2,5}", "abc", null); //$NON-NLS-1$ //$NON-NLS-2$
+		assertLiteral("\\d{10} ms", "0123456789 ms", " ms"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		assertLiteral("at (\\w+){2}line", "at abline", "line"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	public void testEscapedBraces() {
+		assertLiteral("\\{literal\\}", "{literal}", "{literal}"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	public void testUnterminatedEscape() {
+		assertNull("Unterminated escape should yield no literal", LiteralPrefilter.getRequiredLiteral("abc\\p{Alpha", 0)); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
@@ -0,0 +1,138 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.debug.core.DebugEvent;
+import org.eclipse.debug.core.IConcurrentDebugEventSetListener;
+import org.eclipse.debug.internal.core.ConcurrentEventDispatcher;
+import org.eclipse.debug.tests.AbstractDebugTest;
+
+/**
+ * Tests the notification of concurrent debug event listeners on a pool.
+ */
+public class ConcurrentEventDispatcherTests extends AbstractDebugTest {
+
+	/**
+	 * Number of event sets posted to each listener
+	 */
+	private static final int SETS = 1000;
+
+	/**
+	 * Records the event sets it receives and whether it is notified
+	 * concurrently with itself
+	 */
+	static class Recorder implements IConcurrentDebugEventSetListener {
+
+		final List<DebugEvent[]> fSets = new ArrayList<DebugEvent[]>();
+		final AtomicInteger fActive = new AtomicInteger();
+		volatile boolean fOverlapped = false;
+		final CountDownLatch fDone;
+
+		Recorder(int sets) {
+			fDone = new CountDownLatch(sets);
+		}
+
+		@Override
+		public void handleDebugEvents(DebugEvent[] events) {
+			if (fActive.incrementAndGet() > 1) {
+				fOverlapped = true;
+			}
+			synchronized (this) {
+				fSets.add(events);
+			}
+			fActive.decrementAndGet();
+			fDone.countDown();
+		}
+	}
+
+	private ConcurrentEventDispatcher fDispatcher;
+
+	public ConcurrentEventDispatcherTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fDispatcher = new ConcurrentEventDispatcher();
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fDispatcher.shutdown();
+		super.tearDown();
+	}
+
+	private static DebugEvent[] createSet(int index) {
+		return new DebugEvent[] { new DebugEvent(Integer.valueOf(index), DebugEvent.CHANGE) };
+	}
+
+	/**
+	 * Tests that each listener receives the event sets in the order they were
+	 * posted, and is never notified concurrently with itself.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testOrderPerListener() throws Exception {
+		Recorder[] recorders = new Recorder[4];
+		for (int i = 0; i < recorders.length; i++) {
+			recorders[i] = new Recorder(SETS);
+			fDispatcher.add(recorders[i]);
+		}
+		List<DebugEvent[]> posted = new ArrayList<DebugEvent[]>(SETS);
+		for (int i = 0; i < SETS; i++) {
+			DebugEvent[] set = createSet(i);
+			posted.add(set);
+			for (Recorder recorder : recorders) {
+				fDispatcher.post(recorder, set);
+			}
+		}
+		for (Recorder recorder : recorders) {
+			assertTrue("Listener was not notified of all event sets", recorder.fDone.await(testTimeout, TimeUnit.MILLISECONDS)); //$NON-NLS-1$
+			assertFalse("Listener was notified concurrently with itself", recorder.fOverlapped); //$NON-NLS-1$
+			synchronized (recorder) {
+				assertEquals("Wrong order of event sets", posted, recorder.fSets); //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * Tests that listeners are not notified of event sets posted once they
+	 * are removed, or before they are added.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testRemovedListener() throws Exception {
+		Recorder removed = new Recorder(1);
+		fDispatcher.post(removed, createSet(0));
+		fDispatcher.add(removed);
+		fDispatcher.post(removed, createSet(1));
+		assertTrue("Listener was not notified", removed.fDone.await(testTimeout, TimeUnit.MILLISECONDS)); //$NON-NLS-1$
+		fDispatcher.remove(removed);
+		fDispatcher.post(removed, createSet(2));
+
+		// a listener added later is notified after the posts above
+		Recorder other = new Recorder(1);
+		fDispatcher.add(other);
+		fDispatcher.post(other, createSet(3));
+		assertTrue("Listener was not notified", other.fDone.await(testTimeout, TimeUnit.MILLISECONDS)); //$NON-NLS-1$
+		synchronized (removed) {
+			assertEquals("Listener should only be notified while registered", 1, removed.fSets.size()); //$NON-NLS-1$
+			assertEquals("Wrong event set", Integer.valueOf(1), removed.fSets.get(0)[0].getSource()); //$NON-NLS-1$
+		}
+	}
+}
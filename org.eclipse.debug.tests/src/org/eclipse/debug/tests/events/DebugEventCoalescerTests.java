@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.events;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.eclipse.debug.core.DebugEvent;
+import org.eclipse.debug.internal.core.DebugEventCoalescer;
+import org.eclipse.debug.internal.core.DebugEventMetrics;
+import org.eclipse.debug.tests.AbstractDebugTest;
+
+/**
+ * Tests the coalescing of debug event sets and the debug event queue
+ * metrics.
+ */
+public class DebugEventCoalescerTests extends AbstractDebugTest {
+
+	private final Object fSource1 = new Object();
+	private final Object fSource2 = new Object();
+
+	public DebugEventCoalescerTests(String name) {
+		super(name);
+	}
+
+	private static DebugEvent change(Object source, int detail) {
+		return new DebugEvent(source, DebugEvent.CHANGE, detail);
+	}
+
+	public void testCoalescable() {
+		assertTrue("Change events should be coalescable", DebugEventCoalescer.isCoalescable(new DebugEvent[] { //$NON-NLS-1$
+				change(fSource1, DebugEvent.STATE), change(fSource2, DebugEvent.CONTENT) }));
+		assertFalse("Empty set should not be coalescable", DebugEventCoalescer.isCoalescable(new DebugEvent[0])); //$NON-NLS-1$
+		assertFalse("Set with other events should not be coalescable", DebugEventCoalescer.isCoalescable(new DebugEvent[] { //$NON-NLS-1$
+				change(fSource1, DebugEvent.STATE), new DebugEvent(fSource1, DebugEvent.SUSPEND) }));
+	}
+
+	public void testSingleEvent() {
+		DebugEvent[] set = new DebugEvent[] { change(fSource1, DebugEvent.STATE) };
+		assertSame("Single event should not be copied", set, DebugEventCoalescer.coalesce(Collections.singletonList(set))); //$NON-NLS-1$
+	}
+
+	public void testRedundantEvents() {
+		DebugEvent state1 = change(fSource1, DebugEvent.STATE);
+		DebugEvent content1 = change(fSource1, DebugEvent.CONTENT);
+		DebugEvent state2 = change(fSource2, DebugEvent.STATE);
+		DebugEvent[] merged = DebugEventCoalescer.coalesce(Arrays.asList(
+				new DebugEvent[] { state1, content1 },
+				new DebugEvent[] { change(fSource1, DebugEvent.STATE), state2 },
+				new DebugEvent[] { change(fSource2, DebugEvent.STATE), change(fSource1, DebugEvent.CONTENT) }));
+		assertEquals("Redundant events should be dropped, in order", Arrays.asList(state1, content1, state2), Arrays.asList(merged)); //$NON-NLS-1$
+	}
+
+	public void testEventsWithData() {
+		DebugEvent state = change(fSource1, DebugEvent.STATE);
+		DebugEvent withData1 = change(fSource1, DebugEvent.STATE);
+		withData1.setData("data"); //$NON-NLS-1$
+		DebugEvent withData2 = change(fSource1, DebugEvent.STATE);
+		withData2.setData("data"); //$NON-NLS-1$
+		DebugEvent[] merged = DebugEventCoalescer.coalesce(Arrays.asList(
+				new DebugEvent[] { state, withData1 },
+				new DebugEvent[] { withData2, change(fSource1, DebugEvent.STATE) }));
+		assertEquals("Events with data should be kept", Arrays.asList(state, withData1, withData2), Arrays.asList(merged)); //$NON-NLS-1$
+	}
+
+	public void testMetrics() {
+		DebugEventMetrics metrics = new DebugEventMetrics();
+		metrics.enqueued();
+		metrics.enqueued();
+		metrics.dequeued();
+		metrics.enqueued();
+		assertEquals("Wrong queue depth", 2, metrics.getQueueDepth()); //$NON-NLS-1$
+		assertEquals("Wrong max queue depth", 2, metrics.getMaxQueueDepth()); //$NON-NLS-1$
+
+		metrics.dispatched(3, 1000);
+		metrics.dispatched(1, 3000);
+		metrics.coalesced(2);
+		assertEquals("Wrong set count", 2, metrics.getDispatchedSetCount()); //$NON-NLS-1$
+		assertEquals("Wrong event count", 4, metrics.getDispatchedEventCount()); //$NON-NLS-1$
+		assertEquals("Wrong coalesced count", 2, metrics.getCoalescedEventCount()); //$NON-NLS-1$
+		assertEquals("Wrong average latency", 2000, metrics.getAverageLatency()); //$NON-NLS-1$
+		assertEquals("Wrong max latency", 3000, metrics.getMaxLatency()); //$NON-NLS-1$
+
+		metrics.dequeued();
+		metrics.reset();
+		assertEquals("Reset should keep queue depth", 1, metrics.getQueueDepth()); //$NON-NLS-1$
+		assertEquals("Reset should set max depth to queue depth", 1, metrics.getMaxQueueDepth()); //$NON-NLS-1$
+		assertEquals("Reset should clear set count", 0, metrics.getDispatchedSetCount()); //$NON-NLS-1$
+		assertEquals("Reset should clear event count", 0, metrics.getDispatchedEventCount()); //$NON-NLS-1$
+		assertEquals("Reset should clear coalesced count", 0, metrics.getCoalescedEventCount()); //$NON-NLS-1$
+		assertEquals("Reset should clear latency", 0, metrics.getAverageLatency()); //$NON-NLS-1$
+		assertEquals("Reset should clear max latency", 0, metrics.getMaxLatency()); //$NON-NLS-1$
+	}
+}
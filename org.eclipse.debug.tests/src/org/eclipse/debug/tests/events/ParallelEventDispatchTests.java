@@ -0,0 +1,240 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.events;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.debug.core.DebugEvent;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.IConcurrentDebugEventSetListener;
+import org.eclipse.debug.core.IDebugEventSetListener;
+import org.eclipse.debug.internal.core.DebugEventListenerTimings;
+import org.eclipse.debug.internal.core.DebugOptions;
+import org.eclipse.debug.internal.core.IInternalDebugCoreConstants;
+import org.eclipse.debug.tests.AbstractDebugTest;
+
+/**
+ * Tests the notification of concurrent debug event listeners by the debug
+ * plug-in, and the timings of debug event listeners.
+ */
+public class ParallelEventDispatchTests extends AbstractDebugTest {
+
+	/**
+	 * Number of event sets fired
+	 */
+	private static final int SETS = 100;
+
+	/**
+	 * Records the threads notifying it and the event sets of the tests
+	 */
+	static class Recorder implements IDebugEventSetListener {
+
+		final Object fSource;
+		final List<DebugEvent[]> fSets = new ArrayList<DebugEvent[]>();
+		final List<Thread> fThreads = new ArrayList<Thread>();
+		final CountDownLatch fDone = new CountDownLatch(SETS);
+
+		Recorder(Object source) {
+			fSource = source;
+		}
+
+		@Override
+		public void handleDebugEvents(DebugEvent[] events) {
+			if (events.length > 0 && events[0].getSource() == fSource) {
+				synchronized (this) {
+					fSets.add(events);
+					fThreads.add(Thread.currentThread());
+				}
+				fDone.countDown();
+			}
+		}
+	}
+
+	/**
+	 * Recorder declaring that it can be notified on any thread
+	 */
+	static class ConcurrentRecorder extends Recorder implements IConcurrentDebugEventSetListener {
+
+		ConcurrentRecorder(Object source) {
+			super(source);
+		}
+	}
+
+	public ParallelEventDispatchTests(String name) {
+		super(name);
+	}
+
+	private static IEclipsePreferences getPreferences() {
+		return InstanceScope.INSTANCE.getNode(DebugPlugin.getUniqueIdentifier());
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		getPreferences().remove(IInternalDebugCoreConstants.PREF_PARALLEL_EVENT_DISPATCH);
+		super.tearDown();
+	}
+
+	/**
+	 * Fires event sets to a concurrent and a regular listener, and returns
+	 * the fired sets once both listeners have been notified of all of them.
+	 */
+	private List<DebugEvent[]> fire(Object source, Recorder regular, ConcurrentRecorder concurrent) throws Exception {
+		DebugPlugin plugin = DebugPlugin.getDefault();
+		plugin.addDebugEventListener(regular);
+		plugin.addDebugEventListener(concurrent);
+		try {
+			List<DebugEvent[]> fired = new ArrayList<DebugEvent[]>(SETS);
+			for (int i = 0; i < SETS; i++) {
+				DebugEvent event = new DebugEvent(source, DebugEvent.CHANGE);
+				event.setData(Integer.valueOf(i));
+				DebugEvent[] set = new DebugEvent[] { event };
+				fired.add(set);
+				plugin.fireDebugEventSet(set);
+			}
+			assertTrue("Listener was not notified of all event sets", regular.fDone.await(testTimeout, TimeUnit.MILLISECONDS)); //$NON-NLS-1$
+			assertTrue("Concurrent listener was not notified of all event sets", concurrent.fDone.await(testTimeout, TimeUnit.MILLISECONDS)); //$NON-NLS-1$
+			return fired;
+		} finally {
+			plugin.removeDebugEventListener(regular);
+			plugin.removeDebugEventListener(concurrent);
+		}
+	}
+
+	/**
+	 * Tests that concurrent listeners are notified on the pool in parallel
+	 * mode, in the order the event sets were fired.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testParallelNotification() throws Exception {
+		getPreferences().putBoolean(IInternalDebugCoreConstants.PREF_PARALLEL_EVENT_DISPATCH, true);
+		Object source = new Object();
+		Recorder regular = new Recorder(source);
+		ConcurrentRecorder concurrent = new ConcurrentRecorder(source);
+		List<DebugEvent[]> fired = fire(source, regular, concurrent);
+		synchronized (regular) {
+			assertEquals("Wrong event sets", fired, regular.fSets); //$NON-NLS-1$
+		}
+		synchronized (concurrent) {
+			assertEquals("Wrong order of event sets", fired, concurrent.fSets); //$NON-NLS-1$
+			synchronized (regular) {
+				for (Thread thread : concurrent.fThreads) {
+					assertFalse("Concurrent listener should not be notified by the dispatch job", regular.fThreads.contains(thread)); //$NON-NLS-1$
+				}
+			}
+		}
+	}
+
+	/**
+	 * Tests that concurrent listeners are notified like other listeners when
+	 * parallel mode is off.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testSerialNotification() throws Exception {
+		getPreferences().putBoolean(IInternalDebugCoreConstants.PREF_PARALLEL_EVENT_DISPATCH, false);
+		Object source = new Object();
+		Recorder regular = new Recorder(source);
+		ConcurrentRecorder concurrent = new ConcurrentRecorder(source);
+		List<DebugEvent[]> fired = fire(source, regular, concurrent);
+		synchronized (regular) {
+			synchronized (concurrent) {
+				assertEquals("Wrong order of event sets", fired, concurrent.fSets); //$NON-NLS-1$
+				assertEquals("Concurrent listener should be notified by the dispatch job", regular.fThreads, concurrent.fThreads); //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * Tests that a concurrent listener is not notified of the event sets fired
+	 * once it has been removed from the debug plug-in in parallel mode.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testRemovedConcurrentListener() throws Exception {
+		getPreferences().putBoolean(IInternalDebugCoreConstants.PREF_PARALLEL_EVENT_DISPATCH, true);
+		Object source = new Object();
+		Recorder regular = new Recorder(source);
+		ConcurrentRecorder concurrent = new ConcurrentRecorder(source);
+		fire(source, regular, concurrent);
+		int notified;
+		synchronized (concurrent) {
+			notified = concurrent.fSets.size();
+		}
+
+		// fires again with only a regular listener to know when dispatched
+		Recorder later = new Recorder(source);
+		DebugPlugin plugin = DebugPlugin.getDefault();
+		plugin.addDebugEventListener(later);
+		try {
+			for (int i = 0; i < SETS; i++) {
+				plugin.fireDebugEventSet(new DebugEvent[] { new DebugEvent(source, DebugEvent.CHANGE) });
+			}
+			assertTrue("Listener was not notified of all event sets", later.fDone.await(testTimeout, TimeUnit.MILLISECONDS)); //$NON-NLS-1$
+		} finally {
+			plugin.removeDebugEventListener(later);
+		}
+		synchronized (concurrent) {
+			assertEquals("Removed listener should not be notified", notified, concurrent.fSets.size()); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Tests that a listener is traced once it exceeds the latency budget on
+	 * consecutive notifications, and that its timings are recorded.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testListenerBudgetTrace() throws Exception {
+		DebugEventListenerTimings timings = new DebugEventListenerTimings();
+		Recorder listener = new Recorder(null);
+		long over = (DebugOptions.DEBUG_EVENT_LISTENERS_BUDGET + 1) * 1000000L;
+		long under = 1000L;
+
+		boolean tracing = DebugOptions.DEBUG_EVENT_LISTENERS;
+		PrintStream out = System.out;
+		ByteArrayOutputStream trace = new ByteArrayOutputStream();
+		DebugOptions.DEBUG_EVENT_LISTENERS = true;
+		System.setOut(new PrintStream(trace, true));
+		try {
+			// overruns must be consecutive
+			for (int i = 1; i < DebugEventListenerTimings.OVERRUN_LIMIT; i++) {
+				timings.record(listener, over);
+			}
+			timings.record(listener, under);
+			assertFalse("Listener should not be traced before exceeding the budget consecutively", trace.toString().contains(listener.getClass().getName())); //$NON-NLS-1$
+			for (int i = 0; i < DebugEventListenerTimings.OVERRUN_LIMIT; i++) {
+				timings.record(listener, over);
+			}
+		} finally {
+			System.setOut(out);
+			DebugOptions.DEBUG_EVENT_LISTENERS = tracing;
+		}
+		String traced = trace.toString();
+		String name = listener.getClass().getName();
+		assertTrue("Listener should be traced", traced.contains(name)); //$NON-NLS-1$
+		assertEquals("Listener should be traced once", traced.indexOf(name), traced.lastIndexOf(name)); //$NON-NLS-1$
+
+		long calls = 2L * DebugEventListenerTimings.OVERRUN_LIMIT;
+		assertEquals("Wrong call count", calls, timings.getCallCount(listener)); //$NON-NLS-1$
+		assertEquals("Wrong total time", (calls - 1) * over + under, timings.getTotalTime(listener)); //$NON-NLS-1$
+		assertEquals("Wrong max time", over, timings.getMaxTime(listener)); //$NON-NLS-1$
+		timings.remove(listener);
+		assertEquals("Timings should be discarded", 0, timings.getCallCount(listener)); //$NON-NLS-1$
+	}
+}
@@ -0,0 +1,107 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.launching;
+
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.debug.internal.core.ByteRingBuffer;
+import org.eclipse.debug.tests.AbstractDebugTest;
+
+/**
+ * Tests the bounded storage used by output stream monitors.
+ */
+public class ByteRingBufferTests extends AbstractDebugTest {
+
+	public ByteRingBufferTests(String name) {
+		super(name);
+	}
+
+	private static void append(ByteRingBuffer buffer, String text) {
+		byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+		buffer.append(bytes, 0, bytes.length);
+	}
+
+	public void testAppendWithinCapacity() {
+		ByteRingBuffer buffer = new ByteRingBuffer(16, false, ByteRingBuffer.EVICT_OLDEST, StandardCharsets.UTF_8);
+		append(buffer, "hello "); //$NON-NLS-1$
+		append(buffer, "world"); //$NON-NLS-1$
+		assertEquals("hello world", buffer.getContents()); //$NON-NLS-1$
+		assertEquals(11, buffer.size());
+		assertEquals(0, buffer.getDiscardedCount());
+	}
+
+	public void testEvictOldest() {
+		ByteRingBuffer buffer = new ByteRingBuffer(8, false, ByteRingBuffer.EVICT_OLDEST, StandardCharsets.UTF_8);
+		append(buffer, "abcdef"); //$NON-NLS-1$
+		append(buffer, "ghij"); //$NON-NLS-1$
+		assertEquals("cdefghij", buffer.getContents()); //$NON-NLS-1$
+		assertEquals(2, buffer.getDiscardedCount());
+		append(buffer, "0123456789"); //$NON-NLS-1$
+		assertEquals("23456789", buffer.getContents()); //$NON-NLS-1$
+		assertEquals(8, buffer.size());
+	}
+
+	public void testEvictNewest() {
+		ByteRingBuffer buffer = new ByteRingBuffer(8, true, ByteRingBuffer.EVICT_NEWEST, StandardCharsets.UTF_8);
+		append(buffer, "abcdef"); //$NON-NLS-1$
+		append(buffer, "ghij"); //$NON-NLS-1$
+		assertEquals("abcdefgh", buffer.getContents()); //$NON-NLS-1$
+		assertEquals(2, buffer.getDiscardedCount());
+	}
+
+	public void testSplitCharacterDropped() {
+		ByteRingBuffer buffer = new ByteRingBuffer(4, false, ByteRingBuffer.EVICT_OLDEST, StandardCharsets.UTF_8);
+		// the two byte umlaut is split by eviction
+		append(buffer, "a\u00e4bcd"); //$NON-NLS-1$
+		assertEquals("bcd", buffer.getContents()); //$NON-NLS-1$
+	}
+
+	public void testSplitThreeByteCharacterDropped() {
+		// one and two bytes of the euro sign are evicted
+		ByteRingBuffer buffer = new ByteRingBuffer(4, false, ByteRingBuffer.EVICT_OLDEST, StandardCharsets.UTF_8);
+		append(buffer, "\u20acxy"); //$NON-NLS-1$
+		assertEquals("xy", buffer.getContents()); //$NON-NLS-1$
+		buffer = new ByteRingBuffer(3, false, ByteRingBuffer.EVICT_OLDEST, StandardCharsets.UTF_8);
+		append(buffer, "\u20acxy"); //$NON-NLS-1$
+		assertEquals("xy", buffer.getContents()); //$NON-NLS-1$
+	}
+
+	public void testSplitFourByteCharacterDropped() {
+		// one, two and three bytes of the supplementary character are evicted
+		for (int capacity = 5; capacity >= 3; capacity--) {
+			ByteRingBuffer buffer = new ByteRingBuffer(capacity, false, ByteRingBuffer.EVICT_OLDEST, StandardCharsets.UTF_8);
+			append(buffer, "\ud83d\ude00ab"); //$NON-NLS-1$
+			assertEquals("ab", buffer.getContents()); //$NON-NLS-1$
+		}
+	}
+
+	public void testSplitCharacterDroppedWrapped() {
+		ByteRingBuffer buffer = new ByteRingBuffer(6, false, ByteRingBuffer.EVICT_OLDEST, StandardCharsets.UTF_8);
+		append(buffer, "abcd"); //$NON-NLS-1$
+		append(buffer, "\ud83d\ude00"); //$NON-NLS-1$
+		assertEquals("cd\ud83d\ude00", buffer.getContents()); //$NON-NLS-1$
+		append(buffer, "e"); //$NON-NLS-1$
+		assertEquals("d\ud83d\ude00e", buffer.getContents()); //$NON-NLS-1$
+		// the retained bytes start with the last three bytes of the character
+		append(buffer, "fg"); //$NON-NLS-1$
+		assertEquals("efg", buffer.getContents()); //$NON-NLS-1$
+	}
+
+	public void testClear() {
+		ByteRingBuffer buffer = new ByteRingBuffer(4, false, ByteRingBuffer.EVICT_OLDEST, StandardCharsets.UTF_8);
+		append(buffer, "abcdef"); //$NON-NLS-1$
+		buffer.clear();
+		assertEquals("", buffer.getContents()); //$NON-NLS-1$
+		append(buffer, "xy"); //$NON-NLS-1$
+		assertEquals("xy", buffer.getContents()); //$NON-NLS-1$
+		assertEquals(0, buffer.getDiscardedCount());
+	}
+}
@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.launching;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.debug.core.IStreamListener;
+import org.eclipse.debug.core.model.IFlowControlledStreamsProxy;
+import org.eclipse.debug.core.model.IStreamMonitor;
+import org.eclipse.debug.internal.core.OutputStreamMonitor;
+import org.eclipse.debug.internal.core.StreamsProxy;
+import org.eclipse.debug.tests.AbstractDebugTest;
+import org.eclipse.debug.tests.launching.StreamPumpTests.StreamProcess;
+
+/**
+ * Tests that the output of a process is paused or withheld while its
+ * consumer is saturated, and resumed once it is not.
+ */
+public class FlowControlTests extends AbstractDebugTest {
+
+	/**
+	 * Time given to a reader to read output that should not be read
+	 */
+	private static final long SETTLE_TIME = 500;
+
+	/**
+	 * Records the output appended to a stream monitor
+	 */
+	static class Recorder implements IStreamListener {
+
+		private final StringBuilder fText = new StringBuilder();
+
+		@Override
+		public synchronized void streamAppended(String text, IStreamMonitor monitor) {
+			fText.append(text);
+			notifyAll();
+		}
+
+		synchronized String getText() {
+			return fText.toString();
+		}
+
+		/**
+		 * Waits until the recorded output ends with the given text.
+		 */
+		synchronized boolean await(String suffix, long timeout) throws InterruptedException {
+			long end = System.currentTimeMillis() + timeout;
+			while (!fText.toString().endsWith(suffix)) {
+				long remaining = end - System.currentTimeMillis();
+				if (remaining <= 0) {
+					return false;
+				}
+				wait(remaining);
+			}
+			return true;
+		}
+	}
+
+	private PipedOutputStream fWriter;
+	private PipedInputStream fOutput;
+	private StreamsProxy fProxy;
+	private OutputStreamMonitor fMonitor;
+	private Recorder fRecorder;
+
+	public FlowControlTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fOutput = new PipedInputStream();
+		fWriter = new PipedOutputStream(fOutput);
+		InputStream error = new ByteArrayInputStream(new byte[0]);
+		fProxy = new StreamsProxy(new StreamProcess(fOutput, error), "UTF-8"); //$NON-NLS-1$
+		fMonitor = (OutputStreamMonitor) fProxy.getOutputStreamMonitor();
+		fRecorder = new Recorder();
+		fMonitor.addListener(fRecorder);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		fWriter.close();
+		fProxy.close();
+		super.tearDown();
+	}
+
+	private void write(String text) throws Exception {
+		fWriter.write(text.getBytes(StandardCharsets.UTF_8));
+		fWriter.flush();
+	}
+
+	/**
+	 * Writes the given text and waits until it has been read, a reader
+	 * blocked in a read when it is paused delivering the text it then reads.
+	 */
+	private void writeAndAwait(String text) throws Exception {
+		write(text);
+		assertTrue("Output should be read: " + text, fRecorder.await(text, testTimeout)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that a stream is not read while its consumer is saturated and
+	 * that the output left unread is delivered once the consumer recovers.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testPauseAndResume() throws Exception {
+		assertEquals("Default mode should pause", IFlowControlledStreamsProxy.FLOW_CONTROL_PAUSE, fProxy.getFlowControlMode()); //$NON-NLS-1$
+		writeAndAwait("a"); //$NON-NLS-1$
+
+		fProxy.setConsumerSaturated(fMonitor, true);
+		assertTrue("Monitor should be suspended", fMonitor.isSuspended()); //$NON-NLS-1$
+		writeAndAwait("b"); //$NON-NLS-1$
+		write("c"); //$NON-NLS-1$
+		Thread.sleep(SETTLE_TIME);
+		assertEquals("Paused stream should not be read", "ab", fRecorder.getText()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Output should be left in the stream", 1, fOutput.available()); //$NON-NLS-1$
+
+		fProxy.setConsumerSaturated(fMonitor, false);
+		assertFalse("Monitor should be resumed", fMonitor.isSuspended()); //$NON-NLS-1$
+		assertTrue("Output should be read once resumed", fRecorder.await("c", testTimeout)); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("No output should be lost", "abc", fRecorder.getText()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Nothing should be discarded", 0, fMonitor.getDiscardedBytes()); //$NON-NLS-1$
+
+		// pauses again
+		fProxy.setConsumerSaturated(fMonitor, true);
+		writeAndAwait("d"); //$NON-NLS-1$
+		write("e"); //$NON-NLS-1$
+		Thread.sleep(SETTLE_TIME);
+		assertEquals("Paused stream should not be read", "abcd", fRecorder.getText()); //$NON-NLS-1$ //$NON-NLS-2$
+		fProxy.setConsumerSaturated(fMonitor, false);
+		assertTrue("Output should be read once resumed", fRecorder.await("e", testTimeout)); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Tests that output read while the consumer is saturated is withheld from
+	 * listeners in drop mode, and reported once the consumer recovers.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testDropAndReport() throws Exception {
+		fProxy.setFlowControlMode(IFlowControlledStreamsProxy.FLOW_CONTROL_DROP);
+		writeAndAwait("a"); //$NON-NLS-1$
+
+		fProxy.setConsumerSaturated(fMonitor, true);
+		write("bcd"); //$NON-NLS-1$
+		long end = System.currentTimeMillis() + testTimeout;
+		while (fMonitor.getDiscardedBytes() < 3 && System.currentTimeMillis() < end) {
+			Thread.sleep(10);
+		}
+		assertEquals("Output should be discarded", 3, fMonitor.getDiscardedBytes()); //$NON-NLS-1$
+		assertEquals("Discarded output should not be delivered", "a", fRecorder.getText()); //$NON-NLS-1$ //$NON-NLS-2$
+
+		fProxy.setConsumerSaturated(fMonitor, false);
+		writeAndAwait("e"); //$NON-NLS-1$
+		String text = fRecorder.getText();
+		assertTrue("Discarded output should be reported: " + text, text.startsWith("a") && text.contains("3") && text.endsWith("e")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+		assertEquals("Retained contents should be complete", "abcde", fMonitor.getContents()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Tests that closing the streams of a paused monitor reads the stream to
+	 * its end.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testCloseWhilePaused() throws Exception {
+		writeAndAwait("a"); //$NON-NLS-1$
+		fProxy.setConsumerSaturated(fMonitor, true);
+		writeAndAwait("b"); //$NON-NLS-1$
+		write("c"); //$NON-NLS-1$
+		fWriter.close();
+		Thread closer = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				fProxy.close();
+			}
+		});
+		closer.setDaemon(true);
+		closer.start();
+		closer.join(testTimeout);
+		assertFalse("Closing a paused stream should not block", closer.isAlive()); //$NON-NLS-1$
+		assertEquals("Paused stream should be read to its end", "abc", fMonitor.getContents()); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
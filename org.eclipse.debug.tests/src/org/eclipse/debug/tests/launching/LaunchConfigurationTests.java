@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,10 +10,14 @@
  *******************************************************************************/
 package org.eclipse.debug.tests.launching;
 
+import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileFilter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.RandomAccessFile;
 import java.net.URI;
 import java.net.URISyntaxException;
 import java.nio.ByteBuffer;
@@ -31,6 +35,8 @@ import java.util.Map;
 import java.util.Set;
 
 import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileInfo;
+import org.eclipse.core.filesystem.IFileStore;
 import org.eclipse.core.filesystem.IFileSystem;
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
@@ -52,6 +58,9 @@ import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
 import org.eclipse.debug.core.ILaunchManager;
 import org.eclipse.debug.core.Launch;
 import org.eclipse.debug.internal.core.LaunchConfiguration;
+import org.eclipse.debug.internal.core.LaunchConfigurationInfo;
+import org.eclipse.debug.internal.core.LaunchConfigurationMetadataIndex;
+import org.eclipse.debug.internal.core.LaunchConfigurationResourceIndex;
 import org.eclipse.debug.internal.core.LaunchManager;
 import org.eclipse.debug.tests.TestsPlugin;
 import org.eclipse.debug.ui.DebugUITools;
@@ -1518,6 +1527,220 @@ public class LaunchConfigurationTests extends AbstractLaunchTest implements ILau
 		}
 	}
 
+	/**
+	 * Tests that metadata answered from the launch configuration index
+	 * reflects changes to the configuration.
+	 *
+	 * @throws Exception
+	 */
+	public void testIndexedMetadata() throws Exception {
+		ILaunchConfiguration config = newConfiguration(null, "indexedMetadata").doSave(); //$NON-NLS-1$
+		try {
+			// reading the configuration records it in the index
+			assertEquals("Wrong type", ID_TEST_LAUNCH_TYPE, config.getType().getIdentifier()); //$NON-NLS-1$
+			assertFalse("Should not be private", config.getAttribute(ILaunchManager.ATTR_PRIVATE, false)); //$NON-NLS-1$
+			assertNull("Should not have mapped resources", config.getMappedResources()); //$NON-NLS-1$
+			IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject("indexedMetadata"); //$NON-NLS-1$
+			ILaunchConfigurationWorkingCopy wc = config.getWorkingCopy();
+			wc.setAttribute(ILaunchManager.ATTR_PRIVATE, true);
+			wc.setMappedResources(new IResource[] { project });
+			config = wc.doSave();
+			assertEquals("Wrong type", ID_TEST_LAUNCH_TYPE, config.getType().getIdentifier()); //$NON-NLS-1$
+			assertTrue("Should be private", config.getAttribute(ILaunchManager.ATTR_PRIVATE, false)); //$NON-NLS-1$
+			IResource[] resources = config.getMappedResources();
+			assertNotNull("Should have mapped resources", resources); //$NON-NLS-1$
+			assertEquals("Wrong mapped resource", project, resources[0]); //$NON-NLS-1$
+			assertTrue("Should be mapped to the project", existsIn(((LaunchManager) getLaunchManager()).getMappedConfigurations(project), config)); //$NON-NLS-1$
+		}
+		finally {
+			config.delete();
+		}
+	}
+
+	/**
+	 * Tests that the index of configurations by mapped resources follows
+	 * changes to the mapped resources of a configuration.
+	 *
+	 * @throws Exception
+	 */
+	public void testMappedConfigurationsIndex() throws Exception {
+		LaunchConfigurationResourceIndex index = ((LaunchManager) getLaunchManager()).getResourceIndex();
+		IProject project = ResourcesPlugin.getWorkspace().getRoot().getProject("mappedIndex"); //$NON-NLS-1$
+		IProject other = ResourcesPlugin.getWorkspace().getRoot().getProject("mappedIndexOther"); //$NON-NLS-1$
+		IFile file = project.getFile(new Path("src/Main.txt")); //$NON-NLS-1$
+		ILaunchConfiguration config = newConfiguration(null, "mappedIndex").doSave(); //$NON-NLS-1$
+		try {
+			assertTrue("Should be unmapped", existsIn(index.getUnmappedConfigurations(), config)); //$NON-NLS-1$
+
+			ILaunchConfigurationWorkingCopy wc = config.getWorkingCopy();
+			wc.setMappedResources(new IResource[] { file });
+			config = wc.doSave();
+			assertFalse("Should no longer be unmapped", existsIn(index.getUnmappedConfigurations(), config)); //$NON-NLS-1$
+			assertTrue("Should be mapped to the file", existsIn(index.getMappedConfigurations(file), config)); //$NON-NLS-1$
+			assertTrue("Should be mapped to a file of the project", existsIn(index.getMappedConfigurations(project), config)); //$NON-NLS-1$
+			assertTrue("Should be mapped below the folder", existsIn(index.getConfigurationsMappedBelow(file.getParent()), config)); //$NON-NLS-1$
+			assertTrue("Should be mapped below the project", existsIn(index.getConfigurationsMappedBelow(project), config)); //$NON-NLS-1$
+			assertFalse("Should not be mapped below a project with a longer name", existsIn(index.getConfigurationsMappedBelow(other), config)); //$NON-NLS-1$
+
+			wc = config.getWorkingCopy();
+			wc.setMappedResources(new IResource[] { other });
+			config = wc.doSave();
+			assertFalse("Should no longer be mapped to the file", existsIn(index.getMappedConfigurations(file), config)); //$NON-NLS-1$
+			assertFalse("Should no longer be mapped below the project", existsIn(index.getConfigurationsMappedBelow(project), config)); //$NON-NLS-1$
+			assertTrue("Should be mapped to the other project", existsIn(index.getMappedConfigurations(other), config)); //$NON-NLS-1$
+		}
+		finally {
+			config.delete();
+		}
+		assertFalse("Deleted configuration should not be indexed", existsIn(index.getMappedConfigurations(other), config)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Attributes of a configuration, as read by the launch manager
+	 */
+	static class ReadInfo extends LaunchConfigurationInfo {
+
+		ReadInfo(ILaunchConfiguration config) throws CoreException {
+			setType(config.getType());
+			setAttributes(config.getAttributes());
+		}
+	}
+
+	/**
+	 * Returns a metadata index file of the test, which does not exist yet.
+	 */
+	private File getMetadataIndexFile() {
+		File file = new File(TestsPlugin.getDefault().getStateLocation().toFile(), getName() + ".index"); //$NON-NLS-1$
+		file.delete();
+		return file;
+	}
+
+	/**
+	 * Saves a metadata index with the given configuration to the given file.
+	 */
+	private void saveMetadataIndex(File file, LaunchConfiguration config) throws CoreException {
+		LaunchConfigurationMetadataIndex index = new LaunchConfigurationMetadataIndex(file);
+		IFileStore store = config.getFileStore();
+		index.put(config, store, store.fetchInfo(), new ReadInfo(config));
+		index.save(false);
+	}
+
+	/**
+	 * Returns the entry of the given configuration in a metadata index loaded
+	 * from the given file.
+	 */
+	private LaunchConfigurationMetadataIndex.Entry loadMetadataIndexEntry(File file, LaunchConfiguration config) {
+		return new LaunchConfigurationMetadataIndex(file).get(config);
+	}
+
+	/**
+	 * Sets the time stamp of the given file store.
+	 */
+	private void setLastModified(IFileStore store, long timeStamp) throws CoreException {
+		IFileInfo info = store.fetchInfo();
+		info.setLastModified(timeStamp);
+		store.putInfo(info, EFS.SET_LAST_MODIFIED, null);
+	}
+
+	/**
+	 * Tests that the metadata of a configuration saved in a metadata index is
+	 * loaded back from the index file.
+	 *
+	 * @throws Exception
+	 */
+	public void testMetadataIndexRoundTrip() throws Exception {
+		ILaunchConfigurationWorkingCopy wc = newConfiguration(null, "metadataRoundTrip"); //$NON-NLS-1$
+		wc.setAttribute(ILaunchManager.ATTR_PRIVATE, true);
+		wc.setMappedResources(new IResource[] { getProject() });
+		LaunchConfiguration config = (LaunchConfiguration) wc.doSave();
+		File file = getMetadataIndexFile();
+		try {
+			saveMetadataIndex(file, config);
+			assertFalse("Temporary file should be renamed", new File(file.getPath() + ".tmp").exists()); //$NON-NLS-1$ //$NON-NLS-2$
+			LaunchConfigurationMetadataIndex.Entry entry = loadMetadataIndexEntry(file, config);
+			assertNotNull("Configuration should be indexed", entry); //$NON-NLS-1$
+			assertEquals("Wrong type", ID_TEST_LAUNCH_TYPE, entry.getTypeId()); //$NON-NLS-1$
+			assertEquals("Wrong mapped resource paths", config.getAttribute(LaunchConfiguration.ATTR_MAPPED_RESOURCE_PATHS, (List<String>) null), entry.getMappedResourcePaths()); //$NON-NLS-1$
+			assertEquals("Wrong mapped resource types", config.getAttribute(LaunchConfiguration.ATTR_MAPPED_RESOURCE_TYPES, (List<String>) null), entry.getMappedResourceTypes()); //$NON-NLS-1$
+			assertTrue("Private attribute should be indexed", entry.hasBooleanAttribute(ILaunchManager.ATTR_PRIVATE)); //$NON-NLS-1$
+			assertTrue("Should be private", entry.getBooleanAttribute(ILaunchManager.ATTR_PRIVATE, false)); //$NON-NLS-1$
+			assertFalse("Other attributes should not be indexed", entry.hasBooleanAttribute("Boolean1")); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		finally {
+			config.delete();
+			file.delete();
+		}
+	}
+
+	/**
+	 * Tests that an indexed entry is not trusted once the time stamp or the
+	 * length of the configuration file changed.
+	 *
+	 * @throws Exception
+	 */
+	public void testMetadataIndexInvalidation() throws Exception {
+		LaunchConfiguration config = (LaunchConfiguration) newConfiguration(null, "metadataInvalidation").doSave(); //$NON-NLS-1$
+		File file = getMetadataIndexFile();
+		try {
+			IFileStore store = config.getFileStore();
+			long timeStamp = store.fetchInfo().getLastModified();
+			saveMetadataIndex(file, config);
+
+			setLastModified(store, timeStamp + 2000);
+			assertNull("Entry should be invalid once the time stamp changed", loadMetadataIndexEntry(file, config)); //$NON-NLS-1$
+			setLastModified(store, timeStamp);
+			assertNotNull("Entry should be valid for the indexed time stamp", loadMetadataIndexEntry(file, config)); //$NON-NLS-1$
+
+			try (FileOutputStream out = new FileOutputStream(store.toLocalFile(EFS.NONE, null), true)) {
+				out.write(' ');
+			}
+			setLastModified(store, timeStamp);
+			assertNull("Entry should be invalid once the length changed", loadMetadataIndexEntry(file, config)); //$NON-NLS-1$
+		}
+		finally {
+			config.delete();
+			file.delete();
+		}
+	}
+
+	/**
+	 * Tests that an index file with another magic number or format version
+	 * is ignored.
+	 *
+	 * @throws Exception
+	 */
+	public void testMetadataIndexFormatMismatch() throws Exception {
+		LaunchConfiguration config = (LaunchConfiguration) newConfiguration(null, "metadataFormat").doSave(); //$NON-NLS-1$
+		File file = getMetadataIndexFile();
+		try {
+			saveMetadataIndex(file, config);
+			int magic;
+			int version;
+			try (DataInputStream in = new DataInputStream(new FileInputStream(file))) {
+				magic = in.readInt();
+				version = in.readInt();
+			}
+			try (RandomAccessFile out = new RandomAccessFile(file, "rw")) { //$NON-NLS-1$
+				out.writeInt(magic + 1);
+			}
+			assertNull("Index with another magic number should be ignored", loadMetadataIndexEntry(file, config)); //$NON-NLS-1$
+			try (RandomAccessFile out = new RandomAccessFile(file, "rw")) { //$NON-NLS-1$
+				out.writeInt(magic);
+				out.writeInt(version + 1);
+			}
+			assertNull("Index of another version should be ignored", loadMetadataIndexEntry(file, config)); //$NON-NLS-1$
+			try (RandomAccessFile out = new RandomAccessFile(file, "rw")) { //$NON-NLS-1$
+				out.writeInt(magic);
+				out.writeInt(version);
+			}
+			assertNotNull("Index with the expected header should be loaded", loadMetadataIndexEntry(file, config)); //$NON-NLS-1$
+		}
+		finally {
+			config.delete();
+			file.delete();
+		}
+	}
+
 	/**
 	 * Tests that a launch created without a backing
 	 * {@link ILaunchConfiguration} does not cause {@link NullPointerException}s
@@ -1539,6 +1762,47 @@ public class LaunchConfigurationTests extends AbstractLaunchTest implements ILau
 		lm.addLaunch(l);
 	}
 
+	/**
+	 * Tests that environments are computed from the native environment and
+	 * the environment variables of a configuration, and that cached
+	 * environments are neither shared with callers nor returned once the
+	 * variables change.
+	 *
+	 * @throws Exception
+	 */
+	public void testEnvironment() throws Exception {
+		ILaunchConfigurationWorkingCopy wc = newConfiguration(null, "environment"); //$NON-NLS-1$
+		Map<String, String> variables = new HashMap<String, String>();
+		variables.put("ENV_TEST", "one"); //$NON-NLS-1$ //$NON-NLS-2$
+		wc.setAttribute(ILaunchManager.ATTR_ENVIRONMENT_VARIABLES, variables);
+		wc.setAttribute(ILaunchManager.ATTR_APPEND_ENVIRONMENT_VARIABLES, false);
+
+		String[] env = getLaunchManager().getEnvironment(wc);
+		assertEquals("Wrong environment size", 1, env.length); //$NON-NLS-1$
+		assertEquals("Wrong environment", "ENV_TEST=one", env[0]); //$NON-NLS-1$ //$NON-NLS-2$
+		env[0] = "ENV_TEST=changed"; //$NON-NLS-1$
+		assertEquals("Cached environment was changed", "ENV_TEST=one", getLaunchManager().getEnvironment(wc)[0]); //$NON-NLS-1$ //$NON-NLS-2$
+
+		variables.put("ENV_TEST", "two"); //$NON-NLS-1$ //$NON-NLS-2$
+		wc.setAttribute(ILaunchManager.ATTR_ENVIRONMENT_VARIABLES, variables);
+		assertEquals("Stale environment", "ENV_TEST=two", getLaunchManager().getEnvironment(wc)[0]); //$NON-NLS-1$ //$NON-NLS-2$
+
+		wc.setAttribute(ILaunchManager.ATTR_APPEND_ENVIRONMENT_VARIABLES, true);
+		Map<String, String> nativeEnv = getLaunchManager().getNativeEnvironmentCasePreserved();
+		assertEquals("Native environment should match the VM environment", System.getenv(), nativeEnv); //$NON-NLS-1$
+		env = getLaunchManager().getEnvironment(wc);
+		Set<String> entries = new HashSet<String>();
+		for (String entry : env) {
+			entries.add(entry);
+		}
+		assertTrue("Missing configuration variable", entries.contains("ENV_TEST=two")); //$NON-NLS-1$ //$NON-NLS-2$
+		for (Map.Entry<String, String> entry : nativeEnv.entrySet()) {
+			if (!entry.getKey().equalsIgnoreCase("ENV_TEST")) { //$NON-NLS-1$
+				assertTrue("Missing native variable " + entry.getKey(), entries.contains(entry.getKey() + '=' + entry.getValue())); //$NON-NLS-1$
+			}
+		}
+	}
+
 	/**
 	 * Proxy to set resource paths, allowing invalid resource paths to be set
 	 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2016, 2017 SSI Schaefer IT Solutions GmbH and others.
+ *  Copyright (c) 2016, 2018 SSI Schaefer IT Solutions GmbH and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -13,9 +13,9 @@ package org.eclipse.debug.tests.launching;
 import java.lang.reflect.InvocationHandler;
 import java.lang.reflect.Method;
 import java.lang.reflect.Proxy;
-import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
@@ -28,6 +28,7 @@ import org.eclipse.debug.core.ILaunchConfigurationWorkingCopy;
 import org.eclipse.debug.core.ILaunchListener;
 import org.eclipse.debug.core.ILaunchManager;
 import org.eclipse.debug.core.IStreamListener;
+import org.eclipse.debug.core.Launch;
 import org.eclipse.debug.core.model.IDisconnect;
 import org.eclipse.debug.core.model.IProcess;
 import org.eclipse.debug.core.model.IStreamMonitor;
@@ -35,6 +36,8 @@ import org.eclipse.debug.core.model.IStreamsProxy;
 import org.eclipse.debug.internal.core.groups.GroupLaunchConfigurationDelegate;
 import org.eclipse.debug.internal.core.groups.GroupLaunchElement;
 import org.eclipse.debug.internal.core.groups.GroupLaunchElement.GroupElementPostLaunchAction;
+import org.eclipse.debug.internal.core.groups.observer.OutputMatchProbe;
+import org.eclipse.debug.internal.core.groups.observer.ReadinessWaiter;
 import org.eclipse.debug.internal.ui.launchConfigurations.LaunchHistory;
 import org.eclipse.debug.tests.TestUtil;
 import org.eclipse.debug.ui.IDebugUIConstants;
@@ -162,6 +165,32 @@ public class LaunchGroupTests extends AbstractLaunchTest {
 		assertTrue("history[2] should be Test1", history[2].contentsEqual(t1)); //$NON-NLS-1$
 	}
 
+	public void testDependencies() throws Exception {
+		ILaunchConfiguration t1 = getLaunchConfiguration("Test1"); //$NON-NLS-1$
+		ILaunchConfiguration t2 = getLaunchConfiguration("Test2"); //$NON-NLS-1$
+		GroupLaunchElement e2 = createLaunchGroupElement(t2, GroupElementPostLaunchAction.NONE, null, false);
+		e2.dependsOn.add(t1.getName());
+		ILaunchConfigurationWorkingCopy wc = createLaunchGroup(DEF_GRP_NAME, e2, createLaunchGroupElement(t1, GroupElementPostLaunchAction.DELAY, 2, false)).getWorkingCopy();
+		wc.setAttribute(GroupLaunchConfigurationDelegate.ATTR_LAUNCH_BY_DEPENDENCIES, true);
+		ILaunchConfiguration grp = wc.doSave();
+
+		List<GroupLaunchElement> elements = GroupLaunchConfigurationDelegate.createLaunchElements(grp);
+		assertEquals("dependencies not stored", Arrays.asList(t1.getName()), elements.get(0).dependsOn); //$NON-NLS-1$
+
+		long start = System.currentTimeMillis();
+		// attention: need to do this before launching!
+		LaunchHistory runHistory = getRunLaunchHistory();
+		grp.launch(ILaunchManager.RUN_MODE, new NullProgressMonitor());
+
+		assertTrue("delay of dependency was not awaited", (System.currentTimeMillis() - start) >= 2000); //$NON-NLS-1$
+
+		ILaunchConfiguration[] history = runHistory.getHistory();
+		assertEquals(3, history.length);
+		assertTrue("history[0] should be Test Group", history[0].contentsEqual(grp)); //$NON-NLS-1$
+		assertTrue("history[1] should be Test2", history[1].contentsEqual(t2)); //$NON-NLS-1$
+		assertTrue("history[2] should be Test1", history[2].contentsEqual(t1)); //$NON-NLS-1$
+	}
+
 	public void testTerminated() throws Exception {
 		final ILaunchConfiguration t1 = getLaunchConfiguration("Test1"); //$NON-NLS-1$
 		final ILaunchConfiguration t2 = getLaunchConfiguration("Test2"); //$NON-NLS-1$
@@ -308,6 +337,29 @@ public class LaunchGroupTests extends AbstractLaunchTest {
 		assertTrue("history[2] should be Test1", history[2].contentsEqual(t1)); //$NON-NLS-1$
 	}
 
+	public void testOutputReadiness() throws Exception {
+		ILaunch launch = new Launch(null, ILaunchManager.RUN_MODE, null);
+		DummyStream stream = attachDummyProcess(launch);
+
+		ReadinessWaiter readiness = new ReadinessWaiter(launch, new OutputMatchProbe("^Server started$")); //$NON-NLS-1$
+		try {
+			stream.write("Starting\nServer sta"); //$NON-NLS-1$
+			assertFalse("partial line should not match", readiness.isReady()); //$NON-NLS-1$
+			stream.write("rted\n"); //$NON-NLS-1$
+			assertTrue("line split across appends should match", readiness.await(1000, new NullProgressMonitor())); //$NON-NLS-1$
+		} finally {
+			readiness.dispose();
+		}
+
+		readiness = new ReadinessWaiter(launch, new OutputMatchProbe("Never")); //$NON-NLS-1$
+		try {
+			launch.getProcesses()[0].terminate();
+			assertFalse("terminated launch should not be ready", readiness.await(1000, new NullProgressMonitor())); //$NON-NLS-1$
+		} finally {
+			readiness.dispose();
+		}
+	}
+
 	public void testRename() throws Exception {
 		ILaunchConfiguration t1 = getLaunchConfiguration("Test1"); //$NON-NLS-1$
 		ILaunchConfiguration t2 = getLaunchConfiguration("Test2"); //$NON-NLS-1$
@@ -383,7 +435,8 @@ public class LaunchGroupTests extends AbstractLaunchTest {
 
 	private static final class DummyStream implements IStreamMonitor {
 
-		private final List<IStreamListener> listeners = new ArrayList<>();
+		// like stream monitors, allows listeners to be removed while notified
+		private final List<IStreamListener> listeners = new CopyOnWriteArrayList<>();
 
 		@Override
 		public void addListener(IStreamListener listener) {
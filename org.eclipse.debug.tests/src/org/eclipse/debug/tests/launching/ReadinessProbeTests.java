@@ -0,0 +1,301 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.launching;
+
+import java.io.File;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.PlatformObject;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.debug.core.DebugEvent;
+import org.eclipse.debug.core.DebugException;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunch;
+import org.eclipse.debug.core.ILaunchManager;
+import org.eclipse.debug.core.Launch;
+import org.eclipse.debug.core.model.IProcess;
+import org.eclipse.debug.core.model.IStreamsProxy;
+import org.eclipse.debug.internal.core.groups.observer.ExitValueProbe;
+import org.eclipse.debug.internal.core.groups.observer.FileExistsProbe;
+import org.eclipse.debug.internal.core.groups.observer.PortOpenProbe;
+import org.eclipse.debug.internal.core.groups.observer.ReadinessProbe;
+import org.eclipse.debug.internal.core.groups.observer.ReadinessWaiter;
+import org.eclipse.debug.tests.AbstractDebugTest;
+
+/**
+ * Tests the readiness probes of launch groups and the waiting for them.
+ */
+public class ReadinessProbeTests extends AbstractDebugTest {
+
+	/**
+	 * Process terminated by the tests with a given exit value
+	 */
+	static class TestProcess extends PlatformObject implements IProcess {
+
+		private final ILaunch fLaunch;
+		private final String fLabel;
+		private final Map<String, String> fAttributes = new HashMap<>();
+		private volatile boolean fTerminated = false;
+		private volatile int fExitValue;
+
+		TestProcess(ILaunch launch, String label) {
+			fLaunch = launch;
+			fLabel = label;
+			launch.addProcess(this);
+		}
+
+		/**
+		 * Terminates this process with the given exit value.
+		 */
+		void terminate(int exitValue) {
+			fExitValue = exitValue;
+			fTerminated = true;
+			DebugPlugin.getDefault().fireDebugEventSet(new DebugEvent[] {
+					new DebugEvent(this, DebugEvent.TERMINATE) });
+		}
+
+		@Override
+		public boolean canTerminate() {
+			return !fTerminated;
+		}
+
+		@Override
+		public boolean isTerminated() {
+			return fTerminated;
+		}
+
+		@Override
+		public void terminate() {
+			terminate(-1);
+		}
+
+		@Override
+		public String getLabel() {
+			return fLabel;
+		}
+
+		@Override
+		public ILaunch getLaunch() {
+			return fLaunch;
+		}
+
+		@Override
+		public IStreamsProxy getStreamsProxy() {
+			return null;
+		}
+
+		@Override
+		public synchronized void setAttribute(String key, String value) {
+			fAttributes.put(key, value);
+		}
+
+		@Override
+		public synchronized String getAttribute(String key) {
+			return fAttributes.get(key);
+		}
+
+		@Override
+		public int getExitValue() throws DebugException {
+			if (!fTerminated) {
+				throw new DebugException(new Status(IStatus.ERROR, DebugPlugin.getUniqueIdentifier(), "Process not terminated")); //$NON-NLS-1$
+			}
+			return fExitValue;
+		}
+	}
+
+	/**
+	 * Probe that is never ready
+	 */
+	static class NeverProbe extends ReadinessProbe {
+	}
+
+	private final List<ILaunch> fLaunches = new ArrayList<>();
+
+	public ReadinessProbeTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		for (ILaunch launch : fLaunches) {
+			for (IProcess process : launch.getProcesses()) {
+				if (!process.isTerminated()) {
+					process.terminate();
+				}
+			}
+		}
+		super.tearDown();
+	}
+
+	private ILaunch newLaunch() {
+		ILaunch launch = new Launch(null, ILaunchManager.RUN_MODE, null);
+		fLaunches.add(launch);
+		return launch;
+	}
+
+	/**
+	 * Returns whether the launch is ready, checking the probes once without
+	 * waiting.
+	 */
+	private static boolean check(ReadinessWaiter readiness) throws InterruptedException {
+		return readiness.await(0, new NullProgressMonitor());
+	}
+
+	public void testExitValueAllProcesses() throws Exception {
+		ILaunch launch = newLaunch();
+		TestProcess first = new TestProcess(launch, "first"); //$NON-NLS-1$
+		TestProcess second = new TestProcess(launch, "second"); //$NON-NLS-1$
+		ReadinessWaiter readiness = new ReadinessWaiter(launch, new ExitValueProbe(0));
+		try {
+			first.terminate(0);
+			assertFalse("Launch should wait for all processes", check(readiness)); //$NON-NLS-1$
+			second.terminate(0);
+			assertTrue("Launch should be ready once all processes exited with the value", readiness.await(testTimeout, new NullProgressMonitor())); //$NON-NLS-1$
+		} finally {
+			readiness.dispose();
+		}
+	}
+
+	public void testExitValueFailure() throws Exception {
+		ILaunch launch = newLaunch();
+		TestProcess first = new TestProcess(launch, "first"); //$NON-NLS-1$
+		TestProcess second = new TestProcess(launch, "second"); //$NON-NLS-1$
+		ReadinessWaiter readiness = new ReadinessWaiter(launch, new ExitValueProbe(0));
+		try {
+			first.terminate(1);
+			long start = System.currentTimeMillis();
+			assertFalse("Other exit value should fail the probe", readiness.await(testTimeout, new NullProgressMonitor())); //$NON-NLS-1$
+			assertTrue("Failure should end waiting", System.currentTimeMillis() - start < testTimeout); //$NON-NLS-1$
+			second.terminate(0);
+			assertFalse("Failed probe should not become ready", check(readiness)); //$NON-NLS-1$
+		} finally {
+			readiness.dispose();
+		}
+	}
+
+	public void testExitValueTargetProcess() throws Exception {
+		ILaunch launch = newLaunch();
+		TestProcess client = new TestProcess(launch, "client"); //$NON-NLS-1$
+		TestProcess server = new TestProcess(launch, "server"); //$NON-NLS-1$
+		new TestProcess(launch, "other"); //$NON-NLS-1$
+		ReadinessWaiter readiness = new ReadinessWaiter(launch, new ExitValueProbe("server", 0)); //$NON-NLS-1$
+		try {
+			client.terminate(1);
+			assertFalse("Exit value of other processes should be ignored", check(readiness)); //$NON-NLS-1$
+			server.terminate(0);
+			assertTrue("Launch should be ready once the target process exited with the value", readiness.await(testTimeout, new NullProgressMonitor())); //$NON-NLS-1$
+		} finally {
+			readiness.dispose();
+		}
+	}
+
+	public void testExitValueProcessesAddedLater() throws Exception {
+		ILaunch launch = newLaunch();
+		ReadinessWaiter readiness = new ReadinessWaiter(launch, new ExitValueProbe("server", 0)); //$NON-NLS-1$
+		try {
+			assertFalse("Launch without processes should not be ready", check(readiness)); //$NON-NLS-1$
+			TestProcess server = new TestProcess(launch, "server"); //$NON-NLS-1$
+			server.terminate(0);
+			assertTrue("Process added while waiting should be probed", readiness.await(testTimeout, new NullProgressMonitor())); //$NON-NLS-1$
+		} finally {
+			readiness.dispose();
+		}
+	}
+
+	public void testPortOpen() throws Exception {
+		ILaunch launch = newLaunch();
+		InetAddress loopback = InetAddress.getLoopbackAddress();
+		int closed;
+		try (ServerSocket server = new ServerSocket(0, 1, loopback)) {
+			ReadinessWaiter readiness = new ReadinessWaiter(launch, new PortOpenProbe(loopback.getHostAddress(), server.getLocalPort()));
+			try {
+				assertTrue("Open port should be ready", readiness.await(testTimeout, new NullProgressMonitor())); //$NON-NLS-1$
+			} finally {
+				readiness.dispose();
+			}
+			closed = server.getLocalPort();
+		}
+		ReadinessWaiter readiness = new ReadinessWaiter(launch, new PortOpenProbe(loopback.getHostAddress(), closed));
+		try {
+			assertFalse("Closed port should not be ready", readiness.await(ReadinessWaiter.POLL_INTERVAL * 2, new NullProgressMonitor())); //$NON-NLS-1$
+		} finally {
+			readiness.dispose();
+		}
+	}
+
+	public void testFileExists() throws Exception {
+		ILaunch launch = newLaunch();
+		File file = File.createTempFile("ReadinessProbeTests", ".ready"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue("Could not delete file", file.delete()); //$NON-NLS-1$
+		ReadinessWaiter readiness = new ReadinessWaiter(launch, new FileExistsProbe(file));
+		try {
+			assertFalse("Missing file should not be ready", check(readiness)); //$NON-NLS-1$
+			assertTrue("Could not create file", file.createNewFile()); //$NON-NLS-1$
+			assertTrue("Created file should be ready", readiness.await(testTimeout, new NullProgressMonitor())); //$NON-NLS-1$
+		} finally {
+			readiness.dispose();
+			file.delete();
+		}
+	}
+
+	public void testAwaitTimeout() throws Exception {
+		ILaunch launch = newLaunch();
+		new TestProcess(launch, "running"); //$NON-NLS-1$
+		long timeout = ReadinessWaiter.POLL_INTERVAL * 2;
+		ReadinessWaiter readiness = new ReadinessWaiter(launch, new NeverProbe());
+		try {
+			long start = System.currentTimeMillis();
+			assertFalse("Launch should not be ready", readiness.await(timeout, new NullProgressMonitor())); //$NON-NLS-1$
+			long elapsed = System.currentTimeMillis() - start;
+			assertTrue("Waited less than the timeout: " + elapsed, elapsed >= timeout); //$NON-NLS-1$
+			assertTrue("Waited much longer than the timeout: " + elapsed, elapsed < testTimeout); //$NON-NLS-1$
+			assertFalse("Timeout should not be reported as ready", readiness.isReady()); //$NON-NLS-1$
+		} finally {
+			readiness.dispose();
+		}
+	}
+
+	public void testAwaitCancel() throws Exception {
+		ILaunch launch = newLaunch();
+		new TestProcess(launch, "running"); //$NON-NLS-1$
+		final IProgressMonitor monitor = new NullProgressMonitor();
+		ReadinessWaiter readiness = new ReadinessWaiter(launch, new NeverProbe());
+		try {
+			Thread canceler = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						Thread.sleep(ReadinessWaiter.POLL_INTERVAL);
+					} catch (InterruptedException e) {
+						// cancel now
+					}
+					monitor.setCanceled(true);
+				}
+			});
+			canceler.setDaemon(true);
+			canceler.start();
+			long start = System.currentTimeMillis();
+			assertFalse("Canceled wait should not be ready", readiness.await(-1, monitor)); //$NON-NLS-1$
+			assertTrue("Cancel should end waiting", System.currentTimeMillis() - start < testTimeout); //$NON-NLS-1$
+			assertFalse("Cancel should not be reported as ready", readiness.isReady()); //$NON-NLS-1$
+		} finally {
+			readiness.dispose();
+		}
+	}
+}
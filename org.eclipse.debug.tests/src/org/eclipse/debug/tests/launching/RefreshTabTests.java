@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2013 IBM Corporation and others.
+ *  Copyright (c) 2000, 2018 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -11,6 +11,10 @@
 package org.eclipse.debug.tests.launching;
 
 import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IFolder;
@@ -19,7 +23,9 @@ import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.debug.core.RefreshUtil;
+import org.eclipse.debug.internal.core.RefreshCoordinator;
 import org.eclipse.debug.internal.core.RefreshScopeComparator;
 import org.eclipse.debug.tests.TestsPlugin;
 import org.eclipse.debug.ui.RefreshTab;
@@ -201,4 +207,95 @@ public class RefreshTabTests extends AbstractLaunchTest {
 		assertNotNull(resources);
 		assertEquals("Should be empty", 0, resources.length); //$NON-NLS-1$
 	}
+
+	/**
+	 * Tests that scopes refreshed as part of other scopes are dropped.
+	 *
+	 * @throws CoreException
+	 */
+	public void testRemoveCoveredScopes() throws CoreException {
+		IProject project = getProject();
+		IFolder folder = project.getFolder("src"); //$NON-NLS-1$
+		IFile file = project.getFile("some.file"); //$NON-NLS-1$
+		IFile nested = folder.getFile("nested.file"); //$NON-NLS-1$
+		Map<IResource, Integer> scopes = new HashMap<IResource, Integer>();
+		scopes.put(nested, Integer.valueOf(IResource.DEPTH_ZERO));
+		scopes.put(folder, Integer.valueOf(IResource.DEPTH_INFINITE));
+		scopes.put(file, Integer.valueOf(IResource.DEPTH_ZERO));
+		scopes.put(project, Integer.valueOf(IResource.DEPTH_ONE));
+		Map<IResource, Integer> result = RefreshCoordinator.removeCoveredScopes(scopes);
+		assertEquals("Wrong number of scopes", 2, result.size()); //$NON-NLS-1$
+		assertEquals("Project should be refreshed to depth one", Integer.valueOf(IResource.DEPTH_ONE), result.get(project)); //$NON-NLS-1$
+		assertEquals("Folder should be refreshed to infinite depth", Integer.valueOf(IResource.DEPTH_INFINITE), result.get(folder)); //$NON-NLS-1$
+
+		scopes.put(project, Integer.valueOf(IResource.DEPTH_INFINITE));
+		result = RefreshCoordinator.removeCoveredScopes(scopes);
+		assertEquals("Only the project should be refreshed", 1, result.size()); //$NON-NLS-1$
+		assertTrue("Only the project should be refreshed", result.containsKey(project)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that scheduled refreshes find files created outside of the
+	 * workspace.
+	 *
+	 * @throws Exception
+	 */
+	public void testScheduledRefresh() throws Exception {
+		IProject project = getProject();
+		IFolder folder = project.getFolder("src"); //$NON-NLS-1$
+		IFile file = folder.getFile("scheduled.file"); //$NON-NLS-1$
+		File local = file.getLocation().toFile();
+		try {
+			assertTrue("Should create file outside of the workspace", local.createNewFile()); //$NON-NLS-1$
+			assertFalse("File should not be known to the workspace yet", file.exists()); //$NON-NLS-1$
+			RefreshUtil.scheduleRefresh(new IResource[] { folder }, IResource.DEPTH_ONE);
+			RefreshUtil.scheduleRefresh(new IResource[] { project, folder }, IResource.DEPTH_INFINITE);
+			Job.getJobManager().join(RefreshCoordinator.getDefault(), null);
+			assertTrue("Refresh should have found the file", file.exists()); //$NON-NLS-1$
+		} finally {
+			if (file.exists()) {
+				file.delete(true, null);
+			} else if (local.exists() && !local.delete()) {
+				throw new IOException("Unable to delete " + local); //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * Tests that scheduling refreshes more often than the coalescing delay
+	 * does not postpone the pending refresh, and that the refresh job is
+	 * shown to the user.
+	 *
+	 * @throws Exception
+	 */
+	public void testConstantSchedulingDoesNotPostponeRefresh() throws Exception {
+		IProject project = getProject();
+		IFolder folder = project.getFolder("src"); //$NON-NLS-1$
+		IFile file = folder.getFile("constant.file"); //$NON-NLS-1$
+		File local = file.getLocation().toFile();
+		try {
+			assertTrue("Should create file outside of the workspace", local.createNewFile()); //$NON-NLS-1$
+			RefreshCoordinator coordinator = RefreshCoordinator.getDefault();
+			long end = System.currentTimeMillis() + testTimeout;
+			boolean checked = false;
+			while (!file.exists() && System.currentTimeMillis() < end) {
+				RefreshUtil.scheduleRefresh(new IResource[] { folder }, IResource.DEPTH_ONE);
+				if (!checked) {
+					Job[] jobs = Job.getJobManager().find(coordinator);
+					assertEquals("Refresh should be pending", 1, jobs.length); //$NON-NLS-1$
+					assertFalse("Refresh job should be shown to the user", jobs[0].isSystem()); //$NON-NLS-1$
+					checked = true;
+				}
+				Thread.sleep(RefreshCoordinator.COALESCE_DELAY / 10);
+			}
+			assertTrue("Refresh should happen while refreshes are scheduled", file.exists()); //$NON-NLS-1$
+			Job.getJobManager().join(coordinator, null);
+		} finally {
+			if (file.exists()) {
+				file.delete(true, null);
+			} else if (local.exists() && !local.delete()) {
+				throw new IOException("Unable to delete " + local); //$NON-NLS-1$
+			}
+		}
+	}
 }
@@ -0,0 +1,177 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.launching;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.internal.core.IInternalDebugCoreConstants;
+import org.eclipse.debug.internal.core.OutputStreamMonitor;
+import org.eclipse.debug.internal.core.StreamPump;
+import org.eclipse.debug.internal.core.StreamsProxy;
+import org.eclipse.debug.tests.AbstractDebugTest;
+
+/**
+ * Tests reading process output streams with the shared stream pump.
+ */
+public class StreamPumpTests extends AbstractDebugTest {
+
+	/**
+	 * Process with the given output and error streams
+	 */
+	static class StreamProcess extends Process {
+
+		private final InputStream fOutput;
+		private final InputStream fError;
+		private final OutputStream fInput = new ByteArrayOutputStream();
+
+		StreamProcess(InputStream output, InputStream error) {
+			fOutput = output;
+			fError = error;
+		}
+
+		@Override
+		public OutputStream getOutputStream() {
+			return fInput;
+		}
+
+		@Override
+		public InputStream getInputStream() {
+			return fOutput;
+		}
+
+		@Override
+		public InputStream getErrorStream() {
+			return fError;
+		}
+
+		@Override
+		public int waitFor() {
+			return 0;
+		}
+
+		@Override
+		public int exitValue() {
+			return 0;
+		}
+
+		@Override
+		public void destroy() {
+		}
+	}
+
+	public StreamPumpTests(String name) {
+		super(name);
+	}
+
+	private static IEclipsePreferences getPreferences() {
+		return InstanceScope.INSTANCE.getNode(DebugPlugin.getUniqueIdentifier());
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		getPreferences().putBoolean(IInternalDebugCoreConstants.PREF_STREAM_PUMP, true);
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		getPreferences().remove(IInternalDebugCoreConstants.PREF_STREAM_PUMP);
+		super.tearDown();
+	}
+
+	private static InputStream stream(String text) {
+		return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+	}
+
+	/**
+	 * Closes the given proxy on another thread, failing if closing does not
+	 * finish in time.
+	 */
+	private void close(final StreamsProxy proxy) throws Exception {
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				proxy.close();
+			}
+		});
+		thread.setDaemon(true);
+		thread.start();
+		thread.join(testTimeout);
+		assertFalse("Closing the streams should not block", thread.isAlive()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that the output of a process is read completely, and counted.
+	 *
+	 * @throws Exception
+	 */
+	public void testPumpedOutput() throws Exception {
+		StreamsProxy proxy = new StreamsProxy(new StreamProcess(stream("hello"), stream("error")), "UTF-8"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		close(proxy);
+		OutputStreamMonitor output = (OutputStreamMonitor) proxy.getOutputStreamMonitor();
+		assertEquals("hello", output.getContents()); //$NON-NLS-1$
+		assertEquals("error", proxy.getErrorStreamMonitor().getContents()); //$NON-NLS-1$
+		assertEquals("Wrong number of bytes read", 5, output.getBytesRead()); //$NON-NLS-1$
+		assertTrue("Output should be read", output.getReadCount() >= 1); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that closing the streams of a process does not wait for the end
+	 * of a stream that is kept open, such as by a process it started, and
+	 * that the output available when closing is not lost.
+	 *
+	 * @throws Exception
+	 */
+	public void testCloseWithOpenStream() throws Exception {
+		PipedInputStream output = new PipedInputStream();
+		PipedOutputStream writer = new PipedOutputStream(output);
+		try {
+			writer.write("abc".getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+			StreamsProxy proxy = new StreamsProxy(new StreamProcess(output, stream("")), "UTF-8"); //$NON-NLS-1$ //$NON-NLS-2$
+			close(proxy);
+			assertEquals("abc", proxy.getOutputStreamMonitor().getContents()); //$NON-NLS-1$
+		} finally {
+			writer.close();
+		}
+	}
+
+	/**
+	 * Tests that the streams of more processes than pump threads are all
+	 * read, and released by the pump once closed.
+	 *
+	 * @throws Exception
+	 */
+	public void testManyStreams() throws Exception {
+		StreamsProxy[] proxies = new StreamsProxy[20];
+		StringBuilder text = new StringBuilder();
+		for (int i = 0; i < 10000; i++) {
+			text.append(i % 10);
+		}
+		for (int i = 0; i < proxies.length; i++) {
+			proxies[i] = new StreamsProxy(new StreamProcess(stream(text.toString() + i), stream("")), "UTF-8"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		for (int i = 0; i < proxies.length; i++) {
+			close(proxies[i]);
+			assertEquals("Wrong output of process " + i, text.toString() + i, proxies[i].getOutputStreamMonitor().getContents()); //$NON-NLS-1$
+			assertTrue("Throughput should be measured", ((OutputStreamMonitor) proxies[i].getOutputStreamMonitor()).getThroughput() > 0); //$NON-NLS-1$
+		}
+		assertEquals("Closed streams should not be pumped", 0, StreamPump.getDefault().getStreamCount()); //$NON-NLS-1$
+	}
+}
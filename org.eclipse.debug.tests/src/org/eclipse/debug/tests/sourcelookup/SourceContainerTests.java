@@ -0,0 +1,496 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.sourcelookup;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.InputStream;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IStorage;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.debug.core.DebugPlugin;
+import org.eclipse.debug.core.ILaunchManager;
+import org.eclipse.debug.core.Launch;
+import org.eclipse.debug.core.sourcelookup.AbstractSourceLookupParticipant;
+import org.eclipse.debug.core.sourcelookup.ISourceContainer;
+import org.eclipse.debug.core.sourcelookup.ISourceContainerType;
+import org.eclipse.debug.core.sourcelookup.ISourceLookupParticipant;
+import org.eclipse.debug.core.sourcelookup.containers.AbstractSourceContainer;
+import org.eclipse.debug.core.sourcelookup.containers.DirectorySourceContainer;
+import org.eclipse.debug.core.sourcelookup.containers.ExternalArchiveSourceContainer;
+import org.eclipse.debug.core.sourcelookup.containers.ProjectSourceContainer;
+import org.eclipse.debug.core.sourcelookup.containers.WorkspaceSourceContainer;
+import org.eclipse.debug.internal.core.sourcelookup.SourceIndex;
+import org.eclipse.debug.internal.core.sourcelookup.SourceLookupCache;
+import org.eclipse.debug.tests.AbstractDebugTest;
+import org.eclipse.debug.tests.TestsPlugin;
+
+/**
+ * Tests that source containers find the same source elements whether or not
+ * their index has been built, and whether or not they are searched
+ * concurrently.
+ */
+public class SourceContainerTests extends AbstractDebugTest {
+
+	/**
+	 * Container that is itself the source element named like it, found after a
+	 * delay
+	 */
+	static class DelayedSourceContainer extends AbstractSourceContainer {
+
+		private final String fName;
+		private final long fDelay;
+		final AtomicInteger fSearches = new AtomicInteger();
+
+		DelayedSourceContainer(String name, long delay) {
+			fName = name;
+			fDelay = delay;
+		}
+
+		@Override
+		public Object[] findSourceElements(String name) throws CoreException {
+			fSearches.incrementAndGet();
+			try {
+				Thread.sleep(fDelay);
+			} catch (InterruptedException e) {
+				return EMPTY;
+			}
+			return name.equals(fName) ? new Object[] { this } : EMPTY;
+		}
+
+		@Override
+		public String getName() {
+			return fName;
+		}
+
+		@Override
+		public ISourceContainerType getType() {
+			return null;
+		}
+	}
+
+	/**
+	 * Container finding nothing once released, counting its searches
+	 */
+	static class BlockingSourceContainer extends AbstractSourceContainer {
+
+		private final CountDownLatch fRelease;
+		private final AtomicInteger fSearches;
+		private final long fTimeout;
+
+		BlockingSourceContainer(CountDownLatch release, AtomicInteger searches, long timeout) {
+			fRelease = release;
+			fSearches = searches;
+			fTimeout = timeout;
+		}
+
+		@Override
+		public Object[] findSourceElements(String name) throws CoreException {
+			fSearches.incrementAndGet();
+			try {
+				fRelease.await(fTimeout, TimeUnit.MILLISECONDS);
+			} catch (InterruptedException e) {
+				// find nothing
+			}
+			return EMPTY;
+		}
+
+		@Override
+		public String getName() {
+			return "Blocking"; //$NON-NLS-1$
+		}
+
+		@Override
+		public ISourceContainerType getType() {
+			return null;
+		}
+	}
+
+	/**
+	 * Container failing with the status of the given message
+	 */
+	static class FailingSourceContainer extends AbstractSourceContainer {
+
+		private final String fMessage;
+
+		FailingSourceContainer(String message) {
+			fMessage = message;
+		}
+
+		@Override
+		public Object[] findSourceElements(String name) throws CoreException {
+			throw new CoreException(new Status(IStatus.ERROR, TestsPlugin.PLUGIN_ID, fMessage));
+		}
+
+		@Override
+		public String getName() {
+			return fMessage;
+		}
+
+		@Override
+		public ISourceContainerType getType() {
+			return null;
+		}
+	}
+
+	/**
+	 * Participant looking up strings as source names
+	 */
+	static class NameParticipant extends AbstractSourceLookupParticipant {
+		@Override
+		public String getSourceName(Object object) throws CoreException {
+			return (String) object;
+		}
+	}
+
+	/**
+	 * Launch that can be reported terminated without any process
+	 */
+	static class TerminatingLaunch extends Launch {
+
+		TerminatingLaunch() {
+			super(null, ILaunchManager.RUN_MODE, null);
+		}
+
+		void terminated() {
+			fireTerminate();
+		}
+	}
+
+	public SourceContainerTests(String name) {
+		super(name);
+	}
+
+	private File getRoot() {
+		return new File(TestsPlugin.getDefault().getStateLocation().toFile(), getName());
+	}
+
+	private void createFile(File file) throws Exception {
+		file.getParentFile().mkdirs();
+		new FileOutputStream(file).close();
+	}
+
+	/**
+	 * Looks up the given name before and after the index of the container is
+	 * built, checking the result each time. The expected element is given by
+	 * its path relative to the container.
+	 */
+	private void assertLookup(ISourceContainer container, String name, String expected) throws Exception {
+		try {
+			checkLookup(container, name, expected);
+			Job.getJobManager().join(SourceIndex.FAMILY, null);
+			checkLookup(container, name, expected);
+		} finally {
+			container.dispose();
+		}
+	}
+
+	private void checkLookup(ISourceContainer container, String name, String expected) throws Exception {
+		Object[] elements = container.findSourceElements(name);
+		if (expected == null) {
+			assertEquals("Should not find " + name, 0, elements.length); //$NON-NLS-1$
+		} else {
+			assertEquals("Should find " + name, 1, elements.length); //$NON-NLS-1$
+			String found = ((IStorage) elements[0]).getFullPath().toString();
+			assertTrue("Wrong element found: " + found, found.endsWith('/' + expected)); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Tests lookup of qualified and simple names in the sub-folders of a
+	 * directory.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testDirectorySubfolders() throws Exception {
+		File root = getRoot();
+		String path = "src/org/eclipse/Source.java"; //$NON-NLS-1$
+		createFile(new File(root, path));
+		createFile(new File(root, "src/org/eclipse/xSource.java")); //$NON-NLS-1$
+		assertLookup(new DirectorySourceContainer(root, true), "org/eclipse/Source.java", path); //$NON-NLS-1$
+		assertLookup(new DirectorySourceContainer(root, true), "Source.java", path); //$NON-NLS-1$
+		assertLookup(new DirectorySourceContainer(root, true), "org/Source.java", null); //$NON-NLS-1$
+		assertLookup(new DirectorySourceContainer(root, false), "Source.java", null); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests lookup of qualified and simple names in an archive, with and
+	 * without root detection.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testArchiveEntries() throws Exception {
+		File archive = new File(getRoot(), "source.zip"); //$NON-NLS-1$
+		archive.getParentFile().mkdirs();
+		try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive))) {
+			out.putNextEntry(new ZipEntry("src/org/eclipse/Source.java")); //$NON-NLS-1$
+			out.closeEntry();
+			out.putNextEntry(new ZipEntry("src/org/eclipse/xSource.java")); //$NON-NLS-1$
+			out.closeEntry();
+		}
+		String path = archive.getPath();
+		assertLookup(new ExternalArchiveSourceContainer(path, true), "org/eclipse/Source.java", "src/org/eclipse/Source.java"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertLookup(new ExternalArchiveSourceContainer(path, false), "org/eclipse/Source.java", "src/org/eclipse/Source.java"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertLookup(new ExternalArchiveSourceContainer(path, false), "Source.java", "src/org/eclipse/Source.java"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertLookup(new ExternalArchiveSourceContainer(path, true), "org/Source.java", null); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that the contents of an archive entry can still be read after
+	 * many other archives are searched.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testArchiveEntryContents() throws Exception {
+		ExternalArchiveSourceContainer[] containers = new ExternalArchiveSourceContainer[12];
+		for (int i = 0; i < containers.length; i++) {
+			File archive = new File(getRoot(), "source" + i + ".zip"); //$NON-NLS-1$ //$NON-NLS-2$
+			archive.getParentFile().mkdirs();
+			try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive))) {
+				out.putNextEntry(new ZipEntry("Source.java")); //$NON-NLS-1$
+				out.write(i);
+				out.closeEntry();
+			}
+			containers[i] = new ExternalArchiveSourceContainer(archive.getPath(), false);
+		}
+		try {
+			IStorage[] storages = new IStorage[containers.length];
+			for (int i = 0; i < containers.length; i++) {
+				Object[] elements = containers[i].findSourceElements("Source.java"); //$NON-NLS-1$
+				assertEquals("Should find Source.java", 1, elements.length); //$NON-NLS-1$
+				storages[i] = (IStorage) elements[0];
+			}
+			for (int i = 0; i < storages.length; i++) {
+				try (InputStream contents = storages[i].getContents()) {
+					assertEquals("Wrong contents", i, contents.read()); //$NON-NLS-1$
+				}
+			}
+		} finally {
+			for (ExternalArchiveSourceContainer container : containers) {
+				container.dispose();
+			}
+		}
+	}
+
+	/**
+	 * Tests that concurrent lookup picks source elements in the order of the
+	 * source containers, even when later containers answer first.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testConcurrentLookupOrder() throws Exception {
+		TestSourceDirector director = new TestSourceDirector();
+		try {
+			director.setConcurrentLookup(true);
+			director.addParticipants(new ISourceLookupParticipant[] { new NameParticipant() });
+			director.setSourceContainers(new ISourceContainer[] {
+					new DelayedSourceContainer("Source.java", 200), //$NON-NLS-1$
+					new DelayedSourceContainer("Other.java", 0), //$NON-NLS-1$
+					new DelayedSourceContainer("Source.java", 0) }); //$NON-NLS-1$
+			Object[] elements = director.findSourceElements("Source.java"); //$NON-NLS-1$
+			assertEquals("Should find one element", 1, elements.length); //$NON-NLS-1$
+			assertSame("Should find element of first container", director.getSourceContainers()[0], elements[0]); //$NON-NLS-1$
+			director.setFindDuplicates(true);
+			elements = director.findSourceElements("Source.java"); //$NON-NLS-1$
+			assertEquals("Should find all elements", 2, elements.length); //$NON-NLS-1$
+			assertSame("Wrong order", director.getSourceContainers()[0], elements[0]); //$NON-NLS-1$
+			assertSame("Wrong order", director.getSourceContainers()[2], elements[1]); //$NON-NLS-1$
+		} finally {
+			director.dispose();
+		}
+	}
+
+	/**
+	 * Tests that concurrent lookup not collecting duplicates returns as soon
+	 * as the first container finds a source element, and does not search the
+	 * containers after it that have not started.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testConcurrentLookupCanceled() throws Exception {
+		TestSourceDirector director = new TestSourceDirector();
+		NameParticipant participant = new NameParticipant();
+		CountDownLatch release = new CountDownLatch(1);
+		AtomicInteger searches = new AtomicInteger();
+		try {
+			director.setConcurrentLookup(true);
+			director.addParticipants(new ISourceLookupParticipant[] { participant });
+			ISourceContainer[] containers = new ISourceContainer[21];
+			containers[0] = new DelayedSourceContainer("Source.java", 0); //$NON-NLS-1$
+			for (int i = 1; i < containers.length; i++) {
+				containers[i] = new BlockingSourceContainer(release, searches, testTimeout);
+			}
+			director.setSourceContainers(containers);
+			long start = System.currentTimeMillis();
+			Object[] elements = participant.findSourceElements("Source.java"); //$NON-NLS-1$
+			assertTrue("Lookup should not wait for later containers", System.currentTimeMillis() - start < testTimeout); //$NON-NLS-1$
+			assertEquals("Should find one element", 1, elements.length); //$NON-NLS-1$
+			assertSame("Should find element of first container", containers[0], elements[0]); //$NON-NLS-1$
+			release.countDown();
+			// let canceled searches run if they were not canceled
+			Thread.sleep(500);
+			assertTrue("Later containers should not all be searched: " + searches.get(), searches.get() < containers.length - 1); //$NON-NLS-1$
+		} finally {
+			release.countDown();
+			director.dispose();
+		}
+	}
+
+	/**
+	 * Tests that concurrent lookup reports the failures of all containers when
+	 * no source element is found, in the order of the containers, and ignores
+	 * them when one is found.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testConcurrentLookupFailures() throws Exception {
+		TestSourceDirector director = new TestSourceDirector();
+		NameParticipant participant = new NameParticipant();
+		try {
+			director.setConcurrentLookup(true);
+			director.addParticipants(new ISourceLookupParticipant[] { participant });
+			director.setSourceContainers(new ISourceContainer[] {
+					new FailingSourceContainer("first"), //$NON-NLS-1$
+					new DelayedSourceContainer("Other.java", 0), //$NON-NLS-1$
+					new FailingSourceContainer("second") }); //$NON-NLS-1$
+			try {
+				participant.findSourceElements("Source.java"); //$NON-NLS-1$
+				fail("Failures should be reported"); //$NON-NLS-1$
+			} catch (CoreException e) {
+				IStatus[] children = e.getStatus().getChildren();
+				assertTrue("Failures should be combined", e.getStatus().isMultiStatus()); //$NON-NLS-1$
+				assertEquals("Wrong number of failures", 2, children.length); //$NON-NLS-1$
+				assertEquals("Wrong order", "first", children[0].getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+				assertEquals("Wrong order", "second", children[1].getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+
+			director.setSourceContainers(new ISourceContainer[] {
+					new DelayedSourceContainer("Other.java", 0), //$NON-NLS-1$
+					new FailingSourceContainer("single") }); //$NON-NLS-1$
+			try {
+				participant.findSourceElements("Source.java"); //$NON-NLS-1$
+				fail("Failure should be reported"); //$NON-NLS-1$
+			} catch (CoreException e) {
+				assertFalse("Single failure should not be combined", e.getStatus().isMultiStatus()); //$NON-NLS-1$
+				assertEquals("Wrong failure", "single", e.getStatus().getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+
+			director.setSourceContainers(new ISourceContainer[] {
+					new FailingSourceContainer("first"), //$NON-NLS-1$
+					new DelayedSourceContainer("Source.java", 0), //$NON-NLS-1$
+					new FailingSourceContainer("second") }); //$NON-NLS-1$
+			Object[] elements = participant.findSourceElements("Source.java"); //$NON-NLS-1$
+			assertEquals("Failures should be ignored once found", 1, elements.length); //$NON-NLS-1$
+			assertSame("Wrong element", director.getSourceContainers()[1], elements[0]); //$NON-NLS-1$
+			director.setFindDuplicates(true);
+			elements = participant.findSourceElements("Source.java"); //$NON-NLS-1$
+			assertEquals("Failures should be ignored for duplicates", 1, elements.length); //$NON-NLS-1$
+		} finally {
+			director.dispose();
+		}
+	}
+
+	/**
+	 * Tests that found source elements are remembered until the source
+	 * containers change, and that missing source elements are looked up
+	 * again when the containers do not only search the workspace.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testLookupCache() throws Exception {
+		TestSourceDirector director = new TestSourceDirector();
+		try {
+			DelayedSourceContainer container = new DelayedSourceContainer("Source.java", 0); //$NON-NLS-1$
+			director.addParticipants(new ISourceLookupParticipant[] { new NameParticipant() });
+			director.setSourceContainers(new ISourceContainer[] { container });
+			for (int i = 0; i < 3; i++) {
+				assertEquals("Should find element", 1, director.findSourceElements("Source.java").length); //$NON-NLS-1$ //$NON-NLS-2$
+				assertEquals("Should not find element", 0, director.findSourceElements("Missing.java").length); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			assertEquals("Found name should be searched once, missing name each time", 4, container.fSearches.get()); //$NON-NLS-1$
+			director.setSourceContainers(new ISourceContainer[] { container });
+			director.findSourceElements("Source.java"); //$NON-NLS-1$
+			assertEquals("Changing containers should clear the cache", 5, container.fSearches.get()); //$NON-NLS-1$
+		} finally {
+			director.dispose();
+		}
+	}
+
+	private void assertArchiveEntry(TestSourceDirector director) throws Exception {
+		Object[] elements = director.findSourceElements("Source.java"); //$NON-NLS-1$
+		assertEquals("Should find Source.java", 1, elements.length); //$NON-NLS-1$
+		try (InputStream contents = ((IStorage) elements[0]).getContents()) {
+			assertEquals("Wrong contents", 7, contents.read()); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Tests that source elements found in an archive are looked up again once
+	 * the shared archives are closed by another launch terminating, rather
+	 * than read from a closed archive.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testLookupCacheArchivesClosed() throws Exception {
+		File archive = new File(getRoot(), "source.zip"); //$NON-NLS-1$
+		archive.getParentFile().mkdirs();
+		try (ZipOutputStream out = new ZipOutputStream(new FileOutputStream(archive))) {
+			out.putNextEntry(new ZipEntry("Source.java")); //$NON-NLS-1$
+			out.write(7);
+			out.closeEntry();
+		}
+		ILaunchManager manager = DebugPlugin.getDefault().getLaunchManager();
+		TestSourceDirector director = new TestSourceDirector();
+		TerminatingLaunch launch = new TerminatingLaunch();
+		try {
+			director.addParticipants(new ISourceLookupParticipant[] { new NameParticipant() });
+			director.setSourceContainers(new ISourceContainer[] { new ExternalArchiveSourceContainer(archive.getPath(), false) });
+			assertArchiveEntry(director);
+			manager.addLaunch(launch);
+			launch.terminated();
+			assertArchiveEntry(director);
+		} finally {
+			manager.removeLaunch(launch);
+			director.dispose();
+		}
+	}
+
+	/**
+	 * Tests that missing source elements are only remembered for source
+	 * containers that search the workspace.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testMissesRemembered() throws Exception {
+		IProject project = TestsPlugin.createProject("SourceContainerTests"); //$NON-NLS-1$
+		try {
+			ISourceContainer projectContainer = new ProjectSourceContainer(project, false);
+			ISourceContainer directoryContainer = new DirectorySourceContainer(getRoot(), true);
+			assertTrue("Should remember misses in the workspace", new SourceLookupCache().isMissRemembered(new ISourceContainer[] { //$NON-NLS-1$
+					projectContainer, new WorkspaceSourceContainer() }));
+			assertFalse("Should not remember misses outside the workspace", new SourceLookupCache().isMissRemembered(new ISourceContainer[] { //$NON-NLS-1$
+					projectContainer, directoryContainer }));
+			assertFalse("Should not remember misses of other containers", new SourceLookupCache().isMissRemembered(new ISourceContainer[] { //$NON-NLS-1$
+					new DelayedSourceContainer("Source.java", 0) })); //$NON-NLS-1$
+		} finally {
+			project.delete(true, null);
+		}
+	}
+}
@@ -0,0 +1,275 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.variables;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.debug.core.ILogicalStructureType;
+import org.eclipse.debug.core.model.IDebugTarget;
+import org.eclipse.debug.core.model.IValue;
+import org.eclipse.debug.internal.ui.views.variables.LogicalStructureCache;
+import org.eclipse.debug.tests.AbstractDebugTest;
+import org.eclipse.debug.tests.TestsPlugin;
+
+/**
+ * Tests that the logical structure cache computes each structure once, and
+ * forgets structures per debug target and on failure.
+ */
+public class LogicalStructureCacheTests extends AbstractDebugTest {
+
+	/**
+	 * Number of threads requesting the same structure
+	 */
+	private static final int THREADS = 8;
+
+	/**
+	 * Logical structure type counting its computations, which can be made to
+	 * wait or to fail once
+	 */
+	static class CountingType implements ILogicalStructureType {
+
+		final AtomicInteger fComputations = new AtomicInteger();
+		final CountDownLatch fStarted = new CountDownLatch(1);
+		volatile CountDownLatch fRelease;
+		volatile CoreException fFailure;
+
+		@Override
+		public boolean providesLogicalStructure(IValue value) {
+			return true;
+		}
+
+		@Override
+		public IValue getLogicalStructure(IValue value) throws CoreException {
+			fComputations.incrementAndGet();
+			fStarted.countDown();
+			CountDownLatch release = fRelease;
+			if (release != null) {
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					throw new CoreException(Status.CANCEL_STATUS);
+				}
+			}
+			CoreException failure = fFailure;
+			if (failure != null) {
+				fFailure = null;
+				throw failure;
+			}
+			return newValue(value.getDebugTarget());
+		}
+
+		@Override
+		public String getDescription(IValue value) {
+			return getDescription();
+		}
+
+		@Override
+		public String getDescription() {
+			return "Counting"; //$NON-NLS-1$
+		}
+
+		@Override
+		public String getId() {
+			return "counting"; //$NON-NLS-1$
+		}
+	}
+
+	private LogicalStructureCache fCache;
+	private CountingType fType;
+
+	public LogicalStructureCacheTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		fCache = new LogicalStructureCache();
+		fType = new CountingType();
+	}
+
+	/**
+	 * Creates an object implementing the given interface that is only equal
+	 * to itself, and belongs to the given debug target.
+	 */
+	private static <T> T create(final Class<T> type, final IDebugTarget target) {
+		return type.cast(Proxy.newProxyInstance(LogicalStructureCacheTests.class.getClassLoader(), new Class<?>[] { type }, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				switch (method.getName()) {
+					case "equals": //$NON-NLS-1$
+						return Boolean.valueOf(proxy == args[0]);
+					case "hashCode": //$NON-NLS-1$
+						return Integer.valueOf(System.identityHashCode(proxy));
+					case "toString": //$NON-NLS-1$
+						return type.getSimpleName() + '@' + System.identityHashCode(proxy);
+					case "getDebugTarget": //$NON-NLS-1$
+						return target;
+					default:
+						throw new UnsupportedOperationException(method.getName());
+				}
+			}
+		}));
+	}
+
+	static IValue newValue(IDebugTarget target) {
+		return create(IValue.class, target);
+	}
+
+	private static IDebugTarget newTarget() {
+		return create(IDebugTarget.class, null);
+	}
+
+	private Thread start(Runnable runnable, final AtomicReference<Throwable> failure) {
+		Thread thread = new Thread(runnable);
+		thread.setDaemon(true);
+		thread.setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler() {
+			@Override
+			public void uncaughtException(Thread t, Throwable e) {
+				failure.compareAndSet(null, e);
+			}
+		});
+		thread.start();
+		return thread;
+	}
+
+	/**
+	 * Tests that threads requesting the same structure concurrently wait for
+	 * the one computation of it.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testConcurrentComputation() throws Exception {
+		final IValue value = newValue(newTarget());
+		fType.fRelease = new CountDownLatch(1);
+		final CountDownLatch requested = new CountDownLatch(THREADS);
+		final IValue[] results = new IValue[THREADS];
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		Thread[] threads = new Thread[THREADS];
+		for (int i = 0; i < THREADS; i++) {
+			final int index = i;
+			threads[i] = start(new Runnable() {
+				@Override
+				public void run() {
+					requested.countDown();
+					try {
+						results[index] = fCache.getLogicalStructure(fType, value);
+					} catch (CoreException e) {
+						throw new IllegalStateException(e);
+					}
+				}
+			}, failure);
+		}
+		assertTrue("Structure was not computed", fType.fStarted.await(testTimeout, TimeUnit.MILLISECONDS)); //$NON-NLS-1$
+		assertTrue("Threads did not start", requested.await(testTimeout, TimeUnit.MILLISECONDS)); //$NON-NLS-1$
+		fType.fRelease.countDown();
+		for (Thread thread : threads) {
+			thread.join(testTimeout);
+			assertFalse("Request did not complete", thread.isAlive()); //$NON-NLS-1$
+		}
+		assertNull("Request failed", failure.get()); //$NON-NLS-1$
+		assertEquals("Structure should be computed once", 1, fType.fComputations.get()); //$NON-NLS-1$
+		for (IValue result : results) {
+			assertSame("Requests should share the structure", results[0], result); //$NON-NLS-1$
+		}
+		assertSame("Structure should be cached", results[0], fCache.getLogicalStructure(fType, value)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that clearing the structures of one debug target keeps the
+	 * structures of other targets.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testClearTarget() throws Exception {
+		IDebugTarget target1 = newTarget();
+		IDebugTarget target2 = newTarget();
+		IValue value1 = newValue(target1);
+		IValue value2 = newValue(target2);
+		IValue structure1 = fCache.getLogicalStructure(fType, value1);
+		IValue structure2 = fCache.getLogicalStructure(fType, value2);
+
+		fCache.clear(target1);
+		assertNotSame("Structure of cleared target should be computed again", structure1, fCache.getLogicalStructure(fType, value1)); //$NON-NLS-1$
+		assertSame("Structure of other target should be kept", structure2, fCache.getLogicalStructure(fType, value2)); //$NON-NLS-1$
+		assertEquals("Wrong number of computations", 3, fType.fComputations.get()); //$NON-NLS-1$
+
+		fCache.clear();
+		assertNotSame("Structure should be computed again once cleared", structure2, fCache.getLogicalStructure(fType, value2)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that a failed computation is not remembered.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testFailureNotCached() throws Exception {
+		IValue value = newValue(newTarget());
+		fType.fFailure = new CoreException(new Status(IStatus.ERROR, TestsPlugin.PLUGIN_ID, "Failed")); //$NON-NLS-1$
+		try {
+			fCache.getLogicalStructure(fType, value);
+			fail("Failure should be reported"); //$NON-NLS-1$
+		} catch (CoreException e) {
+			assertEquals("Wrong failure", "Failed", e.getStatus().getMessage()); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		IValue structure = fCache.getLogicalStructure(fType, value);
+		assertNotNull("Structure should be computed again", structure); //$NON-NLS-1$
+		assertSame("Successful computation should be cached", structure, fCache.getLogicalStructure(fType, value)); //$NON-NLS-1$
+		assertEquals("Wrong number of computations", 2, fType.fComputations.get()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests that a thread interrupted while waiting for the computation of a
+	 * structure by another thread keeps its interrupt status.
+	 *
+	 * @throws Exception if the test fails
+	 */
+	public void testInterruptedWait() throws Exception {
+		final IValue value = newValue(newTarget());
+		fType.fRelease = new CountDownLatch(1);
+		AtomicReference<Throwable> failure = new AtomicReference<>();
+		Thread computing = start(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					fCache.getLogicalStructure(fType, value);
+				} catch (CoreException e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		}, failure);
+		assertTrue("Structure was not computed", fType.fStarted.await(testTimeout, TimeUnit.MILLISECONDS)); //$NON-NLS-1$
+		try {
+			Thread.currentThread().interrupt();
+			fCache.getLogicalStructure(fType, value);
+			fail("Interrupted wait should be canceled"); //$NON-NLS-1$
+		} catch (CoreException e) {
+			assertEquals("Wrong severity", IStatus.CANCEL, e.getStatus().getSeverity()); //$NON-NLS-1$
+			assertTrue("Interrupt status should be restored", Thread.interrupted()); //$NON-NLS-1$
+		} finally {
+			Thread.interrupted();
+			fType.fRelease.countDown();
+		}
+		computing.join(testTimeout);
+		assertFalse("Computation did not complete", computing.isAlive()); //$NON-NLS-1$
+		assertNull("Computation failed", failure.get()); //$NON-NLS-1$
+		assertEquals("Structure should be computed once", 1, fType.fComputations.get()); //$NON-NLS-1$
+	}
+}
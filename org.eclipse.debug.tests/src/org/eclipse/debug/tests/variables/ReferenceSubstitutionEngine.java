@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.variables;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Stack;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.variables.IDynamicVariable;
+import org.eclipse.core.variables.IStringVariableManager;
+import org.eclipse.core.variables.IValueVariable;
+import org.eclipse.core.variables.VariablesPlugin;
+
+/**
+ * The string substitution engine as it was before expressions were compiled
+ * and cached, scanning the expression on each substitution pass. Used as the
+ * reference the compiled engine is compared with.
+ */
+public class ReferenceSubstitutionEngine {
+
+	// delimiters
+	private static final String VARIABLE_START = "${"; //$NON-NLS-1$
+	private static final char VARIABLE_END = '}';
+	private static final char VARIABLE_ARG = ':';
+	// parsing states
+	private static final int SCAN_FOR_START = 0;
+	private static final int SCAN_FOR_END = 1;
+
+	private StringBuffer fResult;
+	private boolean fSubs;
+	private Stack<StringBuffer> fStack;
+
+	/**
+	 * Performs recursive string substitution and returns the resulting string.
+	 *
+	 * @param expression expression to resolve
+	 * @param reportUndefinedVariables whether to report undefined variables as an error
+	 * @param resolveVariables if the variables should be resolved during the substitution
+	 * @param manager registry of variables
+	 * @return the resulting string with all variables recursively substituted
+	 * @exception CoreException if unable to resolve a referenced variable or if a cycle exists
+	 *  in referenced variables
+	 */
+	public String performStringSubstitution(String expression, boolean reportUndefinedVariables, boolean resolveVariables, IStringVariableManager manager) throws CoreException {
+		substitute(expression, reportUndefinedVariables, resolveVariables, manager);
+		List<HashSet<String>> resolvedVariableSets = new ArrayList<>();
+		while (fSubs) {
+			HashSet<String> resolved = substitute(fResult.toString(), reportUndefinedVariables, true, manager);
+			for (int i = resolvedVariableSets.size() - 1; i >= 0; i--) {
+				if (resolvedVariableSets.get(i).equals(resolved)) {
+					throw new CoreException(new Status(IStatus.ERROR, VariablesPlugin.getUniqueIdentifier(), VariablesPlugin.REFERENCE_CYCLE_ERROR, "Reference cycle", null)); //$NON-NLS-1$
+				}
+			}
+			resolvedVariableSets.add(resolved);
+		}
+		return fResult.toString();
+	}
+
+	private HashSet<String> substitute(String expression, boolean reportUndefinedVariables, boolean resolveVariables, IStringVariableManager manager) throws CoreException {
+		fResult = new StringBuffer(expression.length());
+		fStack = new Stack<>();
+		fSubs = false;
+
+		HashSet<String> resolvedVariables = new HashSet<>();
+
+		int pos = 0;
+		int state = SCAN_FOR_START;
+		while (pos < expression.length()) {
+			switch (state) {
+				case SCAN_FOR_START:
+					int start = expression.indexOf(VARIABLE_START, pos);
+					if (start >= 0) {
+						// copy non-variable text to the result
+						fResult.append(expression.substring(pos, start));
+						pos = start + 2;
+						state = SCAN_FOR_END;
+						fStack.push(new StringBuffer());
+					} else {
+						// done - no more variables
+						fResult.append(expression.substring(pos));
+						pos = expression.length();
+					}
+					break;
+				case SCAN_FOR_END:
+					// be careful of nested variables
+					start = expression.indexOf(VARIABLE_START, pos);
+					int end = expression.indexOf(VARIABLE_END, pos);
+					if (end < 0) {
+						// variables are not completed
+						fStack.peek().append(expression.substring(pos));
+						pos = expression.length();
+					} else if (start >= 0 && start < end) {
+						// start of a nested variable
+						fStack.peek().append(expression.substring(pos, start));
+						pos = start + 2;
+						fStack.push(new StringBuffer());
+					} else {
+						// end of variable reference
+						StringBuffer tos = fStack.pop();
+						String substring = expression.substring(pos, end);
+						tos.append(substring);
+						resolvedVariables.add(substring);
+
+						pos = end + 1;
+						String value = resolve(tos.toString(), reportUndefinedVariables, resolveVariables, manager);
+						if (value == null) {
+							value = ""; //$NON-NLS-1$
+						}
+						if (fStack.isEmpty()) {
+							fResult.append(value);
+							state = SCAN_FOR_START;
+						} else {
+							fStack.peek().append(value);
+						}
+					}
+					break;
+				default:
+					break;
+			}
+		}
+		// process incomplete variable references
+		while (!fStack.isEmpty()) {
+			StringBuffer tos = fStack.pop();
+			StringBuffer parent = fStack.isEmpty() ? fResult : fStack.peek();
+			parent.append(VARIABLE_START);
+			parent.append(tos);
+		}
+		return resolvedVariables;
+	}
+
+	private String resolve(String text, boolean reportUndefinedVariables, boolean resolveVariables, IStringVariableManager manager) throws CoreException {
+		int pos = text.indexOf(VARIABLE_ARG);
+		String name = null;
+		String arg = null;
+		if (pos > 0) {
+			name = text.substring(0, pos);
+			pos++;
+			if (pos < text.length()) {
+				arg = text.substring(pos);
+			}
+		} else {
+			name = text;
+		}
+		IValueVariable valueVariable = manager.getValueVariable(name);
+		if (valueVariable == null) {
+			IDynamicVariable dynamicVariable = manager.getDynamicVariable(name);
+			if (dynamicVariable == null) {
+				if (reportUndefinedVariables) {
+					throw new CoreException(new Status(IStatus.ERROR, VariablesPlugin.getUniqueIdentifier(), VariablesPlugin.INTERNAL_ERROR, "Undefined variable " + name, null)); //$NON-NLS-1$
+				}
+				return VARIABLE_START + text + VARIABLE_END;
+			}
+			if (resolveVariables) {
+				fSubs = true;
+				return dynamicVariable.getValue(arg);
+			}
+			return VARIABLE_START + text + VARIABLE_END;
+		}
+		if (arg == null) {
+			if (resolveVariables) {
+				fSubs = true;
+				return valueVariable.getValue();
+			}
+			return VARIABLE_START + text + VARIABLE_END;
+		}
+		throw new CoreException(new Status(IStatus.ERROR, VariablesPlugin.getUniqueIdentifier(), VariablesPlugin.INTERNAL_ERROR, "Argument specified for value variable " + name, null)); //$NON-NLS-1$
+	}
+}
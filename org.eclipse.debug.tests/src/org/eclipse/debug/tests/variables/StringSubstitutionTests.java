@@ -0,0 +1,247 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.variables;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.core.internal.variables.StringSubstitutionEngine;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.variables.IDynamicVariable;
+import org.eclipse.core.variables.IStringVariableManager;
+import org.eclipse.core.variables.IValueVariable;
+import org.eclipse.core.variables.VariablesPlugin;
+import org.eclipse.debug.tests.AbstractDebugTest;
+
+/**
+ * Tests that the string substitution engine, which compiles and caches
+ * expressions, substitutes variables like the engine that scanned expressions
+ * on each substitution pass.
+ */
+public class StringSubstitutionTests extends AbstractDebugTest {
+
+	/**
+	 * Text expressions are generated from
+	 */
+	private static final String[] TOKENS = new String[] {
+			"${", "}", ":", "$", "{", "x", "a", "b", "nested", "name", "null", "open", "cycle1", "self", "dyn", "dynref", "undefined" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$ //$NON-NLS-7$ //$NON-NLS-8$ //$NON-NLS-9$ //$NON-NLS-10$ //$NON-NLS-11$ //$NON-NLS-12$ //$NON-NLS-13$ //$NON-NLS-14$ //$NON-NLS-15$ //$NON-NLS-16$ //$NON-NLS-17$
+
+	private static final int ITERATIONS = 5000;
+
+	private final Map<String, IValueVariable> fValueVariables = new HashMap<>();
+	private final Map<String, IDynamicVariable> fDynamicVariables = new HashMap<>();
+	private IStringVariableManager fManager;
+
+	public StringSubstitutionTests(String name) {
+		super(name);
+	}
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		addValueVariable("a", "A"); //$NON-NLS-1$ //$NON-NLS-2$
+		addValueVariable("b", "${a}B"); //$NON-NLS-1$ //$NON-NLS-2$
+		addValueVariable("nested", "<${b}>"); //$NON-NLS-1$ //$NON-NLS-2$
+		addValueVariable("name", "a"); //$NON-NLS-1$ //$NON-NLS-2$
+		addValueVariable("null", null); //$NON-NLS-1$
+		addValueVariable("open", "${"); //$NON-NLS-1$ //$NON-NLS-2$
+		addValueVariable("cycle1", "${cycle2}"); //$NON-NLS-1$ //$NON-NLS-2$
+		addValueVariable("cycle2", "${cycle1}"); //$NON-NLS-1$ //$NON-NLS-2$
+		addValueVariable("self", "x${self}"); //$NON-NLS-1$ //$NON-NLS-2$
+		addDynamicVariable("dyn", null); //$NON-NLS-1$
+		addDynamicVariable("dynref", "${a}"); //$NON-NLS-1$ //$NON-NLS-2$
+		fManager = (IStringVariableManager) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] { IStringVariableManager.class }, new InvocationHandler() {
+			@Override
+			public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+				if (method.getName().equals("getValueVariable")) { //$NON-NLS-1$
+					return fValueVariables.get(args[0]);
+				}
+				if (method.getName().equals("getDynamicVariable")) { //$NON-NLS-1$
+					return fDynamicVariables.get(args[0]);
+				}
+				throw new UnsupportedOperationException(method.getName());
+			}
+		});
+	}
+
+	private void addValueVariable(String name, String value) {
+		IStringVariableManager manager = VariablesPlugin.getDefault().getStringVariableManager();
+		fValueVariables.put(name, manager.newValueVariable(name, null, false, value));
+	}
+
+	/**
+	 * Adds a dynamic variable with the given value, or the value of its
+	 * argument in brackets when <code>null</code>.
+	 */
+	private void addDynamicVariable(final String name, final String value) {
+		fDynamicVariables.put(name, new IDynamicVariable() {
+			@Override
+			public String getName() {
+				return name;
+			}
+
+			@Override
+			public String getDescription() {
+				return null;
+			}
+
+			@Override
+			public String getValue(String argument) throws CoreException {
+				return value != null ? value : "[" + argument + "]"; //$NON-NLS-1$ //$NON-NLS-2$
+			}
+
+			@Override
+			public boolean supportsArgument() {
+				return value == null;
+			}
+		});
+	}
+
+	/**
+	 * Returns the result of substituting the given expression, or the code of
+	 * the error it fails with.
+	 */
+	private static String substitute(Object engine, String expression, boolean reportUndefined, boolean resolve, IStringVariableManager manager) {
+		try {
+			if (engine instanceof StringSubstitutionEngine) {
+				return ((StringSubstitutionEngine) engine).performStringSubstitution(expression, reportUndefined, resolve, manager);
+			}
+			return ((ReferenceSubstitutionEngine) engine).performStringSubstitution(expression, reportUndefined, resolve, manager);
+		} catch (CoreException e) {
+			return "error " + e.getStatus().getCode(); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Asserts that both engines substitute the given expression alike, in
+	 * every substitution mode, and substituting it again yields the same.
+	 */
+	private void assertEquivalent(String expression) {
+		for (int mode = 0; mode < 4; mode++) {
+			boolean reportUndefined = (mode & 1) != 0;
+			boolean resolve = (mode & 2) != 0;
+			String expected = substitute(new ReferenceSubstitutionEngine(), expression, reportUndefined, resolve, fManager);
+			for (int i = 0; i < 2; i++) {
+				String actual = substitute(new StringSubstitutionEngine(), expression, reportUndefined, resolve, fManager);
+				assertEquals("Wrong substitution of '" + expression + "' reporting undefined variables " + reportUndefined + ", resolving variables " + resolve, expected, actual); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+			}
+		}
+	}
+
+	private void assertSubstitution(String expression, String expected) {
+		assertEquals("Wrong substitution of '" + expression + "'", expected, substitute(new StringSubstitutionEngine(), expression, false, true, fManager)); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquivalent(expression);
+	}
+
+	public void testNoVariables() {
+		assertSubstitution("", ""); //$NON-NLS-1$ //$NON-NLS-2$
+		assertSubstitution("plain text", "plain text"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertSubstitution("$x{a}}", "$x{a}}"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	public void testValueVariables() {
+		assertSubstitution("${a}", "A"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertSubstitution("1${a}2${a}3", "1A2A3"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertSubstitution("${nested}", "<AB>"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertSubstitution("${null}x", "x"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertSubstitution("${open}a}", "A"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	public void testNestedReferences() {
+		assertSubstitution("${${name}}", "A"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertSubstitution("${dyn:${a}}", "[A]"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertSubstitution("${dyn:${dyn:${name}}}", "[[a]]"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertSubstitution("${dynref}", "A"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	public void testIncompleteReferences() {
+		assertSubstitution("${a", "${a"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertSubstitution("x${a}${", "xA${"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertSubstitution("${${a}", "${A"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertSubstitution("${dyn:${a", "${dyn:${a"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	public void testUndefinedVariables() {
+		assertSubstitution("${undefined}", "${undefined}"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertSubstitution("${undefined:${a}}", "${undefined:A}"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Undefined variable should be reported", "error " + VariablesPlugin.INTERNAL_ERROR, substitute(new StringSubstitutionEngine(), "${undefined}", true, true, fManager)); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+	}
+
+	public void testValueVariableArgument() {
+		assertSubstitution("${a:arg}", "error " + VariablesPlugin.INTERNAL_ERROR); //$NON-NLS-1$ //$NON-NLS-2$
+		assertSubstitution("${a:}", "A"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertSubstitution("${:a}", "${:a}"); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	public void testReferenceCycles() {
+		assertSubstitution("${cycle1}", "error " + VariablesPlugin.REFERENCE_CYCLE_ERROR); //$NON-NLS-1$ //$NON-NLS-2$
+		assertSubstitution("${self}", "error " + VariablesPlugin.REFERENCE_CYCLE_ERROR); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
+	/**
+	 * Compares the engines on expressions generated from a fixed seed, so
+	 * that failures can be reproduced.
+	 */
+	public void testRandomExpressions() {
+		Random random = new Random(20180101L);
+		for (int i = 0; i < ITERATIONS; i++) {
+			StringBuilder expression = new StringBuilder();
+			int length = random.nextInt(10);
+			for (int j = 0; j < length; j++) {
+				expression.append(TOKENS[random.nextInt(TOKENS.length)]);
+			}
+			assertEquivalent(expression.toString());
+		}
+	}
+
+	/**
+	 * Tests that dynamic variables are resolved once per name and argument
+	 * while a memo is active in the calling thread.
+	 *
+	 * @throws Exception
+	 */
+	public void testDynamicVariableMemo() throws Exception {
+		final int[] count = new int[1];
+		fDynamicVariables.put("counter", new IDynamicVariable() { //$NON-NLS-1$
+			@Override
+			public String getName() {
+				return "counter"; //$NON-NLS-1$
+			}
+
+			@Override
+			public String getDescription() {
+				return null;
+			}
+
+			@Override
+			public String getValue(String argument) throws CoreException {
+				return Integer.toString(++count[0]);
+			}
+
+			@Override
+			public boolean supportsArgument() {
+				return true;
+			}
+		});
+		StringSubstitutionEngine.beginMemo();
+		try {
+			assertEquals("1 1 2", new StringSubstitutionEngine().performStringSubstitution("${counter} ${counter} ${counter:x}", false, true, fManager)); //$NON-NLS-1$ //$NON-NLS-2$
+			assertEquals("1", new StringSubstitutionEngine().performStringSubstitution("${counter}", false, true, fManager)); //$NON-NLS-1$ //$NON-NLS-2$
+		} finally {
+			StringSubstitutionEngine.endMemo();
+		}
+		assertEquals("3 4", new StringSubstitutionEngine().performStringSubstitution("${counter} ${counter}", false, true, fManager)); //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
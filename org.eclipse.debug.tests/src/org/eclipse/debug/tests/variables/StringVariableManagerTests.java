@@ -0,0 +1,172 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.variables;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.eclipse.core.runtime.preferences.IEclipsePreferences;
+import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.core.variables.IStringVariableManager;
+import org.eclipse.core.variables.IValueVariable;
+import org.eclipse.core.variables.VariablesPlugin;
+import org.eclipse.debug.tests.AbstractDebugTest;
+
+/**
+ * Tests concurrent use of the string variable manager.
+ */
+public class StringVariableManagerTests extends AbstractDebugTest {
+
+	/**
+	 * Preference the manager persists value variables in
+	 */
+	private static final String PREF_VALUE_VARIABLES = VariablesPlugin.getUniqueIdentifier() + ".valueVariables"; //$NON-NLS-1$
+
+	private static final int ITERATIONS = 200;
+
+	public StringVariableManagerTests(String name) {
+		super(name);
+	}
+
+	private static IStringVariableManager getManager() {
+		return VariablesPlugin.getDefault().getStringVariableManager();
+	}
+
+	private static IEclipsePreferences getPreferences() {
+		return InstanceScope.INSTANCE.getNode(VariablesPlugin.PI_CORE_VARIABLES);
+	}
+
+	/**
+	 * Runs the given runnable on a new thread, recording its failure.
+	 */
+	private static Thread start(final Runnable runnable, final AtomicReference<Throwable> failure) {
+		Thread thread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				try {
+					runnable.run();
+				} catch (Throwable t) {
+					failure.compareAndSet(null, t);
+				}
+			}
+		});
+		thread.setDaemon(true);
+		thread.start();
+		return thread;
+	}
+
+	private void join(Thread thread, AtomicReference<Throwable> failure) throws Exception {
+		thread.join(testTimeout);
+		assertFalse("Thread did not finish, manager may be deadlocked", thread.isAlive()); //$NON-NLS-1$
+		if (failure.get() != null) {
+			throw new AssertionError("Thread failed", failure.get()); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Tests that changing the value of a registered variable while variables
+	 * are added and removed on another thread does not deadlock.
+	 *
+	 * @throws Exception
+	 */
+	public void testConcurrentSetValueAndAddVariables() throws Exception {
+		final IStringVariableManager manager = getManager();
+		final IValueVariable changing = manager.newValueVariable("StringVariableManagerTests.changing", null); //$NON-NLS-1$
+		manager.addVariables(new IValueVariable[] { changing });
+		try {
+			AtomicReference<Throwable> failure = new AtomicReference<>();
+			Thread setter = start(new Runnable() {
+				@Override
+				public void run() {
+					for (int i = 0; i < ITERATIONS; i++) {
+						changing.setValue(Integer.toString(i));
+					}
+				}
+			}, failure);
+			Thread adder = start(new Runnable() {
+				@Override
+				public void run() {
+					for (int i = 0; i < ITERATIONS; i++) {
+						IValueVariable added = manager.newValueVariable("StringVariableManagerTests.added" + i, null); //$NON-NLS-1$
+						try {
+							manager.addVariables(new IValueVariable[] { added });
+						} catch (Exception e) {
+							throw new IllegalStateException(e);
+						}
+						manager.removeVariables(new IValueVariable[] { added });
+					}
+				}
+			}, failure);
+			join(setter, failure);
+			join(adder, failure);
+			assertEquals("Wrong value", Integer.toString(ITERATIONS - 1), manager.getValueVariable(changing.getName()).getValue()); //$NON-NLS-1$
+		} finally {
+			manager.removeVariables(new IValueVariable[] { changing });
+		}
+	}
+
+	/**
+	 * Tests that a change of the persisted variables from another thread is
+	 * not mistaken for a change the manager made itself while it persists
+	 * variables: once all threads are done, the registered variables match
+	 * the persisted ones.
+	 *
+	 * @throws Exception
+	 */
+	public void testExternalPreferenceChange() throws Exception {
+		final IStringVariableManager manager = getManager();
+		IValueVariable external = manager.newValueVariable("StringVariableManagerTests.external", null, false, "value"); //$NON-NLS-1$ //$NON-NLS-2$
+		manager.addVariables(new IValueVariable[] { external });
+		String persisted = getPreferences().get(PREF_VALUE_VARIABLES, null);
+		assertNotNull("Variables should be persisted", persisted); //$NON-NLS-1$
+		manager.removeVariables(new IValueVariable[] { external });
+		assertNull("Variable should be removed", manager.getValueVariable(external.getName())); //$NON-NLS-1$
+
+		final IValueVariable changing = manager.newValueVariable("StringVariableManagerTests.changing", null); //$NON-NLS-1$
+		manager.addVariables(new IValueVariable[] { changing });
+		try {
+			AtomicReference<Throwable> failure = new AtomicReference<>();
+			final AtomicBoolean done = new AtomicBoolean();
+			Thread setter = start(new Runnable() {
+				@Override
+				public void run() {
+					for (int i = 0; !done.get(); i++) {
+						changing.setValue(Integer.toString(i));
+					}
+				}
+			}, failure);
+			try {
+				// replaces the registered value variables by the ones persisted earlier,
+				// unless the setter persists its variables after the change
+				getPreferences().put(PREF_VALUE_VARIABLES, persisted);
+			} finally {
+				done.set(true);
+			}
+			join(setter, failure);
+			boolean isPersisted = getPreferences().get(PREF_VALUE_VARIABLES, "").contains(external.getName()); //$NON-NLS-1$
+			assertEquals("Registered variables should match the persisted ones", isPersisted, manager.getValueVariable(external.getName()) != null); //$NON-NLS-1$
+
+			getPreferences().put(PREF_VALUE_VARIABLES, persisted);
+			IValueVariable restored = manager.getValueVariable(external.getName());
+			assertNotNull("External change should be applied", restored); //$NON-NLS-1$
+			assertEquals("Wrong value", "value", restored.getValue()); //$NON-NLS-1$ //$NON-NLS-2$
+		} finally {
+			IValueVariable restored = manager.getValueVariable(external.getName());
+			if (restored != null) {
+				manager.removeVariables(new IValueVariable[] { restored });
+			}
+			IValueVariable registered = manager.getValueVariable(changing.getName());
+			if (registered != null) {
+				manager.removeVariables(new IValueVariable[] { registered });
+			}
+		}
+	}
+}
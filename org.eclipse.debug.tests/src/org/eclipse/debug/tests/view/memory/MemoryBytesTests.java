@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.debug.tests.view.memory;
+
+import org.eclipse.debug.core.model.MemoryByte;
+import org.eclipse.debug.core.model.MemoryBytes;
+import org.eclipse.debug.internal.ui.views.memory.renderings.TableRenderingLine;
+import org.eclipse.debug.tests.AbstractDebugTest;
+
+/**
+ * Tests the byte array memory model and table rendering lines backed by it
+ */
+public class MemoryBytesTests extends AbstractDebugTest {
+
+	private static final byte RW = MemoryByte.READABLE | MemoryByte.WRITABLE;
+
+	public MemoryBytesTests(String name) {
+		super(name);
+	}
+
+	/**
+	 * Tests that attributes kept as runs are the attributes of each byte.
+	 */
+	public void testFlagRuns() {
+		byte[] values = new byte[] { 1, 2, 3, 4, 5, 6 };
+		byte[] flags = new byte[] { RW, RW, 0, 0, 0, RW };
+		MemoryBytes bytes = new MemoryBytes(values, flags);
+		assertEquals("Wrong length", 6, bytes.getLength()); //$NON-NLS-1$
+		for (int i = 0; i < flags.length; i++) {
+			assertEquals("Wrong value", values[i], bytes.getValue(i)); //$NON-NLS-1$
+			assertEquals("Wrong flags", flags[i], bytes.getFlags(i)); //$NON-NLS-1$
+		}
+		byte[] range = new byte[4];
+		bytes.getFlags(1, range, 0, 4);
+		assertEquals("Wrong flags", RW, range[0]); //$NON-NLS-1$
+		assertEquals("Wrong flags", 0, range[1]); //$NON-NLS-1$
+		assertEquals("Wrong flags", 0, range[3]); //$NON-NLS-1$
+		MemoryByte[] converted = bytes.toMemoryBytes();
+		assertEquals("Wrong length", 6, converted.length); //$NON-NLS-1$
+		assertEquals("Wrong flags", 0, converted[4].getFlags()); //$NON-NLS-1$
+		assertTrue("Should be readable", converted[5].isReadable()); //$NON-NLS-1$
+		assertEquals("Wrong value", 6, converted[5].getValue()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests conversion from memory bytes returned by existing memory blocks.
+	 */
+	public void testValueOf() {
+		MemoryByte[] memory = new MemoryByte[] {
+				new MemoryByte((byte) 7, RW), new MemoryByte((byte) 8, (byte) 0) };
+		MemoryBytes bytes = MemoryBytes.valueOf(memory);
+		assertEquals("Wrong value", 7, bytes.getValue(0)); //$NON-NLS-1$
+		assertEquals("Wrong flags", RW, bytes.getFlags(0)); //$NON-NLS-1$
+		assertEquals("Wrong value", 8, bytes.getValue(1)); //$NON-NLS-1$
+		assertEquals("Wrong flags", 0, bytes.getFlags(1)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Tests change detection between two table rendering lines.
+	 */
+	public void testLineDeltas() {
+		TableRenderingLine oldLine = new TableRenderingLine("00", new byte[] { 1, 2, 3, 4 }, new byte[] { RW, RW, RW, 0 }, 0, "??"); //$NON-NLS-1$ //$NON-NLS-2$
+		TableRenderingLine newLine = new TableRenderingLine("00", new byte[] { 1, 9, 3, 4 }, new byte[] { RW, RW, RW, RW }, 0, "??"); //$NON-NLS-1$ //$NON-NLS-2$
+		assertEquals("Unreadable byte should be padded", "010203??", oldLine.getRawMemoryString()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue("Line should have changed", newLine.isLineChanged(oldLine)); //$NON-NLS-1$
+		newLine.markDeltas(oldLine);
+		assertFalse("Byte should not have changed", newLine.isRangeChange(0, 0)); //$NON-NLS-1$
+		assertTrue("Byte should have changed", newLine.isRangeChange(1, 1)); //$NON-NLS-1$
+		assertTrue("Byte should have become readable", newLine.isRangeChange(3, 3)); //$NON-NLS-1$
+		newLine.unmarkDeltas();
+		assertFalse("Changes should be cleared", newLine.isRangeChange(0, 3)); //$NON-NLS-1$
+		assertTrue("History should be known", newLine.getByte(1).isHistoryKnown()); //$NON-NLS-1$
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2004, 2016 IBM Corporation and others.
+ *  Copyright (c) 2004, 2018 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -79,6 +79,8 @@ public class DebugUIPreferenceInitializer extends AbstractPreferenceInitializer
 		prefs.setDefault(IDebugPreferenceConstants.CONSOLE_LIMIT_CONSOLE_OUTPUT, true);
 		prefs.setDefault(IDebugPreferenceConstants.CONSOLE_LOW_WATER_MARK, 80000);
 		prefs.setDefault(IDebugPreferenceConstants.CONSOLE_HIGH_WATER_MARK, 100000);
+		prefs.setDefault(IDebugPreferenceConstants.CONSOLE_FILE_BACKED, false);
+		prefs.setDefault(IDebugPreferenceConstants.CONSOLE_FLOW_CONTROL, false);
 		prefs.setDefault(IDebugPreferenceConstants.CONSOLE_TAB_WIDTH, 8);
 
 		// console colors
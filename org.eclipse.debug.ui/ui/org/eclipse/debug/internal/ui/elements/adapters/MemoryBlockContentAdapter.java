@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -14,7 +14,7 @@
 package org.eclipse.debug.internal.ui.elements.adapters;
 
 import java.math.BigInteger;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Vector;
 
 import org.eclipse.core.runtime.CoreException;
@@ -23,6 +23,7 @@ import org.eclipse.debug.core.model.IDebugTarget;
 import org.eclipse.debug.core.model.IMemoryBlock;
 import org.eclipse.debug.core.model.IMemoryBlockExtension;
 import org.eclipse.debug.core.model.MemoryByte;
+import org.eclipse.debug.core.model.MemoryBytes;
 import org.eclipse.debug.internal.ui.DebugUIMessages;
 import org.eclipse.debug.internal.ui.DebugUIPlugin;
 import org.eclipse.debug.internal.ui.memory.provisional.AbstractAsyncTableRendering;
@@ -257,7 +258,9 @@ public class MemoryBlockContentAdapter extends AsynchronousContentAdapter {
 		}
 
 		IMemoryBlockExtension extMemoryBlock = null;
-		MemoryByte[] memoryBuffer = null;
+		// values and attributes of the bytes retrieved
+		byte[] values = null;
+		byte[] flags = null;
 
 		long reqNumBytes = 0;
 		try {
@@ -269,12 +272,17 @@ public class MemoryBlockContentAdapter extends AsynchronousContentAdapter {
 
 				long reqNumberOfUnits = tableRendering.getAddressableUnitPerLine() * numberOfLines;
 
-				memoryBuffer = extMemoryBlock.getBytesFromAddress(startAddress, reqNumberOfUnits);
+				MemoryBytes memoryBytes = MemoryBytes.getBytesFromAddress(extMemoryBlock, startAddress, reqNumberOfUnits);
 
-				if (memoryBuffer == null) {
+				if (memoryBytes == null) {
 					DebugException e = new DebugException(DebugUIPlugin.newErrorStatus(DebugUIMessages.MemoryViewContentProvider_Unable_to_retrieve_content, null));
 					throw e;
 				}
+
+				values = new byte[memoryBytes.getLength()];
+				flags = new byte[values.length];
+				memoryBytes.getValues(0, values, 0, values.length);
+				memoryBytes.getFlags(0, flags, 0, flags.length);
 			} else {
 				// get memory from memory block
 				byte[] memory = descriptor.getMemoryBlock().getBytes();
@@ -304,72 +312,36 @@ public class MemoryBlockContentAdapter extends AsynchronousContentAdapter {
 
 				numberOfLines = reqNumBytes / tableRendering.getBytesPerLine();
 
-				// create memory byte for IMemoryBlock
-				memoryBuffer = new MemoryByte[(int) reqNumBytes];
-
-				// prefill buffer to ensure double-word alignment
-				for (int i = 0; i < prefillNumBytes; i++) {
-					MemoryByte tmp = new MemoryByte();
-					tmp.setValue((byte) 0);
-					tmp.setWritable(false);
-					tmp.setReadable(false);
-					tmp.setEndianessKnown(false);
-					memoryBuffer[i] = tmp;
-				}
+				// bytes prefilled to ensure double-word alignment and
+				// appended to fill up the entire line are neither
+				// readable nor writable
+				values = new byte[(int) reqNumBytes];
+				flags = new byte[(int) reqNumBytes];
 
 				// fill buffer with memory returned by debug adapter
-				int j = prefillNumBytes; // counter for memoryBuffer
-				for (int i = 0; i < memory.length; i++) {
-					MemoryByte tmp = new MemoryByte();
-					tmp.setValue(memory[i]);
-					tmp.setReadable(true);
-					tmp.setWritable(true);
-					tmp.setEndianessKnown(false);
-					memoryBuffer[j] = tmp;
-					j++;
-				}
-
-				// append to buffer to fill up the entire line
-				for (int i = j; i < memoryBuffer.length; i++) {
-					MemoryByte tmp = new MemoryByte();
-					tmp.setValue((byte) 0);
-					tmp.setWritable(false);
-					tmp.setReadable(false);
-					tmp.setEndianessKnown(false);
-					memoryBuffer[i] = tmp;
-				}
+				System.arraycopy(memory, 0, values, prefillNumBytes, memory.length);
+				Arrays.fill(flags, prefillNumBytes, prefillNumBytes + memory.length, (byte) (MemoryByte.READABLE | MemoryByte.WRITABLE));
 			}
 		} catch (DebugException e) {
-			memoryBuffer = makeDummyContent(numberOfLines, tableRendering.getBytesPerLine());
+			values = makeDummyContent(numberOfLines, tableRendering.getBytesPerLine());
+			flags = new byte[values.length];
 
 			// finish creating the content provider before throwing an event
 			dbgEvt = e;
 		} catch (Throwable e) {
 			// catch all errors from this process just to be safe
-			memoryBuffer = makeDummyContent(numberOfLines, tableRendering.getBytesPerLine());
+			values = makeDummyContent(numberOfLines, tableRendering.getBytesPerLine());
+			flags = new byte[values.length];
 
 			// finish creating the content provider before throwing an event
 			dbgEvt = new DebugException(DebugUIPlugin.newErrorStatus(e.getMessage(), e));
 		}
 
 		// if debug adapter did not return enough memory, create dummy memory
-		if (memoryBuffer.length < reqNumBytes) {
-			ArrayList<MemoryByte> newBuffer = new ArrayList<>();
-
-			for (int i = 0; i < memoryBuffer.length; i++) {
-				newBuffer.add(memoryBuffer[i]);
-			}
-
-			for (int i = memoryBuffer.length; i < reqNumBytes; i++) {
-				MemoryByte mb = new MemoryByte();
-				mb.setReadable(false);
-				mb.setWritable(false);
-				mb.setEndianessKnown(false);
-				newBuffer.add(mb);
-			}
-
-			memoryBuffer = newBuffer.toArray(new MemoryByte[newBuffer.size()]);
-
+		// that is neither readable nor writable
+		if (values.length < reqNumBytes) {
+			values = Arrays.copyOf(values, (int) reqNumBytes);
+			flags = Arrays.copyOf(flags, (int) reqNumBytes);
 		}
 
 		boolean manageDelta = true;
@@ -386,11 +358,11 @@ public class MemoryBlockContentAdapter extends AsynchronousContentAdapter {
 		}
 
 		// put memory information into MemoryViewLine
-		return organizeLines(numberOfLines, memoryBuffer, startAddress, manageDelta, context);
+		return organizeLines(numberOfLines, values, flags, startAddress, manageDelta, context);
 
 	}
 
-	private Object[] organizeLines(long numberOfLines, MemoryByte[] memoryBuffer, BigInteger address, boolean manageDelta, MemoryViewPresentationContext context) {
+	private Object[] organizeLines(long numberOfLines, byte[] values, byte[] flags, BigInteger address, boolean manageDelta, MemoryViewPresentationContext context) {
 		Vector<MemorySegment> lineCache = new Vector<>();
 		IMemoryRendering rendering = context.getRendering();
 		if (!(rendering instanceof AbstractAsyncTableRendering)) {
@@ -409,20 +381,15 @@ public class MemoryBlockContentAdapter extends AsynchronousContentAdapter {
 			// j is the counter for memArray, memory returned by debug adapter
 			for (int j = i * bytesPerLine; j < i * bytesPerLine + bytesPerLine; j++) {
 
-				byte changeFlag = memoryBuffer[j].getFlags();
+				byte changeFlag = flags[j];
 				if (manageDelta) {
 					// turn off both change and known bits to make sure that
 					// the change bits returned by debug adapters do not take
 					// any effect
-
-					changeFlag |= MemoryByte.HISTORY_KNOWN;
-					changeFlag ^= MemoryByte.HISTORY_KNOWN;
-
-					changeFlag |= MemoryByte.CHANGED;
-					changeFlag ^= MemoryByte.CHANGED;
+					changeFlag &= ~(MemoryByte.HISTORY_KNOWN | MemoryByte.CHANGED);
 				}
 
-				MemoryByte newByteObj = new MemoryByte(memoryBuffer[j].getValue(), changeFlag);
+				MemoryByte newByteObj = new MemoryByte(values[j], changeFlag);
 				memory[k] = newByteObj;
 				k++;
 			}
@@ -436,24 +403,14 @@ public class MemoryBlockContentAdapter extends AsynchronousContentAdapter {
 
 	/**
 	 * @param numberOfLines
-	 * @return an array of dummy MemoryByte
+	 * @return values of dummy bytes, which are neither readable nor writable
 	 */
-	private MemoryByte[] makeDummyContent(long numberOfLines, int bytesPerLine) {
-		MemoryByte[] memoryBuffer;
+	private byte[] makeDummyContent(long numberOfLines, int bytesPerLine) {
 		// make up dummy memory, needed for recovery in case the debug adapter
 		// is capable of retrieving memory again
 
 		int numBytes = (int) (bytesPerLine * numberOfLines);
-		memoryBuffer = new MemoryByte[numBytes];
-
-		for (int i = 0; i < memoryBuffer.length; i++) {
-			memoryBuffer[i] = new MemoryByte();
-			memoryBuffer[i].setValue((byte) 0);
-			memoryBuffer[i].setWritable(false);
-			memoryBuffer[i].setReadable(false);
-			memoryBuffer[i].setEndianessKnown(false);
-		}
-		return memoryBuffer;
+		return new byte[numBytes];
 	}
 
 	protected AbstractAsyncTableRendering getTableRendering(MemoryViewPresentationContext context) {
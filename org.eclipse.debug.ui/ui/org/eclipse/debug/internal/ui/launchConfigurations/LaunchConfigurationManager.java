@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -22,6 +22,7 @@ import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -53,6 +54,7 @@ import org.eclipse.debug.core.ILaunchDelegate;
 import org.eclipse.debug.core.ILaunchListener;
 import org.eclipse.debug.core.ILaunchManager;
 import org.eclipse.debug.internal.core.IConfigurationElementConstants;
+import org.eclipse.debug.internal.core.LaunchConfigurationResourceIndex;
 import org.eclipse.debug.internal.core.LaunchManager;
 import org.eclipse.debug.internal.ui.DebugPluginImages;
 import org.eclipse.debug.internal.ui.DebugUIPlugin;
@@ -777,25 +779,17 @@ public class LaunchConfigurationManager implements ILaunchListener, ISavePartici
 				for(int i = 0; i < ctypes.length; i++) {
 					typeset.add(ctypes[i]);
 				}
-				ILaunchConfiguration[] configurations = filterConfigs(getLaunchManager().getLaunchConfigurations());
+				// configurations mapped at or below the resource, and those with no mapping
+				LaunchConfigurationResourceIndex index = getLaunchManager().getResourceIndex();
+				Set<ILaunchConfiguration> candidates = new LinkedHashSet<>();
+				Collections.addAll(candidates, index.getConfigurationsMappedBelow(resource));
+				Collections.addAll(candidates, index.getUnmappedConfigurations());
+				ILaunchConfiguration[] configurations = filterConfigs(candidates.toArray(new ILaunchConfiguration[candidates.size()]));
 				ILaunchConfiguration configuration = null;
-				IResource[] resrcs = null;
 				for(int i = 0; i < configurations.length; i++) {
 					configuration = configurations[i];
 					if(typeset.contains(configuration.getType().getIdentifier()) && acceptConfiguration(configuration)) {
-						resrcs = configuration.getMappedResources();
-						if (resrcs != null) {
-							for (int j = 0; j < resrcs.length; j++) {
-								if (resource.equals(resrcs[j]) || resource.getFullPath().isPrefixOf(resrcs[j].getFullPath())) {
-									list.add(configuration);
-									break;
-								}
-							}
-						}
-						else {
-							//in the event the config has no mapping
-							list.add(configuration);
-						}
+						list.add(configuration);
 					}
 				}
 			}
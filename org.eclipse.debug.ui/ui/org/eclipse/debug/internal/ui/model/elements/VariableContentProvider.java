@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2013 IBM Corporation and others.
+ * Copyright (c) 2006, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -18,9 +18,12 @@ import org.eclipse.debug.core.DebugEvent;
 import org.eclipse.debug.core.DebugException;
 import org.eclipse.debug.core.DebugPlugin;
 import org.eclipse.debug.core.IDebugEventSetListener;
+import org.eclipse.debug.core.ILaunch;
 import org.eclipse.debug.core.ILogicalStructureType;
 import org.eclipse.debug.core.model.IDebugElement;
+import org.eclipse.debug.core.model.IDebugTarget;
 import org.eclipse.debug.core.model.IIndexedValue;
+import org.eclipse.debug.core.model.IProcess;
 import org.eclipse.debug.core.model.IValue;
 import org.eclipse.debug.core.model.IVariable;
 import org.eclipse.debug.internal.ui.viewers.model.provisional.IPresentationContext;
@@ -233,8 +236,8 @@ public class VariableContentProvider extends ElementContentProvider {
 
     /**
      * Returns the logical structure cache to use to store calculated structures.  If the cache does not
-     * exist yet, one is created and a debug event listener is added to clear the cache on RESUME and
-     * TERMINATE events.
+     * exist yet, one is created and a debug event listener is added to clear the cache of a debug
+     * target on its RESUME, SUSPEND, TERMINATE and CONTENT change events.
      *
      * @return the logical structure cache to use
      */
@@ -247,18 +250,38 @@ public class VariableContentProvider extends ElementContentProvider {
 				public void handleDebugEvents(DebugEvent[] events) {
 					for (int i = 0; i < events.length; i++) {
 						if (events[i].getKind() == DebugEvent.TERMINATE){
-							fgLogicalCache.clear();
-							break;
+							clear(events[i].getSource());
 						} else if (events[i].getKind() == DebugEvent.RESUME && events[i].getDetail() != DebugEvent.EVALUATION_IMPLICIT){
-							fgLogicalCache.clear();
-							break;
+							clear(events[i].getSource());
 						} else if (events[i].getKind() == DebugEvent.SUSPEND && events[i].getDetail() != DebugEvent.EVALUATION_IMPLICIT){
-								fgLogicalCache.clear();
-								break;
+							clear(events[i].getSource());
 						} else if (events[i].getKind() == DebugEvent.CHANGE && events[i].getDetail() == DebugEvent.CONTENT){
+							clear(events[i].getSource());
+						}
+					}
+				}
+
+				/**
+				 * Clears the structures computed for the debug target of the given
+				 * event source, or all structures if the source has no debug target.
+				 */
+				private void clear(Object source) {
+					if (source instanceof IDebugElement) {
+						IDebugTarget target = ((IDebugElement) source).getDebugTarget();
+						if (target != null) {
+							fgLogicalCache.clear(target);
+						} else {
 							fgLogicalCache.clear();
-							break;
 						}
+					} else if (source instanceof IProcess) {
+						ILaunch launch = ((IProcess) source).getLaunch();
+						if (launch != null) {
+							for (IDebugTarget target : launch.getDebugTargets()) {
+								fgLogicalCache.clear(target);
+							}
+						}
+					} else {
+						fgLogicalCache.clear();
 					}
 				}
     		});
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -135,6 +135,9 @@ public class ConsolePreferencePage extends FieldEditorPreferencePage implements
 			}
 		);
 
+		addField(new BooleanFieldEditor(IDebugPreferenceConstants.CONSOLE_FILE_BACKED, DebugPreferencesMessages.ConsolePreferencePage_Store_console_output_in_file, SWT.NONE, getFieldEditorParent()));
+		addField(new BooleanFieldEditor(IDebugPreferenceConstants.CONSOLE_FLOW_CONTROL, DebugPreferencesMessages.ConsolePreferencePage_Pause_program_output, SWT.NONE, getFieldEditorParent()));
+
 		fTabSizeEditor = new ConsoleIntegerFieldEditor(IDebugPreferenceConstants.CONSOLE_TAB_WIDTH, DebugPreferencesMessages.ConsolePreferencePage_12, getFieldEditorParent());
 		addField(fTabSizeEditor);
 		fTabSizeEditor.setValidRange(1,100);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2016 IBM Corporation and others.
+ *  Copyright (c) 2000, 2018 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -28,6 +28,8 @@ public class DebugPreferencesMessages extends NLS {
 	public static String ConsolePreferencePage_Limit_console_output_1;
 	public static String ConsolePreferencePage_Console_buffer_size__characters___2;
 	public static String ConsolePreferencePage_The_console_buffer_size_must_be_at_least_1000_characters__1;
+	public static String ConsolePreferencePage_Store_console_output_in_file;
+	public static String ConsolePreferencePage_Pause_program_output;
 	public static String ConsolePreferencePage_console_width;
 	public static String ConsolePreferencePage_12;
 	public static String ConsolePreferencePage_13;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -77,6 +77,19 @@ public interface IDebugPreferenceConstants {
 	public static final String CONSOLE_LOW_WATER_MARK = "Console.lowWaterMark"; //$NON-NLS-1$
 	public static final String CONSOLE_HIGH_WATER_MARK = "Console.highWaterMark"; //$NON-NLS-1$
 
+	/**
+	 * (boolean) Whether console output is kept in a memory-mapped temporary
+	 * file rather than on the heap.
+	 */
+	public static final String CONSOLE_FILE_BACKED = "Console.fileBacked"; //$NON-NLS-1$
+
+	/**
+	 * (boolean) Whether reading of process output is paused while more than
+	 * 100000 characters wait to be appended to the console, until no more
+	 * than 20000 do. The process may then block when writing. Off by default.
+	 */
+	public static final String CONSOLE_FLOW_CONTROL = "Console.flowControl"; //$NON-NLS-1$
+
 	/**
 	 * Integer preference specifying the number of spaces composing a
 	 * tab in the console.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2000, 2015 IBM Corporation and others.
+ *  Copyright (c) 2000, 2018 IBM Corporation and others.
  *  All rights reserved. This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License v1.0
  *  which accompanies this distribution, and is available at
@@ -41,6 +41,7 @@ import org.eclipse.debug.core.IDebugEventSetListener;
 import org.eclipse.debug.core.ILaunchConfiguration;
 import org.eclipse.debug.core.ILaunchConfigurationType;
 import org.eclipse.debug.core.IStreamListener;
+import org.eclipse.debug.core.model.IFlowControlledStreamsProxy;
 import org.eclipse.debug.core.model.IFlushableStreamMonitor;
 import org.eclipse.debug.core.model.IProcess;
 import org.eclipse.debug.core.model.IStreamMonitor;
@@ -71,6 +72,7 @@ import org.eclipse.ui.IStorageEditorInput;
 import org.eclipse.ui.IWorkbenchPage;
 import org.eclipse.ui.PartInitException;
 import org.eclipse.ui.console.ConsolePlugin;
+import org.eclipse.ui.console.IConsoleBacklogListener;
 import org.eclipse.ui.console.IHyperlink;
 import org.eclipse.ui.console.IOConsole;
 import org.eclipse.ui.console.IOConsoleInputStream;
@@ -107,6 +109,26 @@ public class ProcessConsole extends IOConsole implements IConsole, IDebugEventSe
 
     private boolean fStreamsClosed = false;
 
+	/**
+	 * Number of characters waiting to be appended to the console above which
+	 * reading of the process output is throttled, and the number at or below
+	 * which it is resumed
+	 */
+	private static final int BACKLOG_HIGH_WATERMARK = 100000;
+	private static final int BACKLOG_LOW_WATERMARK = 20000;
+
+	/**
+	 * Streams proxy of the process if it supports flow control, or
+	 * <code>null</code>
+	 */
+	private IFlowControlledStreamsProxy fFlowControlledProxy;
+
+	/**
+	 * Applies back-pressure to the process streams, or <code>null</code> if
+	 * flow control is off or not supported by the streams proxy
+	 */
+	private FlowControlListener fFlowControlListener;
+
     /**
      * Proxy to a console document
      */
@@ -317,6 +339,10 @@ public class ProcessConsole extends IOConsole implements IConsole, IDebugEventSe
             } else {
                 setWaterMarks(-1, -1);
             }
+        } else if (property.equals(IDebugPreferenceConstants.CONSOLE_FILE_BACKED)) {
+            setFileBacked(store.getBoolean(IDebugPreferenceConstants.CONSOLE_FILE_BACKED));
+        } else if (property.equals(IDebugPreferenceConstants.CONSOLE_FLOW_CONTROL)) {
+            setFlowControl(store.getBoolean(IDebugPreferenceConstants.CONSOLE_FLOW_CONTROL));
         } else if (property.equals(IDebugPreferenceConstants.CONSOLE_TAB_WIDTH)) {
             int tabWidth = store.getInt(IDebugPreferenceConstants.CONSOLE_TAB_WIDTH);
             setTabWidth(tabWidth);
@@ -384,6 +410,7 @@ public class ProcessConsole extends IOConsole implements IConsole, IDebugEventSe
     @Override
 	protected void dispose() {
         super.dispose();
+        setFlowControl(false);
         fColorProvider.disconnect();
         closeStreams();
         disposeStreams();
@@ -455,6 +482,9 @@ public class ProcessConsole extends IOConsole implements IConsole, IDebugEventSe
             int lowWater = store.getInt(IDebugPreferenceConstants.CONSOLE_LOW_WATER_MARK);
             setWaterMarks(lowWater, highWater);
         }
+        if (store.getBoolean(IDebugPreferenceConstants.CONSOLE_FILE_BACKED)) {
+            setFileBacked(true);
+        }
 
         DebugUIPlugin.getStandardDisplay().asyncExec(new Runnable() {
             @Override
@@ -529,11 +559,34 @@ public class ProcessConsole extends IOConsole implements IConsole, IDebugEventSe
             connect(streamMonitor, IDebugUIConstants.ID_STANDARD_OUTPUT_STREAM,
             		store.getBoolean(IDebugPreferenceConstants.CONSOLE_OPEN_ON_OUT));
         }
+        if (fAllocateConsole && streamsProxy instanceof IFlowControlledStreamsProxy) {
+            fFlowControlledProxy = (IFlowControlledStreamsProxy) streamsProxy;
+            setFlowControl(store.getBoolean(IDebugPreferenceConstants.CONSOLE_FLOW_CONTROL));
+        }
         InputReadJob readJob = new InputReadJob(streamsProxy);
         readJob.setSystem(true);
         readJob.schedule();
     }
 
+    /**
+     * Starts or stops throttling the process output while the console cannot
+     * keep up with it. Has no effect if the streams proxy of the process does
+     * not support flow control.
+     *
+     * @param enabled whether to throttle the process output
+     */
+    private synchronized void setFlowControl(boolean enabled) {
+        if (enabled && fFlowControlListener == null && fFlowControlledProxy != null) {
+            fFlowControlListener = new FlowControlListener(fFlowControlledProxy);
+            setBacklogWatermarks(BACKLOG_LOW_WATERMARK, BACKLOG_HIGH_WATERMARK);
+            addBacklogListener(fFlowControlListener);
+        } else if (!enabled && fFlowControlListener != null) {
+            removeBacklogListener(fFlowControlListener);
+            fFlowControlListener.release();
+            fFlowControlListener = null;
+        }
+    }
+
     /**
      * @see org.eclipse.debug.ui.console.IConsole#connect(org.eclipse.debug.core.model.IStreamMonitor, java.lang.String)
      */
@@ -709,6 +762,31 @@ public class ProcessConsole extends IOConsole implements IConsole, IDebugEventSe
         }
     }
 
+    /**
+     * Throttles the process output while the console cannot keep up with it.
+     */
+    private class FlowControlListener implements IConsoleBacklogListener {
+
+        private IFlowControlledStreamsProxy fProxy;
+
+        FlowControlListener(IFlowControlledStreamsProxy proxy) {
+            fProxy = proxy;
+        }
+
+        @Override
+        public void backlogChanged(IOConsole console, boolean saturated) {
+            fProxy.setConsumerSaturated(fProxy.getOutputStreamMonitor(), saturated);
+            fProxy.setConsumerSaturated(fProxy.getErrorStreamMonitor(), saturated);
+        }
+
+        /**
+         * Resumes the process output, as the console no longer consumes it.
+         */
+        void release() {
+            backlogChanged(ProcessConsole.this, false);
+        }
+    }
+
     private class InputReadJob extends Job {
 
         private IStreamsProxy streamsProxy;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2015 IBM Corporation and others.
+ * Copyright (c) 2004, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -13,6 +13,7 @@ package org.eclipse.debug.internal.ui.views.memory.renderings;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Enumeration;
 import java.util.Hashtable;
 import java.util.Vector;
@@ -25,6 +26,7 @@ import org.eclipse.debug.core.model.IDebugTarget;
 import org.eclipse.debug.core.model.IMemoryBlock;
 import org.eclipse.debug.core.model.IMemoryBlockExtension;
 import org.eclipse.debug.core.model.MemoryByte;
+import org.eclipse.debug.core.model.MemoryBytes;
 import org.eclipse.debug.internal.ui.DebugUIMessages;
 import org.eclipse.debug.internal.ui.DebugUIPlugin;
 import org.eclipse.debug.internal.ui.IInternalDebugUIConstants;
@@ -52,9 +54,10 @@ public class TableRenderingContentProvider extends BasicDebugViewContentProvider
 	// or change event from the the memory block.
 	protected Hashtable<String, TableRenderingLine> contentCache;
 
-	// cache in the form of MemoryByte
+	// cache in the form of values and attributes of bytes
 	// needed for reorganizing cache when the row size changes
-	private MemoryByte[] fContentCacheInBytes;
+	private byte[] fContentCacheValues;
+	private byte[] fContentCacheFlags;
 	private String fContentCacheStartAddress;
 
 	private BigInteger fBufferTopAddress;
@@ -336,7 +339,9 @@ public class TableRenderingContentProvider extends BasicDebugViewContentProvider
 		}
 
 		IMemoryBlockExtension extMemoryBlock = null;
-		MemoryByte[] memoryBuffer = null;
+		// values and attributes of the bytes retrieved
+		byte[] values = null;
+		byte[] flags = null;
 
 		String paddedString = DebugUIPlugin.getDefault().getPreferenceStore().getString(IDebugUIConstants.PREF_PADDED_STR);
 
@@ -351,13 +356,18 @@ public class TableRenderingContentProvider extends BasicDebugViewContentProvider
 
 				long reqNumberOfUnits = getTableRendering(fInput).getAddressableUnitPerLine() * numberOfLines;
 
-				memoryBuffer =	extMemoryBlock.getBytesFromAddress(startingAddress,	reqNumberOfUnits);
+				MemoryBytes memoryBytes = MemoryBytes.getBytesFromAddress(extMemoryBlock, startingAddress, reqNumberOfUnits);
 
-				if(memoryBuffer == null)
+				if(memoryBytes == null)
 				{
 					DebugException e = new DebugException(DebugUIPlugin.newErrorStatus(DebugUIMessages.MemoryViewContentProvider_Unable_to_retrieve_content, null));
 					throw e;
 				}
+
+				values = new byte[memoryBytes.getLength()];
+				flags = new byte[values.length];
+				memoryBytes.getValues(0, values, 0, values.length);
+				memoryBytes.getFlags(0, flags, 0, flags.length);
 			}
 			else
 			{
@@ -391,48 +401,21 @@ public class TableRenderingContentProvider extends BasicDebugViewContentProvider
 
 				numberOfLines = reqNumBytes / getTableRendering(fInput).getBytesPerLine();
 
-				// create memory byte for IMemoryBlock
-				memoryBuffer = new MemoryByte[(int)reqNumBytes];
-
-				// prefill buffer to ensure double-word alignment
-				for (int i=0; i<prefillNumBytes; i++)
-				{
-					MemoryByte tmp = new MemoryByte();
-					tmp.setValue((byte)0);
-					tmp.setWritable(false);
-					tmp.setReadable(false);
-					tmp.setEndianessKnown(false);
-					memoryBuffer[i] = tmp;
-				}
+				// bytes prefilled to ensure double-word alignment and
+				// appended to fill up the entire line are neither
+				// readable nor writable
+				values = new byte[(int)reqNumBytes];
+				flags = new byte[(int)reqNumBytes];
 
 				// fill buffer with memory returned by debug adapter
-				int j = prefillNumBytes; 							// counter for memoryBuffer
-				for (int i=0; i<memory.length; i++)
-				{
-					MemoryByte tmp = new MemoryByte();
-					tmp.setValue(memory[i]);
-					tmp.setReadable(true);
-					tmp.setWritable(true);
-					tmp.setEndianessKnown(false);
-					memoryBuffer[j] = tmp;
-					j++;
-				}
-
-				// append to buffer to fill up the entire line
-				for (int i=j; i<memoryBuffer.length; i++)
-				{
-					MemoryByte tmp = new MemoryByte();
-					tmp.setValue((byte)0);
-					tmp.setWritable(false);
-					tmp.setReadable(false);
-					tmp.setEndianessKnown(false);
-					memoryBuffer[i] = tmp;
-				}
+				System.arraycopy(memory, 0, values, prefillNumBytes, memory.length);
+				Arrays.fill(flags, prefillNumBytes, prefillNumBytes + memory.length, (byte)(MemoryByte.READABLE | MemoryByte.WRITABLE));
 			}
 		}
 		catch (DebugException e)
 		{
-			memoryBuffer = makeDummyContent(numberOfLines);
+			values = makeDummyContent(numberOfLines);
+			flags = new byte[values.length];
 
 			// finish creating the content provider before throwing an event
 			dbgEvt = e;
@@ -440,33 +423,19 @@ public class TableRenderingContentProvider extends BasicDebugViewContentProvider
 		catch (Throwable e)
 		{
 			// catch all errors from this process just to be safe
-			memoryBuffer = makeDummyContent(numberOfLines);
+			values = makeDummyContent(numberOfLines);
+			flags = new byte[values.length];
 
 			// finish creating the content provider before throwing an event
 			dbgEvt = new DebugException(DebugUIPlugin.newErrorStatus(e.getMessage(), e));
 		}
 
 		// if debug adapter did not return enough memory, create dummy memory
-		if (memoryBuffer.length < reqNumBytes)
+		// that is neither readable nor writable
+		if (values.length < reqNumBytes)
 		{
-			ArrayList<MemoryByte> newBuffer = new ArrayList<>();
-
-			for (int i=0; i<memoryBuffer.length; i++)
-			{
-				newBuffer.add(memoryBuffer[i]);
-			}
-
-			for (int i=memoryBuffer.length; i<reqNumBytes; i++)
-			{
-				MemoryByte mb = new MemoryByte();
-				mb.setReadable(false);
-				mb.setWritable(false);
-				mb.setEndianessKnown(false);
-				newBuffer.add(mb);
-			}
-
-			memoryBuffer = newBuffer.toArray(new MemoryByte[newBuffer.size()]);
-
+			values = Arrays.copyOf(values, (int)reqNumBytes);
+			flags = Arrays.copyOf(flags, (int)reqNumBytes);
 		}
 
 		// clear line cache
@@ -489,14 +458,14 @@ public class TableRenderingContentProvider extends BasicDebugViewContentProvider
 		}
 
 		// put memory information into MemoryViewLine
-		organizeLines(numberOfLines, updateDelta, addressLength, memoryBuffer, paddedString, address, manageDelta);
+		organizeLines(numberOfLines, updateDelta, addressLength, values, flags, paddedString, address, manageDelta);
 
 		if (dbgEvt != null){
 			throw dbgEvt;
 		}
 	}
 
-	private void organizeLines(long numberOfLines, boolean updateDelta, int addressLength, MemoryByte[] memoryBuffer, String paddedString, String address, boolean manageDelta)
+	private void organizeLines(long numberOfLines, boolean updateDelta, int addressLength, byte[] values, byte[] flags, String paddedString, String address, boolean manageDelta)
 	{
 		for (int i = 0; i < numberOfLines; i++)
 		{   //chop the raw memory up
@@ -509,47 +478,31 @@ public class TableRenderingContentProvider extends BasicDebugViewContentProvider
 				}
 			}
 			int bytesPerLine = getTableRendering(fInput).getBytesPerLine();
-			MemoryByte[] memory = new MemoryByte[bytesPerLine];
+			int lineStart = i * bytesPerLine;
+			byte[] lineValues = Arrays.copyOfRange(values, lineStart, lineStart + bytesPerLine);
+			byte[] lineFlags = Arrays.copyOfRange(flags, lineStart, lineStart + bytesPerLine);
 			boolean isMonitored = true;
 
-			// counter for memory, starts from 0 to number of bytes per line
-			int k = 0;
-			// j is the counter for memArray, memory returned by debug adapter
-			for (int j = i * bytesPerLine;
-				j < i * bytesPerLine + bytesPerLine;
-				j++)
+			for (int k = 0; k < bytesPerLine; k++)
 			{
-
-				byte changeFlag = memoryBuffer[j].getFlags();
 				if (manageDelta)
 				{
 					// turn off both change and known bits to make sure that
 					// the change bits returned by debug adapters do not take
 					// any effect
-
-					changeFlag |= MemoryByte.HISTORY_KNOWN;
-					changeFlag ^= MemoryByte.HISTORY_KNOWN;
-
-					changeFlag |= MemoryByte.CHANGED;
-					changeFlag ^= MemoryByte.CHANGED;
+					lineFlags[k] &= ~(MemoryByte.HISTORY_KNOWN | MemoryByte.CHANGED);
 				}
-
-				MemoryByte newByteObj = new MemoryByte(memoryBuffer[j].getValue(), changeFlag);
-				memory[k] =  newByteObj;
-				k++;
-
-
-				if (!manageDelta)
+				else
 				{
 					// If the byte is marked as unknown, the line is not monitored
-					if (!memoryBuffer[j].isHistoryKnown())
+					if ((lineFlags[k] & MemoryByte.HISTORY_KNOWN) == 0)
 					{
 						isMonitored = false;
 					}
 				}
 			}
 
-			TableRenderingLine newLine = new TableRenderingLine(tmpAddress, memory, lineCache.size(), paddedString);
+			TableRenderingLine newLine = new TableRenderingLine(tmpAddress, lineValues, lineFlags, lineCache.size(), paddedString);
 
 			TableRenderingLine oldLine = contentCache.get(newLine.getAddress());
 
@@ -612,24 +565,14 @@ public class TableRenderingContentProvider extends BasicDebugViewContentProvider
 
 	/**
 	 * @param numberOfLines
-	 * @return an array of dummy MemoryByte
+	 * @return values of dummy bytes, which are neither readable nor writable
 	 */
-	private MemoryByte[] makeDummyContent(long numberOfLines) {
-		MemoryByte[] memoryBuffer;
+	private byte[] makeDummyContent(long numberOfLines) {
 		// make up dummy memory, needed for recovery in case the debug adapter
 		// is capable of retrieving memory again
 
 		int numBytes = (int)(getTableRendering(fInput).getBytesPerLine() * numberOfLines);
-		memoryBuffer = new MemoryByte[numBytes];
-
-		for (int i=0; i<memoryBuffer.length; i++){
-			memoryBuffer[i] = new MemoryByte();
-			memoryBuffer[i].setValue((byte)0);
-			memoryBuffer[i].setWritable(false);
-			memoryBuffer[i].setReadable(false);
-			memoryBuffer[i].setEndianessKnown(false);
-		}
-		return memoryBuffer;
+		return new byte[numBytes];
 	}
 
 	/* (non-Javadoc)
@@ -716,7 +659,8 @@ public class TableRenderingContentProvider extends BasicDebugViewContentProvider
 	{
 		// cache content before getting new ones
 		TableRenderingLine[] lines =lineCache.toArray(new TableRenderingLine[lineCache.size()]);
-		fContentCacheInBytes = convertLinesToBytes(lines);
+		fContentCacheValues = convertLinesToValues(lines);
+		fContentCacheFlags = convertLinesToFlags(lines);
 		fContentCacheStartAddress = lines[0].getAddress();
 
 		if (contentCache != null)
@@ -847,7 +791,8 @@ public class TableRenderingContentProvider extends BasicDebugViewContentProvider
 
 	public void clearContentCache()
 	{
-		fContentCacheInBytes = new MemoryByte[0];
+		fContentCacheValues = new byte[0];
+		fContentCacheFlags = new byte[0];
 		fContentCacheStartAddress = null;
 		contentCache.clear();
 	}
@@ -904,12 +849,12 @@ public class TableRenderingContentProvider extends BasicDebugViewContentProvider
 		if (objs.length > 0)
 		{
 			TableRenderingLine[] renderingLines = lines.toArray(new TableRenderingLine[lines.size()]);
-			MemoryByte[] buffer = convertLinesToBytes(renderingLines);
+			byte[] values = convertLinesToValues(renderingLines);
+			byte[] flags = convertLinesToFlags(renderingLines);
 			BigInteger lineAddress = new BigInteger(renderingLines[0].getAddress(), 16);
-			int numberOfLines = buffer.length / numBytesPerLine;
+			int numberOfLines = values.length / numBytesPerLine;
 			boolean updateDelta = false;
 			int addressLength = getAddressSize(lineAddress) * IInternalDebugUIConstants.CHAR_PER_BYTE;
-			MemoryByte[] memoryBuffer = buffer;
 			String address =renderingLines[0].getAddress();
 			String paddedString = DebugUITools.getPreferenceStore().getString(IDebugUIConstants.PREF_PADDED_STR);
 
@@ -925,7 +870,7 @@ public class TableRenderingContentProvider extends BasicDebugViewContentProvider
 			}
 			lineCache.clear();
 
-			organizeLines(numberOfLines, updateDelta, addressLength, memoryBuffer, paddedString, address, manageDelta);
+			organizeLines(numberOfLines, updateDelta, addressLength, values, flags, paddedString, address, manageDelta);
 		}
 	}
 
@@ -933,12 +878,11 @@ public class TableRenderingContentProvider extends BasicDebugViewContentProvider
 	{
 		// if content cache is empty, do nothing
 		if (contentCache == null || contentCache.isEmpty()
-			|| fContentCacheInBytes.length == 0 || fContentCacheStartAddress == null) {
+			|| fContentCacheValues.length == 0 || fContentCacheStartAddress == null) {
 			return;
 		}
 
-		MemoryByte[] bytes = fContentCacheInBytes;
-		TableRenderingLine[] convertedLines = convertBytesToLines(bytes, bytesPerLine, new BigInteger(fContentCacheStartAddress, 16));
+		TableRenderingLine[] convertedLines = convertBytesToLines(fContentCacheValues, fContentCacheFlags, bytesPerLine, new BigInteger(fContentCacheStartAddress, 16));
 
 		contentCache.clear();
 		for (int i=0; i<convertedLines.length; i++)
@@ -947,25 +891,35 @@ public class TableRenderingContentProvider extends BasicDebugViewContentProvider
 		}
 	}
 
-	private MemoryByte[] convertLinesToBytes(TableRenderingLine[] lines)
+	private byte[] convertLinesToValues(TableRenderingLine[] lines)
+	{
+		// convert the lines back to a buffer of values
+		int lineLength = lines[0].getLength();
+
+		byte[] buffer = new byte[lines.length * lineLength];
+		for (int i=0; i<lines.length; i++)
+		{
+			System.arraycopy(lines[i].getByteArray(), 0, buffer, i*lineLength, lineLength);
+		}
+		return buffer;
+	}
+
+	private byte[] convertLinesToFlags(TableRenderingLine[] lines)
 	{
-		// convert the lines back to a buffer of MemoryByte
-		TableRenderingLine temp = lines[0];
-		int lineLength = temp.getLength();
+		// convert the lines back to a buffer of attributes
+		int lineLength = lines[0].getLength();
 
-		MemoryByte[] buffer = new MemoryByte[lines.length * lineLength];
+		byte[] buffer = new byte[lines.length * lineLength];
 		for (int i=0; i<lines.length; i++)
 		{
-			TableRenderingLine line = lines[i];
-			MemoryByte[] bytes = line.getBytes();
-			System.arraycopy(bytes, 0, buffer, i*lineLength, lineLength);
+			System.arraycopy(lines[i].getFlags(), 0, buffer, i*lineLength, lineLength);
 		}
 		return buffer;
 	}
 
-	private TableRenderingLine[] convertBytesToLines(MemoryByte[] bytes, int bytesPerLine, BigInteger startAddress)
+	private TableRenderingLine[] convertBytesToLines(byte[] values, byte[] flags, int bytesPerLine, BigInteger startAddress)
 	{
-		int numOfLines = bytes.length / bytesPerLine;
+		int numOfLines = values.length / bytesPerLine;
 		String address = startAddress.toString(16);
 		int addressLength;
 		try {
@@ -979,8 +933,8 @@ public class TableRenderingContentProvider extends BasicDebugViewContentProvider
 
 		for (int i=0; i<numOfLines; i++)
 		{
-			MemoryByte[] temp = new MemoryByte[bytesPerLine];
-			System.arraycopy(bytes, i*bytesPerLine, temp, 0, bytesPerLine);
+			byte[] lineValues = Arrays.copyOfRange(values, i*bytesPerLine, (i+1)*bytesPerLine);
+			byte[] lineFlags = Arrays.copyOfRange(flags, i*bytesPerLine, (i+1)*bytesPerLine);
 
 			String tmpAddress = address.toUpperCase();
 			if (tmpAddress.length() < addressLength)
@@ -991,7 +945,7 @@ public class TableRenderingContentProvider extends BasicDebugViewContentProvider
 				}
 			}
 
-			TableRenderingLine newLine = new TableRenderingLine(tmpAddress, temp, lines.size(), paddedString);
+			TableRenderingLine newLine = new TableRenderingLine(tmpAddress, lineValues, lineFlags, lines.size(), paddedString);
 			lines.add(newLine);
 
 			// increment row address
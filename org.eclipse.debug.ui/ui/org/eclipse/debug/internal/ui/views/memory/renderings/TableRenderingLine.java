@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2007 IBM Corporation and others.
+ * Copyright (c) 2004, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,20 +10,24 @@
  *******************************************************************************/
 package org.eclipse.debug.internal.ui.views.memory.renderings;
 
-import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.eclipse.core.runtime.PlatformObject;
 import org.eclipse.debug.core.model.MemoryByte;
 
 /**
+ * A line of a table rendering. The values and attributes of the bytes of the
+ * line are kept in byte arrays; memory byte objects are only created for the
+ * clients asking for them.
+ *
  * @since 3.0
  */
 
 public class TableRenderingLine extends PlatformObject {
 	private String fAddress;
 	private String fStrRep;
-	private MemoryByte[] fBytes;
-	private byte[] fByteArray;
+	private byte[] fValues;
+	private byte[] fFlags;
 	private int fTableIndex = -1;
 	private String fPaddedString;
 	public boolean isMonitored;
@@ -35,7 +39,30 @@ public class TableRenderingLine extends PlatformObject {
 
 	public TableRenderingLine(String address, MemoryByte[] bytes, int tableIndex, String paddedString) {
 		fAddress = address;
-		fBytes = bytes;
+		fValues = new byte[bytes.length];
+		fFlags = new byte[bytes.length];
+		for (int i = 0; i < bytes.length; i++) {
+			fValues[i] = bytes[i].getValue();
+			fFlags[i] = bytes[i].getFlags();
+		}
+		fTableIndex = tableIndex;
+		fPaddedString = paddedString;
+	}
+
+	/**
+	 * Constructs a line with the given values and attributes of its bytes. The
+	 * arrays are not copied.
+	 *
+	 * @param address address of the line
+	 * @param values values of the bytes
+	 * @param flags attributes of the bytes, see {@link MemoryByte}
+	 * @param tableIndex index of the line in the table
+	 * @param paddedString string to display for unreadable bytes
+	 */
+	public TableRenderingLine(String address, byte[] values, byte[] flags, int tableIndex, String paddedString) {
+		fAddress = address;
+		fValues = values;
+		fFlags = flags;
 		fTableIndex = tableIndex;
 		fPaddedString = paddedString;
 	}
@@ -48,18 +75,21 @@ public class TableRenderingLine extends PlatformObject {
 		fAddress = address;
 	}
 
+	/**
+	 * Returns copies of the bytes of this line. Changes to the bytes
+	 * returned do not affect this line.
+	 *
+	 * @return the bytes of this line
+	 */
 	public MemoryByte[] getBytes()
 	{
-		return fBytes;
+		return getBytes(0, fValues.length);
 	}
 
 	public MemoryByte getByte(int offset)
 	{
-		if (fBytes == null)
-			return null;
-
-		if (offset < fBytes.length) {
-			return fBytes[offset];
+		if (offset < fValues.length) {
+			return new MemoryByte(fValues[offset], fFlags[offset]);
 		}
 
 		return null;
@@ -67,13 +97,23 @@ public class TableRenderingLine extends PlatformObject {
 
 	public MemoryByte[] getBytes(int start, int end)
 	{
-		ArrayList<MemoryByte> ret = new ArrayList<>();
-
+		MemoryByte[] ret = new MemoryByte[end - start];
 		for (int i=start; i<end; i++)
 		{
-			ret.add(fBytes[i]);
+			ret[i - start] = new MemoryByte(fValues[i], fFlags[i]);
 		}
-		return ret.toArray(new MemoryByte[ret.size()]);
+		return ret;
+	}
+
+	/**
+	 * Returns the attributes of the bytes of this line. The array returned
+	 * must not be modified.
+	 *
+	 * @return the attributes of the bytes, see {@link MemoryByte}
+	 */
+	public byte[] getFlags()
+	{
+		return fFlags;
 	}
 
 	public String getRawMemoryString()
@@ -89,10 +129,10 @@ public class TableRenderingLine extends PlatformObject {
 			// pad unavailable bytes with padded string from memory block
 			String paddedString = null;
 			int bufferCounter = 0;
-			for (int i=0; i<fBytes.length; i++)
+			for (int i=0; i<fFlags.length; i++)
 			{
 				// if byte is invalid
-				if (!fBytes[i].isReadable())
+				if ((fFlags[i] & MemoryByte.READABLE) == 0)
 				{
 					if (paddedString == null)
 					{
@@ -121,7 +161,7 @@ public class TableRenderingLine extends PlatformObject {
 		boolean available = true;
 		for (int i=start; i<end; i++)
 		{
-			if (!fBytes[i].isReadable())
+			if ((fFlags[i] & MemoryByte.READABLE) == 0)
 			{
 				available = false;
 				break;
@@ -131,31 +171,20 @@ public class TableRenderingLine extends PlatformObject {
 	}
 
 
+	/**
+	 * Returns the values of the bytes of this line. The array returned
+	 * must not be modified.
+	 *
+	 * @return the values of the bytes
+	 */
 	public byte[] getByteArray()
 	{
-		if (fByteArray == null)
-		{
-			fByteArray = new byte[fBytes.length];
-			for (int i=0; i<fBytes.length; i++)
-			{
-				fByteArray[i] = fBytes[i].getValue();
-			}
-		}
-
-		return fByteArray;
+		return fValues;
 	}
 
 	public byte[] getByteArray(int start, int end)
 	{
-		byte[] ret = new byte[end-start];
-		int j=0;
-
-		for (int i=start; i<end; i++)
-		{
-			ret[j] = fBytes[i].getValue();
-			j++;
-		}
-		return ret;
+		return Arrays.copyOfRange(fValues, start, end);
 	}
 
 	public void markDeltas(TableRenderingLine oldData)
@@ -170,35 +199,36 @@ public class TableRenderingLine extends PlatformObject {
 		// if the string representation is the same, no need to compare
 		if (oldData.getRawMemoryString().equals(getRawMemoryString()))
 		{
-			for (int i=0; i<fBytes.length; i++)
+			for (int i=0; i<fFlags.length; i++)
 			{
 				// set history as known if we have old data for this line
-				fBytes[i].setHistoryKnown(true);
+				fFlags[i] |= MemoryByte.HISTORY_KNOWN;
 			}
 			return;
 		}
 
-		MemoryByte[] oldMemory = oldData.getBytes();
+		byte[] oldValues = oldData.fValues;
+		byte[] oldFlags = oldData.fFlags;
 
-		if (oldMemory.length != fBytes.length)
+		if (oldFlags.length != fFlags.length)
 			return;
 
-		for (int i=0; i<fBytes.length; i++)
+		for (int i=0; i<fFlags.length; i++)
 		{
 			// turn on known bit
-			fBytes[i].setHistoryKnown(true);
+			fFlags[i] |= MemoryByte.HISTORY_KNOWN;
 
-			if ((fBytes[i].getFlags() & MemoryByte.READABLE) != (oldMemory[i].getFlags() & MemoryByte.READABLE))
+			if ((fFlags[i] & MemoryByte.READABLE) != (oldFlags[i] & MemoryByte.READABLE))
 			{
-				fBytes[i].setChanged(true);
+				fFlags[i] |= MemoryByte.CHANGED;
 				continue;
 			}
 
-			if (fBytes[i].isReadable() && oldMemory[i].isReadable())
+			if ((fFlags[i] & MemoryByte.READABLE) != 0)
 			{
-				if (fBytes[i].getValue() != oldMemory[i].getValue())
+				if (fValues[i] != oldValues[i])
 				{
-					fBytes[i].setChanged(true);
+					fFlags[i] |= MemoryByte.CHANGED;
 				}
 			}
 		}
@@ -214,15 +244,12 @@ public class TableRenderingLine extends PlatformObject {
 			return;
 
 		// reuse delta information from old data
-		MemoryByte[] oldMemory = oldData.getBytes();
+		byte[] oldFlags = oldData.fFlags;
 
-		if (oldMemory.length != fBytes.length)
+		if (oldFlags.length != fFlags.length)
 			return;
 
-		for (int i=0; i<fBytes.length; i++)
-		{
-			fBytes[i].setFlags(oldMemory[i].getFlags());
-		}
+		System.arraycopy(oldFlags, 0, fFlags, 0, fFlags.length);
 	}
 
 	public boolean isLineChanged(TableRenderingLine oldData)
@@ -254,9 +281,9 @@ public class TableRenderingLine extends PlatformObject {
 
 		for (int i=offset; i<=endOffset; i++)
 		{
-			if (!fBytes[i].isHistoryKnown())
+			if ((fFlags[i] & MemoryByte.HISTORY_KNOWN) == 0)
 				allBytesKnown = false;
-			if (fBytes[i].isChanged())
+			if ((fFlags[i] & MemoryByte.CHANGED) != 0)
 				allBytesUnchanged = false;
 		}
 
@@ -268,11 +295,10 @@ public class TableRenderingLine extends PlatformObject {
 
 	public void unmarkDeltas()
 	{
-		for (int i=0; i<fBytes.length; i++)
+		for (int i=0; i<fFlags.length; i++)
 		{
 			// unset the change bit
-			if (fBytes[i].isChanged())
-				fBytes[i].setChanged(false);
+			fFlags[i] &= ~MemoryByte.CHANGED;
 		}
 	}
 
@@ -299,7 +325,7 @@ public class TableRenderingLine extends PlatformObject {
 
 	public int getLength()
 	{
-		return fBytes.length;
+		return fValues.length;
 	}
 
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2013 IBM Corporation and others.
+ * Copyright (c) 2007, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,22 +10,29 @@
  *******************************************************************************/
 package org.eclipse.debug.internal.ui.views.variables;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
 
 import org.eclipse.core.runtime.CoreException;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.debug.core.ILogicalStructureType;
+import org.eclipse.debug.core.model.IDebugTarget;
 import org.eclipse.debug.core.model.IValue;
 import org.eclipse.debug.internal.ui.DebugUIPlugin;
 
 /**
  * Cache that stores evaluated logical structure values to replace raw values.  Cache
- * should be cleared when a RESUME or TERMINATE event is fired so the structure can be
- * reevaluated for new values.
+ * should be cleared for a debug target when a RESUME or TERMINATE event is fired so the
+ * structure can be reevaluated for new values.
+ * <p>
+ * Each logical structure is computed once, by the first thread to request it. Other
+ * threads requesting the same structure wait for that computation, while requests for
+ * other structures proceed.
+ * </p>
  *
  * @since 3.3
  *
@@ -33,9 +40,42 @@ import org.eclipse.debug.internal.ui.DebugUIPlugin;
 public class LogicalStructureCache {
 
 	/**
-	 * Maps a ILogicalStructureType to the cache for that type
+	 * Key of values that do not belong to a debug target
 	 */
-	private Map<ILogicalStructureType, LogicalStructureTypeCache> fCacheForType = new HashMap<>();
+	private static final Object NO_TARGET = new Object();
+
+	/**
+	 * Maps a debug target to the logical structures computed for its values
+	 */
+	private final ConcurrentMap<Object, ConcurrentMap<Key, FutureTask<IValue>>> fCacheForTarget = new ConcurrentHashMap<>();
+
+	/**
+	 * A logical structure type and a raw value
+	 */
+	private static final class Key {
+
+		private final ILogicalStructureType fType;
+		private final IValue fValue;
+
+		Key(ILogicalStructureType type, IValue value) {
+			fType = type;
+			fValue = value;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (obj instanceof Key) {
+				Key key = (Key) obj;
+				return fType.equals(key.fType) && fValue.equals(key.fValue);
+			}
+			return false;
+		}
+
+		@Override
+		public int hashCode() {
+			return fType.hashCode() * 31 + fValue.hashCode();
+		}
+	}
 
 	/**
 	 * Returns the logical value to replace the given value using the specified logical structure.
@@ -44,11 +84,52 @@ public class LogicalStructureCache {
 	 * @param type the logical structure type used to evaluate the logical value
 	 * @param value the raw value to replace with a logical structure
 	 * @return the logical value replacing the raw value or <code>null</code> if there is a problem
+	 * @exception CoreException if an error occurs computing the value
 	 */
-	public IValue getLogicalStructure(ILogicalStructureType type, IValue value) throws CoreException {
-		synchronized (fCacheForType) {
-			LogicalStructureTypeCache cache = getCacheForType(type);
-			return cache.getLogicalStructure(value);
+	public IValue getLogicalStructure(final ILogicalStructureType type, final IValue value) throws CoreException {
+		ConcurrentMap<Key, FutureTask<IValue>> cache = getCacheForTarget(getTargetKey(value));
+		Key key = new Key(type, value);
+		FutureTask<IValue> task = cache.get(key);
+		if (task == null) {
+			FutureTask<IValue> created = new FutureTask<>(new Callable<IValue>() {
+				@Override
+				public IValue call() throws Exception {
+					return type.getLogicalStructure(value);
+				}
+			});
+			task = cache.putIfAbsent(key, created);
+			if (task == null) {
+				// this thread computes the structure
+				task = created;
+				task.run();
+			}
+		}
+		try {
+			IValue result = task.get();
+			if (result == null) {
+				// not worth remembering, compute again next time
+				cache.remove(key, task);
+			}
+			return result;
+		} catch (InterruptedException e) {
+			// the structure is still computed by the other thread
+			Thread.currentThread().interrupt();
+			throw new CoreException(new Status(IStatus.CANCEL, DebugUIPlugin.getUniqueIdentifier(),
+					VariablesViewMessages.LogicalStructureCache_0, e));
+		} catch (ExecutionException e) {
+			// failures are not cached
+			cache.remove(key, task);
+			Throwable cause = e.getCause();
+			if (cause instanceof CoreException) {
+				throw (CoreException) cause;
+			}
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw new CoreException(new Status(IStatus.ERROR, DebugUIPlugin.getUniqueIdentifier(), cause.getMessage(), cause));
 		}
 	}
 
@@ -56,98 +137,39 @@ public class LogicalStructureCache {
 	 * Clears the cache of all evaluated values.
 	 */
 	public void clear(){
-		synchronized (fCacheForType) {
-			fCacheForType.clear();
-		}
+		fCacheForTarget.clear();
 	}
 
 	/**
-	 * Helper method that returns the cache associated with the given logical structure type.
-	 * If there is not cache associated, one is created.
+	 * Clears the cache of the values evaluated for the given debug target.
 	 *
-	 * @param type the logical structure type to get the cache for
-	 * @return the cache associated with the logical structure type
+	 * @param target the debug target whose values have changed
 	 */
-	protected LogicalStructureTypeCache getCacheForType(ILogicalStructureType type){
-		LogicalStructureTypeCache cache = fCacheForType.get(type);
-		if (cache == null){
-			cache = new LogicalStructureTypeCache(type);
-			fCacheForType.put(type, cache);
-		}
-		return cache;
+	public void clear(IDebugTarget target) {
+		fCacheForTarget.remove(target == null ? NO_TARGET : target);
 	}
 
 	/**
-	 * Inner class that caches the known and pending values for a given logical
-	 * structure type.
+	 * Helper method that returns the cache associated with the given debug target key.
+	 * If there is not cache associated, one is created.
+	 *
+	 * @param target the debug target or {@link #NO_TARGET}
+	 * @return the cache associated with the target
 	 */
-	class LogicalStructureTypeCache{
-
-		private ILogicalStructureType fType;
-
-		/**
-		 * Maps a raw IValue to its calculated logical IValue
-		 */
-		private Map<IValue, IValue> fKnownValues = new HashMap<>();
-
-		/**
-		 * Set of raw IValues that logical values are currently being evaluated for.
-		 */
-		private Set<IValue> fPendingValues = new HashSet<>();
-
-		public LogicalStructureTypeCache(ILogicalStructureType type){
-			fType = type;
-		}
-
-		/**
-		 * Returns the logical structure value for the given raw value.  If the value has been evaluated
-		 * the cached value is returned, otherwise the thread waits until the value is evaluated.
-		 *
-		 * @param value the raw value
-		 * @return the logical value
-		 * @exception CoreException if an error occurs computing the value
-		 */
-		public IValue getLogicalStructure(IValue value) throws CoreException {
-			// Check if the value has already been evaluated
-			synchronized (fKnownValues) {
-				IValue logical = fKnownValues.get(value);
-				if (logical != null){
-					return logical;
-				}
-			}
-			// Check if the logical structure is currently being evaluated
-			synchronized (fPendingValues) {
-				if (fPendingValues.contains(value)){
-					try {
-						fPendingValues.wait();
-						return getLogicalStructure(value);
-					} catch (InterruptedException e) {
-						throw new CoreException(new Status(IStatus.CANCEL, DebugUIPlugin.getUniqueIdentifier(),
-								VariablesViewMessages.LogicalStructureCache_0, e));
-					}
-				} else {
-					fPendingValues.add(value);
-				}
-			}
-			// Start the evaluation to get the logical structure
-			try {
-				IValue result = fType.getLogicalStructure(value);
-				synchronized (fKnownValues) {
-					fKnownValues.put(value, result);
-				}
-				synchronized (fPendingValues) {
-					fPendingValues.remove(value);
-					fPendingValues.notifyAll();
-				}
-				return result;
-			} catch (CoreException e) {
-				synchronized (fPendingValues) {
-					fPendingValues.remove(value);
-					fPendingValues.notifyAll();
-				}
-				throw e;
+	private ConcurrentMap<Key, FutureTask<IValue>> getCacheForTarget(Object target) {
+		ConcurrentMap<Key, FutureTask<IValue>> cache = fCacheForTarget.get(target);
+		if (cache == null) {
+			cache = new ConcurrentHashMap<>();
+			ConcurrentMap<Key, FutureTask<IValue>> existing = fCacheForTarget.putIfAbsent(target, cache);
+			if (existing != null) {
+				cache = existing;
 			}
 		}
+		return cache;
+	}
 
+	private Object getTargetKey(IValue value) {
+		IDebugTarget target = value.getDebugTarget();
+		return target == null ? NO_TARGET : target;
 	}
 }
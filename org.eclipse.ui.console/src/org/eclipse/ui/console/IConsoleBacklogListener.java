@@ -0,0 +1,41 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.console;
+
+/**
+ * A backlog listener is notified when the output written to an
+ * {@link IOConsole} but not yet appended to its document crosses the console's
+ * backlog watermarks. Producers of output can use these notifications to slow
+ * down while the console cannot keep up.
+ * <p>
+ * Notifications may arrive in any thread, and must return quickly.
+ * </p>
+ * <p>
+ * Clients may implement this interface.
+ * </p>
+ *
+ * @see IOConsole#setBacklogWatermarks(int, int)
+ * @since 3.8
+ */
+public interface IConsoleBacklogListener {
+
+	/**
+	 * Notification that the pending output of the given console exceeded the
+	 * high backlog watermark, or dropped below the low backlog watermark
+	 * after having exceeded the high watermark.
+	 *
+	 * @param console the console
+	 * @param saturated <code>true</code> if the pending output exceeded the
+	 *            high watermark, <code>false</code> if it dropped below the
+	 *            low watermark
+	 */
+	public void backlogChanged(IOConsole console, boolean saturated);
+}
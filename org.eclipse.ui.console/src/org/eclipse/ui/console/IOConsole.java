@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -21,7 +21,9 @@ import java.util.Collections;
 import java.util.List;
 
 import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.jface.text.IDocument;
 import org.eclipse.ui.WorkbenchEncoding;
+import org.eclipse.ui.internal.console.ConsoleDocument;
 import org.eclipse.ui.internal.console.IOConsolePage;
 import org.eclipse.ui.internal.console.IOConsolePartitioner;
 import org.eclipse.ui.part.IPageBookViewPage;
@@ -247,6 +249,90 @@ public class IOConsole extends TextConsole {
 		partitioner.setWaterMarks(low, high);
 	}
 
+	/**
+	 * Sets whether this console keeps its text in a memory-mapped temporary
+	 * file rather than on the heap. A file backed console can retain far more
+	 * output than fits on the heap; combined with unlimited water marks no
+	 * output is discarded. Text already in the console is moved to the new
+	 * storage.
+	 * <p>
+	 * If the temporary file cannot be created the console keeps its text on
+	 * the heap and the failure is logged.
+	 * </p>
+	 *
+	 * @param fileBacked whether to keep this console's text in a temporary
+	 *            file
+	 * @since 3.8
+	 */
+	public void setFileBacked(boolean fileBacked) {
+		IDocument document = getDocument();
+		if (document instanceof ConsoleDocument) {
+			try {
+				((ConsoleDocument) document).setFileBacked(fileBacked);
+			} catch (IOException e) {
+				ConsolePlugin.log(e);
+			}
+		}
+	}
+
+	/**
+	 * Returns whether this console keeps its text in a memory-mapped temporary
+	 * file rather than on the heap.
+	 *
+	 * @return whether this console's text is kept in a temporary file
+	 * @since 3.8
+	 */
+	public boolean isFileBacked() {
+		IDocument document = getDocument();
+		return document instanceof ConsoleDocument && ((ConsoleDocument) document).isFileBacked();
+	}
+
+	/**
+	 * Sets the backlog watermarks of this console. Output written to this
+	 * console's output streams is queued until the console appends it to its
+	 * document. Registered backlog listeners are notified when the number of
+	 * queued characters exceeds the high watermark, and again when it drops
+	 * to the low watermark.
+	 *
+	 * @param low number of queued characters at or below which the backlog
+	 *            is no longer considered saturated
+	 * @param high number of queued characters above which the backlog is
+	 *            considered saturated
+	 * @exception IllegalArgumentException if low &lt; 0 or low &gt;= high
+	 * @see IConsoleBacklogListener
+	 * @since 3.8
+	 */
+	public void setBacklogWatermarks(int low, int high) {
+		if (low < 0 || low >= high) {
+			throw new IllegalArgumentException("High backlog watermark must be greater than low backlog watermark"); //$NON-NLS-1$
+		}
+		partitioner.setBacklogWatermarks(low, high);
+	}
+
+	/**
+	 * Registers a listener to be notified when the output queued by this
+	 * console crosses its backlog watermarks. Has no effect if an identical
+	 * listener is already registered.
+	 *
+	 * @param listener the listener to add
+	 * @see #setBacklogWatermarks(int, int)
+	 * @since 3.8
+	 */
+	public void addBacklogListener(IConsoleBacklogListener listener) {
+		partitioner.addBacklogListener(listener);
+	}
+
+	/**
+	 * Removes the given backlog listener. Has no effect if the listener is not
+	 * registered.
+	 *
+	 * @param listener the listener to remove
+	 * @since 3.8
+	 */
+	public void removeBacklogListener(IConsoleBacklogListener listener) {
+		partitioner.removeBacklogListener(listener);
+	}
+
 	/**
 	 * Check if all streams connected to this console are closed. If so,
 	 * notify the partitioner that this console is finished.
@@ -310,6 +396,10 @@ public class IOConsole extends TextConsole {
 			}
 		}
 		inputStream = null;
+		IDocument document = getDocument();
+		if (document instanceof ConsoleDocument) {
+			((ConsoleDocument) document).dispose();
+		}
 	}
 
 	/**
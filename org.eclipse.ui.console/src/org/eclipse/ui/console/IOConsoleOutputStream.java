@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -70,8 +70,20 @@ public class IOConsoleOutputStream extends OutputStream {
 
 	private StreamDecoder decoder;
 
+	/**
+	 * Text of the current write, reused across writes to avoid creating a
+	 * string per write
+	 */
+	private StringBuilder buffer = new StringBuilder(BUFFER_SIZE);
+
 	private boolean prependCR;
 
+	/**
+	 * Initial size of the reusable write buffer, larger buffers are released
+	 * after use
+	 */
+	private static final int BUFFER_SIZE = 8192;
+
 	/**
 	 * Constructs a new output stream on the given console.
 	 *
@@ -169,19 +181,17 @@ public class IOConsoleOutputStream extends OutputStream {
 			// Closeable#close() has no effect if already closed
 			return;
 		}
-		StringBuilder builder = new StringBuilder();
-		if (prependCR) { // force writing of last /r
-			prependCR = false;
-			builder.append('\r');
-		}
+		// force writing of last /r, prepended by getBuffer()
+		StringBuilder builder = getBuffer();
 		this.decoder.finish(builder);
 		if (builder.length() > 0) {
-			notifyParitioner(builder.toString());
+			notifyParitioner(builder);
 		}
 		console.streamClosed(this);
 		closed = true;
 		partitioner = null;
 		decoder = null;
+		buffer = null;
 	}
 
 	/*
@@ -204,9 +214,9 @@ public class IOConsoleOutputStream extends OutputStream {
 		if (closed) {
 			throw new IOException("Output Stream is closed"); //$NON-NLS-1$
 		}
-		StringBuilder builder = new StringBuilder();
+		StringBuilder builder = getBuffer();
 		this.decoder.decode(builder, b, off, len);
-		encodedWrite(builder.toString());
+		encodedWrite(builder);
 	}
 	/*
 	 *  (non-Javadoc)
@@ -233,8 +243,7 @@ public class IOConsoleOutputStream extends OutputStream {
 	 * @since 3.7
 	 */
 	public void write(char[] buffer) throws IOException {
-		String str = new String(buffer);
-		this.encodedWrite(str);
+		write(buffer, 0, buffer.length);
 	}
 
 	/**
@@ -247,9 +256,11 @@ public class IOConsoleOutputStream extends OutputStream {
 	 * @throws IOException if the stream is closed
 	 * @since 3.7
 	 */
-	public void write(char[] buffer, int off, int len) throws IOException {
-		String str = new String(buffer, off, len);
-		this.encodedWrite(str);
+	public synchronized void write(char[] buffer, int off, int len) throws IOException {
+		if (closed) {
+			throw new IOException("Output Stream is closed"); //$NON-NLS-1$
+		}
+		encodedWrite(getBuffer().append(buffer, off, len));
 	}
 
 	/**
@@ -259,9 +270,11 @@ public class IOConsoleOutputStream extends OutputStream {
 	 * @throws IOException if the stream is closed.
 	 * @since 3.7
 	 */
-	public void write(CharSequence chars) throws IOException {
-		String str = chars.toString();
-		encodedWrite(str);
+	public synchronized void write(CharSequence chars) throws IOException {
+		if (closed) {
+			throw new IOException("Output Stream is closed"); //$NON-NLS-1$
+		}
+		encodedWrite(getBuffer().append(chars));
 	}
 
 	/**
@@ -271,26 +284,47 @@ public class IOConsoleOutputStream extends OutputStream {
 	 * @throws IOException if the stream is closed
 	 */
 	public void write(String str) throws IOException {
-		encodedWrite(str);
+		write((CharSequence) str);
 	}
 
-	private synchronized void encodedWrite(String encodedString) throws IOException {
-		if(closed) {
-			throw new IOException("Output Stream is closed"); //$NON-NLS-1$
+	/**
+	 * Returns the cleared write buffer, starting with a carriage return held
+	 * back from the previous write if any.
+	 *
+	 * @return the write buffer
+	 */
+	private StringBuilder getBuffer() {
+		if (buffer.capacity() > BUFFER_SIZE * 8) {
+			// don't hold on to the memory of an unusually large write
+			buffer = new StringBuilder(BUFFER_SIZE);
+		} else {
+			buffer.setLength(0);
 		}
-		String newencoding = encodedString;
-		if (prependCR){
-			newencoding = "\r" + newencoding; //$NON-NLS-1$
-			prependCR=false;
+		if (prependCR) {
+			buffer.append('\r');
+			prependCR = false;
 		}
-		if (newencoding.endsWith("\r")) { //$NON-NLS-1$
+		return buffer;
+	}
+
+	/**
+	 * Appends the given decoded text to the console, holding back a trailing
+	 * carriage return until the next write.
+	 *
+	 * @param text decoded text, starting with any carriage return held back
+	 *            from the previous write
+	 * @throws IOException if the console document is closed
+	 */
+	private void encodedWrite(StringBuilder text) throws IOException {
+		int length = text.length();
+		if (length > 0 && text.charAt(length - 1) == '\r') {
 			prependCR = true;
-			newencoding = new String(newencoding.substring(0, newencoding.length() - 1));
+			text.setLength(length - 1);
 		}
-		notifyParitioner(newencoding);
+		notifyParitioner(text);
 	}
 
-	private void notifyParitioner(String encodedString) throws IOException {
+	private void notifyParitioner(CharSequence encodedString) throws IOException {
 		try {
 			partitioner.streamAppended(this, encodedString);
 
@@ -337,10 +371,14 @@ public class IOConsoleOutputStream extends OutputStream {
 		if (closed) {
 			throw new IOException("Output Stream is closed"); //$NON-NLS-1$
 		}
-		StringBuilder builder = new StringBuilder();
+		StringBuilder builder = getBuffer();
+		int heldBack = builder.length();
 		this.decoder.finish(builder);
-		if (builder.length() > 0) {
-			this.encodedWrite(builder.toString());
+		if (builder.length() > heldBack) {
+			this.encodedWrite(builder);
+		} else if (heldBack > 0) {
+			// nothing decoded, keep holding back the carriage return
+			prependCR = true;
 		}
 		this.decoder = new StreamDecoder(charset);
 	}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -10,10 +10,16 @@
  *******************************************************************************/
 package org.eclipse.ui.internal.console;
 
+import java.io.IOException;
+
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.BadPositionCategoryException;
+import org.eclipse.jface.text.DefaultLineTracker;
 import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.GapTextStore;
+import org.eclipse.jface.text.ILineTracker;
 import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.ITextStore;
 import org.eclipse.jface.text.Position;
 
 /**
@@ -21,6 +27,68 @@ import org.eclipse.jface.text.Position;
  */
 public class ConsoleDocument extends Document {
 
+	/**
+	 * The file backed store holding this document's text, or <code>null</code>
+	 * if the text is kept on the heap
+	 */
+	private MappedTextStore fMappedStore;
+
+	/**
+	 * Sets whether this document keeps its text in a memory-mapped temporary
+	 * file rather than on the heap. The current text is moved to the new
+	 * storage.
+	 *
+	 * @param fileBacked whether to keep the text in a temporary file
+	 * @throws IOException if the temporary file cannot be created
+	 */
+	public synchronized void setFileBacked(boolean fileBacked) throws IOException {
+		if (fileBacked == isFileBacked()) {
+			return;
+		}
+		String text = get();
+		MappedTextStore mappedStore = null;
+		ITextStore store;
+		ILineTracker tracker;
+		if (fileBacked) {
+			mappedStore = new MappedTextStore();
+			store = mappedStore;
+			tracker = new ConsoleLineTracker(mappedStore);
+		} else {
+			store = new GapTextStore();
+			tracker = new DefaultLineTracker();
+		}
+		store.set(text);
+		tracker.set(text);
+		setTextStore(store);
+		setLineTracker(tracker);
+		if (fMappedStore != null) {
+			fMappedStore.dispose();
+		}
+		fMappedStore = mappedStore;
+	}
+
+	/**
+	 * Returns whether this document keeps its text in a temporary file.
+	 *
+	 * @return whether this document keeps its text in a temporary file
+	 */
+	public synchronized boolean isFileBacked() {
+		return fMappedStore != null;
+	}
+
+	/**
+	 * Releases the temporary file holding this document's text, if any. The
+	 * document must no longer be used afterwards.
+	 */
+	public synchronized void dispose() {
+		if (fMappedStore != null) {
+			setTextStore(new GapTextStore());
+			setLineTracker(new DefaultLineTracker());
+			fMappedStore.dispose();
+			fMappedStore = null;
+		}
+	}
+
 	/* (non-Javadoc)
 	 * @see org.eclipse.jface.text.IDocument#get(int, int)
 	 */
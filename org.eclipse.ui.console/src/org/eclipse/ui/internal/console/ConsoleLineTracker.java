@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.console;
+
+import java.util.Arrays;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.ILineTracker;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.ITextStore;
+import org.eclipse.jface.text.Region;
+
+/**
+ * A line tracker recording only the start offset of each line, in an
+ * <code>int</code> array. Line delimiters are read from the document's text
+ * store when needed. Recognizes the same delimiters as the default line
+ * tracker: <code>\r\n</code>, <code>\n</code> and <code>\r</code>.
+ * <p>
+ * Replacing text costs time proportional to the number of lines following the
+ * replaced range, which is small for console output appended at the end.
+ * </p>
+ */
+public class ConsoleLineTracker implements ILineTracker {
+
+	private static final String[] DELIMITERS = { "\r\n", "\n", "\r" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+	/**
+	 * Store holding the tracked text, updated before this tracker
+	 */
+	private final ITextStore fStore;
+
+	/**
+	 * Start offsets of lines, the first line always starts at 0
+	 */
+	private int[] fLineStarts = new int[1024];
+
+	private int fLineCount = 1;
+
+	/**
+	 * Creates a line tracker for the text held by the given store.
+	 *
+	 * @param store the document's text store
+	 */
+	public ConsoleLineTracker(ITextStore store) {
+		fStore = store;
+	}
+
+	@Override
+	public String[] getLegalLineDelimiters() {
+		return DELIMITERS.clone();
+	}
+
+	@Override
+	public String getLineDelimiter(int line) throws BadLocationException {
+		checkLine(line);
+		if (line == fLineCount - 1) {
+			return null;
+		}
+		int next = fLineStarts[line + 1];
+		if (fStore.get(next - 1) == '\n') {
+			if (next - 2 >= fLineStarts[line] && fStore.get(next - 2) == '\r') {
+				return DELIMITERS[0];
+			}
+			return DELIMITERS[1];
+		}
+		return DELIMITERS[2];
+	}
+
+	@Override
+	public int computeNumberOfLines(String text) {
+		int count = 0;
+		int length = text.length();
+		for (int i = 0; i < length; i++) {
+			char c = text.charAt(i);
+			if (c == '\r') {
+				if (i + 1 < length && text.charAt(i + 1) == '\n') {
+					i++;
+				}
+				count++;
+			} else if (c == '\n') {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	@Override
+	public int getNumberOfLines() {
+		return fLineCount;
+	}
+
+	@Override
+	public int getNumberOfLines(int offset, int length) throws BadLocationException {
+		checkRange(offset, length);
+		if (length == 0) {
+			return 1;
+		}
+		return getLine(offset + length) - getLine(offset) + 1;
+	}
+
+	@Override
+	public int getLineOffset(int line) throws BadLocationException {
+		checkLine(line);
+		return fLineStarts[line];
+	}
+
+	@Override
+	public int getLineLength(int line) throws BadLocationException {
+		checkLine(line);
+		return getEnd(line) - fLineStarts[line];
+	}
+
+	@Override
+	public int getLineNumberOfOffset(int offset) throws BadLocationException {
+		checkRange(offset, 0);
+		return getLine(offset);
+	}
+
+	@Override
+	public IRegion getLineInformationOfOffset(int offset) throws BadLocationException {
+		return getLineInformation(getLineNumberOfOffset(offset));
+	}
+
+	@Override
+	public IRegion getLineInformation(int line) throws BadLocationException {
+		checkLine(line);
+		int start = fLineStarts[line];
+		int end = getEnd(line);
+		String delimiter = getLineDelimiter(line);
+		if (delimiter != null) {
+			end -= delimiter.length();
+		}
+		return new Region(start, end - start);
+	}
+
+	@Override
+	public void replace(int offset, int length, String text) throws BadLocationException {
+		int textLength = text == null ? 0 : text.length();
+		int delta = textLength - length;
+		// a line start depends on the character before it and, for \r\n, the
+		// character at it, so starts next to the replaced range are recomputed
+		int from = Math.max(1, offset);
+		int first = findFirstStart(from);
+		int last = findFirstStart(offset + length + 1);
+		int[] starts = new int[Math.max(4, textLength / 16)];
+		int count = 0;
+		int newLength = fStore.getLength();
+		int to = Math.min(offset + textLength, newLength);
+		for (int position = from; position <= to; position++) {
+			if (isLineStart(position, newLength)) {
+				if (count == starts.length) {
+					starts = Arrays.copyOf(starts, count * 2);
+				}
+				starts[count++] = position;
+			}
+		}
+		int removed = last - first;
+		int tail = fLineCount - last;
+		ensureCapacity(fLineCount - removed + count);
+		System.arraycopy(fLineStarts, last, fLineStarts, first + count, tail);
+		System.arraycopy(starts, 0, fLineStarts, first, count);
+		fLineCount = fLineCount - removed + count;
+		if (delta != 0) {
+			for (int i = first + count; i < fLineCount; i++) {
+				fLineStarts[i] += delta;
+			}
+		}
+	}
+
+	@Override
+	public void set(String text) {
+		fLineCount = 1;
+		fLineStarts[0] = 0;
+		int length = fStore.getLength();
+		for (int position = 1; position <= length; position++) {
+			if (isLineStart(position, length)) {
+				ensureCapacity(fLineCount + 1);
+				fLineStarts[fLineCount++] = position;
+			}
+		}
+	}
+
+	/**
+	 * Returns whether a line starts at the given position of the stored text.
+	 *
+	 * @param position a position greater than zero
+	 * @param length length of the stored text
+	 * @return whether a line starts at the given position
+	 */
+	private boolean isLineStart(int position, int length) {
+		char previous = fStore.get(position - 1);
+		if (previous == '\n') {
+			return true;
+		}
+		return previous == '\r' && (position == length || fStore.get(position) != '\n');
+	}
+
+	/**
+	 * Returns the index of the first line starting at or after the given
+	 * offset.
+	 *
+	 * @param offset an offset in the text before the last replace
+	 * @return index of the first line starting at or after the offset
+	 */
+	private int findFirstStart(int offset) {
+		int index = Arrays.binarySearch(fLineStarts, 0, fLineCount, offset);
+		return index >= 0 ? index : -index - 1;
+	}
+
+	private int getLine(int offset) {
+		int index = Arrays.binarySearch(fLineStarts, 0, fLineCount, offset);
+		return index >= 0 ? index : -index - 2;
+	}
+
+	private int getEnd(int line) {
+		return line + 1 < fLineCount ? fLineStarts[line + 1] : fStore.getLength();
+	}
+
+	private void ensureCapacity(int lines) {
+		if (lines > fLineStarts.length) {
+			fLineStarts = Arrays.copyOf(fLineStarts, Math.max(lines, fLineStarts.length * 2));
+		}
+	}
+
+	private void checkLine(int line) throws BadLocationException {
+		if (line < 0 || line >= fLineCount) {
+			throw new BadLocationException();
+		}
+	}
+
+	private void checkRange(int offset, int length) throws BadLocationException {
+		if (offset < 0 || length < 0 || offset + length > fStore.getLength()) {
+			throw new BadLocationException();
+		}
+	}
+}
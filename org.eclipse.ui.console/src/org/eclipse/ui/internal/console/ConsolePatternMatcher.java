@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2013 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -12,7 +12,10 @@
 package org.eclipse.ui.internal.console;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -31,6 +34,12 @@ import org.eclipse.ui.console.TextConsole;
 
 public class ConsolePatternMatcher implements IDocumentListener {
 
+	/**
+	 * Number of characters to search above which listeners are matched in
+	 * parallel
+	 */
+	private static final int PARALLEL_THRESHOLD = 64 * 1024;
+
 	private MatchJob fMatchJob;
 
 	/**
@@ -64,18 +73,15 @@ public class ConsolePatternMatcher implements IDocumentListener {
 		@Override
 		protected IStatus run(IProgressMonitor monitor) {
 			IDocument doc = fConsole.getDocument();
-			String text = null;
-			int prevBaseOffset = -1;
 			if (doc != null && !monitor.isCanceled()) {
 				int endOfSearch = doc.getLength();
 				int indexOfLastChar = endOfSearch;
 				if (indexOfLastChar > 0) {
 					indexOfLastChar--;
 				}
-				int lastLineToSearch = 0;
 				int offsetOfLastLineToSearch = 0;
 				try {
-					lastLineToSearch = doc.getLineOfOffset(indexOfLastChar);
+					int lastLineToSearch = doc.getLineOfOffset(indexOfLastChar);
 					offsetOfLastLineToSearch = doc.getLineOffset(lastLineToSearch);
 				} catch (BadLocationException e) {
 					// perhaps the buffer was re-set
@@ -85,80 +91,43 @@ public class ConsolePatternMatcher implements IDocumentListener {
 				synchronized (fPatterns) {
 					patterns = fPatterns.toArray();
 				}
+				// fetch the text once, starting at the listener furthest behind
+				int baseOffset = endOfSearch;
 				for (int i = 0; i < patterns.length; i++) {
-					if (monitor.isCanceled()) {
-						break;
+					baseOffset = Math.min(baseOffset, ((CompiledPatternMatchListener) patterns[i]).end);
+				}
+				String text = null;
+				if (baseOffset < endOfSearch) {
+					try {
+						text = doc.get(baseOffset, endOfSearch - baseOffset);
+					} catch (BadLocationException e) {
+						ConsolePlugin.log(e);
+					}
+				}
+				if (text != null) {
+					SearchText search = new SearchText(text, baseOffset, indexOfLastChar - baseOffset);
+					ArrayList<MatchTask> tasks = new ArrayList<MatchTask>(patterns.length);
+					for (int i = 0; i < patterns.length; i++) {
+						CompiledPatternMatchListener notifier = (CompiledPatternMatchListener) patterns[i];
+						if (notifier.end < endOfSearch && notifier.end >= baseOffset) {
+							tasks.add(new MatchTask(notifier, search, monitor));
+						}
+					}
+					if (tasks.size() > 1 && text.length() >= PARALLEL_THRESHOLD) {
+						// the searches are independent; listeners are still
+						// notified on this thread, in order
+						ForkJoinPool.commonPool().invokeAll(tasks);
+					} else {
+						for (MatchTask task : tasks) {
+							task.call();
+						}
 					}
-					CompiledPatternMatchListener notifier = (CompiledPatternMatchListener) patterns[i];
-					int baseOffset = notifier.end;
-					int lengthToSearch = endOfSearch - baseOffset;
-					if (lengthToSearch > 0) {
-						try {
-							if (prevBaseOffset != baseOffset) {
-								// reuse the text string if possible
-								text = doc.get(baseOffset, lengthToSearch);
-							}
-							if(text == null) {
-								continue;
-							}
-							Matcher reg = notifier.pattern.matcher(text);
-							Matcher quick = null;
-							if (notifier.qualifier != null) {
-								quick = notifier.qualifier.matcher(text);
-							}
-							int startOfNextSearch = 0;
-							int endOfLastMatch = -1;
-							int lineOfLastMatch = -1;
-							while ((startOfNextSearch < lengthToSearch) && !monitor.isCanceled()) {
-								if (quick != null) {
-									if (quick.find(startOfNextSearch)) {
-										// start searching on the beginning
-										// of the line where the potential
-										// match was found, or after the
-										// last match on the same line
-										int matchLine = doc.getLineOfOffset(baseOffset + quick.start());
-										if (lineOfLastMatch == matchLine) {
-											startOfNextSearch = endOfLastMatch;
-										} else {
-											startOfNextSearch = doc.getLineOffset(matchLine) - baseOffset;
-										}
-									} else {
-										startOfNextSearch = lengthToSearch;
-									}
-								}
-								if (startOfNextSearch < 0) {
-									startOfNextSearch = 0;
-								}
-								if (startOfNextSearch < lengthToSearch) {
-									if (reg.find(startOfNextSearch)) {
-										endOfLastMatch = reg.end();
-										lineOfLastMatch = doc.getLineOfOffset(baseOffset + endOfLastMatch - 1);
-										int regStart = reg.start();
-										IPatternMatchListener listener = notifier.listener;
-										if (listener != null && !monitor.isCanceled()) {
-											listener.matchFound(new PatternMatchEvent(fConsole, baseOffset + regStart, endOfLastMatch - regStart));
-										}
-										startOfNextSearch = endOfLastMatch;
-									} else {
-										startOfNextSearch = lengthToSearch;
-									}
-								}
-							}
-							// update start of next search to the last line
-							// searched
-							// or the end of the last match if it was on the
-							// line that
-							// was last searched
-							if (lastLineToSearch == lineOfLastMatch) {
-								notifier.end = baseOffset + endOfLastMatch;
-							} else {
-								notifier.end = offsetOfLastLineToSearch;
-							}
-						} catch (BadLocationException e) {
-							ConsolePlugin.log(e);
+					for (MatchTask task : tasks) {
+						if (monitor.isCanceled()) {
+							break;
 						}
+						task.notifyListener(offsetOfLastLineToSearch);
 					}
-					prevBaseOffset = baseOffset;
 				}
 			}
 
@@ -181,11 +150,239 @@ public class ConsolePatternMatcher implements IDocumentListener {
 
 	}
 
+	/**
+	 * Text searched by one run of the match job, with an index of its line
+	 * start offsets. Line numbers are relative to the start of the text.
+	 */
+	private static class SearchText {
+
+		final String text;
+
+		/**
+		 * Document offset of the text
+		 */
+		final int offset;
+
+		/**
+		 * Line of the last character to search
+		 */
+		final int lastLine;
+
+		private int[] lineStarts = new int[64];
+
+		private int lineCount = 0;
+
+		SearchText(String text, int offset, int indexOfLastChar) {
+			this.text = text;
+			this.offset = offset;
+			// same delimiters as the console document: \r\n, \n and \r
+			addLine(0);
+			int length = text.length();
+			for (int i = 0; i < length; i++) {
+				char c = text.charAt(i);
+				if (c == '\r') {
+					if (i + 1 < length && text.charAt(i + 1) == '\n') {
+						i++;
+					}
+					addLine(i + 1);
+				} else if (c == '\n') {
+					addLine(i + 1);
+				}
+			}
+			lastLine = getLineOfOffset(indexOfLastChar);
+		}
+
+		private void addLine(int start) {
+			if (lineCount == lineStarts.length) {
+				lineStarts = Arrays.copyOf(lineStarts, lineCount * 2);
+			}
+			lineStarts[lineCount++] = start;
+		}
+
+		int getLineOfOffset(int index) {
+			int line = Arrays.binarySearch(lineStarts, 0, lineCount, index);
+			return line >= 0 ? line : -line - 2;
+		}
+
+		int getLineOffset(int line) {
+			return lineStarts[line];
+		}
+	}
+
+	/**
+	 * View of the search text starting at a listener's offset, so matchers see
+	 * the same input as when the text is fetched for each listener.
+	 */
+	private static class OffsetCharSequence implements CharSequence {
+
+		private final String fText;
+
+		private final int fStart;
+
+		private final int fLength;
+
+		OffsetCharSequence(String text, int start, int end) {
+			fText = text;
+			fStart = start;
+			fLength = end - start;
+		}
+
+		@Override
+		public int length() {
+			return fLength;
+		}
+
+		@Override
+		public char charAt(int index) {
+			return fText.charAt(fStart + index);
+		}
+
+		@Override
+		public CharSequence subSequence(int start, int end) {
+			return fText.subSequence(fStart + start, fStart + end);
+		}
+
+		@Override
+		public String toString() {
+			return fText.substring(fStart, fStart + fLength);
+		}
+	}
+
+	/**
+	 * Searches the text for the matches of one listener. Searching has no
+	 * side effects and may run on any thread; the listener is notified of the
+	 * matches found by {@link #notifyListener(int)}.
+	 */
+	private class MatchTask implements Callable<Object> {
+
+		private final CompiledPatternMatchListener fNotifier;
+
+		private final SearchText fSearch;
+
+		private final IProgressMonitor fMonitor;
+
+		/**
+		 * Document offset the search starts at
+		 */
+		private final int fBaseOffset;
+
+		/**
+		 * Start and end offsets of matches relative to the base offset
+		 */
+		private int[] fMatches = new int[16];
+
+		private int fMatchCount = 0;
+
+		private int fEndOfLastMatch = -1;
+
+		private int fLineOfLastMatch = -1;
+
+		MatchTask(CompiledPatternMatchListener notifier, SearchText search, IProgressMonitor monitor) {
+			fNotifier = notifier;
+			fSearch = search;
+			fMonitor = monitor;
+			fBaseOffset = notifier.end;
+		}
+
+		@Override
+		public Object call() {
+			Pattern pattern = fNotifier.pattern;
+			if (pattern == null) {
+				// disconnected
+				return null;
+			}
+			String text = fSearch.text;
+			int start = fBaseOffset - fSearch.offset;
+			if (fNotifier.literal != null && text.indexOf(fNotifier.literal, start) < 0) {
+				// no match is possible
+				return null;
+			}
+			CharSequence input = start == 0 ? text : new OffsetCharSequence(text, start, text.length());
+			int lengthToSearch = input.length();
+			Matcher reg = pattern.matcher(input);
+			Matcher quick = null;
+			if (fNotifier.qualifier != null) {
+				quick = fNotifier.qualifier.matcher(input);
+			}
+			int startOfNextSearch = 0;
+			while ((startOfNextSearch < lengthToSearch) && !fMonitor.isCanceled()) {
+				if (quick != null) {
+					if (quick.find(startOfNextSearch)) {
+						// start searching on the beginning
+						// of the line where the potential
+						// match was found, or after the
+						// last match on the same line
+						int matchLine = fSearch.getLineOfOffset(start + quick.start());
+						if (fLineOfLastMatch == matchLine) {
+							startOfNextSearch = fEndOfLastMatch;
+						} else {
+							startOfNextSearch = fSearch.getLineOffset(matchLine) - start;
+						}
+					} else {
+						startOfNextSearch = lengthToSearch;
+					}
+				}
+				if (startOfNextSearch < 0) {
+					startOfNextSearch = 0;
+				}
+				if (startOfNextSearch < lengthToSearch) {
+					if (reg.find(startOfNextSearch)) {
+						fEndOfLastMatch = reg.end();
+						fLineOfLastMatch = fSearch.getLineOfOffset(start + fEndOfLastMatch - 1);
+						addMatch(reg.start(), fEndOfLastMatch);
+						startOfNextSearch = fEndOfLastMatch;
+					} else {
+						startOfNextSearch = lengthToSearch;
+					}
+				}
+			}
+			return null;
+		}
+
+		private void addMatch(int start, int end) {
+			if (fMatchCount + 2 > fMatches.length) {
+				fMatches = Arrays.copyOf(fMatches, fMatches.length * 2);
+			}
+			fMatches[fMatchCount++] = start;
+			fMatches[fMatchCount++] = end;
+		}
+
+		/**
+		 * Notifies the listener of the matches found and updates the offset
+		 * the next search starts at.
+		 *
+		 * @param offsetOfLastLineToSearch document offset of the last line
+		 *            searched
+		 */
+		void notifyListener(int offsetOfLastLineToSearch) {
+			IPatternMatchListener listener = fNotifier.listener;
+			for (int i = 0; i < fMatchCount && listener != null && !fMonitor.isCanceled(); i += 2) {
+				int regStart = fMatches[i];
+				listener.matchFound(new PatternMatchEvent(fConsole, fBaseOffset + regStart, fMatches[i + 1] - regStart));
+			}
+			// update start of next search to the last line
+			// searched
+			// or the end of the last match if it was on the
+			// line that
+			// was last searched
+			if (fSearch.lastLine == fLineOfLastMatch) {
+				fNotifier.end = fBaseOffset + fEndOfLastMatch;
+			} else {
+				fNotifier.end = offsetOfLastLineToSearch;
+			}
+		}
+	}
+
 	private class CompiledPatternMatchListener {
 		Pattern pattern;
 
 		Pattern qualifier;
 
+		/**
+		 * A literal every match contains, or <code>null</code>
+		 */
+		String literal;
+
 		IPatternMatchListener listener;
 
 		int end = 0;
@@ -194,6 +391,7 @@ public class ConsolePatternMatcher implements IDocumentListener {
 			this.pattern = pattern;
 			this.listener = matchListener;
 			this.qualifier = qualifier;
+			this.literal = LiteralPrefilter.getRequiredLiteral(pattern.pattern(), pattern.flags());
 		}
 
 		public void dispose() {
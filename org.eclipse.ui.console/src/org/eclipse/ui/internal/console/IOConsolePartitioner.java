@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2018 IBM Corporation and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -16,7 +16,10 @@ import java.util.Iterator;
 import java.util.List;
 
 import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.ISafeRunnable;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.ListenerList;
+import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.text.BadLocationException;
@@ -29,6 +32,7 @@ import org.eclipse.jface.text.Region;
 import org.eclipse.swt.custom.StyleRange;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.console.ConsolePlugin;
+import org.eclipse.ui.console.IConsoleBacklogListener;
 import org.eclipse.ui.console.IConsoleDocumentPartitioner;
 import org.eclipse.ui.console.IOConsole;
 import org.eclipse.ui.console.IOConsoleInputStream;
@@ -53,14 +57,23 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 	 * A list of PendingPartitions to be appended by the updateJob
 	 */
 	private ArrayList<PendingPartition> updatePartitions;
+	/**
+	 * Document updates that have been assembled by the queueJob and are
+	 * waiting to be applied to the document by the updateJob.
+	 */
+	private ArrayList<PreparedUpdate> preparedUpdates;
 	/**
 	 * The last partition appended to the document
 	 */
 	private IOConsolePartition lastPartition;
 	/**
-	 * Job that appends pending partitions to the document.
+	 * Job that assembles pending partitions into document updates.
 	 */
 	private QueueProcessingJob queueJob;
+	/**
+	 * Job that applies assembled updates to the document in the UI thread.
+	 */
+	private DocumentUpdateJob updateJob;
 	/**
 	 * The input stream attached to this document.
 	 */
@@ -99,6 +112,24 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 
 	private int fBuffer;
 
+	/**
+	 * Listeners notified when the number of pending characters crosses the
+	 * backlog watermarks. Also serializes notifications.
+	 */
+	private final ListenerList<IConsoleBacklogListener> backlogListeners = new ListenerList<>();
+	private int backlogLowWaterMark = 20000;
+	private int backlogHighWaterMark = 100000;
+	/**
+	 * Whether the pending characters exceeded the high backlog watermark and
+	 * have not yet dropped to the low one. Changed while holding the
+	 * pendingPartitions lock.
+	 */
+	private volatile boolean backlogSaturated;
+	/**
+	 * The state last reported to backlog listeners, guarded by backlogListeners
+	 */
+	private boolean backlogReported;
+
 	public IOConsolePartitioner(IOConsoleInputStream inputStream, IOConsole console) {
 		this.inputStream = inputStream;
 		this.console = console;
@@ -120,11 +151,15 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 		lld = document.getLegalLineDelimiters();
 		partitions = new ArrayList<IOConsolePartition>();
 		pendingPartitions = new ArrayList<PendingPartition>();
+		preparedUpdates = new ArrayList<PreparedUpdate>();
 		inputPartitions = new ArrayList<IOConsolePartition>();
 		queueJob = new QueueProcessingJob();
 		queueJob.setSystem(true);
 		queueJob.setPriority(Job.INTERACTIVE);
-		queueJob.setRule(console.getSchedulingRule());
+		updateJob = new DocumentUpdateJob();
+		updateJob.setSystem(true);
+		updateJob.setPriority(Job.INTERACTIVE);
+		updateJob.setRule(console.getSchedulingRule());
 		connected = true;
 	}
 
@@ -136,6 +171,72 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 		return lowWaterMark;
 	}
 
+	public void setBacklogWatermarks(int low, int high) {
+		boolean changed;
+		synchronized (pendingPartitions) {
+			backlogLowWaterMark = low;
+			backlogHighWaterMark = high;
+			changed = updateBacklog();
+		}
+		if (changed) {
+			fireBacklogChanged();
+		}
+	}
+
+	public void addBacklogListener(IConsoleBacklogListener listener) {
+		backlogListeners.add(listener);
+	}
+
+	public void removeBacklogListener(IConsoleBacklogListener listener) {
+		backlogListeners.remove(listener);
+	}
+
+	/**
+	 * Updates whether the backlog is saturated. Must be called while holding
+	 * the pendingPartitions lock.
+	 *
+	 * @return whether the state changed
+	 */
+	private boolean updateBacklog() {
+		if (!backlogSaturated && fBuffer > backlogHighWaterMark) {
+			backlogSaturated = true;
+			return true;
+		}
+		if (backlogSaturated && fBuffer <= backlogLowWaterMark) {
+			backlogSaturated = false;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Notifies backlog listeners of the current backlog state, unless it has
+	 * already been reported. Must not be called while holding the
+	 * pendingPartitions lock, unless in the UI thread.
+	 */
+	private void fireBacklogChanged() {
+		synchronized (backlogListeners) {
+			final boolean saturated = backlogSaturated;
+			if (saturated == backlogReported) {
+				return;
+			}
+			backlogReported = saturated;
+			for (final IConsoleBacklogListener listener : backlogListeners) {
+				SafeRunner.run(new ISafeRunnable() {
+					@Override
+					public void run() throws Exception {
+						listener.backlogChanged(console, saturated);
+					}
+
+					@Override
+					public void handleException(Throwable exception) {
+						ConsolePlugin.log(exception);
+					}
+				});
+			}
+		}
+	}
+
 	public void setWaterMarks(int low, int high) {
 		lowWaterMark = low;
 		highWaterMark = high;
@@ -173,6 +274,13 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 			} catch (IOException e) {
 			}
 		}
+		// pending output is dropped, release producers waiting for it
+		synchronized (pendingPartitions) {
+			fBuffer = 0;
+			backlogSaturated = false;
+			pendingPartitions.notifyAll();
+		}
+		fireBacklogChanged();
 	}
 
 	/*
@@ -279,13 +387,9 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 	 */
 	@Override
 	public ITypedRegion getPartition(int offset) {
-		for (int i = 0; i < partitions.size(); i++) {
-			ITypedRegion partition = partitions.get(i);
-			int start = partition.getOffset();
-			int end = start + partition.getLength();
-			if (offset >= start && offset < end) {
-				return partition;
-			}
+		int index = findPartitionIndex(offset);
+		if (index >= 0) {
+			return partitions.get(index);
 		}
 
 		if (lastPartition == null)  {
@@ -299,6 +403,41 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 		return lastPartition;
 	}
 
+	/**
+	 * Returns the index of the partition containing the given offset, or -1
+	 * if there is none. Partitions are kept sorted by offset, so the lookup is
+	 * a binary search.
+	 *
+	 * @param offset document offset
+	 * @return index of the partition containing the offset or -1
+	 */
+	private int findPartitionIndex(int offset) {
+		// find the last partition starting at or before the offset
+		int left = 0;
+		int right = partitions.size() - 1;
+		int floor = -1;
+		while (left <= right) {
+			int mid = (left + right) >>> 1;
+			if (partitions.get(mid).getOffset() <= offset) {
+				floor = mid;
+				left = mid + 1;
+			} else {
+				right = mid - 1;
+			}
+		}
+		// an empty input partition may share its offset with its predecessor's end
+		for (int i = floor; i >= 0 && i >= floor - 1; i--) {
+			IOConsolePartition partition = partitions.get(i);
+			if (offset < partition.getOffset() + partition.getLength()) {
+				return i;
+			}
+			if (partition.getLength() > 0) {
+				break;
+			}
+		}
+		return -1;
+	}
+
 	/**
 	 * Enforces the buffer size.
 	 * When the number of lines in the document exceeds the high water mark, the
@@ -455,12 +594,14 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 	 * less frequently and update the document with a greater amount of data each time
 	 * the job is run
 	 * @param stream The stream that was written to.
-	 * @param s The string that should be appended to the document.
+	 * @param s The text that should be appended to the document, copied before
+	 *            this method returns so callers may reuse it.
 	 */
-	public void streamAppended(IOConsoleOutputStream stream, String s) throws IOException {
+	public void streamAppended(IOConsoleOutputStream stream, CharSequence s) throws IOException {
 		if (document == null) {
 			throw new IOException("Document is closed"); //$NON-NLS-1$
 		}
+		boolean backlogChanged;
 		synchronized(pendingPartitions) {
 			PendingPartition last = pendingPartitions.size() > 0 ? pendingPartitions.get(pendingPartitions.size()-1) : null;
 			if (last != null && last.stream == stream) {
@@ -473,7 +614,13 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 					queueJob.schedule(50);
 				}
 			}
+			backlogChanged = updateBacklog();
+		}
+		if (backlogChanged) {
+			fireBacklogChanged();
+		}
 
+		synchronized(pendingPartitions) {
 			if (fBuffer > 160000) {
 				if(Display.getCurrent() == null){
 					try {
@@ -495,27 +642,48 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 	 * Holds data until updateJob can be run and the document can be updated.
 	 */
 	private class PendingPartition {
-		StringBuffer text = new StringBuffer(8192);
+		// only accessed while holding the pendingPartitions lock
+		StringBuilder text;
 		IOConsoleOutputStream stream;
 
-		PendingPartition(IOConsoleOutputStream stream, String text) {
+		PendingPartition(IOConsoleOutputStream stream, CharSequence text) {
 			this.stream = stream;
+			// streams that alternate (e.g. out and err) produce many small
+			// partitions, so start small and let the buffer grow
+			this.text = new StringBuilder(text == null ? 0 : Math.max(256, text.length()));
 			if (text != null) {
 				append(text);
 			}
 		}
 
-		void append(String moreText) {
+		void append(CharSequence moreText) {
 			text.append(moreText);
 			fBuffer += moreText.length();
 		}
 	}
 
 	/**
-	 * Updates the document. Will append everything that is available before
-	 * finishing.
+	 * A batch of pending partitions together with their concatenated text,
+	 * ready to be appended to the document.
 	 */
-	private class QueueProcessingJob extends UIJob {
+	private class PreparedUpdate {
+		ArrayList<PendingPartition> partitions;
+		String text;
+		boolean consoleClosed;
+
+		PreparedUpdate(ArrayList<PendingPartition> partitions, String text, boolean consoleClosed) {
+			this.partitions = partitions;
+			this.text = text;
+			this.consoleClosed = consoleClosed;
+		}
+	}
+
+	/**
+	 * Assembles pending partitions into document updates. Runs in the
+	 * background so that only the final document replace happens in the UI
+	 * thread. Will assemble everything that is available before finishing.
+	 */
+	private class QueueProcessingJob extends Job {
 
 		QueueProcessingJob() {
 			super("IOConsole Updater"); //$NON-NLS-1$
@@ -526,8 +694,10 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 		 * @see org.eclipse.core.internal.jobs.InternalJob#run(org.eclipse.core.runtime.IProgressMonitor)
 		 */
 		@Override
-		public IStatus runInUIThread(IProgressMonitor monitor) {
-			processQueue();
+		protected IStatus run(IProgressMonitor monitor) {
+			if (prepareUpdate()) {
+				updateJob.schedule();
+			}
 			return Status.OK_STATUS;
 		}
 
@@ -545,17 +715,52 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 		}
 	}
 
+	/**
+	 * Appends assembled updates to the document.
+	 */
+	private class DocumentUpdateJob extends UIJob {
+
+		DocumentUpdateJob() {
+			super("IOConsole Document Updater"); //$NON-NLS-1$
+		}
+
+		@Override
+		public IStatus runInUIThread(IProgressMonitor monitor) {
+			applyUpdates();
+			return Status.OK_STATUS;
+		}
+
+		@Override
+		public boolean shouldRun() {
+			return connected && preparedUpdates != null && preparedUpdates.size() > 0;
+		}
+	}
+
+	/**
+	 * Assembles and applies all pending partitions. Must be called in the UI
+	 * thread.
+	 */
 	void processQueue() {
-		synchronized (overflowLock) {
-			ArrayList<PendingPartition> pendingCopy = new ArrayList<PendingPartition>();
-			StringBuffer buffer = null;
-			boolean consoleClosed = false;
-			synchronized(pendingPartitions) {
-				pendingCopy.addAll(pendingPartitions);
-				pendingPartitions.clear();
-				fBuffer = 0;
-				pendingPartitions.notifyAll();
+		prepareUpdate();
+		applyUpdates();
+	}
+
+	/**
+	 * Moves all pending partitions into a prepared update, concatenating their
+	 * text.
+	 *
+	 * @return whether an update was prepared
+	 */
+	private boolean prepareUpdate() {
+		// assembled while holding the lock, so that updates are prepared in
+		// the order the output was written
+		synchronized(pendingPartitions) {
+			if (pendingPartitions.isEmpty()) {
+				return false;
 			}
+			ArrayList<PendingPartition> pendingCopy = new ArrayList<PendingPartition>(pendingPartitions);
+			pendingPartitions.clear();
+			boolean consoleClosed = false;
 			// determine buffer size
 			int size = 0;
 			for (PendingPartition pp : pendingCopy) {
@@ -563,7 +768,7 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 					size+= pp.text.length();
 				}
 			}
-			buffer = new StringBuffer(size);
+			StringBuilder buffer = new StringBuilder(size);
 			for (PendingPartition pp : pendingCopy) {
 				if (pp != consoleClosedPartition) {
 					buffer.append(pp.text);
@@ -571,25 +776,56 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 					consoleClosed = true;
 				}
 			}
-			if (connected) {
-				setUpdateInProgress(true);
-				updatePartitions = pendingCopy;
-				firstOffset = document.getLength();
-				try {
-					if (buffer != null) {
-						document.replace(firstOffset, 0, buffer.toString());
+			synchronized (preparedUpdates) {
+				preparedUpdates.add(new PreparedUpdate(pendingCopy, buffer.toString(), consoleClosed));
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Appends all prepared updates to the document and releases writers
+	 * waiting for the pending output to shrink. Must be called in the UI
+	 * thread.
+	 */
+	private void applyUpdates() {
+		synchronized (overflowLock) {
+			ArrayList<PreparedUpdate> updates;
+			synchronized (preparedUpdates) {
+				updates = new ArrayList<PreparedUpdate>(preparedUpdates);
+				preparedUpdates.clear();
+			}
+			int applied = 0;
+			boolean consoleClosed = false;
+			for (PreparedUpdate update : updates) {
+				applied += update.text.length();
+				consoleClosed |= update.consoleClosed;
+				if (connected) {
+					setUpdateInProgress(true);
+					updatePartitions = update.partitions;
+					firstOffset = document.getLength();
+					try {
+						document.replace(firstOffset, 0, update.text);
+					} catch (BadLocationException e) {
 					}
-				} catch (BadLocationException e) {
+					updatePartitions = null;
+					setUpdateInProgress(false);
 				}
-				updatePartitions = null;
-				setUpdateInProgress(false);
+			}
+			boolean backlogChanged;
+			synchronized (pendingPartitions) {
+				fBuffer = Math.max(0, fBuffer - applied);
+				backlogChanged = updateBacklog();
+				pendingPartitions.notifyAll();
+			}
+			if (backlogChanged) {
+				fireBacklogChanged();
 			}
 			if (consoleClosed) {
 				console.partitionerFinished();
 			}
 			checkBufferSize();
 		}
-
 	}
 
 	/**
@@ -647,6 +883,10 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 
 							// set the new length of the first partition
 							IOConsolePartition partition = (IOConsolePartition) getPartition(cutOffset);
+							int index = findPartitionIndex(cutOffset);
+							if (index < 0) {
+								index = Math.max(0, partitions.indexOf(partition));
+							}
 							partition.setLength(partition.getOffset() + partition.getLength() - cutOffset);
 
 							setUpdateInProgress(true);
@@ -654,10 +894,7 @@ public class IOConsolePartitioner implements IConsoleDocumentPartitioner, IDocum
 							setUpdateInProgress(false);
 
 							//remove partitions and reset Partition offsets
-							int index = partitions.indexOf(partition);
-							for (int i = 0; i < index; i++) {
-								partitions.remove(0);
-							}
+							partitions.subList(0, index).clear();
 
 							int offset = 0;
 							for (IOConsolePartition p : partitions) {
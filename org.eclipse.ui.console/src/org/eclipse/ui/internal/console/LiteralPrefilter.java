@@ -0,0 +1,293 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.console;
+
+import java.util.regex.Pattern;
+
+/**
+ * Derives a literal string that every match of a regular expression must
+ * contain. Searching for the literal with {@link String#indexOf(String, int)}
+ * is much cheaper than running the regular expression, so text that does not
+ * contain the literal can be skipped.
+ * <p>
+ * The analysis is conservative: only literal characters outside of groups and
+ * character classes are considered, and expressions using alternation, inline
+ * flags, quoting or case-insensitive/comment modes yield no literal.
+ * </p>
+ */
+public class LiteralPrefilter {
+
+	/**
+	 * Literals shorter than this are not worth a separate scan
+	 */
+	private static final int MIN_LITERAL_LENGTH = 2;
+
+	/**
+	 * Characters with a special meaning outside of character classes
+	 */
+	private static final String META = "\\^$.|?*+()[]{}"; //$NON-NLS-1$
+
+	/**
+	 * Returns the longest literal that every match of the given expression
+	 * must contain, or <code>null</code> if none could be determined.
+	 *
+	 * @param regex regular expression
+	 * @param flags compiler flags of the expression
+	 * @return required literal or <code>null</code>
+	 */
+	public static String getRequiredLiteral(String regex, int flags) {
+		if ((flags & Pattern.LITERAL) != 0) {
+			return regex.length() >= MIN_LITERAL_LENGTH && (flags & Pattern.CASE_INSENSITIVE) == 0 ? regex : null;
+		}
+		if ((flags & (Pattern.CASE_INSENSITIVE | Pattern.COMMENTS | Pattern.CANON_EQ)) != 0) {
+			return null;
+		}
+		String best = null;
+		StringBuilder run = new StringBuilder();
+		int depth = 0;
+		int length = regex.length();
+		for (int i = 0; i < length; i++) {
+			char c = regex.charAt(i);
+			if (c == '\\') {
+				if (i + 1 >= length) {
+					return null;
+				}
+				char next = regex.charAt(++i);
+				if (next == 'Q') {
+					// quoted sections are not analyzed
+					return null;
+				}
+				if (depth == 0 && META.indexOf(next) >= 0) {
+					best = appendLiteral(regex, i + 1, run, next, best);
+				} else {
+					// character class escape, back reference or escape inside a group
+					best = endRun(run, best);
+					i = skipEscape(regex, i);
+					if (i < 0) {
+						return null;
+					}
+				}
+				continue;
+			}
+			if (c == '[') {
+				best = endRun(run, best);
+				i = skipClass(regex, i);
+				if (i < 0) {
+					return null;
+				}
+				continue;
+			}
+			if (c == '(') {
+				if (i + 1 < length && regex.charAt(i + 1) == '?' && i + 2 < length && isFlag(regex.charAt(i + 2))) {
+					// inline flags may change how literals match
+					return null;
+				}
+				best = endRun(run, best);
+				depth++;
+				continue;
+			}
+			if (c == ')') {
+				depth--;
+				continue;
+			}
+			if (c == '|') {
+				if (depth == 0) {
+					return null;
+				}
+				continue;
+			}
+			if (depth > 0) {
+				continue;
+			}
+			if (c == '{') {
+				// the digits and commas of a bounded quantifier are not literals
+				best = endRun(run, best);
+				i = skipQuantifier(regex, i);
+				if (i < 0) {
+					return null;
+				}
+				continue;
+			}
+			if (META.indexOf(c) >= 0) {
+				// anchors, wildcards and quantifiers of groups or classes
+				best = endRun(run, best);
+				continue;
+			}
+			best = appendLiteral(regex, i + 1, run, c, best);
+		}
+		return endRun(run, best);
+	}
+
+	/**
+	 * Appends a literal character to the current run, taking a following
+	 * quantifier into account.
+	 *
+	 * @param regex the expression
+	 * @param next index following the character
+	 * @param run the current run of literal characters
+	 * @param c the literal character
+	 * @param best best literal found so far
+	 * @return best literal found so far
+	 */
+	private static String appendLiteral(String regex, int next, StringBuilder run, char c, String best) {
+		char quantifier = next < regex.length() ? regex.charAt(next) : 0;
+		switch (quantifier) {
+			case '?':
+			case '*':
+			case '{':
+				// the character is optional or repeated an unknown number of times
+				return endRun(run, best);
+			case '+':
+				// the character is required, but what follows is not adjacent
+				run.append(c);
+				return endRun(run, best);
+			default:
+				run.append(c);
+				return best;
+		}
+	}
+
+	/**
+	 * Ends the current run of literal characters.
+	 *
+	 * @param run the current run, cleared on return
+	 * @param best best literal found so far
+	 * @return the longer of the run and the best literal found so far
+	 */
+	private static String endRun(StringBuilder run, String best) {
+		if (run.length() >= MIN_LITERAL_LENGTH && (best == null || run.length() > best.length())) {
+			best = run.toString();
+		}
+		run.setLength(0);
+		return best;
+	}
+
+	/**
+	 * Returns the index of the last character of the escape sequence whose
+	 * first character after the backslash is at the given index, or -1 if the
+	 * sequence is not terminated. Escapes such as <code>\p{Alpha}</code>,
+	 * <code>\x41</code> or <code>\k&lt;name&gt;</code> span several
+	 * characters that are not literals.
+	 *
+	 * @param regex the expression
+	 * @param start index of the character following the backslash
+	 * @return index of the last character of the escape or -1
+	 */
+	private static int skipEscape(String regex, int start) {
+		int length = regex.length();
+		char c = regex.charAt(start);
+		boolean braced = start + 1 < length && regex.charAt(start + 1) == '{';
+		switch (c) {
+			case 'p':
+			case 'P':
+				return braced ? regex.indexOf('}', start) : bounded(start + 1, length);
+			case 'x':
+				return braced ? regex.indexOf('}', start) : bounded(start + 2, length);
+			case 'N':
+			case 'b':
+				return braced ? regex.indexOf('}', start) : start;
+			case 'u':
+				return bounded(start + 4, length);
+			case 'c':
+				return bounded(start + 1, length);
+			case 'k':
+				return start + 1 < length && regex.charAt(start + 1) == '<' ? regex.indexOf('>', start) : -1;
+			case '0':
+				int octal = start;
+				while (octal + 1 < length && octal - start < 3 && regex.charAt(octal + 1) >= '0' && regex.charAt(octal + 1) <= '7') {
+					octal++;
+				}
+				return octal;
+			default:
+				if (c >= '1' && c <= '9') {
+					// back references consume all following digits
+					int digit = start;
+					while (digit + 1 < length && Character.isDigit(regex.charAt(digit + 1))) {
+						digit++;
+					}
+					return digit;
+				}
+				return start;
+		}
+	}
+
+	/**
+	 * Returns the index of the brace closing the bounded quantifier starting at
+	 * the given index, or -1 if the braces do not enclose a quantifier of the
+	 * form <code>{n}</code>, <code>{n,}</code> or <code>{n,m}</code>.
+	 *
+	 * @param regex the expression
+	 * @param start index of the opening brace
+	 * @return index of the closing brace or -1
+	 */
+	private static int skipQuantifier(String regex, int start) {
+		int close = regex.indexOf('}', start);
+		if (close < 0) {
+			return -1;
+		}
+		for (int i = start + 1; i < close; i++) {
+			char c = regex.charAt(i);
+			if (c != ',' && (c < '0' || c > '9')) {
+				return -1;
+			}
+		}
+		return close;
+	}
+
+	private static int bounded(int index, int length) {
+		return index < length ? index : -1;
+	}
+
+	/**
+	 * Returns whether the given character may start the flags of an inline
+	 * flag group such as <code>(?i)</code> or <code>(?-s:...)</code>.
+	 *
+	 * @param c character following <code>(?</code>
+	 * @return whether the group sets or clears flags
+	 */
+	private static boolean isFlag(char c) {
+		return c == '-' || Character.isLetter(c);
+	}
+
+	/**
+	 * Returns the index of the bracket closing the character class starting at
+	 * the given index, or -1 if it is not closed.
+	 *
+	 * @param regex the expression
+	 * @param start index of the opening bracket
+	 * @return index of the closing bracket or -1
+	 */
+	private static int skipClass(String regex, int start) {
+		int depth = 0;
+		int i = start;
+		// a closing bracket directly after the opening bracket (or negation) is literal
+		if (i + 1 < regex.length() && regex.charAt(i + 1) == '^') {
+			i++;
+		}
+		if (i + 1 < regex.length() && regex.charAt(i + 1) == ']') {
+			i++;
+		}
+		for (; i < regex.length(); i++) {
+			char c = regex.charAt(i);
+			if (c == '\\') {
+				i++;
+			} else if (c == '[') {
+				depth++;
+			} else if (c == ']') {
+				depth--;
+				if (depth == 0) {
+					return i;
+				}
+			}
+		}
+		return -1;
+	}
+}
@@ -0,0 +1,287 @@
+/*******************************************************************************
+ * Copyright (c) 2018 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.console;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.util.Arrays;
+
+import org.eclipse.jface.text.ITextStore;
+import org.eclipse.ui.console.ConsolePlugin;
+
+/**
+ * A text store keeping its characters in a memory-mapped temporary file
+ * rather than on the heap.
+ * <p>
+ * The file is mapped in fixed size segments as the text grows. Appending and
+ * replacing text near the end are cheap; text removed from the beginning (when
+ * a console is trimmed) is skipped rather than moved, and reclaimed once it
+ * exceeds the remaining text.
+ * </p>
+ * <p>
+ * Not thread safe, clients must synchronize access (as
+ * {@link ConsoleDocument} does).
+ * </p>
+ */
+public class MappedTextStore implements ITextStore {
+
+	/**
+	 * Number of characters per mapped segment, as a power of two
+	 */
+	private static final int SEGMENT_SHIFT = 22;
+
+	private static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+
+	private static final int SEGMENT_MASK = SEGMENT_SIZE - 1;
+
+	/**
+	 * Number of characters copied at a time when moving text within the file
+	 */
+	private static final int MOVE_CHUNK = 8192;
+
+	private final File fFile;
+
+	private RandomAccessFile fAccess;
+
+	private FileChannel fChannel;
+
+	/**
+	 * Mapped segments of the file
+	 */
+	private CharBuffer[] fSegments = new CharBuffer[0];
+
+	/**
+	 * Position in the file of the first character of the text
+	 */
+	private long fStart = 0;
+
+	/**
+	 * Number of characters in the store
+	 */
+	private int fLength = 0;
+
+	/**
+	 * Creates a store backed by a new temporary file.
+	 *
+	 * @throws IOException if the file cannot be created
+	 */
+	public MappedTextStore() throws IOException {
+		fFile = File.createTempFile("console", ".txt"); //$NON-NLS-1$ //$NON-NLS-2$
+		fFile.deleteOnExit();
+		fAccess = new RandomAccessFile(fFile, "rw"); //$NON-NLS-1$
+		fChannel = fAccess.getChannel();
+	}
+
+	@Override
+	public char get(int offset) {
+		long position = fStart + offset;
+		return fSegments[(int) (position >>> SEGMENT_SHIFT)].get((int) (position & SEGMENT_MASK));
+	}
+
+	@Override
+	public String get(int offset, int length) {
+		char[] chars = new char[length];
+		read(fStart + offset, chars, length);
+		return new String(chars);
+	}
+
+	@Override
+	public int getLength() {
+		return fLength;
+	}
+
+	@Override
+	public void replace(int offset, int length, String text) {
+		if (text == null) {
+			text = ""; //$NON-NLS-1$
+		}
+		if (offset == 0 && length == fLength) {
+			set(text);
+			return;
+		}
+		if (offset == 0 && text.isEmpty()) {
+			// the console was trimmed, skip the removed text
+			fStart += length;
+			fLength -= length;
+			if (fStart > fLength) {
+				compact();
+			}
+			return;
+		}
+		int tailOffset = offset + length;
+		int tailLength = fLength - tailOffset;
+		if (tailLength > 0 && text.length() != length) {
+			move(fStart + tailOffset, fStart + offset + text.length(), tailLength);
+		}
+		write(offset, text);
+		fLength += text.length() - length;
+	}
+
+	@Override
+	public void set(String text) {
+		if (text == null) {
+			text = ""; //$NON-NLS-1$
+		}
+		fStart = 0;
+		write(0, text);
+		fLength = text.length();
+	}
+
+	/**
+	 * Moves the text to the beginning of the file.
+	 */
+	private void compact() {
+		move(fStart, 0, fLength);
+		fStart = 0;
+	}
+
+	/**
+	 * Moves characters within the file, a chunk at a time so that the text
+	 * is never copied to the heap as a whole. The ranges may overlap.
+	 *
+	 * @param from position in the file of the first character to move
+	 * @param to position in the file to move the first character to
+	 * @param length number of characters to move
+	 */
+	private void move(long from, long to, int length) {
+		ensureCapacity(to + length);
+		char[] chunk = new char[Math.min(length, MOVE_CHUNK)];
+		if (to < from) {
+			// moving towards the start, copy the first chunk first
+			for (int moved = 0; moved < length;) {
+				int count = Math.min(chunk.length, length - moved);
+				read(from + moved, chunk, count);
+				write(to + moved, chunk, count);
+				moved += count;
+			}
+		} else {
+			// moving towards the end, copy the last chunk first
+			for (int remaining = length; remaining > 0;) {
+				int count = Math.min(chunk.length, remaining);
+				remaining -= count;
+				read(from + remaining, chunk, count);
+				write(to + remaining, chunk, count);
+			}
+		}
+	}
+
+	/**
+	 * Reads characters from the file.
+	 *
+	 * @param position position in the file of the first character
+	 * @param chars array to read the characters into
+	 * @param length number of characters to read
+	 */
+	private void read(long position, char[] chars, int length) {
+		int copied = 0;
+		while (copied < length) {
+			int index = (int) (position & SEGMENT_MASK);
+			int count = Math.min(length - copied, SEGMENT_SIZE - index);
+			CharBuffer segment = fSegments[(int) (position >>> SEGMENT_SHIFT)].duplicate();
+			segment.position(index);
+			segment.get(chars, copied, count);
+			copied += count;
+			position += count;
+		}
+	}
+
+	/**
+	 * Writes characters to the file, which must be large enough.
+	 *
+	 * @param position position in the file of the first character
+	 * @param chars characters to write
+	 * @param length number of characters to write
+	 */
+	private void write(long position, char[] chars, int length) {
+		int written = 0;
+		while (written < length) {
+			int index = (int) (position & SEGMENT_MASK);
+			int count = Math.min(length - written, SEGMENT_SIZE - index);
+			CharBuffer segment = fSegments[(int) (position >>> SEGMENT_SHIFT)].duplicate();
+			segment.position(index);
+			segment.put(chars, written, count);
+			written += count;
+			position += count;
+		}
+	}
+
+	/**
+	 * Writes the given text at the given offset, growing the file as required.
+	 *
+	 * @param offset offset relative to the start of the text
+	 * @param text text to write
+	 */
+	private void write(int offset, String text) {
+		long position = fStart + offset;
+		ensureCapacity(position + text.length());
+		int written = 0;
+		while (written < text.length()) {
+			int index = (int) (position & SEGMENT_MASK);
+			int count = Math.min(text.length() - written, SEGMENT_SIZE - index);
+			CharBuffer segment = fSegments[(int) (position >>> SEGMENT_SHIFT)].duplicate();
+			segment.position(index);
+			segment.put(text, written, written + count);
+			written += count;
+			position += count;
+		}
+	}
+
+	/**
+	 * Maps enough segments to hold the given number of characters.
+	 *
+	 * @param capacity number of characters from the start of the file
+	 */
+	private void ensureCapacity(long capacity) {
+		int required = (int) ((capacity + SEGMENT_MASK) >>> SEGMENT_SHIFT);
+		if (required <= fSegments.length) {
+			return;
+		}
+		if (fChannel == null) {
+			throw new IllegalStateException("Console storage has been disposed"); //$NON-NLS-1$
+		}
+		CharBuffer[] segments = Arrays.copyOf(fSegments, required);
+		try {
+			for (int i = fSegments.length; i < required; i++) {
+				// characters are stored as UTF-16, two bytes each
+				segments[i] = fChannel.map(MapMode.READ_WRITE, (long) i * SEGMENT_SIZE * 2, SEGMENT_SIZE * 2L).asCharBuffer();
+			}
+		} catch (IOException e) {
+			throw new IllegalStateException("Unable to extend console storage " + fFile, e); //$NON-NLS-1$
+		}
+		fSegments = segments;
+	}
+
+	/**
+	 * Releases the file backing this store. The store must not be used
+	 * afterwards.
+	 */
+	public void dispose() {
+		fSegments = new CharBuffer[0];
+		fStart = 0;
+		fLength = 0;
+		try {
+			if (fAccess != null) {
+				fAccess.close();
+			}
+		} catch (IOException e) {
+			ConsolePlugin.log(e);
+		}
+		fAccess = null;
+		fChannel = null;
+		// mapped buffers are only released when collected, which may keep
+		// the file from being deleted until exit on some platforms
+		fFile.delete();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2017 Andreas Loth and others.
+ * Copyright (c) 2017, 2018 Andreas Loth and others.
  * All rights reserved. This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License v1.0
  * which accompanies this distribution, and is available at
@@ -43,7 +43,9 @@ public class StreamDecoder {
 
 	private void consume(StringBuilder consumer) {
 		this.outputBuffer.flip();
-		consumer.append(this.outputBuffer);
+		// bulk copy from the backing array, appending the buffer as a
+		// CharSequence would copy char by char
+		consumer.append(this.outputBuffer.array(), this.outputBuffer.arrayOffset() + this.outputBuffer.position(), this.outputBuffer.remaining());
 		this.outputBuffer.clear();
 	}
 